@@ -0,0 +1,34 @@
+// k6 压测脚本：客户端凭证授权 + 令牌内省
+// 用法：k6 run -e BASE_URL=http://localhost:9999 -e CLIENT_ID=client -e CLIENT_SECRET=secret docs/loadtest/token-endpoint.js
+import http from 'k6/http';
+import encoding from 'k6/encoding';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9999';
+const AUTH = 'Basic ' + encoding.b64encode(`${__ENV.CLIENT_ID}:${__ENV.CLIENT_SECRET}`);
+const HEADERS = { Authorization: AUTH, 'Content-Type': 'application/x-www-form-urlencoded' };
+
+export const options = {
+    scenarios: {
+        token: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: 10000 },
+                { duration: '5m', target: 10000 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const token = http.post(`${BASE_URL}/oauth2/token`, 'grant_type=client_credentials', { headers: HEADERS, tags: { endpoint: 'token' } });
+    check(token, { 'token 200': (r) => r.status === 200, 'token not 5xx': (r) => r.status < 500 });
+    if (token.status !== 200) {
+        return;
+    }
+    const introspect = http.post(`${BASE_URL}/oauth2/introspect`, `token=${token.json('access_token')}`, { headers: HEADERS, tags: { endpoint: 'introspect' } });
+    check(introspect, { 'introspect 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,31 @@
+package com.zhouzhou.authforge.bulkhead;
+
+/**
+ * 当前线程所属的端点类别对应的连接池
+ *
+ * 由 {@link BulkheadFilter} 在请求开始时设置、结束时清除，
+ * {@link BulkheadRoutingDataSource} 据此选择连接池；未设置时（定时任务、异步线程）使用主连接池。
+ */
+public final class BulkheadContext {
+
+    public static final String PRIMARY = "primary";
+    public static final String SECONDARY = "secondary";
+
+    private static final ThreadLocal<String> POOL = new ThreadLocal<>();
+
+    private BulkheadContext() {
+    }
+
+    public static String currentPool() {
+        String pool = POOL.get();
+        return pool != null ? pool : PRIMARY;
+    }
+
+    static void setPool(String pool) {
+        POOL.set(pool);
+    }
+
+    static void clear() {
+        POOL.remove();
+    }
+}
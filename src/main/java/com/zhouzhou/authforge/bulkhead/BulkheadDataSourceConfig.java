@@ -0,0 +1,62 @@
+package com.zhouzhou.authforge.bulkhead;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zhouzhou.authforge.config.BulkheadConfig;
+import com.zhouzhou.authforge.config.ConnectionGateConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 连接池分区配置
+ *
+ * 主连接池沿用 spring.datasource 和 spring.datasource.hikari 配置，
+ * 低优先级类别（注册、管理、元数据）使用一个连接数很少的独立连接池，
+ * 即使被占满也不会影响令牌和内省端点获取连接。两个连接池都注册为 Bean，由 Spring Boot 绑定 Hikari 指标。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "auth.bulkhead.secondary-pool", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("authforge-primary");
+        return pool;
+    }
+
+    @Bean
+    public HikariDataSource secondaryPool(DataSourceProperties properties, BulkheadConfig bulkheadConfig) {
+        BulkheadConfig.SecondaryPool config = bulkheadConfig.getSecondaryPool();
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("authforge-secondary");
+        pool.setMaximumPoolSize(config.getMaximumPoolSize());
+        pool.setMinimumIdle(1);
+        pool.setConnectionTimeout(config.getConnectionTimeout().toMillis());
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryPool") HikariDataSource primaryPool,
+                                 @Qualifier("secondaryPool") HikariDataSource secondaryPool,
+                                 ConnectionGateConfig gateConfig) {
+        DataSource primary = gateConfig.isEnabled() ? ConnectionGatePostProcessor.gate(primaryPool, gateConfig) : primaryPool;
+        DataSource secondary = gateConfig.isEnabled() ? ConnectionGatePostProcessor.gate(secondaryPool, gateConfig) : secondaryPool;
+        BulkheadRoutingDataSource dataSource = new BulkheadRoutingDataSource();
+        dataSource.setTargetDataSources(Map.of(
+                BulkheadContext.PRIMARY, primary,
+                BulkheadContext.SECONDARY, secondary));
+        dataSource.setDefaultTargetDataSource(primary);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
@@ -0,0 +1,134 @@
+package com.zhouzhou.authforge.bulkhead;
+
+import com.zhouzhou.authforge.config.BulkheadConfig;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端点隔离过滤器
+ *
+ * 按路径确定请求所属的端点类别，在该类别的信号量上占用名额，
+ * 并把类别对应的连接池写入 {@link BulkheadContext}。名额不足时返回 503 和 Retry-After。
+ * 信号量同时适用于平台线程和虚拟线程，不需要为每个类别单独维护线程池。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final byte[] BODY = "{\"error\":\"temporarily_unavailable\",\"error_description\":\"Endpoint is busy, please retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final BulkheadConfig config;
+    private final OAuth2ErrorLogger errorLogger;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+
+    public BulkheadFilter(BulkheadConfig config, OAuth2ErrorLogger errorLogger, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.errorLogger = errorLogger;
+        boolean secondaryPool = config.getSecondaryPool().isEnabled();
+        for (Map.Entry<String, BulkheadConfig.EndpointClass> entry : config.getClasses().entrySet()) {
+            BulkheadConfig.EndpointClass endpointClass = entry.getValue();
+            String pool = secondaryPool && BulkheadContext.SECONDARY.equals(endpointClass.getPool())
+                    ? BulkheadContext.SECONDARY : BulkheadContext.PRIMARY;
+            Bulkhead bulkhead = new Bulkhead(
+                    entry.getKey(),
+                    List.copyOf(endpointClass.getPaths()),
+                    new Semaphore(endpointClass.getMaxConcurrent()),
+                    endpointClass.getMaxWait().toNanos(),
+                    pool,
+                    Counter.builder("authforge.bulkhead.rejected")
+                            .description("Requests rejected because the endpoint class was saturated")
+                            .tag("class", entry.getKey())
+                            .register(meterRegistry));
+            Gauge.builder("authforge.bulkhead.available", bulkhead.permits(), Semaphore::availablePermits)
+                    .description("Free permits in the endpoint class bulkhead")
+                    .tag("class", entry.getKey())
+                    .register(meterRegistry);
+            bulkheads.add(bulkhead);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || bulkheads.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = classify(request.getRequestURI().substring(request.getContextPath().length()));
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.permits().tryAcquire(bulkhead.maxWaitNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(bulkhead, response);
+            return;
+        }
+
+        BulkheadContext.setPool(bulkhead.pool());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            BulkheadContext.clear();
+            bulkhead.permits().release();
+        }
+    }
+
+    private Bulkhead classify(String path) {
+        for (Bulkhead bulkhead : bulkheads) {
+            for (String pattern : bulkhead.patterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return bulkhead;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reject(Bulkhead bulkhead, HttpServletResponse response) throws IOException {
+        bulkhead.rejected().increment();
+        errorLogger.logFailure("bulkhead_" + bulkhead.name(), "temporarily_unavailable", "Endpoint class is saturated");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfterSeconds()));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+
+    private record Bulkhead(String name, List<String> patterns, Semaphore permits, long maxWaitNanos, String pool,
+                            Counter rejected) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.zhouzhou.authforge.bulkhead;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 按端点类别选择连接池的数据源
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return BulkheadContext.currentPool();
+    }
+}
@@ -0,0 +1,43 @@
+package com.zhouzhou.authforge.bulkhead;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zhouzhou.authforge.config.ConnectionGateConfig;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 为自动配置的连接池加上连接闸门
+ *
+ * 未启用连接池分区时，Spring Boot 创建的 dataSource 就是 Hikari 连接池，在这里包装；
+ * 启用分区时由 {@link BulkheadDataSourceConfig} 分别包装两个连接池。
+ * 配置直接从 Environment 绑定，避免后置处理器提前初始化其他 Bean。
+ */
+@Component
+public class ConnectionGatePostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private ConnectionGateConfig config = new ConnectionGateConfig();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.config = Binder.get(environment)
+                .bind("auth.connection-gate", ConnectionGateConfig.class)
+                .orElseGet(ConnectionGateConfig::new);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (config.isEnabled() && DATA_SOURCE_BEAN.equals(beanName) && bean instanceof HikariDataSource pool) {
+            return gate(pool, config);
+        }
+        return bean;
+    }
+
+    static GatedDataSource gate(HikariDataSource pool, ConnectionGateConfig config) {
+        return new GatedDataSource(pool, pool.getMaximumPoolSize(), config.getAcquireTimeout().toNanos());
+    }
+}
@@ -0,0 +1,64 @@
+package com.zhouzhou.authforge.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 后台执行器工厂
+ *
+ * 新增的后台任务（公钥集刷新、写回、审计等）统一从这里创建执行器：
+ * spring.threads.virtual.enabled 为 true（需要 Java 21）时使用虚拟线程，否则使用守护平台线程。
+ * 定时任务由 Spring Boot 按同一开关切换调度器线程，不需要在这里处理；
+ * 需要固定延迟且不能被其他定时任务拖慢的任务使用 {@link #newScheduledExecutor(String)} 单独调度。
+ */
+@Component
+public class BackgroundExecutorFactory {
+
+    private final boolean virtualThreads;
+
+    public BackgroundExecutorFactory(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * 创建固定并发数的执行器，并发数限制对外部系统或数据库的同时访问
+     *
+     * @param namePrefix 线程名前缀
+     * @param concurrency 最大并发任务数
+     * @return 执行器，由调用方负责关闭
+     */
+    public ExecutorService newExecutor(String namePrefix, int concurrency) {
+        return Executors.newFixedThreadPool(concurrency, threadFactory(namePrefix));
+    }
+
+    /**
+     * 创建单线程调度执行器，任务不与 Spring 共享的调度线程池排队
+     *
+     * @param namePrefix 线程名前缀
+     * @return 调度执行器，由调用方负责关闭
+     */
+    public ScheduledExecutorService newScheduledExecutor(String namePrefix) {
+        return Executors.newSingleThreadScheduledExecutor(threadFactory(namePrefix));
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    private ThreadFactory threadFactory(String namePrefix) {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(namePrefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+}
@@ -0,0 +1,86 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 端点隔离配置
+ *
+ * 按请求路径把端点划分为若干类别，每个类别有独立的并发名额和连接池分区，
+ * 注册、管理等低优先级流量耗尽自己的名额后被拒绝，不会占用令牌和内省端点的线程和数据库连接。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.bulkhead")
+public class BulkheadConfig {
+
+    /**
+     * 是否启用端点隔离
+     */
+    private boolean enabled = true;
+
+    /**
+     * 端点类别，按声明顺序匹配，第一个匹配的类别生效；未匹配的请求不受限制并使用主连接池
+     */
+    private Map<String, EndpointClass> classes = new LinkedHashMap<>();
+
+    /**
+     * 低优先级连接池
+     */
+    private SecondaryPool secondaryPool = new SecondaryPool();
+
+    /**
+     * 拒绝请求时返回的 Retry-After（秒）
+     */
+    private int retryAfterSeconds = 1;
+
+    @Data
+    public static class EndpointClass {
+
+        /**
+         * 路径模式（Ant 风格）
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * 最大并发请求数
+         */
+        private int maxConcurrent = 50;
+
+        /**
+         * 名额不足时最长等待时间
+         */
+        private Duration maxWait = Duration.ZERO;
+
+        /**
+         * 使用的连接池：primary 或 secondary
+         */
+        private String pool = "primary";
+    }
+
+    @Data
+    public static class SecondaryPool {
+
+        /**
+         * 是否为低优先级类别创建独立的连接池，关闭时所有类别共用主连接池
+         */
+        private boolean enabled = true;
+
+        /**
+         * 低优先级连接池的最大连接数
+         */
+        private int maximumPoolSize = 3;
+
+        /**
+         * 获取连接的超时时间
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+    }
+}
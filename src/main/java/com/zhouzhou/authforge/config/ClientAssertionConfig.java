@@ -0,0 +1,80 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * JWT 客户端断言配置（RFC 7523）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.client-assertion")
+public class ClientAssertionConfig {
+
+    /**
+     * 断言最长有效期（exp - 当前时间），同时决定 jti 在重放缓存中的最长保留时间
+     */
+    private Duration maxLifetime = Duration.ofMinutes(5);
+
+    /**
+     * 允许的时钟偏差
+     */
+    private Duration clockSkew = Duration.ofSeconds(60);
+
+    /**
+     * jti 重放缓存的最大条目数
+     */
+    private int replayCacheMaxSize = 100_000;
+
+    /**
+     * private_key_jwt 客户端的远程 JWKS 配置
+     */
+    private Jwks jwks = new Jwks();
+
+    @Data
+    public static class Jwks {
+
+        /**
+         * 密钥集缓存时长
+         */
+        private Duration ttl = Duration.ofHours(1);
+
+        /**
+         * 距离过期不足该时长时在后台提前刷新
+         */
+        private Duration refreshAhead = Duration.ofMinutes(5);
+
+        /**
+         * 两次按需拉取（未知 kid 或拉取失败）之间的最小间隔，期间直接使用已缓存的结果
+         */
+        private Duration minRefetchInterval = Duration.ofSeconds(30);
+
+        /**
+         * 连接超时
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 读取超时
+         */
+        private Duration readTimeout = Duration.ofSeconds(2);
+
+        /**
+         * 响应体大小上限（字节）
+         */
+        private int sizeLimit = 51_200;
+
+        /**
+         * 是否允许 http 地址，仅用于本地开发和测试
+         */
+        private boolean allowHttp = false;
+
+        /**
+         * 是否允许解析到回环、私有、链路本地（含云元数据地址）等非公网地址，仅用于本地开发和测试
+         */
+        private boolean allowPrivateAddresses = false;
+    }
+}
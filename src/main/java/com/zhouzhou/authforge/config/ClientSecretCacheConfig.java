@@ -0,0 +1,34 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 客户端密钥校验缓存配置
+ *
+ * 客户端密钥以 BCrypt 哈希存储，校验成功的结果在内存中缓存一段时间，
+ * 避免每次令牌、内省、撤销请求都执行一次哈希计算。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.client-secret.cache")
+public class ClientSecretCacheConfig {
+
+    /**
+     * 是否启用校验缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 校验结果缓存时长
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /**
+     * 最大缓存条目数
+     */
+    private int maxSize = 10_000;
+}
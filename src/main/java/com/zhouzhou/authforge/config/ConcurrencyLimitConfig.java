@@ -0,0 +1,72 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 自适应并发限制配置
+ *
+ * 令牌、内省和设备轮询端点共用一个按 AIMD 调整的并发上限：
+ * 响应延迟低于阈值时缓慢增加，超过阈值或返回 5xx 时按比例减小。
+ * 超出上限的请求进入有界队列短暂等待，队列已满或等待超时则返回 503。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.concurrency-limit")
+public class ConcurrencyLimitConfig {
+
+    /**
+     * 是否启用并发限制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 需要限制的请求路径
+     */
+    private List<String> paths = new ArrayList<>(List.of("/oauth2/token", "/oauth2/introspect", "/oauth2/deviceToken"));
+
+    /**
+     * 初始并发上限
+     */
+    private int initialLimit = 20;
+
+    /**
+     * 并发上限的最小值
+     */
+    private int minLimit = 4;
+
+    /**
+     * 并发上限的最大值
+     */
+    private int maxLimit = 200;
+
+    /**
+     * 延迟阈值，超过该值的请求视为过载信号
+     */
+    private Duration latencyThreshold = Duration.ofMillis(500);
+
+    /**
+     * 过载时并发上限的缩减比例
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * 等待队列长度
+     */
+    private int maxQueue = 50;
+
+    /**
+     * 在队列中等待的最长时间
+     */
+    private Duration maxWait = Duration.ofMillis(100);
+
+    /**
+     * 拒绝请求时返回的 Retry-After（秒）
+     */
+    private int retryAfterSeconds = 1;
+}
@@ -0,0 +1,30 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 数据库连接闸门配置
+ *
+ * 虚拟线程模式下请求线程数不再受 Tomcat 线程池限制，成千上万个虚拟线程会同时争抢连接。
+ * 闸门用公平信号量把获取连接的并发数限制为连接池大小，超出的线程按到达顺序排队，
+ * 超时后快速失败，而不是全部堆积在 Hikari 内部的等待队列上。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.connection-gate")
+public class ConnectionGateConfig {
+
+    /**
+     * 是否启用连接闸门，默认跟随虚拟线程开关
+     */
+    private boolean enabled = false;
+
+    /**
+     * 等待闸门名额的最长时间
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,36 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量设备授权配置
+ *
+ * 产线一次预置大量设备时，通过 /oauth2/device_authorization/batch 一次认证、分批签发设备码和用户码。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.device.batch")
+public class DeviceBatchConfig {
+
+    /**
+     * 是否启用批量设备授权端点
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单次请求最多签发的数量
+     */
+    private int maxCount = 10000;
+
+    /**
+     * 每批生成、检查和插入的数量，每批在独立的短事务中插入并立即写出响应
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 插入时唯一键冲突（与并发请求撞码）后整批重新生成的最大次数
+     */
+    private int maxAttempts = 3;
+}
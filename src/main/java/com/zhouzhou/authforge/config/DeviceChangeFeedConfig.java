@@ -0,0 +1,44 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 设备授权状态变化流配置
+ *
+ * 多节点部署时，用户在一个节点上作出决定，挂在其他节点上的长轮询和状态流通过读取
+ * device_authorization_events 表被唤醒。单节点部署可以关闭。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.device.change-feed")
+public class DeviceChangeFeedConfig {
+
+    /**
+     * 是否写入并读取状态变化流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 两次读取之间的间隔，即跨节点唤醒的最大延迟
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * 每次读取的最大行数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 主键空洞（事务尚未提交或已回滚）的最长等待时间，超过后不再补读
+     */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 最多同时跟踪的主键空洞数
+     */
+    private int maxGaps = 1000;
+}
@@ -0,0 +1,39 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 设备授权令牌长轮询配置
+ *
+ * 启用后，授权仍在等待中的轮询请求不立即返回 authorization_pending，
+ * 而是挂起到用户批准或拒绝、或者超时为止，轮询次数和 last_polled_at 写入随之大幅减少。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.device.long-poll")
+public class DeviceLongPollConfig {
+
+    /**
+     * 是否启用长轮询
+     */
+    private boolean enabled = false;
+
+    /**
+     * 单次轮询最长挂起时间，超时后返回 authorization_pending；应小于客户端和代理的读超时
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * 本节点最多同时挂起的轮询数（包括状态流连接），超出后按普通轮询立即返回
+     */
+    private int maxWaiters = 10000;
+
+    /**
+     * 用户作出决定后继续处理挂起请求的线程数（长轮询和状态流共用）
+     */
+    private int wakeupThreads = 4;
+}
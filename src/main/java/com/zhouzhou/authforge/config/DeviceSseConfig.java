@@ -0,0 +1,48 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 设备授权状态流（Server-Sent Events）配置
+ *
+ * 自有固件可以保持一个连接等待授权结果，代替每隔 interval 秒轮询一次令牌端点。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.device.sse")
+public class DeviceSseConfig {
+
+    /**
+     * 是否启用状态流端点
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本节点最大连接数
+     */
+    private int maxConnections = 10000;
+
+    /**
+     * 单个客户端最大连接数
+     */
+    private int maxConnectionsPerClient = 2000;
+
+    /**
+     * 心跳间隔，应小于代理和负载均衡的空闲超时
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * 单个连接最长保持时间，到期后推送当前状态并关闭，客户端重新连接
+     */
+    private Duration maxDuration = Duration.ofMinutes(5);
+
+    /**
+     * 超出连接上限时 Retry-After 的秒数
+     */
+    private int retryAfterSeconds = 5;
+}
@@ -0,0 +1,22 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 协议错误日志配置
+ *
+ * 无效凭证、无效授权、轮询过快等预期内的错误按端点限流记录日志，
+ * 所有错误都计入 authforge.oauth2.errors 指标。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.error-logging")
+public class ErrorLoggingConfig {
+
+    /**
+     * 每个端点每秒最多记录的错误日志条数，超出部分只计数
+     */
+    private int maxPerSecond = 10;
+}
@@ -0,0 +1,56 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 过期数据清理配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.reaper")
+public class ExpiryReaperConfig {
+
+    /**
+     * 是否启用过期数据清理
+     */
+    private boolean enabled = true;
+
+    /**
+     * 两次清理之间的间隔
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * 应用启动后首次清理的延迟
+     */
+    private Duration initialDelay = Duration.ofMinutes(1);
+
+    /**
+     * 每批删除的最大行数
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 每秒最多删除的行数，用于限制对数据库和复制链路的压力
+     */
+    private int maxRowsPerSecond = 2000;
+
+    /**
+     * 单次清理每张表最多处理的批次数
+     */
+    private int maxChunksPerRun = 200;
+
+    /**
+     * 数据过期后继续保留的时长，留出排查问题的窗口
+     */
+    private Duration retention = Duration.ofHours(1);
+
+    /**
+     * 清理任务租约时长，同一时间只有持有租约的节点执行清理
+     */
+    private Duration leaseDuration = Duration.ofMinutes(10);
+}
@@ -0,0 +1,56 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按天分区配置
+ *
+ * 启用后，分区表的过期数据通过删除整个分区清理，不再逐行删除。
+ * 表需要先通过 db/partitioning 下的脚本转换为分区表。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.partitioning")
+public class PartitioningConfig {
+
+    /**
+     * 是否启用分区维护
+     */
+    private boolean enabled = false;
+
+    /**
+     * 需要维护的分区表，按 purge_after 列按天分区
+     */
+    private List<String> tables = new ArrayList<>(List.of("oauth_tokens", "oauth_authorizations"));
+
+    /**
+     * 提前创建的未来分区天数
+     */
+    private int daysAhead = 7;
+
+    /**
+     * 分区整体过期后继续保留的时长
+     */
+    private Duration retention = Duration.ofDays(1);
+
+    /**
+     * 两次维护之间的间隔
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * 应用启动后首次维护的延迟
+     */
+    private Duration initialDelay = Duration.ofSeconds(30);
+
+    /**
+     * 维护任务租约时长
+     */
+    private Duration leaseDuration = Duration.ofMinutes(10);
+}
@@ -0,0 +1,37 @@
+package com.zhouzhou.authforge.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * 密码编码器配置
+ *
+ * 与 Web 安全配置分开，响应式边缘部署可以单独引入。
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * 密码编码器
+     *
+     * 新密码和客户端密钥使用 {bcrypt} 前缀存储；没有前缀的历史数据按明文校验，
+     * 保证升级前写入的用户密码和客户端密钥仍然可用。
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder() {
+        String encodingId = "bcrypt";
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(encodingId, Map.of(
+                encodingId, new BCryptPasswordEncoder(),
+                "noop", NoOpPasswordEncoder.getInstance()
+        ));
+        encoder.setDefaultPasswordEncoderForMatches(NoOpPasswordEncoder.getInstance());
+        return encoder;
+    }
+}
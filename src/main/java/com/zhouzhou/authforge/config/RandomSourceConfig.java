@@ -0,0 +1,38 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 安全随机数源配置
+ *
+ * 令牌、授权码、设备码和各类标识符统一从分段的 DRBG 实例取随机字节。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.random")
+public class RandomSourceConfig {
+
+    /**
+     * 分段数量，0 表示按 CPU 核数自动计算（核数的 2 倍，向上取 2 的幂）
+     */
+    private int stripes = 0;
+
+    /**
+     * 每个分段预取的随机字节数
+     */
+    private int bufferSize = 1024;
+
+    /**
+     * 重新播种间隔
+     */
+    private Duration reseedInterval = Duration.ofMinutes(10);
+
+    /**
+     * 单个分段生成多少字节后重新播种
+     */
+    private long reseedBytes = 1L << 20;
+}
@@ -0,0 +1,81 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌端点限流配置
+ *
+ * 令牌、内省和撤销端点按来源IP和"来源IP + 客户端ID"分别限流，超限请求在客户端认证之前返回 429。
+ * 客户端级别的限额可以在 oauth_clients 表中单独设置，未设置时使用这里的默认值。
+ * 来源IP取自 request.getRemoteAddr()，部署在反向代理之后时依赖 server.forward-headers-strategy，
+ * 否则所有请求都会计入代理地址的令牌桶。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.rate-limit")
+public class RateLimitConfig {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 需要限流的请求路径
+     */
+    private List<String> paths = new ArrayList<>(List.of("/oauth2/token", "/oauth2/introspect", "/oauth2/revoke"));
+
+    /**
+     * 客户端默认限额，按来源IP分别计算
+     */
+    private Limit client = new Limit(50, 100);
+
+    /**
+     * 单个来源IP的限额
+     */
+    private Limit ip = new Limit(100, 200);
+
+    /**
+     * 令牌桶空闲（已回满）超过该时长后被清理
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 令牌桶分段数量
+     */
+    private int stripes = 16;
+
+    /**
+     * 每类令牌桶的最大数量，超出后不再为新的客户端ID创建令牌桶，只按来源IP限流
+     */
+    private int maxBuckets = 100_000;
+
+    /**
+     * 从数据库刷新客户端限额的间隔
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /**
+         * 每秒补充的请求数
+         */
+        private double permitsPerSecond;
+
+        /**
+         * 桶容量，即允许的突发请求数
+         */
+        private int burst;
+    }
+}
@@ -0,0 +1,44 @@
+package com.zhouzhou.authforge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 客户端注册限流配置
+ *
+ * 注册端点按来源IP和初始访问令牌分别限制滑动窗口内的请求次数，
+ * 超限请求在校验初始访问令牌和生成客户端密钥之前被拒绝。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "auth.server.registration.rate-limit")
+public class RegistrationRateLimitConfig {
+
+    /**
+     * 是否启用注册限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个来源IP在一个窗口内的最大尝试次数
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * 每个初始访问令牌在一个窗口内的最大尝试次数
+     */
+    private int maxAttemptsPerToken = 20;
+
+    /**
+     * 滑动窗口长度
+     */
+    private Duration window = Duration.ofHours(1);
+
+    /**
+     * 最多跟踪的键数量，超出后新出现的键不再限流
+     */
+    private int maxKeys = 100_000;
+}
@@ -0,0 +1,14 @@
+package com.zhouzhou.authforge.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ *
+ * 启用 Spring 定时任务，用于过期数据清理等后台维护任务
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
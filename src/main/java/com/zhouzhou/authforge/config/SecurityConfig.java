@@ -5,10 +5,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 /**
@@ -18,25 +14,40 @@ import org.springframework.security.web.SecurityFilterChain;
  * 1. 请求授权规则
  * 2. 表单登录配置
  * 3. 会话管理
- * 4. 密码编码器
+ * 4. CSRF 保护（协议端点除外）
  *
- * 确保 OAuth 2.0 端点的安全性和可访问性
+ * 确保 OAuth 2.0 端点的安全性和可访问性，密码编码器见 {@link PasswordEncoderConfig}
  */
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * 面向客户端的 OAuth 2.0 协议端点
+     */
+    private static final String[] PROTOCOL_ENDPOINTS = {
+            "/oauth2/token/**",
+            "/oauth2/introspect",
+            "/oauth2/revoke",
+            "/oauth2/device_authorization/**",
+            "/oauth2/deviceToken/**",
+            "/connect/register/**"
+    };
+
     @Bean
     @Order(1)
     public SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
         http
-                // 禁用 CSRF
-                .csrf(AbstractHttpConfigurer::disable)
+                // 协议端点由客户端凭证或设备码认证，不依赖会话 Cookie，不需要 CSRF 保护；
+                // 登录、授权同意、设备验证和 /admin/** 等使用会话的表单和接口仍然校验 CSRF 令牌
+                .csrf(csrf -> csrf.ignoringRequestMatchers(PROTOCOL_ENDPOINTS))
 
                 // 配置请求授权
                 .authorizeHttpRequests(authorize -> authorize
                         // OAuth2 授权端点需要认证
                         .requestMatchers("/oauth2/authorize").authenticated()
+                        // 管理端点需要管理员角色
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         // 允许访问登录页面
                         .requestMatchers("/login", "/error").permitAll()
                         // 其他请求允许访问（方便调试）
@@ -68,12 +79,4 @@ public class SecurityConfig {
 
         return http.build();
     }
-
-    /**
-     * 密码编码器
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance();
-    }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.zhouzhou.authforge.config;
 
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.TokenGenerator;
 import com.zhouzhou.authforge.service.impl.JwtTokenGenerator;
 import com.zhouzhou.authforge.service.impl.UuidTokenGenerator;
@@ -21,10 +22,10 @@ public class TokenGeneratorConfig {
      */
     @Bean
     @Primary
-    public TokenGenerator tokenGenerator(TokenProperties properties) {
+    public TokenGenerator tokenGenerator(TokenProperties properties, RandomSource randomSource) {
         return switch (properties.getType()) {
-            case UUID -> new UuidTokenGenerator();
-            case JWT -> new JwtTokenGenerator(properties.getJwt().getSecret());
+            case UUID -> new UuidTokenGenerator(randomSource);
+            case JWT -> new JwtTokenGenerator(properties.getJwt().getSecret(), randomSource);
         };
     }
 } 
\ No newline at end of file
@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 /**
  * 令牌配置属性
  */
@@ -22,6 +24,11 @@ public class TokenProperties {
      */
     private JwtProperties jwt = new JwtProperties();
 
+    /**
+     * 客户端凭证令牌复用缓存配置
+     */
+    private ClientCredentialsCacheProperties clientCredentialsCache = new ClientCredentialsCacheProperties();
+
     /**
      * 令牌生成器类型
      */
@@ -56,4 +63,21 @@ public class TokenProperties {
          */
         private int refreshTokenExpirationMinutes = 1440; // 24小时
     }
+
+    /**
+     * 客户端凭证令牌复用缓存配置属性
+     */
+    @Getter
+    @Setter
+    public static class ClientCredentialsCacheProperties {
+        /**
+         * 本地缓存条目上限，超过时先清理已过期条目，仍超过则不再缓存新条目
+         */
+        private int maxEntries = 10_000;
+
+        /**
+         * 等待并发签发结果的最长时间，超时后自行签发
+         */
+        private Duration followerWait = Duration.ofSeconds(5);
+    }
 } 
\ No newline at end of file
@@ -18,4 +18,9 @@ public class TokenRevocationConfig {
      * 临时错误重试时间（秒）
      */
     private int retryAfterSeconds = 60;
+
+    /**
+     * 批量撤销时每批处理的令牌数量
+     */
+    private int bulkChunkSize = 500;
 } 
\ No newline at end of file
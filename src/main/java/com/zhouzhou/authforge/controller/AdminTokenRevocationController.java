@@ -0,0 +1,72 @@
+package com.zhouzhou.authforge.controller;
+
+import com.zhouzhou.authforge.dto.BulkRevocationResponse;
+import com.zhouzhou.authforge.service.TokenBulkRevocationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 令牌批量撤销管理端点
+ *
+ * 供管理员在账号泄露或客户端停用时，撤销某个用户和/或客户端的全部令牌，
+ * 并删除对应的授权同意记录。该端点需要 ADMIN 角色。
+ *
+ * 请求示例：
+ * <pre>
+ * POST /admin/tokens/revoke HTTP/1.1
+ * Content-Type: application/x-www-form-urlencoded
+ *
+ * user_id=alice&client_id=client
+ * </pre>
+ *
+ * 响应示例：
+ * <pre>
+ * HTTP/1.1 200 OK
+ * Content-Type: application/json
+ *
+ * {
+ *     "revoked_tokens": 1024,
+ *     "revoked_consents": 1
+ * }
+ * </pre>
+ *
+ * @author zhouzhou
+ * @since 1.0.0
+ */
+@RestController
+@RequestMapping("/admin/tokens/revoke")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminTokenRevocationController {
+
+    private final TokenBulkRevocationService bulkRevocationService;
+
+    /**
+     * 撤销指定用户和/或客户端的全部令牌。
+     *
+     * @param userId 用户ID（可选）
+     * @param clientId 客户端ID（可选）
+     * @return 撤销结果，user_id 和 client_id 均未提供时返回 400
+     */
+    @PostMapping
+    public ResponseEntity<BulkRevocationResponse> revokeAll(
+            @RequestParam(value = "user_id", required = false) String userId,
+            @RequestParam(value = "client_id", required = false) String clientId) {
+
+        try {
+            return ResponseEntity.ok(bulkRevocationService.revokeAll(userId, clientId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid bulk revocation request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(BulkRevocationResponse.builder()
+                            .error("invalid_request")
+                            .errorDescription(e.getMessage())
+                            .build());
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.zhouzhou.authforge.controller;
 
 import com.zhouzhou.authforge.dto.ClientRegistrationRequest;
 import com.zhouzhou.authforge.dto.ClientRegistrationResponse;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import com.zhouzhou.authforge.ratelimit.RegistrationRateLimiter;
 import com.zhouzhou.authforge.service.ClientRegistrationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +31,8 @@ import org.springframework.web.bind.annotation.*;
 public class ClientRegistrationController {
 
     private final ClientRegistrationService registrationService;
+    private final RegistrationRateLimiter rateLimiter;
+    private final OAuth2ErrorLogger errorLogger;
 
     /**
      * 处理客户端注册请求
@@ -35,6 +40,7 @@ public class ClientRegistrationController {
      * 
      * @param request 客户端注册请求
      * @param authorization 可选的初始访问令牌
+     * @param httpRequest HTTP请求
      * @return 客户端注册响应
      */
     @PostMapping(
@@ -43,7 +49,8 @@ public class ClientRegistrationController {
     )
     public ResponseEntity<ClientRegistrationResponse> registerClient(
             @Valid @RequestBody ClientRegistrationRequest request,
-            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            HttpServletRequest httpRequest) {
 
         log.debug("Received client registration request: {}", request);
         
@@ -53,6 +60,21 @@ public class ClientRegistrationController {
             log.debug("Initial access token provided");
         }
 
+        // 在校验初始访问令牌和生成密钥之前限流
+        long wait = rateLimiter.tryAcquire(httpRequest.getRemoteAddr(), initialAccessToken);
+        if (wait > 0) {
+            errorLogger.logFailure("register", "rate_limited",
+                "Client registration rate limit exceeded for " + httpRequest.getRemoteAddr());
+            return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((wait + 999) / 1000))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(ClientRegistrationResponse.builder()
+                    .error("temporarily_unavailable")
+                    .errorDescription("Too many registration attempts")
+                    .build());
+        }
+
         try {
             // 1. 验证重定向URI
             if (!registrationService.validateRedirectUris(request.getRedirectUris())) {
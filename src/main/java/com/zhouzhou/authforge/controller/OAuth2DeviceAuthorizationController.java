@@ -1,19 +1,28 @@
 package com.zhouzhou.authforge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhouzhou.authforge.config.DeviceBatchConfig;
 import com.zhouzhou.authforge.dto.DeviceAuthorizationRequest;
 import com.zhouzhou.authforge.dto.DeviceAuthorizationResponse;
 import com.zhouzhou.authforge.exception.OAuth2DeviceAuthorizationException;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.service.OAuth2DeviceAuthorizationService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -32,6 +41,7 @@ import java.util.Set;
  *     <li>生成设备验证码和用户验证码</li>
  *     <li>提供验证 URI</li>
  *     <li>完全符合 RFC 8628 规范</li>
+ *     <li>支持批量签发（/batch），用于产线预置设备</li>
  * </ul>
  *
  * 请求示例：
@@ -70,6 +80,8 @@ import java.util.Set;
 public class OAuth2DeviceAuthorizationController {
 
     private final OAuth2DeviceAuthorizationService deviceAuthorizationService;
+    private final DeviceBatchConfig batchConfig;
+    private final ObjectMapper objectMapper;
 
     /**
      * 处理设备授权请求。
@@ -89,36 +101,10 @@ public class OAuth2DeviceAuthorizationController {
             @RequestParam(value = "scope", required = false) String scope) {
         
         try {
-            // 1. 验证客户端凭据
-            OAuthClient authenticatedClient = deviceAuthorizationService.authenticateClient(request);
-            
-            // 2. 验证请求中的 client_id 与认证的客户端是否匹配
-            if (!authenticatedClient.getClientId().equals(clientId)) {
-                log.warn("Client ID mismatch: requested={}, authenticated={}", clientId, authenticatedClient.getClientId());
-                return ResponseEntity.badRequest()
-                    .body(DeviceAuthorizationResponse.builder()
-                        .error("invalid_client")
-                        .errorDescription("Client ID mismatch")
-                        .build());
-            }
-
-            // 3. 验证 scope
-            if (scope != null && !scope.isEmpty()) {
-                Set<String> requestedScopes = new HashSet<>(Arrays.asList(scope.split(" ")));
-                Set<String> allowedScopes = authenticatedClient.getScopeSet();
-                
-                // 检查请求的 scope 是否都在允许的范围内
-                if (!allowedScopes.containsAll(requestedScopes)) {
-                    log.warn("Invalid scope requested: {} for client: {}", scope, clientId);
-                    return ResponseEntity.badRequest()
-                        .body(DeviceAuthorizationResponse.builder()
-                            .error("invalid_scope")
-                            .errorDescription("Requested scope is not allowed for this client")
-                            .build());
-                }
-            }
+            // 1. 验证客户端凭据、client_id 和 scope
+            OAuthClient authenticatedClient = authenticate(request, clientId, scope);
 
-            // 4. 构建设备授权请求
+            // 2. 构建设备授权请求
             DeviceAuthorizationRequest deviceRequest = DeviceAuthorizationRequest.builder()
                 .request(request)
                 .clientId(clientId)
@@ -126,23 +112,140 @@ public class OAuth2DeviceAuthorizationController {
                 .authenticatedClient(authenticatedClient)
                 .build();
             
-            // 5. 处理设备授权请求
+            // 3. 处理设备授权请求
             return deviceAuthorizationService.authorizeDevice(deviceRequest);
             
         } catch (OAuth2DeviceAuthorizationException e) {
             log.warn("Device authorization failed: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                .body(DeviceAuthorizationResponse.builder()
-                    .error(e.getError())
-                    .errorDescription(e.getErrorDescription())
-                    .build());
+            return errorResponse(e);
         } catch (Exception e) {
             log.error("Unexpected error during device authorization", e);
-            return ResponseEntity.internalServerError()
-                .body(DeviceAuthorizationResponse.builder()
-                    .error("server_error")
-                    .errorDescription("An unexpected error occurred")
-                    .build());
+            return serverErrorResponse();
+        }
+    }
+
+    /**
+     * 批量设备授权，用于产线一次预置大量设备。
+     *
+     * 客户端只认证一次，按批签发并以 JSON 数组流式返回，每个元素与单个设备授权的响应相同。
+     * 已写出的验证码均已提交；中途失败时数组不完整，客户端可只重新申请缺少的数量。
+     * 响应在请求线程上直接写出（不使用异步），端点隔离的名额和低优先级连接池在整个签发过程中有效。
+     * 所有响应（包括未启用时的 404 和错误响应）都由本方法写出；第一批写出之前的失败返回普通的错误 JSON。
+     *
+     * @param request HTTP 请求对象
+     * @param response HTTP 响应对象
+     * @param clientId 客户端标识
+     * @param scope 请求的权限范围
+     * @param count 签发数量
+     */
+    @PostMapping("/batch")
+    public void authorizeDevices(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            @RequestParam("client_id") String clientId,
+            @RequestParam(value = "scope", required = false) String scope,
+            @RequestParam("count") int count) throws IOException {
+
+        if (!batchConfig.isEnabled()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // 中途失败时不自动补全数组，客户端据此判断响应不完整
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            try {
+                if (count < 1 || count > batchConfig.getMaxCount()) {
+                    throw new OAuth2DeviceAuthorizationException("invalid_request",
+                        "count must be between 1 and " + batchConfig.getMaxCount());
+                }
+                DeviceAuthorizationRequest deviceRequest = DeviceAuthorizationRequest.builder()
+                    .request(request)
+                    .clientId(clientId)
+                    .scope(scope)
+                    .authenticatedClient(authenticate(request, clientId, scope))
+                    .build();
+
+                // 每批提交后立即写出，内存占用与签发总数无关
+                deviceAuthorizationService.authorizeDevices(deviceRequest, count, chunk -> {
+                    try {
+                        if (generator.getOutputContext().inRoot()) {
+                            generator.writeStartArray();
+                        }
+                        for (DeviceAuthorizationResponse issued : chunk) {
+                            generator.writeObject(issued);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (UncheckedIOException e) {
+                // 客户端断开
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                if (!generator.getOutputContext().inRoot() || response.isCommitted()) {
+                    log.error("Batch device authorization aborted after partial output", e);
+                    return;
+                }
+                ResponseEntity<DeviceAuthorizationResponse> error;
+                if (e instanceof OAuth2DeviceAuthorizationException authorizationException) {
+                    log.warn("Batch device authorization failed: {}", e.getMessage());
+                    error = errorResponse(authorizationException);
+                } else {
+                    log.error("Unexpected error during batch device authorization", e);
+                    error = serverErrorResponse();
+                }
+                response.setStatus(error.getStatusCode().value());
+                generator.writeObject(error.getBody());
+            }
         }
     }
+
+    /**
+     * 验证客户端凭据，并检查请求中的 client_id 和 scope
+     */
+    private OAuthClient authenticate(HttpServletRequest request, String clientId, String scope) {
+        OAuthClient authenticatedClient = deviceAuthorizationService.authenticateClient(request);
+
+        // 验证请求中的 client_id 与认证的客户端是否匹配
+        if (!authenticatedClient.getClientId().equals(clientId)) {
+            log.warn("Client ID mismatch: requested={}, authenticated={}", clientId, authenticatedClient.getClientId());
+            throw new OAuth2DeviceAuthorizationException("invalid_client", "Client ID mismatch");
+        }
+
+        // 检查请求的 scope 是否都在允许的范围内
+        if (scope != null && !scope.isEmpty()) {
+            Set<String> requestedScopes = new HashSet<>(Arrays.asList(scope.split(" ")));
+            Set<String> allowedScopes = authenticatedClient.getScopeSet();
+            if (!allowedScopes.containsAll(requestedScopes)) {
+                log.warn("Invalid scope requested: {} for client: {}", scope, clientId);
+                throw new OAuth2DeviceAuthorizationException("invalid_scope",
+                    "Requested scope is not allowed for this client");
+            }
+        }
+        return authenticatedClient;
+    }
+
+    private static ResponseEntity<DeviceAuthorizationResponse> errorResponse(OAuth2DeviceAuthorizationException e) {
+        HttpStatus status = "server_error".equals(e.getError())
+            ? HttpStatus.INTERNAL_SERVER_ERROR
+            : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+            .body(DeviceAuthorizationResponse.builder()
+                .error(e.getError())
+                .errorDescription(e.getErrorDescription())
+                .build());
+    }
+
+    private static ResponseEntity<DeviceAuthorizationResponse> serverErrorResponse() {
+        return ResponseEntity.internalServerError()
+            .body(DeviceAuthorizationResponse.builder()
+                .error("server_error")
+                .errorDescription("An unexpected error occurred")
+                .build());
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.zhouzhou.authforge.controller;
 
+import com.zhouzhou.authforge.config.DeviceLongPollConfig;
+import com.zhouzhou.authforge.config.DeviceSseConfig;
+import com.zhouzhou.authforge.device.DeviceAuthorizationStream;
+import com.zhouzhou.authforge.device.DeviceTokenLongPoller;
 import com.zhouzhou.authforge.dto.DeviceTokenRequest;
 import com.zhouzhou.authforge.dto.DeviceTokenResponse;
 import com.zhouzhou.authforge.service.OAuth2DeviceTokenService;
@@ -26,19 +30,25 @@ import org.springframework.web.bind.annotation.RestController;
 public class OAuth2DeviceTokenController {
 
     private final OAuth2DeviceTokenService deviceTokenService;
+    private final DeviceTokenLongPoller longPoller;
+    private final DeviceLongPollConfig longPollConfig;
+    private final DeviceAuthorizationStream authorizationStream;
+    private final DeviceSseConfig sseConfig;
 
     /**
      * 处理设备授权令牌请求。
      * 遵循 RFC 8628 规范，支持设备授权流程。
+     * 启用长轮询（auth.device.long-poll.enabled）时，授权仍在等待中的请求会被挂起，
+     * 直到用户作出决定或超时。
      *
      * @param request HTTP 请求
      * @param grantType 授权类型，必须为 "urn:ietf:params:oauth:grant-type:device_code"
      * @param deviceCode 设备验证码
      * @param clientId 客户端ID
-     * @return 令牌响应
+     * @return 令牌响应；启用长轮询时为 DeferredResult，由 Spring MVC 按实际类型处理
      */
     @PostMapping
-    public ResponseEntity<DeviceTokenResponse> getDeviceToken(
+    public Object getDeviceToken(
             HttpServletRequest request,
             @RequestParam("grant_type") String grantType,
             @RequestParam("device_code") String deviceCode,
@@ -62,6 +72,45 @@ public class OAuth2DeviceTokenController {
             .build();
 
         // 处理令牌请求
+        if (longPollConfig.isEnabled()) {
+            return longPoller.poll(tokenRequest);
+        }
         return deviceTokenService.getDeviceToken(tokenRequest);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 以 Server-Sent Events 推送设备授权状态，参数和客户端认证方式与令牌端点相同。
+     * 授权仍在等待时保持连接，依次推送 status（pending、approved、denied、expired）事件，
+     * 批准后再推送 token 事件；授权已有结果或出错时直接返回令牌端点的响应。
+     *
+     * @param request HTTP 请求
+     * @param grantType 授权类型，必须为 "urn:ietf:params:oauth:grant-type:device_code"
+     * @param deviceCode 设备验证码
+     * @param clientId 客户端ID
+     * @return SseEmitter 或令牌响应
+     */
+    @PostMapping("/stream")
+    public Object streamDeviceToken(
+            HttpServletRequest request,
+            @RequestParam("grant_type") String grantType,
+            @RequestParam("device_code") String deviceCode,
+            @RequestParam(value = "client_id", required = false) String clientId) {
+
+        if (!sseConfig.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!"urn:ietf:params:oauth:grant-type:device_code".equals(grantType)) {
+            return ResponseEntity.badRequest()
+                .body(DeviceTokenResponse.builder()
+                    .error("unsupported_grant_type")
+                    .errorDescription("Only device_code grant type is supported")
+                    .build());
+        }
+
+        return authorizationStream.open(DeviceTokenRequest.builder()
+            .request(request)
+            .deviceCode(deviceCode)
+            .clientId(clientId)
+            .build());
+    }
+}
@@ -86,11 +86,10 @@ public class OAuth2DeviceVerificationController {
             RedirectAttributes redirectAttributes) {
         
         try {
-            // 处理验证请求，包含轮询限制检查
+            // 处理验证请求
             DeviceAuthorizationStatus status = deviceAuthorizationService.verifyUserCode(
                 userCode, 
-                "approve".equals(action),
-                interval
+                "approve".equals(action)
             );
 
             // 添加结果信息
@@ -1,18 +1,25 @@
 package com.zhouzhou.authforge.controller;
 
-import com.zhouzhou.authforge.dto.TokenRequest;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.dto.TokenResponse;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
 import com.zhouzhou.authforge.exception.OAuth2TokenException;
 import com.zhouzhou.authforge.service.OAuth2TokenService;
-import com.zhouzhou.authforge.validator.TokenRequestSpecificationValidator;
+import com.zhouzhou.authforge.validator.TokenRequestValidationEngine;
+import com.zhouzhou.authforge.validator.ValidationResult;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
  * OAuth 2.0 令牌端点控制器
+ *
+ * 请求校验失败时直接返回错误响应；业务处理中的协议错误使用不带堆栈的异常，
+ * 在这里转换为错误响应，并通过 {@link OAuth2ErrorLogger} 限流记录日志。
  */
 @RestController
 @RequestMapping("/oauth2/token")
@@ -21,51 +28,43 @@ import org.springframework.web.bind.annotation.*;
 public class OAuth2TokenController {
 
     private final OAuth2TokenService tokenService;
-    private final TokenRequestSpecificationValidator validator;
+    private final TokenRequestValidationEngine validationEngine;
+    private final OAuth2ErrorLogger errorLogger;
 
     @PostMapping
-    public ResponseEntity<TokenResponse> token(
-            HttpServletRequest request,
-            @RequestParam("grant_type") String grantType,
-            @RequestParam(value = "code", required = false) String code,
-            @RequestParam(value = "redirect_uri", required = false) String redirectUri,
-            @RequestParam(value = "code_verifier", required = false) String codeVerifier,
-            @RequestParam(value = "refresh_token", required = false) String refreshToken,
-            @RequestParam(value = "scope", required = false) String scope) {
+    public ResponseEntity<TokenResponse> token(HttpServletRequest request) {
 
-        try {
-            // 1. 构建令牌请求对象
-            TokenRequest tokenRequest = TokenRequest.builder()
-                .request(request)
-                .grantType(grantType)
-                .code(code)
-                .redirectUri(redirectUri)
-                .codeVerifier(codeVerifier)
-                .refreshToken(refreshToken)
-                .scope(scope)
-                .build();
-
-            // 2. 验证请求
-            validator.validate(tokenRequest);
+        // 1. 一次性解析令牌请求
+        TokenRequestContext context = TokenRequestContext.from(request);
 
-            // 3. 处理令牌请求
-            TokenResponse response = tokenService.handleTokenRequest(
-                request,
-                grantType,
-                code,
-                redirectUri,
-                codeVerifier,
-                refreshToken
-            );
+        // 2. 验证请求，失败时直接返回错误响应
+        ValidationResult validation = validationEngine.validate(context);
+        if (!validation.isValid()) {
+            return error(HttpStatus.BAD_REQUEST, validation.getErrorCode(), validation.getErrorDescription());
+        }
 
-            return ResponseEntity.ok(response);
+        // 3. 处理令牌请求
+        try {
+            return ResponseEntity.ok(tokenService.handleTokenRequest(context));
+        } catch (OAuth2AuthenticationException e) {
+            HttpStatus status = "invalid_client".equals(e.getError())
+                ? HttpStatus.UNAUTHORIZED
+                : HttpStatus.BAD_REQUEST;
+            return error(status, e.getError(), e.getErrorDescription());
         } catch (OAuth2TokenException e) {
-            log.warn("Token request failed: {}", e.getMessage());
-            return ResponseEntity.badRequest()
-                .body(TokenResponse.builder()
-                    .error(e.getError())
-                    .errorDescription(e.getErrorDescription())
-                    .build());
+            HttpStatus status = "server_error".equals(e.getError())
+                ? HttpStatus.INTERNAL_SERVER_ERROR
+                : HttpStatus.BAD_REQUEST;
+            return error(status, e.getError(), e.getErrorDescription());
         }
     }
+
+    private ResponseEntity<TokenResponse> error(HttpStatus status, String error, String description) {
+        errorLogger.logFailure("token", error, description);
+        return ResponseEntity.status(status)
+            .body(TokenResponse.builder()
+                .error(error)
+                .errorDescription(description)
+                .build());
+    }
 } 
\ No newline at end of file
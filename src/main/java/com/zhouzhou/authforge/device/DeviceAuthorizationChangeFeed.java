@@ -0,0 +1,180 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.DeviceChangeFeedConfig;
+import com.zhouzhou.authforge.model.DeviceAuthorizationEventEntity;
+import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 设备授权状态变化流
+ *
+ * 用户作出决定时在同一事务中写入 device_authorization_events，每个节点各自按主键游标定时读取，
+ * 唤醒挂在本节点上的长轮询和状态流，并清除本节点记录的轮询间隔：
+ * 1. 游标只保存在内存中，节点启动时从当前最大主键开始，同一台机器上可以运行多个实例
+ * 2. 每次读取是一次主键范围扫描（id > 游标），没有新记录时几乎没有开销
+ * 3. 自增主键按分配顺序而不是提交顺序可见，游标越过的主键空洞在 gapTimeout 内按主键补读，
+ *    超时的空洞视为已回滚
+ * 本节点作出的决定已通过事务事件直接唤醒，读到自己写入的记录时等待者已被移除，重复唤醒不做任何事。
+ * 旧记录由过期数据清理任务删除。
+ * 读取在独立的调度线程上执行：Spring 共享的调度线程上还有过期数据清理（按速率限制休眠）、分区维护等长任务，
+ * 排在它们后面会让跨节点唤醒延迟远超 poll-interval。
+ */
+@Slf4j
+@Component
+public class DeviceAuthorizationChangeFeed implements SmartLifecycle {
+
+    private static final long INITIAL_DELAY_MILLIS = 1_000;
+
+    private final DeviceAuthorizationEventRepository eventRepository;
+    private final DeviceAuthorizationNotifier notifier;
+    private final DevicePollingTracker pollingTracker;
+    private final DeviceChangeFeedConfig config;
+    private final BackgroundExecutorFactory executorFactory;
+
+    private volatile ScheduledExecutorService scheduler;
+    private final ReentrantLock lock = new ReentrantLock();
+    // 尚未读到的主键 -> 首次发现的时间（纳秒）
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+    private long cursor = -1L;
+
+    public DeviceAuthorizationChangeFeed(DeviceAuthorizationEventRepository eventRepository,
+                                         DeviceAuthorizationNotifier notifier,
+                                         DevicePollingTracker pollingTracker,
+                                         DeviceChangeFeedConfig config,
+                                         BackgroundExecutorFactory executorFactory,
+                                         MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.notifier = notifier;
+        this.pollingTracker = pollingTracker;
+        this.config = config;
+        this.executorFactory = executorFactory;
+        Gauge.builder("authforge.device.feed.gaps", gaps, Map::size)
+                .description("Device authorization event ids skipped by the cursor and awaiting commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录状态变化，必须在修改设备授权状态的事务中调用
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String deviceCode, DeviceAuthorizationStatus status) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        eventRepository.save(new DeviceAuthorizationEventEntity(deviceCode, status));
+    }
+
+    /**
+     * 启用时在独立线程上按固定延迟读取变化流
+     */
+    @Override
+    public void start() {
+        if (!config.isEnabled() || scheduler != null) {
+            return;
+        }
+        ScheduledExecutorService executor = executorFactory.newScheduledExecutor("device-feed-");
+        executor.scheduleWithFixedDelay(this::scheduledPoll,
+                INITIAL_DELAY_MILLIS, config.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 定时读取变化流；异常会取消后续调度，这里全部捕获
+     */
+    void scheduledPoll() {
+        try {
+            poll(System.nanoTime());
+        } catch (RuntimeException e) {
+            log.warn("Device authorization change feed poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取一批新记录并补读主键空洞
+     *
+     * @param now 当前时间（纳秒）
+     * @return 本次处理的记录数
+     */
+    int poll(long now) {
+        if (!lock.tryLock()) {
+            return 0;
+        }
+        try {
+            if (cursor < 0) {
+                cursor = eventRepository.findMaxId();
+                return 0;
+            }
+            int processed = 0;
+            if (!gaps.isEmpty()) {
+                for (DeviceAuthorizationEventEntity event : eventRepository.findAllById(new ArrayList<>(gaps.keySet()))) {
+                    gaps.remove(event.getId());
+                    dispatch(event);
+                    processed++;
+                }
+                long gapTimeout = config.getGapTimeout().toNanos();
+                gaps.values().removeIf(seenAt -> now - seenAt >= gapTimeout);
+            }
+
+            List<DeviceAuthorizationEventEntity> events =
+                    eventRepository.findAfter(cursor, PageRequest.ofSize(config.getBatchSize()));
+            for (DeviceAuthorizationEventEntity event : events) {
+                long id = event.getId();
+                for (long missing = cursor + 1; missing < id && gaps.size() < config.getMaxGaps(); missing++) {
+                    gaps.put(missing, now);
+                }
+                cursor = id;
+                dispatch(event);
+                processed++;
+            }
+            return processed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long cursor() {
+        return cursor;
+    }
+
+    int gaps() {
+        return gaps.size();
+    }
+
+    private void dispatch(DeviceAuthorizationEventEntity event) {
+        String deviceCode = event.getDeviceCode();
+        notifier.wake(deviceCode);
+        // 已有结果，下一次轮询不应再因轮询间隔被拒绝
+        pollingTracker.remove(deviceCode);
+    }
+}
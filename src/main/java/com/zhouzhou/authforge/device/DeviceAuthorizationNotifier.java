@@ -0,0 +1,127 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.DeviceLongPollConfig;
+import com.zhouzhou.authforge.event.DeviceAuthorizationDecidedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 设备授权等待者注册表
+ *
+ * 按设备码登记挂起的轮询和状态流连接，用户作出决定的事务提交后把回调交给后台线程执行，
+ * 不占用验证页面的请求线程。注册表只在本节点内存中：决定落在其他节点时，
+ * 由 {@link DeviceAuthorizationChangeFeed} 读到状态变化后唤醒；变化流关闭时，
+ * 挂起的轮询等到超时后返回 authorization_pending，客户端下一次轮询即可拿到结果。
+ */
+@Slf4j
+@Component
+public class DeviceAuthorizationNotifier implements DisposableBean {
+
+    private final Map<String, List<Runnable>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxWaiters;
+    private final ExecutorService executor;
+
+    public DeviceAuthorizationNotifier(DeviceLongPollConfig config,
+                                       BackgroundExecutorFactory executorFactory,
+                                       MeterRegistry meterRegistry) {
+        this.maxWaiters = config.getMaxWaiters();
+        // 固定大小线程池按需创建线程，未启用长轮询和状态流时不会产生线程
+        this.executor = executorFactory.newExecutor("device-wakeup-", Math.max(1, config.getWakeupThreads()));
+        Gauge.builder("authforge.device.waiters", size, AtomicInteger::get)
+                .description("Device token polls parked until the user decides")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登记等待者
+     *
+     * @param deviceCode 设备码
+     * @param callback 用户作出决定后执行的回调
+     * @return 超出等待者上限时返回 false，调用方应按普通轮询处理
+     */
+    public boolean register(String deviceCode, Runnable callback) {
+        if (size.incrementAndGet() > maxWaiters) {
+            size.decrementAndGet();
+            return false;
+        }
+        waiters.compute(deviceCode, (key, list) -> {
+            List<Runnable> next = list != null ? list : new ArrayList<>(1);
+            next.add(callback);
+            return next;
+        });
+        return true;
+    }
+
+    /**
+     * 移除等待者（轮询已超时或已完成），回调已被触发时不做任何事
+     */
+    public void unregister(String deviceCode, Runnable callback) {
+        waiters.computeIfPresent(deviceCode, (key, list) -> {
+            if (list.remove(callback)) {
+                size.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * 用户作出决定的事务提交后唤醒该设备码的全部等待者
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDecided(DeviceAuthorizationDecidedEvent event) {
+        wake(event.getDeviceCode());
+    }
+
+    /**
+     * 唤醒该设备码的全部等待者，没有等待者时不做任何事
+     */
+    public void wake(String deviceCode) {
+        List<Runnable> callbacks = waiters.remove(deviceCode);
+        if (callbacks == null) {
+            return;
+        }
+        size.addAndGet(-callbacks.size());
+        for (Runnable callback : callbacks) {
+            execute(callback);
+        }
+    }
+
+    /**
+     * 在唤醒线程上执行任务，用于需要兑换设备码的检查，不占用调度线程
+     *
+     * @return 正在关闭、任务被拒绝时返回 false
+     */
+    public boolean execute(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 正在关闭，挂起的请求会在超时后自行返回
+            log.debug("Device long-poll wakeup rejected: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,252 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.DeviceSseConfig;
+import com.zhouzhou.authforge.dto.DeviceTokenRequest;
+import com.zhouzhou.authforge.dto.DeviceTokenResponse;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import com.zhouzhou.authforge.service.OAuth2DeviceTokenService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 设备授权状态流
+ *
+ * 处理流程与长轮询相同：先登记等待者，再执行一次普通轮询。授权已有结果时直接返回与令牌端点相同的响应；
+ * 仍在等待时打开 SSE 连接并推送 status 事件，之后：
+ * 1. 用户批准：推送 status=approved 和 token 事件（内容与令牌端点的成功响应相同）后关闭
+ * 2. 用户拒绝：推送 status=denied 后关闭
+ * 3. 连接达到最长保持时间：重新检查一次，推送 pending 或 expired 后关闭，客户端重新连接
+ * 其余时间按心跳间隔发送注释行，保持代理和负载均衡的连接不被回收。
+ */
+@Slf4j
+@Component
+public class DeviceAuthorizationStream {
+
+    private static final String AUTHORIZATION_PENDING = "authorization_pending";
+
+    private final OAuth2DeviceTokenService deviceTokenService;
+    private final DeviceAuthorizationNotifier notifier;
+    private final DeviceSseConfig config;
+    private final OAuth2ErrorLogger errorLogger;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> perClient = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    public DeviceAuthorizationStream(OAuth2DeviceTokenService deviceTokenService,
+                                     DeviceAuthorizationNotifier notifier,
+                                     DeviceSseConfig config,
+                                     OAuth2ErrorLogger errorLogger,
+                                     MeterRegistry meterRegistry) {
+        this.deviceTokenService = deviceTokenService;
+        this.notifier = notifier;
+        this.config = config;
+        this.errorLogger = errorLogger;
+        Gauge.builder("authforge.device.sse.connections", total, AtomicInteger::get)
+                .description("Open device authorization status streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 打开状态流
+     *
+     * @param tokenRequest 设备令牌请求
+     * @return 授权仍在等待时为 SseEmitter，否则为令牌端点的响应
+     */
+    public Object open(DeviceTokenRequest tokenRequest) {
+        Connection connection = new Connection(tokenRequest,
+                new SseEmitter(config.getMaxDuration().plus(config.getHeartbeatInterval()).toMillis()),
+                System.nanoTime() + config.getMaxDuration().toNanos());
+        String deviceCode = tokenRequest.getDeviceCode();
+        boolean registered = notifier.register(deviceCode, connection.wakeup);
+
+        ResponseEntity<DeviceTokenResponse> response;
+        try {
+            response = deviceTokenService.getDeviceToken(tokenRequest);
+        } catch (RuntimeException e) {
+            if (registered) {
+                notifier.unregister(deviceCode, connection.wakeup);
+            }
+            throw e;
+        }
+
+        if (!isPending(response)) {
+            if (registered) {
+                notifier.unregister(deviceCode, connection.wakeup);
+            }
+            return response;
+        }
+        // 授权等待中说明客户端认证和 client_id 校验都已通过
+        if (!registered || !tryAcquire(connection)) {
+            if (!registered || connection.finished.compareAndSet(false, true)) {
+                // 拒绝的连接先占用，之后的唤醒不会再兑换设备码
+                if (registered) {
+                    notifier.unregister(deviceCode, connection.wakeup);
+                }
+                return reject();
+            }
+            // 已被唤醒并正在兑换，返回连接以便客户端收到结果（不计入连接数）
+            return connection.emitter;
+        }
+
+        SseEmitter emitter = connection.emitter;
+        emitter.onCompletion(() -> release(connection));
+        emitter.onTimeout(() -> release(connection));
+        emitter.onError(error -> release(connection));
+        connections.add(connection);
+        if (connection.finished.get()) {
+            // 登记连接前已被唤醒，完成后的回调可能早于登记
+            release(connection);
+        }
+        send(connection, SseEmitter.event().name("status").data(Map.of("status", "pending"), MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    /**
+     * 发送心跳，并关闭达到最长保持时间的连接
+     *
+     * 到期连接的重新检查会查询数据库甚至签发令牌，交给唤醒线程执行，不阻塞调度线程上的其他任务
+     */
+    @Scheduled(fixedDelayString = "${auth.device.sse.heartbeat-interval:PT15S}", initialDelay = 15_000)
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Connection connection : connections) {
+            if (connection.finished.get()) {
+                continue;
+            }
+            if (now - connection.deadline >= 0) {
+                notifier.execute(connection.wakeup);
+            } else {
+                send(connection, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    public int size() {
+        return total.get();
+    }
+
+    /**
+     * 重新兑换设备码，按结果推送事件并关闭连接
+     */
+    private void complete(Connection connection) {
+        // 先占用连接，唤醒和到期检查只有一方会兑换设备码
+        if (!connection.finished.compareAndSet(false, true)) {
+            return;
+        }
+        ResponseEntity<DeviceTokenResponse> response;
+        try {
+            response = deviceTokenService.getDeviceToken(connection.resumed);
+        } catch (RuntimeException e) {
+            log.error("Failed to complete device authorization stream", e);
+            connection.emitter.completeWithError(e);
+            release(connection);
+            return;
+        }
+
+        DeviceTokenResponse body = response.getBody();
+        String error = body != null ? body.getError() : null;
+        if (response.getStatusCode().is2xxSuccessful()) {
+            send(connection, status("approved"));
+            send(connection, SseEmitter.event().name("token").data(body, MediaType.APPLICATION_JSON));
+        } else if (AUTHORIZATION_PENDING.equals(error)) {
+            send(connection, status("pending"));
+        } else if ("access_denied".equals(error)) {
+            send(connection, status("denied"));
+        } else if ("expired_token".equals(error)) {
+            send(connection, status("expired"));
+        } else {
+            send(connection, SseEmitter.event().name("error").data(body, MediaType.APPLICATION_JSON));
+        }
+        connection.emitter.complete();
+        release(connection);
+    }
+
+    private static SseEmitter.SseEventBuilder status(String status) {
+        return SseEmitter.event().name("status").data(Map.of("status", status), MediaType.APPLICATION_JSON);
+    }
+
+    private void send(Connection connection, SseEmitter.SseEventBuilder event) {
+        try {
+            connection.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开或连接已结束
+            connection.finished.set(true);
+            release(connection);
+        }
+    }
+
+    private boolean tryAcquire(Connection connection) {
+        if (total.incrementAndGet() > config.getMaxConnections()) {
+            total.decrementAndGet();
+            return false;
+        }
+        AtomicInteger count = perClient.computeIfAbsent(connection.clientKey, key -> new AtomicInteger());
+        if (count.incrementAndGet() > config.getMaxConnectionsPerClient()) {
+            count.decrementAndGet();
+            total.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void release(Connection connection) {
+        if (!connections.remove(connection)) {
+            return;
+        }
+        notifier.unregister(connection.resumed.getDeviceCode(), connection.wakeup);
+        total.decrementAndGet();
+        perClient.computeIfPresent(connection.clientKey, (key, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    private ResponseEntity<Object> reject() {
+        errorLogger.logFailure("device_token_stream", "temporarily_unavailable", "Stream connection limit reached");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfterSeconds()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of(
+                        "error", "temporarily_unavailable",
+                        "error_description", "Too many open streams, please retry later or poll the token endpoint"
+                ));
+    }
+
+    private static boolean isPending(ResponseEntity<DeviceTokenResponse> response) {
+        return response.getBody() != null && AUTHORIZATION_PENDING.equals(response.getBody().getError());
+    }
+
+    /**
+     * 单个状态流连接
+     */
+    private final class Connection {
+
+        private final DeviceTokenRequest resumed;
+        private final String clientKey;
+        private final SseEmitter emitter;
+        private final long deadline;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final Runnable wakeup = () -> complete(this);
+
+        private Connection(DeviceTokenRequest tokenRequest, SseEmitter emitter, long deadline) {
+            this.resumed = tokenRequest.resume();
+            this.clientKey = String.valueOf(tokenRequest.getClientId());
+            this.emitter = emitter;
+            this.deadline = deadline;
+        }
+    }
+}
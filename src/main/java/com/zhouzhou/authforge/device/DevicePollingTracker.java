@@ -0,0 +1,127 @@
+package com.zhouzhou.authforge.device;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 设备授权轮询跟踪器
+ *
+ * 最后轮询时间和 slow_down 退避后的轮询间隔只保存在内存中，轮询不再写数据库，
+ * 只有状态变化（批准、拒绝、完成、过期）才落库。每条记录在对应设备授权过期后清除。
+ * 记录按节点保存：客户端轮询落到不同节点时，间隔检查可能放宽，但不影响授权结果。
+ */
+@Slf4j
+@Component
+public class DevicePollingTracker {
+
+    /**
+     * RFC 8628 第 3.5 节：收到 slow_down 后轮询间隔增加 5 秒
+     */
+    static final int SLOW_DOWN_INCREMENT_SECONDS = 5;
+
+    private final Map<String, PollState> states = new ConcurrentHashMap<>();
+    private final int defaultInterval;
+
+    public DevicePollingTracker(@Value("${auth.device.interval:5}") int defaultInterval, MeterRegistry meterRegistry) {
+        this.defaultInterval = defaultInterval;
+        Gauge.builder("authforge.device.polling.tracked", states, Map::size)
+                .description("Device authorizations with in-memory polling state")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次轮询
+     *
+     * 距离上次被接受的轮询不足当前间隔时拒绝，并把该记录的间隔增加 5 秒；被拒绝的轮询不更新最后轮询时间。
+     *
+     * @param key 设备码或用户码
+     * @param interval 初始轮询间隔（秒），为空时使用 auth.device.interval
+     * @param expiresAt 设备授权过期时间，记录保留到此时
+     * @param now 当前时间
+     * @return 允许本次轮询时返回 true，应返回 slow_down 时返回 false
+     */
+    public boolean tryPoll(String key, Integer interval, Instant expiresAt, Instant now) {
+        boolean[] accepted = new boolean[1];
+        states.compute(key, (k, state) -> {
+            if (state == null || !state.expiresAt.isAfter(now)) {
+                accepted[0] = true;
+                return new PollState(now, interval != null ? interval : defaultInterval, expiresAt);
+            }
+            if (now.isBefore(state.lastPolledAt.plusSeconds(state.interval))) {
+                state.interval += SLOW_DOWN_INCREMENT_SECONDS;
+                return state;
+            }
+            state.lastPolledAt = now;
+            accepted[0] = true;
+            return state;
+        });
+        return accepted[0];
+    }
+
+    /**
+     * 记录一次轮询，使用当前时间
+     */
+    public boolean tryPoll(String key, Integer interval, Instant expiresAt) {
+        return tryPoll(key, interval, expiresAt, Instant.now());
+    }
+
+    /**
+     * 当前轮询间隔（秒），没有记录时返回 null
+     */
+    public Integer currentInterval(String key) {
+        PollState state = states.get(key);
+        return state != null ? state.interval : null;
+    }
+
+    /**
+     * 设备授权进入终态后移除记录
+     */
+    public void remove(String key) {
+        states.remove(key);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * 定时清除已过期设备授权的记录
+     */
+    @Scheduled(fixedDelayString = "${auth.device.polling-eviction-interval:PT1M}", initialDelay = 60_000)
+    public void evictExpired() {
+        int evicted = evictExpired(Instant.now());
+        if (evicted > 0) {
+            log.debug("Evicted {} expired device polling entries", evicted);
+        }
+    }
+
+    int evictExpired(Instant now) {
+        int before = states.size();
+        states.values().removeIf(state -> !state.expiresAt.isAfter(now));
+        return Math.max(0, before - states.size());
+    }
+
+    /**
+     * 单个设备授权的轮询状态，只在 compute 内修改
+     */
+    private static final class PollState {
+
+        private Instant lastPolledAt;
+        private volatile int interval;
+        private final Instant expiresAt;
+
+        private PollState(Instant lastPolledAt, int interval, Instant expiresAt) {
+            this.lastPolledAt = lastPolledAt;
+            this.interval = interval;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.DeviceLongPollConfig;
+import com.zhouzhou.authforge.dto.DeviceTokenRequest;
+import com.zhouzhou.authforge.dto.DeviceTokenResponse;
+import com.zhouzhou.authforge.service.OAuth2DeviceTokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 设备授权令牌长轮询
+ *
+ * 处理流程：
+ * 1. 先登记等待者，再执行一次普通轮询；用户在登记之后作出的决定一定会触发唤醒，
+ *    登记之前作出的决定会被这次轮询直接读到，两者之间不会漏掉
+ * 2. 轮询结果不是 authorization_pending 时立即返回
+ * 3. 否则挂起请求，不占用容器线程；被唤醒时以 resumed 方式重新兑换设备码，
+ *    不再检查轮询间隔，超时后返回原来的 authorization_pending 响应
+ * 4. 唤醒可能发生在首次轮询执行期间：此时唤醒只做标记，由首次轮询返回 pending 后在请求线程上重新兑换，
+ *    同一个请求最多只有一方去兑换设备码
+ * 5. 超时与唤醒竞争同一个阶段标记：超时先到时唤醒不再兑换；唤醒已开始兑换时超时回调等待兑换结果，
+ *    避免设备码被兑换而令牌没有返回给客户端
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceTokenLongPoller {
+
+    private static final String AUTHORIZATION_PENDING = "authorization_pending";
+
+    private final OAuth2DeviceTokenService deviceTokenService;
+    private final DeviceAuthorizationNotifier notifier;
+    private final DeviceLongPollConfig config;
+
+    /**
+     * 处理设备令牌请求
+     *
+     * @param tokenRequest 设备令牌请求
+     * @return 令牌响应；授权仍在等待时为挂起的 DeferredResult
+     */
+    public DeferredResult<ResponseEntity<DeviceTokenResponse>> poll(DeviceTokenRequest tokenRequest) {
+        DeferredResult<ResponseEntity<DeviceTokenResponse>> result =
+                new DeferredResult<>(config.getTimeout().toMillis());
+        String deviceCode = tokenRequest.getDeviceCode();
+        DeviceTokenRequest resumed = tokenRequest.resume();
+        AtomicReference<Phase> phase = new AtomicReference<>(Phase.POLLING);
+        CompletableFuture<ResponseEntity<DeviceTokenResponse>> redemption = new CompletableFuture<>();
+
+        Runnable wakeup = () -> {
+            if (phase.compareAndSet(Phase.POLLING, Phase.DECIDED)
+                    || !phase.compareAndSet(Phase.PARKED, Phase.REDEEMING)) {
+                return;
+            }
+            try {
+                ResponseEntity<DeviceTokenResponse> redeemed = deviceTokenService.getDeviceToken(resumed);
+                redemption.complete(redeemed);
+                result.setResult(redeemed);
+            } catch (RuntimeException e) {
+                log.error("Failed to complete parked device token poll", e);
+                redemption.completeExceptionally(e);
+                result.setErrorResult(e);
+            }
+        };
+        boolean registered = notifier.register(deviceCode, wakeup);
+
+        ResponseEntity<DeviceTokenResponse> response;
+        try {
+            response = deviceTokenService.getDeviceToken(tokenRequest);
+        } catch (RuntimeException e) {
+            if (registered) {
+                notifier.unregister(deviceCode, wakeup);
+            }
+            throw e;
+        }
+
+        if (!registered || !isPending(response)) {
+            if (registered) {
+                notifier.unregister(deviceCode, wakeup);
+            }
+            result.setResult(response);
+            return result;
+        }
+
+        if (!phase.compareAndSet(Phase.POLLING, Phase.PARKED)) {
+            // 首次轮询期间用户已作出决定，唤醒已让出兑换
+            result.setResult(deviceTokenService.getDeviceToken(resumed));
+            return result;
+        }
+
+        result.onTimeout(() -> {
+            if (phase.compareAndSet(Phase.PARKED, Phase.TIMED_OUT)) {
+                notifier.unregister(deviceCode, wakeup);
+                result.setResult(response);
+                return;
+            }
+            // 唤醒已认领兑换，设备码可能已被兑换，必须返回兑换结果而不是 pending
+            awaitRedemption(redemption, result);
+        });
+        result.onError(error -> notifier.unregister(deviceCode, wakeup));
+        return result;
+    }
+
+    /**
+     * 单个请求的兑换阶段
+     */
+    private enum Phase {
+        /** 首次轮询执行中 */
+        POLLING,
+        /** 首次轮询期间收到唤醒 */
+        DECIDED,
+        /** 已挂起等待唤醒 */
+        PARKED,
+        /** 唤醒方正在兑换 */
+        REDEEMING,
+        /** 已超时，唤醒不再兑换 */
+        TIMED_OUT
+    }
+
+    /**
+     * 超时回调在唤醒兑换期间触发时，等待兑换完成并以其结果结束请求
+     */
+    private void awaitRedemption(CompletableFuture<ResponseEntity<DeviceTokenResponse>> redemption,
+                                 DeferredResult<ResponseEntity<DeviceTokenResponse>> result) {
+        try {
+            result.setResult(redemption.get(config.getTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.setErrorResult(e);
+        } catch (ExecutionException e) {
+            result.setErrorResult(e.getCause());
+        } catch (TimeoutException e) {
+            log.error("Device token redemption did not finish after the long poll timed out");
+            result.setErrorResult(e);
+        }
+    }
+
+    private static boolean isPending(ResponseEntity<DeviceTokenResponse> response) {
+        return response.getBody() != null && AUTHORIZATION_PENDING.equals(response.getBody().getError());
+    }
+}
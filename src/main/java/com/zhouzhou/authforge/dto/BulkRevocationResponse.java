@@ -0,0 +1,41 @@
+package com.zhouzhou.authforge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 批量撤销响应DTO
+ *
+ * 包含被撤销的令牌数量和被删除的授权同意数量，失败时包含错误码和错误描述
+ */
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRevocationResponse {
+
+    /**
+     * 被撤销的令牌数量
+     */
+    @JsonProperty("revoked_tokens")
+    private final Integer revokedTokens;
+
+    /**
+     * 被删除的授权同意数量
+     */
+    @JsonProperty("revoked_consents")
+    private final Integer revokedConsents;
+
+    /**
+     * 错误码
+     */
+    @JsonProperty("error")
+    private final String error;
+
+    /**
+     * 错误描述
+     */
+    @JsonProperty("error_description")
+    private final String errorDescription;
+}
@@ -33,4 +33,33 @@ public class DeviceTokenRequest {
      * 客户端ID
      */
     private final String clientId;
+
+    /**
+     * 已解析的令牌请求上下文，长轮询被唤醒后在后台线程中使用，不再访问 HTTP 请求对象
+     */
+    private final TokenRequestContext context;
+
+    /**
+     * 是否为长轮询被唤醒后的重新兑换：不检查轮询间隔，也不更新最后轮询时间
+     */
+    private final boolean resumed;
+
+    /**
+     * 获取令牌请求上下文
+     */
+    public TokenRequestContext getContext() {
+        return context != null ? context : TokenRequestContext.from(request);
+    }
+
+    /**
+     * 创建被唤醒后重新兑换使用的请求，需在容器线程上调用
+     */
+    public DeviceTokenRequest resume() {
+        return DeviceTokenRequest.builder()
+            .context(getContext())
+            .deviceCode(deviceCode)
+            .clientId(clientId)
+            .resumed(true)
+            .build();
+    }
 } 
\ No newline at end of file
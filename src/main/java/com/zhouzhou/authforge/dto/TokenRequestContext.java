@@ -0,0 +1,134 @@
+package com.zhouzhou.authforge.dto;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * 令牌请求上下文
+ *
+ * 从请求中一次性解析令牌端点（以及撤销、内省、设备授权等使用客户端认证的端点）需要的全部参数，
+ * 并缓存解码后的 Basic 认证凭证。解析结果不可变，保存在请求属性中，
+ * 控制器、规范校验、客户端认证器和令牌服务共享同一个实例，不再重复读取请求参数。
+ */
+@Getter
+public final class TokenRequestContext {
+
+    private static final String ATTRIBUTE = TokenRequestContext.class.getName();
+    private static final String BASIC_SCHEME = "Basic";
+
+    private final String grantType;
+    private final String code;
+    private final String redirectUri;
+    private final String codeVerifier;
+    private final String refreshToken;
+    private final String scope;
+
+    /**
+     * 请求参数中的客户端ID
+     */
+    private final String clientId;
+
+    /**
+     * 请求参数中的客户端密钥（client_secret_post）
+     */
+    private final String clientSecret;
+
+    private final String clientAssertion;
+    private final String clientAssertionType;
+
+    /**
+     * Authorization 请求头是否使用 Basic 方案
+     */
+    private final boolean basicAuthorization;
+
+    /**
+     * Basic 认证中解码出的客户端ID，请求头缺失或格式错误时为 null
+     */
+    private final String basicClientId;
+
+    /**
+     * Basic 认证中解码出的客户端密钥，请求头缺失或格式错误时为 null
+     */
+    private final String basicClientSecret;
+
+    private final String remoteAddress;
+
+    private TokenRequestContext(HttpServletRequest request) {
+        Map<String, String[]> parameters = request.getParameterMap();
+        this.grantType = first(parameters, "grant_type");
+        this.code = first(parameters, "code");
+        this.redirectUri = first(parameters, "redirect_uri");
+        this.codeVerifier = first(parameters, "code_verifier");
+        this.refreshToken = first(parameters, "refresh_token");
+        this.scope = first(parameters, "scope");
+        this.clientId = first(parameters, "client_id");
+        this.clientSecret = first(parameters, "client_secret");
+        this.clientAssertion = first(parameters, "client_assertion");
+        this.clientAssertionType = first(parameters, "client_assertion_type");
+        this.remoteAddress = request.getRemoteAddr();
+
+        String header = request.getHeader("Authorization");
+        this.basicAuthorization = header != null
+                && header.length() > BASIC_SCHEME.length()
+                && header.regionMatches(true, 0, BASIC_SCHEME, 0, BASIC_SCHEME.length())
+                && header.charAt(BASIC_SCHEME.length()) == ' ';
+
+        String[] basic = basicAuthorization ? decodeBasic(header.substring(BASIC_SCHEME.length() + 1).trim()) : null;
+        this.basicClientId = basic != null ? basic[0] : null;
+        this.basicClientSecret = basic != null ? basic[1] : null;
+    }
+
+    /**
+     * 获取请求对应的上下文，同一请求只解析一次
+     *
+     * @param request HTTP请求
+     * @return 令牌请求上下文
+     */
+    public static TokenRequestContext from(HttpServletRequest request) {
+        Object cached = request.getAttribute(ATTRIBUTE);
+        if (cached instanceof TokenRequestContext context) {
+            return context;
+        }
+        TokenRequestContext context = new TokenRequestContext(request);
+        request.setAttribute(ATTRIBUTE, context);
+        return context;
+    }
+
+    public boolean isAuthorizationCodeGrant() {
+        return "authorization_code".equals(grantType);
+    }
+
+    public boolean isRefreshTokenGrant() {
+        return "refresh_token".equals(grantType);
+    }
+
+    public boolean isClientCredentialsGrant() {
+        return "client_credentials".equals(grantType);
+    }
+
+    private static String first(Map<String, String[]> parameters, String name) {
+        String[] values = parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    /**
+     * 解码 Basic 凭证，格式错误时返回 null
+     */
+    private static String[] decodeBasic(String encoded) {
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int separator = credentials.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        return new String[] {credentials.substring(0, separator), credentials.substring(separator + 1)};
+    }
+}
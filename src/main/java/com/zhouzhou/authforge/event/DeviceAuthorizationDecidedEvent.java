@@ -0,0 +1,26 @@
+package com.zhouzhou.authforge.event;
+
+import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 设备授权决定事件
+ *
+ * 用户在验证页面批准或拒绝设备授权后发布，用于唤醒挂起的设备令牌轮询。
+ * 监听方应使用 {@code @TransactionalEventListener}，确保只在事务提交后处理。
+ */
+@Getter
+@RequiredArgsConstructor
+public class DeviceAuthorizationDecidedEvent {
+
+    /**
+     * 设备码
+     */
+    private final String deviceCode;
+
+    /**
+     * 用户作出的决定
+     */
+    private final DeviceAuthorizationStatus status;
+}
@@ -0,0 +1,36 @@
+package com.zhouzhou.authforge.event;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 令牌撤销事件
+ *
+ * 令牌被撤销后发布，携带被撤销令牌的主键和访问令牌值，
+ * 供内存缓存等组件及时清除已失效的令牌。
+ * 监听方应使用 {@code @TransactionalEventListener}，确保只在事务提交后处理。
+ */
+@Getter
+public class TokenRevokedEvent {
+
+    /**
+     * 被撤销令牌的主键
+     */
+    private final List<Long> tokenIds;
+
+    /**
+     * 被撤销的访问令牌值
+     */
+    private final List<String> accessTokens;
+
+    public TokenRevokedEvent(List<Long> tokenIds, List<String> accessTokens) {
+        this.tokenIds = Collections.unmodifiableList(tokenIds);
+        this.accessTokens = Collections.unmodifiableList(accessTokens);
+    }
+
+    public boolean isEmpty() {
+        return tokenIds.isEmpty();
+    }
+}
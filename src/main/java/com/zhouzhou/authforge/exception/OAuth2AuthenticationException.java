@@ -2,19 +2,34 @@ package com.zhouzhou.authforge.exception;
 
 /**
  * OAuth 2.0 认证异常
+ *
+ * 属于预期内的协议错误，不填充堆栈、不记录被抑制异常，可以预先创建并复用。
  */
 public class OAuth2AuthenticationException extends RuntimeException {
+
+    public static final OAuth2AuthenticationException CLIENT_NOT_FOUND =
+            new OAuth2AuthenticationException("invalid_client", "Client not found");
+
+    public static final OAuth2AuthenticationException MISSING_CLIENT_SECRET =
+            new OAuth2AuthenticationException("invalid_client", "Missing client_secret");
+
+    public static final OAuth2AuthenticationException INVALID_CLIENT_SECRET =
+            new OAuth2AuthenticationException("invalid_client", "Invalid client_secret");
+
+    public static final OAuth2AuthenticationException AUTHENTICATION_FAILED =
+            new OAuth2AuthenticationException("invalid_client", "Client authentication failed");
+
     private final String error;
     private final String errorDescription;
 
     public OAuth2AuthenticationException(String error, String errorDescription) {
-        super(errorDescription);
+        super(errorDescription, null, false, false);
         this.error = error;
         this.errorDescription = errorDescription;
     }
 
     public OAuth2AuthenticationException(String error, String errorDescription, Throwable cause) {
-        super(errorDescription, cause);
+        super(errorDescription, cause, false, false);
         this.error = error;
         this.errorDescription = errorDescription;
     }
@@ -26,4 +41,4 @@ public class OAuth2AuthenticationException extends RuntimeException {
     public String getErrorDescription() {
         return errorDescription;
     }
-} 
\ No newline at end of file
+}
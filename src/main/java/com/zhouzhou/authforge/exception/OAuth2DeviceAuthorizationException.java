@@ -2,6 +2,7 @@ package com.zhouzhou.authforge.exception;
 
 /**
  * OAuth 2.0 设备授权异常类，用于处理设备授权过程中的错误。
+ * 属于预期内的协议错误，不填充堆栈、不记录被抑制异常。
  *
  * @author zhouzhou
  * @since 1.0.0
@@ -17,7 +18,7 @@ public class OAuth2DeviceAuthorizationException extends RuntimeException {
      * @param errorDescription 错误描述
      */
     public OAuth2DeviceAuthorizationException(String error, String errorDescription) {
-        super(errorDescription);
+        super(errorDescription, null, false, false);
         this.error = error;
         this.errorDescription = errorDescription;
     }
@@ -0,0 +1,137 @@
+package com.zhouzhou.authforge.exception;
+
+import com.zhouzhou.authforge.config.ErrorLoggingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 协议错误日志记录器
+ *
+ * 凭证填充或设备轮询风暴时，逐条记录错误日志的开销会超过正常请求。这里：
+ * 1. 每个错误都按端点和错误码计入 authforge.oauth2.errors 计数器
+ * 2. 每个端点每秒最多输出 maxPerSecond 条 WARN 日志，不输出堆栈
+ * 3. 被丢弃的条数在下一个时间窗口的第一条日志中汇总输出
+ * 4. 错误描述中可能带有请求中的客户端ID等参数，输出前替换控制字符并截断，避免伪造日志行
+ */
+@Slf4j
+@Component
+public class OAuth2ErrorLogger {
+
+    private static final String METRIC_NAME = "authforge.oauth2.errors";
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final int MAX_VALUE_LENGTH = 256;
+
+    private final MeterRegistry meterRegistry;
+    private final ErrorLoggingConfig config;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OAuth2ErrorLogger(MeterRegistry meterRegistry, ErrorLoggingConfig config) {
+        this(meterRegistry, config, System::nanoTime);
+    }
+
+    OAuth2ErrorLogger(MeterRegistry meterRegistry, ErrorLoggingConfig config, LongSupplier nanoClock) {
+        this.meterRegistry = meterRegistry;
+        this.config = config;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 记录一次协议错误
+     *
+     * @param endpoint 端点名称，如 token、introspect、revoke、device_token
+     * @param error 错误码
+     * @param description 错误描述
+     */
+    public void logFailure(String endpoint, String error, String description) {
+        count(endpoint, error);
+
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        long suppressed = windows.computeIfAbsent(endpoint, key -> new Window(now))
+                .tryAcquire(config.getMaxPerSecond(), now);
+        if (suppressed < 0) {
+            return;
+        }
+        if (suppressed > 0) {
+            log.warn("{} request failed: {} ({}), {} similar failures suppressed in the last window",
+                    endpoint, sanitize(error), sanitize(description), suppressed);
+        } else {
+            log.warn("{} request failed: {} ({})", endpoint, sanitize(error), sanitize(description));
+        }
+    }
+
+    /**
+     * 只计数不记录日志，用于 authorization_pending 等正常流程中的错误响应
+     */
+    public void count(String endpoint, String error) {
+        counters.computeIfAbsent(endpoint + '|' + error, key -> Counter.builder(METRIC_NAME)
+                .description("OAuth 2.0 protocol errors by endpoint and error code")
+                .tag("endpoint", endpoint)
+                .tag("error", error)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 替换控制字符（包括换行）并截断过长的值
+     */
+    static String sanitize(String value) {
+        if (value == null) {
+            return null;
+        }
+        int length = Math.min(value.length(), MAX_VALUE_LENGTH);
+        StringBuilder sanitized = new StringBuilder(length + 3);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            sanitized.append(Character.isISOControl(c) ? '_' : c);
+        }
+        if (value.length() > MAX_VALUE_LENGTH) {
+            sanitized.append("...");
+        }
+        return sanitized.toString();
+    }
+
+    /**
+     * 单个端点的固定时间窗口
+     */
+    private static final class Window {
+
+        private final AtomicLong startedAt;
+        private final AtomicInteger logged = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        Window(long now) {
+            this.startedAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return -1 表示本条应丢弃；否则表示可以输出，返回值为上一窗口丢弃的条数
+         */
+        long tryAcquire(int maxPerWindow, long now) {
+            long start = startedAt.get();
+            long carried = 0;
+            if (now - start >= WINDOW_NANOS && startedAt.compareAndSet(start, now)) {
+                logged.set(0);
+                carried = suppressed.getAndSet(0);
+            }
+            if (logged.incrementAndGet() > maxPerWindow) {
+                suppressed.addAndGet(carried + 1);
+                return -1;
+            }
+            return carried;
+        }
+    }
+}
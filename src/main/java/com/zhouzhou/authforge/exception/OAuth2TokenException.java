@@ -2,13 +2,19 @@ package com.zhouzhou.authforge.exception;
 
 /**
  * OAuth 2.0 令牌异常
+ *
+ * 属于预期内的协议错误，不填充堆栈、不记录被抑制异常，可以预先创建并复用。
  */
 public class OAuth2TokenException extends RuntimeException {
+
+    public static final OAuth2TokenException SERVER_ERROR =
+            new OAuth2TokenException("server_error", "Failed to process token request");
+
     private final String error;
     private final String errorDescription;
 
     public OAuth2TokenException(String error, String errorDescription) {
-        super(errorDescription);
+        super(errorDescription, null, false, false);
         this.error = error;
         this.errorDescription = errorDescription;
     }
@@ -20,4 +26,4 @@ public class OAuth2TokenException extends RuntimeException {
     public String getErrorDescription() {
         return errorDescription;
     }
-} 
\ No newline at end of file
+}
@@ -77,7 +77,7 @@ public class DeviceAuthorizationEntity {
     /**
      * 轮询间隔（秒）
      */
-    @Column(name = "interval", nullable = false)
+    @Column(name = "`interval`", nullable = false)
     private Integer interval;
 
     /**
@@ -133,20 +133,6 @@ public class DeviceAuthorizationEntity {
         return DeviceAuthorizationStatus.DENIED.equals(status);
     }
 
-    /**
-     * 检查是否可以轮询
-     *
-     * @param requestedInterval 轮询间隔（秒）
-     * @return 如果可以轮询返回 true，否则返回 false
-     */
-    public boolean canPoll(int requestedInterval) {
-        if (lastPolledAt == null) {
-            return true;
-        }
-        Instant now = Instant.now();
-        return now.isAfter(lastPolledAt.plusSeconds(requestedInterval));
-    }
-
     /**
      * 更新最后轮询时间
      */
@@ -154,13 +140,6 @@ public class DeviceAuthorizationEntity {
         this.lastPolledAt = Instant.now();
     }
 
-    /**
-     * 增加轮询间隔
-     */
-    public void increasePollingInterval() {
-        this.interval += 5; // RFC 8628 要求增加 5 秒
-    }
-
     /**
      * 检查设备授权是否已使用
      */
@@ -0,0 +1,52 @@
+package com.zhouzhou.authforge.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * 设备授权状态变化记录
+ *
+ * 与设备授权状态变化在同一事务中写入，主键单调递增，各节点按主键游标读取，
+ * 用于唤醒挂在其他节点上的长轮询和状态流。
+ */
+@Entity
+@Table(name = "device_authorization_events")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DeviceAuthorizationEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 设备验证码
+     */
+    @Column(name = "device_code", nullable = false)
+    private String deviceCode;
+
+    /**
+     * 变化后的授权状态
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private DeviceAuthorizationStatus status;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public DeviceAuthorizationEventEntity(String deviceCode, DeviceAuthorizationStatus status) {
+        this.deviceCode = deviceCode;
+        this.status = status;
+    }
+}
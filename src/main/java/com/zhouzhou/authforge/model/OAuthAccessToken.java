@@ -77,6 +77,12 @@ public class OAuthAccessToken {
     @Column(name = "refresh_token_expires_at")
     private LocalDateTime refreshTokenExpiresAt;
 
+    /**
+     * 可清理时间：访问令牌与刷新令牌中较晚的过期时间，分区模式下作为分区键
+     */
+    @Column(name = "purge_after", nullable = false, updatable = false)
+    private LocalDateTime purgeAfter;
+
     /**
      * 令牌状态
      */
@@ -134,6 +140,18 @@ public class OAuthAccessToken {
             .build();
     }
 
+    /**
+     * 持久化前计算可清理时间，写入后不再变更，避免行在分区之间迁移
+     */
+    @PrePersist
+    public void initPurgeAfter() {
+        if (purgeAfter == null) {
+            purgeAfter = refreshTokenExpiresAt != null && refreshTokenExpiresAt.isAfter(accessTokenExpiresAt)
+                    ? refreshTokenExpiresAt
+                    : accessTokenExpiresAt;
+        }
+    }
+
     /**
      * 检查访问令牌是否已过期
      */
@@ -6,6 +6,7 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 /**
@@ -17,6 +18,11 @@ import java.time.LocalDateTime;
 @Setter
 public class OAuthAuthorization {
 
+    /**
+     * 授权记录最长保留时长，授权码有效期远小于该值
+     */
+    public static final Duration MAX_LIFETIME = Duration.ofDays(1);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -95,6 +101,12 @@ public class OAuthAuthorization {
     @Column(name = "status", nullable = false)
     private AuthorizationStatus status = AuthorizationStatus.ACTIVE;
 
+    /**
+     * 可清理时间，分区模式下作为分区键
+     */
+    @Column(name = "purge_after", nullable = false, updatable = false)
+    private LocalDateTime purgeAfter;
+
     /**
      * 创建时间
      */
@@ -109,6 +121,16 @@ public class OAuthAuthorization {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * 持久化前计算可清理时间，写入后不再变更，避免行在分区之间迁移
+     */
+    @PrePersist
+    void initPurgeAfter() {
+        if (purgeAfter == null) {
+            purgeAfter = LocalDateTime.now().plus(MAX_LIFETIME);
+        }
+    }
+
     /**
      * 检查refresh_token是否已失效
      */
@@ -152,6 +152,24 @@ public class OAuthClient {
     @Column(name = "initial_access_token", nullable = true)
     private String initialAccessToken;
 
+    /**
+     * 客户端公钥集地址（private_key_jwt 认证使用）
+     */
+    @Column(name = "jwks_uri", length = 500)
+    private String jwksUri;
+
+    /**
+     * 令牌端点每秒允许的请求数，为空时使用全局默认值
+     */
+    @Column(name = "rate_limit_per_second")
+    private Integer rateLimitPerSecond;
+
+    /**
+     * 令牌端点允许的突发请求数，为空时使用全局默认值
+     */
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
     /**
      * 获取重定向URI集合
      */
@@ -253,6 +271,18 @@ public class OAuthClient {
     @Column(name = "reuse_refresh_tokens", nullable = false)
     private Boolean reuseRefreshTokens = true;
 
+    /**
+     * 客户端凭证模式下是否复用仍然有效的访问令牌
+     */
+    @Column(name = "reuse_client_credentials_tokens", nullable = false)
+    private Boolean reuseClientCredentialsTokens = false;
+
+    /**
+     * 复用访问令牌时要求的最小剩余有效期（占总有效期的百分比）
+     */
+    @Column(name = "token_reuse_min_remaining_percent", nullable = false)
+    private Integer tokenReuseMinRemainingPercent = 50;
+
     /**
      * 检查客户端是否支持刷新令牌
      */
@@ -284,6 +314,13 @@ public class OAuthClient {
         return Boolean.TRUE.equals(this.reuseRefreshTokens);
     }
 
+    /**
+     * 检查客户端凭证模式下是否复用访问令牌
+     */
+    public boolean isReuseClientCredentialsTokens() {
+        return Boolean.TRUE.equals(this.reuseClientCredentialsTokens);
+    }
+
     /**
      * 获取访问令牌有效期
      *
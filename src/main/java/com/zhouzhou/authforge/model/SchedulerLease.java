@@ -0,0 +1,41 @@
+package com.zhouzhou.authforge.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务租约
+ *
+ * 多节点部署时用于协调后台任务，同一时间只有持有未过期租约的节点执行任务
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Getter
+@Setter
+public class SchedulerLease {
+
+    /**
+     * 租约名称（任务名称）
+     */
+    @Id
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    /**
+     * 当前持有者
+     */
+    @Column(name = "owner", nullable = false, length = 200)
+    private String owner;
+
+    /**
+     * 租约过期时间
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
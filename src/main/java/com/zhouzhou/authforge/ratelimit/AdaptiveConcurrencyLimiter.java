@@ -0,0 +1,165 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * AIMD 自适应并发限制器
+ *
+ * 1. 正在处理的请求数小于上限时通过 CAS 直接占用名额，不加锁
+ * 2. 达到上限的请求进入有界队列，在超时时间内等待名额释放，队列已满或超时则拒绝
+ * 3. 请求结束后按延迟调整上限：未超过阈值且上限已被用到一半以上时加 1/limit，
+ *    即每处理约一个上限数量的请求加 1；超过阈值或失败时乘以缩减比例
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final int maxQueue;
+
+    /**
+     * 当前上限（double 的位表示），允许小数以实现缓慢的加性增长
+     */
+    private final AtomicLong limitBits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdNanos, double backoffRatio, int maxQueue) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.maxQueue = maxQueue;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(clamp(initialLimit)));
+    }
+
+    /**
+     * 尝试占用一个名额
+     *
+     * @param maxWaitNanos 名额不足时最多等待的纳秒数
+     * @return 成功占用返回 true，之后必须调用 {@link #onSuccess(long)} 或 {@link #onDropped()}
+     */
+    public boolean tryAcquire(long maxWaitNanos) throws InterruptedException {
+        if (tryIncrement()) {
+            return true;
+        }
+        if (maxWaitNanos <= 0 || queued.incrementAndGet() > maxQueue) {
+            if (maxWaitNanos > 0) {
+                queued.decrementAndGet();
+            }
+            return false;
+        }
+        try {
+            long remaining = maxWaitNanos;
+            lock.lock();
+            try {
+                while (!tryIncrement()) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * 请求正常结束，释放名额并按延迟调整上限
+     *
+     * @param latencyNanos 请求处理耗时
+     */
+    public void onSuccess(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else {
+            if (current * 2 >= getLimit()) {
+                adjust(limit -> limit + 1 / limit);
+            }
+        }
+        signal();
+    }
+
+    /**
+     * 请求失败或超时，释放名额并缩减上限
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+        signal();
+    }
+
+    /**
+     * 只释放名额，不调整上限（用于无法衡量延迟的请求，如长轮询）
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+        signal();
+    }
+
+    public double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private boolean tryIncrement() {
+        int limit = (int) getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void decrease() {
+        adjust(limit -> limit * backoffRatio);
+    }
+
+    private void adjust(DoubleUnaryOperator function) {
+        limitBits.updateAndGet(bits ->
+                Double.doubleToLongBits(clamp(function.applyAsDouble(Double.longBitsToDouble(bits)))));
+    }
+
+    private void signal() {
+        if (queued.get() == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+}
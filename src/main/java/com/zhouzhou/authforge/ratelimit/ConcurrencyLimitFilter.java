@@ -0,0 +1,120 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import com.zhouzhou.authforge.config.ConcurrencyLimitConfig;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * 自适应并发限制过滤器
+ *
+ * 排在限流过滤器之后、Spring Security 之前。数据库变慢时请求延迟升高，并发上限随之收缩，
+ * 多出的请求快速返回 503 和 Retry-After，而不是占满 Tomcat 线程等待连接池。
+ * 响应格式与撤销端点的临时错误一致。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] BODY = "{\"error\":\"temporarily_unavailable\",\"error_description\":\"Server is overloaded, please retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrencyLimitConfig config;
+    private final OAuth2ErrorLogger errorLogger;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter rejected;
+    private final Set<String> paths;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitConfig config, OAuth2ErrorLogger errorLogger, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.errorLogger = errorLogger;
+        this.paths = Set.copyOf(config.getPaths());
+        this.limiter = new AdaptiveConcurrencyLimiter(
+                config.getInitialLimit(),
+                config.getMinLimit(),
+                config.getMaxLimit(),
+                config.getLatencyThreshold().toNanos(),
+                config.getBackoffRatio(),
+                config.getMaxQueue());
+
+        Gauge.builder("authforge.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("authforge.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder("authforge.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Requests waiting for a concurrency permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("authforge.concurrency.rejected")
+                .description("Requests rejected by the adaptive concurrency limiter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled()
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = limiter.tryAcquire(config.getMaxWait().toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 长轮询等异步请求挂起后不再占用线程和连接，立即释放名额，耗时也不计入延迟统计
+                limiter.onIgnored();
+            } else if (failed) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        rejected.increment();
+        String path = request.getRequestURI();
+        errorLogger.logFailure(path.substring(path.lastIndexOf('/') + 1), "temporarily_unavailable",
+                "Concurrency limit reached (limit " + (int) limiter.getLimit() + ")");
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfterSeconds()));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+}
@@ -0,0 +1,80 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import com.zhouzhou.authforge.config.RateLimitConfig;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * 令牌端点限流过滤器
+ *
+ * 排在 Spring Security 过滤器链之前，超限请求直接返回 429 和 Retry-After，
+ * 不会进入客户端认证，也不会访问数据库。客户端ID取自 Basic 认证头或 client_id 参数，
+ * 只使用 client_assertion 且未携带 client_id 的请求只按来源IP限流。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] BODY = "{\"error\":\"temporarily_unavailable\",\"error_description\":\"Rate limit exceeded\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimitConfig config;
+    private final TokenEndpointRateLimiter rateLimiter;
+    private final OAuth2ErrorLogger errorLogger;
+    private final Set<String> paths;
+
+    public RateLimitFilter(RateLimitConfig config, TokenEndpointRateLimiter rateLimiter, OAuth2ErrorLogger errorLogger) {
+        this.config = config;
+        this.rateLimiter = rateLimiter;
+        this.errorLogger = errorLogger;
+        this.paths = Set.copyOf(config.getPaths());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || !paths.contains(path(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TokenRequestContext context = TokenRequestContext.from(request);
+        String clientId = context.getBasicClientId() != null ? context.getBasicClientId() : context.getClientId();
+
+        long wait = rateLimiter.tryAcquire(clientId, context.getRemoteAddress());
+        if (wait == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String path = path(request);
+        errorLogger.logFailure(path.substring(path.lastIndexOf('/') + 1), "rate_limited",
+                "Rate limit exceeded for client " + clientId + " from " + context.getRemoteAddress());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,92 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按键限流的令牌桶集合
+ *
+ * 令牌桶分散保存在多个 ConcurrentHashMap 分段中，已存在的桶只做一次无锁读取；
+ * 空闲清理按分段逐个遍历，不会长时间占用整张表。桶的数量有上限，
+ * 超出后对新的键不再限流（由调用方的其他维度兜底），避免伪造的键耗尽内存。
+ */
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes;
+    private final int mask;
+    private final int maxBuckets;
+    private final AtomicInteger size = new AtomicInteger();
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int stripes, int maxBuckets) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ConcurrentHashMap[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = count - 1;
+        this.maxBuckets = maxBuckets;
+    }
+
+    /**
+     * 尝试为指定键获取一个令牌
+     *
+     * @param key 限流键
+     * @param permitsPerSecond 每秒补充的请求数
+     * @param burst 桶容量
+     * @param now 当前时间（纳秒）
+     * @return 0 表示获取成功；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String key, double permitsPerSecond, int burst, long now) {
+        ConcurrentHashMap<String, TokenBucket> stripe = stripe(key);
+        TokenBucket bucket = stripe.get(key);
+        if (bucket == null || !bucket.hasLimit(permitsPerSecond, burst)) {
+            if (bucket == null && size.get() >= maxBuckets) {
+                return 0;
+            }
+            bucket = stripe.compute(key, (k, existing) -> {
+                if (existing != null && existing.hasLimit(permitsPerSecond, burst)) {
+                    return existing;
+                }
+                if (existing == null) {
+                    size.incrementAndGet();
+                }
+                // 限额变更时重建令牌桶，新桶从满状态开始
+                return new TokenBucket(permitsPerSecond, burst, now);
+            });
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * 清理空闲的令牌桶
+     *
+     * @param now 当前时间（纳秒）
+     * @param idleNanos 空闲时长
+     * @return 清理的数量
+     */
+    public int evictIdle(long now, long idleNanos) {
+        int evicted = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            for (var entry : stripe.entrySet()) {
+                if (entry.getValue().isIdle(now, idleNanos) && stripe.remove(entry.getKey(), entry.getValue())) {
+                    size.decrementAndGet();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 当前令牌桶数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private ConcurrentHashMap<String, TokenBucket> stripe(String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
@@ -0,0 +1,77 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import com.zhouzhou.authforge.config.RegistrationRateLimitConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 客户端注册限流器
+ *
+ * 先按来源IP、再按初始访问令牌计数。初始访问令牌只以摘要前 12 字节作为键保存，
+ * 内存中不保留令牌原文；无效的令牌同样计数，防止借注册端点枚举令牌。
+ */
+@Slf4j
+@Component
+public class RegistrationRateLimiter {
+
+    private static final int FINGERPRINT_BYTES = 12;
+
+    private final RegistrationRateLimitConfig config;
+    private final SlidingWindowRateLimiter limiter;
+
+    public RegistrationRateLimiter(RegistrationRateLimitConfig config) {
+        this.config = config;
+        this.limiter = new SlidingWindowRateLimiter(config.getWindow().toMillis(), config.getMaxKeys());
+    }
+
+    /**
+     * 记录一次注册尝试
+     *
+     * @param remoteAddress 来源IP
+     * @param initialAccessToken 初始访问令牌，可以为 null
+     * @return 0 表示放行；否则为建议等待的毫秒数
+     */
+    public long tryAcquire(String remoteAddress, String initialAccessToken) {
+        if (!config.isEnabled()) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        if (remoteAddress != null) {
+            long wait = limiter.tryAcquire("ip:" + remoteAddress, config.getMaxAttempts(), now);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        if (initialAccessToken == null || initialAccessToken.isEmpty()) {
+            return 0;
+        }
+        return limiter.tryAcquire("iat:" + fingerprint(initialAccessToken), config.getMaxAttemptsPerToken(), now);
+    }
+
+    /**
+     * 定时清理过期的计数
+     */
+    @Scheduled(fixedDelayString = "${auth.server.registration.rate-limit.eviction-interval:PT5M}", initialDelay = 300_000)
+    public void evictExpired() {
+        int evicted = limiter.evictExpired(System.currentTimeMillis());
+        if (evicted > 0) {
+            log.debug("Evicted {} expired registration rate limit entries", evicted);
+        }
+    }
+
+    private static String fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, FINGERPRINT_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
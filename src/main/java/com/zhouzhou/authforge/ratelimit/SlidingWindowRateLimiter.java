@@ -0,0 +1,125 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 滑动窗口计数限流器
+ *
+ * 用上一个窗口和当前窗口两个计数按时间加权估算滑动窗口内的请求数，
+ * 每个键只占一个 AtomicLong：高 32 位为窗口序号，中间 16 位为当前窗口计数，
+ * 低 16 位为上一个窗口计数，通过 CAS 更新。窗口序号按纪元毫秒数计算，
+ * 窗口长度不能小于 {@link #MIN_WINDOW_MILLIS}，否则序号会超出 32 位。
+ * 超过两个窗口没有请求的键视为过期，由 {@link #evictExpired(long)} 清理。
+ */
+public class SlidingWindowRateLimiter {
+
+    /**
+     * 最小窗口长度：1 秒的窗口序号在 2106 年之前不超过 32 位
+     */
+    public static final long MIN_WINDOW_MILLIS = 1_000L;
+
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long windowMillis;
+    private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public SlidingWindowRateLimiter(long windowMillis, int maxKeys) {
+        if (windowMillis < MIN_WINDOW_MILLIS) {
+            throw new IllegalArgumentException("windowMillis must be at least " + MIN_WINDOW_MILLIS);
+        }
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param key 限流键
+     * @param limit 滑动窗口内允许的最大请求数
+     * @param nowMillis 当前时间（毫秒）
+     * @return 0 表示放行；否则为建议等待的毫秒数
+     */
+    public long tryAcquire(String key, int limit, long nowMillis) {
+        int max = (int) Math.min(limit, COUNT_MASK);
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            if (size.get() >= maxKeys) {
+                return 0;
+            }
+            counter = counters.computeIfAbsent(key, k -> {
+                size.incrementAndGet();
+                return new AtomicLong();
+            });
+        }
+
+        long window = nowMillis / windowMillis;
+        long elapsed = nowMillis - window * windowMillis;
+        while (true) {
+            long state = counter.get();
+            long stateWindow = state >>> (2 * COUNT_BITS);
+            long current;
+            long previous;
+            if (stateWindow == window) {
+                current = (state >>> COUNT_BITS) & COUNT_MASK;
+                previous = state & COUNT_MASK;
+            } else {
+                current = 0;
+                previous = stateWindow == window - 1 ? (state >>> COUNT_BITS) & COUNT_MASK : 0;
+            }
+
+            double estimate = previous * (double) (windowMillis - elapsed) / windowMillis + current;
+            if (estimate + 1 > max) {
+                return retryAfter(current, previous, elapsed, max);
+            }
+            long next = (window << (2 * COUNT_BITS)) | ((current + 1) << COUNT_BITS) | previous;
+            if (counter.compareAndSet(state, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 清理两个窗口内没有请求的键
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @return 清理的数量
+     */
+    public int evictExpired(long nowMillis) {
+        long window = nowMillis / windowMillis;
+        int evicted = 0;
+        for (var entry : counters.entrySet()) {
+            AtomicLong counter = entry.getValue();
+            if ((counter.get() >>> (2 * COUNT_BITS)) < window - 1 && counters.remove(entry.getKey(), counter)) {
+                size.decrementAndGet();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 当前跟踪的键数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 估算加权计数降到 max - 1 以下需要等待的时间
+     */
+    private long retryAfter(long current, long previous, long elapsed, int max) {
+        if (current + 1 <= max && previous > 0) {
+            // 当前窗口内上一窗口的权重继续衰减即可放行
+            double fraction = 1 - (double) (max - current - 1) / previous;
+            return Math.max(1, (long) Math.ceil(fraction * windowMillis) - elapsed);
+        }
+        // 当前窗口已满，等到下一窗口中当前计数的权重衰减到足够低
+        double fraction = current > 0 ? Math.max(0, 1 - (double) (max - 1) / current) : 0;
+        return windowMillis - elapsed + (long) Math.ceil(fraction * windowMillis);
+    }
+}
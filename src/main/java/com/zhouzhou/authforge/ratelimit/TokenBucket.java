@@ -0,0 +1,75 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ *
+ * 按 GCRA（通用信元速率算法）实现：只保存一个“理论到达时间”，
+ * 每个请求把它推后一个发放间隔，超出突发容差的请求被拒绝。
+ * 状态只有一个 AtomicLong，通过 CAS 更新，不需要加锁，也不需要后台补充令牌。
+ */
+public final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * 理论到达时间（System.nanoTime 时间轴），不晚于当前时间表示桶已满
+     */
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond 每秒补充的请求数
+     * @param burst 桶容量
+     * @param now 当前时间（纳秒）
+     */
+    public TokenBucket(double permitsPerSecond, int burst, long now) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.intervalNanos = Math.max(1L, (long) (NANOS_PER_SECOND / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param now 当前时间（纳秒）
+     * @return 0 表示获取成功；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 桶已回满并且空闲超过指定时长
+     */
+    public boolean isIdle(long now, long idleNanos) {
+        return now - theoreticalArrival.get() > idleNanos;
+    }
+
+    /**
+     * 限额是否与给定值相同
+     */
+    public boolean hasLimit(double permitsPerSecond, int burst) {
+        return this.permitsPerSecond == permitsPerSecond && this.burst == burst;
+    }
+}
@@ -0,0 +1,119 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import com.zhouzhou.authforge.config.RateLimitConfig;
+import com.zhouzhou.authforge.repository.OAuthClientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 令牌端点限流器
+ *
+ * 先按来源IP、再按"来源IP + 客户端ID"取令牌。客户端单独设置的限额由定时任务从数据库加载到内存，
+ * 请求路径上只读内存中的快照，不访问数据库。
+ * 此时客户端尚未认证，客户端ID可以被伪造，因此客户端令牌桶按来源IP区分，
+ * 其他来源冒用客户端ID的请求不会耗尽真实客户端的令牌桶。
+ */
+@Slf4j
+@Component
+public class TokenEndpointRateLimiter {
+
+    private final RateLimitConfig config;
+    private final OAuthClientRepository clientRepository;
+    private final RateLimiter addressLimiter;
+    private final RateLimiter clientLimiter;
+
+    /**
+     * 客户端单独设置的限额快照，整体替换
+     */
+    private volatile Map<String, RateLimitConfig.Limit> clientLimits = Map.of();
+
+    public TokenEndpointRateLimiter(RateLimitConfig config, OAuthClientRepository clientRepository,
+                                    MeterRegistry meterRegistry) {
+        this.config = config;
+        this.clientRepository = clientRepository;
+        this.addressLimiter = new RateLimiter(config.getStripes(), config.getMaxBuckets());
+        this.clientLimiter = new RateLimiter(config.getStripes(), config.getMaxBuckets());
+
+        Gauge.builder("authforge.ratelimit.buckets", addressLimiter, RateLimiter::size)
+                .description("Token buckets held by the token endpoint rate limiter")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("authforge.ratelimit.buckets", clientLimiter, RateLimiter::size)
+                .description("Token buckets held by the token endpoint rate limiter")
+                .tag("key", "client")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 尝试为请求获取令牌
+     *
+     * @param clientId 请求中声明的客户端ID，可以为 null
+     * @param remoteAddress 来源IP，可以为 null
+     * @return 0 表示放行；否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String clientId, String remoteAddress) {
+        return tryAcquire(clientId, remoteAddress, System.nanoTime());
+    }
+
+    long tryAcquire(String clientId, String remoteAddress, long now) {
+        if (remoteAddress != null) {
+            RateLimitConfig.Limit ip = config.getIp();
+            long wait = addressLimiter.tryAcquire(remoteAddress, ip.getPermitsPerSecond(), ip.getBurst(), now);
+            if (wait > 0) {
+                return wait;
+            }
+        }
+        if (clientId == null || clientId.isEmpty()) {
+            return 0;
+        }
+        RateLimitConfig.Limit limit = clientLimits.getOrDefault(clientId, config.getClient());
+        return clientLimiter.tryAcquire(remoteAddress + ' ' + clientId, limit.getPermitsPerSecond(), limit.getBurst(), now);
+    }
+
+    /**
+     * 定时从数据库加载客户端限额，加载失败时保留上一次的快照
+     */
+    @Scheduled(fixedDelayString = "${auth.rate-limit.refresh-interval:PT1M}", initialDelay = 0)
+    public void refreshClientLimits() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            RateLimitConfig.Limit defaults = config.getClient();
+            Map<String, RateLimitConfig.Limit> limits = new HashMap<>();
+            for (OAuthClientRepository.ClientRateLimit row : clientRepository.findClientRateLimits()) {
+                double permitsPerSecond = positiveOr(row.getRateLimitPerSecond(), defaults.getPermitsPerSecond());
+                int burst = (int) positiveOr(row.getRateLimitBurst(), defaults.getBurst());
+                limits.put(row.getClientId(), new RateLimitConfig.Limit(permitsPerSecond, burst));
+            }
+            clientLimits = limits;
+        } catch (DataAccessException e) {
+            log.warn("Failed to refresh client rate limits, keeping {} cached entries: {}",
+                    clientLimits.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 定时清理空闲的令牌桶
+     */
+    @Scheduled(fixedDelayString = "${auth.rate-limit.eviction-interval:PT1M}", initialDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long idleNanos = config.getIdleTimeout().toNanos();
+        int evicted = addressLimiter.evictIdle(now, idleNanos) + clientLimiter.evictIdle(now, idleNanos);
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private static double positiveOr(Integer value, double defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+}
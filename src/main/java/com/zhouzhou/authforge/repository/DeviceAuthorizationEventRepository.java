@@ -0,0 +1,59 @@
+package com.zhouzhou.authforge.repository;
+
+import com.zhouzhou.authforge.model.DeviceAuthorizationEventEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 设备授权状态变化记录仓库
+ */
+@Repository
+public interface DeviceAuthorizationEventRepository extends JpaRepository<DeviceAuthorizationEventEntity, Long> {
+
+    /**
+     * 按主键游标读取一批变化记录（主键范围扫描）
+     *
+     * @param afterId 已读取的最大主键
+     * @param pageable 批大小
+     * @return 变化记录列表，按主键升序
+     */
+    @Query("SELECT e FROM DeviceAuthorizationEventEntity e WHERE e.id > :afterId ORDER BY e.id")
+    List<DeviceAuthorizationEventEntity> findAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * 当前最大主键，节点启动时从这里开始读取
+     *
+     * @return 最大主键，表为空时返回 0
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM DeviceAuthorizationEventEntity e")
+    long findMaxId();
+
+    /**
+     * 按主键游标查询已过期的变化记录主键。
+     *
+     * @param cutoff 截止时间
+     * @param afterId 上一批最后一条记录的主键
+     * @param pageable 批大小
+     * @return 变化记录主键列表，按主键升序
+     */
+    @Query("SELECT e.id FROM DeviceAuthorizationEventEntity e WHERE e.createdAt < :cutoff AND e.id > :afterId ORDER BY e.id")
+    List<Long> findExpiredIds(@Param("cutoff") Instant cutoff, @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * 按主键批量删除变化记录。
+     *
+     * @param ids 主键列表
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DeviceAuthorizationEventEntity e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -2,12 +2,15 @@ package com.zhouzhou.authforge.repository;
 
 import com.zhouzhou.authforge.model.DeviceAuthorizationEntity;
 import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +72,62 @@ public interface DeviceAuthorizationRepository extends JpaRepository<DeviceAutho
      * @return 如果存在返回 true，否则返回 false
      */
     boolean existsByUserCode(String userCode);
-} 
\ No newline at end of file
+
+    /**
+     * 批量检查设备验证码是否已存在。
+     *
+     * @param deviceCodes 设备验证码列表
+     * @return 已存在的设备验证码
+     */
+    @Query("SELECT d.deviceCode FROM DeviceAuthorizationEntity d WHERE d.deviceCode IN :deviceCodes")
+    List<String> findExistingDeviceCodes(@Param("deviceCodes") Collection<String> deviceCodes);
+
+    /**
+     * 批量检查用户验证码是否已存在。
+     *
+     * @param userCodes 用户验证码列表
+     * @return 已存在的用户验证码
+     */
+    @Query("SELECT d.userCode FROM DeviceAuthorizationEntity d WHERE d.userCode IN :userCodes")
+    List<String> findExistingUserCodes(@Param("userCodes") Collection<String> userCodes);
+
+    /**
+     * 按主键游标查询已过期的设备授权记录主键。
+     *
+     * @param cutoff 截止时间
+     * @param afterId 上一批最后一条记录的主键
+     * @param pageable 批大小
+     * @return 设备授权记录主键列表，按主键升序
+     */
+    @Query("SELECT d.id FROM DeviceAuthorizationEntity d WHERE d.expiresAt < :cutoff AND d.id > :afterId ORDER BY d.id")
+    List<Long> findExpiredIds(@Param("cutoff") Instant cutoff, @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * 兑换设备码：仅当记录仍为已批准状态时改为已完成并写入访问令牌。
+     *
+     * @param id 主键
+     * @param accessToken 访问令牌
+     * @param accessTokenExpiresAt 访问令牌过期时间
+     * @param now 当前时间
+     * @return 更新的行数，为 0 表示设备码已被其他请求兑换
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE DeviceAuthorizationEntity d SET d.status = com.zhouzhou.authforge.model.DeviceAuthorizationStatus.COMPLETED, " +
+           "d.accessToken = :accessToken, d.accessTokenExpiresAt = :accessTokenExpiresAt, " +
+           "d.lastPolledAt = :now, d.updatedAt = :now " +
+           "WHERE d.id = :id AND d.status = com.zhouzhou.authforge.model.DeviceAuthorizationStatus.APPROVED")
+    int markCompletedIfApproved(@Param("id") Long id,
+                                @Param("accessToken") String accessToken,
+                                @Param("accessTokenExpiresAt") Instant accessTokenExpiresAt,
+                                @Param("now") Instant now);
+
+    /**
+     * 按主键批量删除设备授权记录。
+     *
+     * @param ids 主键列表
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DeviceAuthorizationEntity d WHERE d.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
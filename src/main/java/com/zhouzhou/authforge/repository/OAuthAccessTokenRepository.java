@@ -1,10 +1,15 @@
 package com.zhouzhou.authforge.repository;
 
 import com.zhouzhou.authforge.model.OAuthAccessToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,11 +44,141 @@ public interface OAuthAccessTokenRepository extends JpaRepository<OAuthAccessTok
      */
     Optional<OAuthAccessToken> findByRefreshTokenAndClientId(String refreshToken, String clientId);
 
+    /**
+     * 根据刷新令牌查找未到可清理时间的令牌
+     *
+     * 带上 purge_after 下界，分区模式下可裁剪已过期的分区
+     */
+    @Query("SELECT t FROM OAuthAccessToken t WHERE t.refreshToken = :refreshToken AND t.purgeAfter > :now")
+    Optional<OAuthAccessToken> findLiveByRefreshToken(
+            @Param("refreshToken") String refreshToken,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 根据访问令牌和客户端ID查找未到可清理时间的令牌
+     */
+    @Query("SELECT t FROM OAuthAccessToken t " +
+           "WHERE t.accessToken = :accessToken AND t.clientId = :clientId AND t.purgeAfter > :now")
+    Optional<OAuthAccessToken> findLiveByAccessTokenAndClientId(
+            @Param("accessToken") String accessToken,
+            @Param("clientId") String clientId,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 根据刷新令牌和客户端ID查找未到可清理时间的令牌
+     */
+    @Query("SELECT t FROM OAuthAccessToken t " +
+           "WHERE t.refreshToken = :refreshToken AND t.clientId = :clientId AND t.purgeAfter > :now")
+    Optional<OAuthAccessToken> findLiveByRefreshTokenAndClientId(
+            @Param("refreshToken") String refreshToken,
+            @Param("clientId") String clientId,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 查询可复用的客户端凭证令牌：同一客户端、相同作用域、无用户且剩余有效期足够
+     */
+    @Query("SELECT t FROM OAuthAccessToken t " +
+           "WHERE t.clientId = :clientId AND t.userId IS NULL AND t.scopes = :scopes " +
+           "AND t.status = :status AND t.accessTokenExpiresAt > :minExpiresAt AND t.purgeAfter > :minExpiresAt " +
+           "ORDER BY t.accessTokenExpiresAt DESC")
+    List<OAuthAccessToken> findReusableClientCredentialsTokens(
+            @Param("clientId") String clientId,
+            @Param("scopes") String scopes,
+            @Param("status") OAuthAccessToken.TokenStatus status,
+            @Param("minExpiresAt") LocalDateTime minExpiresAt,
+            Pageable pageable);
+
     /**
      * 查找所有使用指定刷新令牌的令牌
      */
     List<OAuthAccessToken> findAllByRefreshToken(String refreshToken);
 
+    /**
+     * 查询共享指定刷新令牌、且处于指定状态的令牌标识
+     */
+    @Query("SELECT t.id AS id, t.accessToken AS accessToken FROM OAuthAccessToken t " +
+           "WHERE t.refreshToken = :refreshToken AND t.status = :status")
+    List<TokenIdentity> findIdentitiesByRefreshTokenAndStatus(
+            @Param("refreshToken") String refreshToken,
+            @Param("status") OAuthAccessToken.TokenStatus status);
+
+    /**
+     * 批量使共享指定刷新令牌的所有令牌失效（单条 UPDATE 语句）
+     *
+     * @return 受影响的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OAuthAccessToken t SET t.status = :newStatus, t.updatedAt = :now " +
+           "WHERE t.refreshToken = :refreshToken AND t.status = :currentStatus")
+    int updateStatusByRefreshToken(
+            @Param("refreshToken") String refreshToken,
+            @Param("currentStatus") OAuthAccessToken.TokenStatus currentStatus,
+            @Param("newStatus") OAuthAccessToken.TokenStatus newStatus,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 按主键使单个令牌失效（单条 UPDATE 语句）
+     *
+     * @return 受影响的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OAuthAccessToken t SET t.status = :newStatus, t.updatedAt = :now " +
+           "WHERE t.id = :id AND t.status = :currentStatus")
+    int updateStatusById(
+            @Param("id") Long id,
+            @Param("currentStatus") OAuthAccessToken.TokenStatus currentStatus,
+            @Param("newStatus") OAuthAccessToken.TokenStatus newStatus,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 按用户分批查询指定状态的令牌标识（主键游标分页）
+     */
+    @Query("SELECT t.id AS id, t.accessToken AS accessToken FROM OAuthAccessToken t " +
+           "WHERE t.userId = :userId AND t.status = :status AND t.id > :afterId ORDER BY t.id")
+    List<TokenIdentity> findIdentitiesByUserId(
+            @Param("userId") String userId,
+            @Param("status") OAuthAccessToken.TokenStatus status,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * 按客户端分批查询指定状态的令牌标识（主键游标分页）
+     */
+    @Query("SELECT t.id AS id, t.accessToken AS accessToken FROM OAuthAccessToken t " +
+           "WHERE t.clientId = :clientId AND t.status = :status AND t.id > :afterId ORDER BY t.id")
+    List<TokenIdentity> findIdentitiesByClientId(
+            @Param("clientId") String clientId,
+            @Param("status") OAuthAccessToken.TokenStatus status,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * 按客户端和用户分批查询指定状态的令牌标识（主键游标分页）
+     */
+    @Query("SELECT t.id AS id, t.accessToken AS accessToken FROM OAuthAccessToken t " +
+           "WHERE t.clientId = :clientId AND t.userId = :userId AND t.status = :status " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<TokenIdentity> findIdentitiesByClientIdAndUserId(
+            @Param("clientId") String clientId,
+            @Param("userId") String userId,
+            @Param("status") OAuthAccessToken.TokenStatus status,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * 按主键批量更新令牌状态（单条 UPDATE 语句）
+     *
+     * @return 受影响的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OAuthAccessToken t SET t.status = :newStatus, t.updatedAt = :now " +
+           "WHERE t.id IN :ids AND t.status = :currentStatus")
+    int updateStatusByIdIn(
+            @Param("ids") Collection<Long> ids,
+            @Param("currentStatus") OAuthAccessToken.TokenStatus currentStatus,
+            @Param("newStatus") OAuthAccessToken.TokenStatus newStatus,
+            @Param("now") LocalDateTime now);
+
     /**
      * 删除过期的访问令牌
      */
@@ -53,4 +188,35 @@ public interface OAuthAccessTokenRepository extends JpaRepository<OAuthAccessTok
      * 删除过期的刷新令牌
      */
     long deleteByRefreshTokenExpiresAtLessThan(LocalDateTime now);
-} 
\ No newline at end of file
+
+    /**
+     * 按主键游标查询已完全过期（访问令牌和刷新令牌均已过期）的令牌主键
+     */
+    @Query("SELECT t.id FROM OAuthAccessToken t " +
+           "WHERE t.accessTokenExpiresAt < :cutoff " +
+           "AND (t.refreshTokenExpiresAt IS NULL OR t.refreshTokenExpiresAt < :cutoff) " +
+           "AND t.id > :afterId ORDER BY t.id")
+    List<Long> findExpiredIds(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    /**
+     * 按主键批量删除令牌（单条 DELETE 语句）
+     *
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OAuthAccessToken t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 令牌标识投影，仅包含主键和访问令牌值
+     */
+    interface TokenIdentity {
+
+        Long getId();
+
+        String getAccessToken();
+    }
+}
@@ -1,9 +1,16 @@
 package com.zhouzhou.authforge.repository;
 
 import com.zhouzhou.authforge.model.OAuthAuthorization;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,10 +29,43 @@ public interface OAuthAuthorizationRepository extends JpaRepository<OAuthAuthori
     Optional<OAuthAuthorization> findByAuthorizationCode(String authorizationCode);
 
 
+    /**
+     * 根据授权码查找未到可清理时间的授权记录
+     *
+     * 带上 purge_after 下界，分区模式下可裁剪已过期的分区
+     */
+    @Query("SELECT a FROM OAuthAuthorization a WHERE a.authorizationCode = :code AND a.purgeAfter > :now")
+    Optional<OAuthAuthorization> findLiveByAuthorizationCode(
+            @Param("code") String authorizationCode,
+            @Param("now") LocalDateTime now);
+
     // 添加根据 state 查询的方法
     Optional<OAuthAuthorization> findByState(String state);
 
     Optional<OAuthAuthorization> findByTraceId(String traceId);
 
+    /**
+     * 按主键游标查询已过期的授权记录主键
+     *
+     * 授权码已过期，或未签发授权码且创建时间早于截止时间的记录视为过期
+     */
+    @Query("SELECT a.id FROM OAuthAuthorization a " +
+           "WHERE (a.authorizationCodeExpiresAt < :cutoff " +
+           "OR (a.authorizationCodeExpiresAt IS NULL AND a.createdAt < :cutoff)) " +
+           "AND a.id > :afterId ORDER BY a.id")
+    List<Long> findExpiredIds(
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("afterId") long afterId,
+            Pageable pageable);
+
+    /**
+     * 按主键批量删除授权记录（单条 DELETE 语句）
+     *
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OAuthAuthorization a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
 
 } 
\ No newline at end of file
@@ -2,8 +2,10 @@ package com.zhouzhou.authforge.repository;
 
 import com.zhouzhou.authforge.model.OAuthClient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -26,4 +28,25 @@ public interface OAuthClientRepository extends JpaRepository<OAuthClient, Long>
      * @return 如果存在则返回true
      */
     boolean existsByInitialAccessToken(String initialAccessToken);
+
+    /**
+     * 查询设置了令牌端点限额的客户端
+     *
+     * @return 客户端限额投影列表
+     */
+    @Query("SELECT c.clientId AS clientId, c.rateLimitPerSecond AS rateLimitPerSecond, c.rateLimitBurst AS rateLimitBurst " +
+           "FROM OAuthClient c WHERE c.rateLimitPerSecond IS NOT NULL OR c.rateLimitBurst IS NOT NULL")
+    List<ClientRateLimit> findClientRateLimits();
+
+    /**
+     * 客户端限额投影
+     */
+    interface ClientRateLimit {
+
+        String getClientId();
+
+        Integer getRateLimitPerSecond();
+
+        Integer getRateLimitBurst();
+    }
 } 
\ No newline at end of file
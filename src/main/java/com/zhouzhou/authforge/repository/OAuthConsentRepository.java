@@ -2,6 +2,9 @@ package com.zhouzhou.authforge.repository;
 
 import com.zhouzhou.authforge.model.OAuthConsent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +12,31 @@ import java.util.Optional;
 @Repository
 public interface OAuthConsentRepository extends JpaRepository<OAuthConsent, Long> {
     Optional<OAuthConsent> findByClientIdAndUserId(String clientId, String userId);
+
+    /**
+     * 删除用户的所有授权同意记录
+     *
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OAuthConsent c WHERE c.userId = :userId")
+    int deleteAllByUserId(@Param("userId") String userId);
+
+    /**
+     * 删除客户端的所有授权同意记录
+     *
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OAuthConsent c WHERE c.clientId = :clientId")
+    int deleteAllByClientId(@Param("clientId") String clientId);
+
+    /**
+     * 删除用户对指定客户端的授权同意记录
+     *
+     * @return 删除的行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OAuthConsent c WHERE c.clientId = :clientId AND c.userId = :userId")
+    int deleteAllByClientIdAndUserId(@Param("clientId") String clientId, @Param("userId") String userId);
 } 
\ No newline at end of file
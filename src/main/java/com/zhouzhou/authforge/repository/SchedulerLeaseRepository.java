@@ -0,0 +1,53 @@
+package com.zhouzhou.authforge.repository;
+
+import com.zhouzhou.authforge.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务租约仓库
+ */
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * 租约不存在时创建租约
+     *
+     * @return 插入的行数，租约已存在时返回 0
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO scheduler_leases (name, owner, expires_at) VALUES (:name, :owner, :expiresAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name,
+                       @Param("owner") String owner,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * 获取或续期租约：当前节点已持有租约，或租约已过期时成功
+     *
+     * @return 更新的行数，获取失败时返回 0
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("expiresAt") LocalDateTime expiresAt,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * 释放当前节点持有的租约
+     *
+     * @return 更新的行数
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now);
+}
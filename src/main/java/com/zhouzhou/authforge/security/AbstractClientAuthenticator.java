@@ -1,19 +1,30 @@
 package com.zhouzhou.authforge.security;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
-import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 
 /**
  * 客户端认证器抽象基类
  * 使用模板方法模式实现认证流程
  */
-@RequiredArgsConstructor
 public abstract class AbstractClientAuthenticator implements ClientAuthenticator {
 
     protected final OAuthClientRepository clientRepository;
+    private final ClientSecretVerifier clientSecretVerifier;
+
+    protected AbstractClientAuthenticator(OAuthClientRepository clientRepository) {
+        this(clientRepository, null);
+    }
+
+    /**
+     * 使用客户端密钥认证的认证器需要提供密钥校验器
+     */
+    protected AbstractClientAuthenticator(OAuthClientRepository clientRepository, ClientSecretVerifier clientSecretVerifier) {
+        this.clientRepository = clientRepository;
+        this.clientSecretVerifier = clientSecretVerifier;
+    }
 
     /**
      * 模板方法：执行客户端认证
@@ -23,19 +34,16 @@ public abstract class AbstractClientAuthenticator implements ClientAuthenticator
      * 3. 验证认证信息
      */
     @Override
-    public final OAuthClient doAuthenticate(HttpServletRequest request) throws OAuth2AuthenticationException {
+    public final OAuthClient doAuthenticate(TokenRequestContext context) throws OAuth2AuthenticationException {
         // 1. 提取认证信息
-        ClientAuthenticationToken token = tryExtractCredentials(request);
+        ClientAuthenticationToken token = tryExtractCredentials(context);
         if (token == null) {
             return null;
         }
 
         // 2. 查找客户端
         OAuthClient client = clientRepository.findByClientId(token.getClientId())
-            .orElseThrow(() -> new OAuth2AuthenticationException(
-                "invalid_client",
-                "Client not found: " + token.getClientId()
-            ));
+            .orElseThrow(() -> OAuth2AuthenticationException.CLIENT_NOT_FOUND);
 
         // 3. 验证认证信息
         validateCredentials(token, client);
@@ -56,17 +64,15 @@ public abstract class AbstractClientAuthenticator implements ClientAuthenticator
      */
     protected void validateClientSecret(String clientSecret, OAuthClient client) {
         if (clientSecret == null) {
-            throw new OAuth2AuthenticationException(
-                "invalid_client",
-                "Missing client_secret"
-            );
+            throw OAuth2AuthenticationException.MISSING_CLIENT_SECRET;
+        }
+
+        if (clientSecretVerifier == null) {
+            throw new IllegalStateException(getClass().getSimpleName() + " has no ClientSecretVerifier");
         }
 
-        if (!client.getClientSecret().equals(clientSecret)) {
-            throw new OAuth2AuthenticationException(
-                "invalid_client",
-                "Invalid client_secret"
-            );
+        if (!clientSecretVerifier.matches(client, clientSecret)) {
+            throw OAuth2AuthenticationException.INVALID_CLIENT_SECRET;
         }
     }
 
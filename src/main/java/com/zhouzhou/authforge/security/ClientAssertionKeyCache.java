@@ -0,0 +1,84 @@
+package com.zhouzhou.authforge.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.model.OAuthClient;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JWT 客户端断言验签器缓存
+ *
+ * 每个客户端缓存一个验签器，并记录创建时的客户端版本（updated_at）。
+ * 客户端密钥轮换会更新 updated_at，版本不一致时重新创建验签器。
+ * 缓存条目数不超过客户端数量。
+ *
+ * 非对称算法（private_key_jwt）的公钥由 {@link RemoteJwksResolver} 从客户端的 jwks_uri 获取。
+ */
+@Component
+public class ClientAssertionKeyCache {
+
+    private final ConcurrentHashMap<String, CachedVerifier> verifiers = new ConcurrentHashMap<>();
+    private final RemoteJwksResolver jwksResolver;
+
+    public ClientAssertionKeyCache(RemoteJwksResolver jwksResolver) {
+        this.jwksResolver = jwksResolver;
+    }
+
+    /**
+     * 获取客户端的验签器
+     *
+     * @param client 客户端
+     * @param header 断言的 JWS 头
+     * @return 验签器
+     * @throws OAuth2AuthenticationException 签名算法不受支持或客户端密钥不可用
+     */
+    public JWSVerifier getVerifier(OAuthClient client, JWSHeader header) {
+        JWSAlgorithm algorithm = header.getAlgorithm();
+        if (JWSAlgorithm.Family.RSA.contains(algorithm) || JWSAlgorithm.Family.EC.contains(algorithm)) {
+            if (!StringUtils.hasText(client.getJwksUri())) {
+                throw new OAuth2AuthenticationException("invalid_client", "Client has no registered jwks_uri");
+            }
+            return jwksResolver.getVerifier(client.getClientId(), client.getJwksUri(), header);
+        }
+        if (!JWSAlgorithm.Family.HMAC_SHA.contains(algorithm)) {
+            throw new OAuth2AuthenticationException(
+                "invalid_client",
+                "Unsupported client assertion algorithm: " + algorithm
+            );
+        }
+
+        LocalDateTime version = client.getUpdatedAt();
+        CachedVerifier cached = verifiers.get(client.getClientId());
+        if (cached != null && Objects.equals(cached.version(), version)) {
+            return cached.verifier();
+        }
+
+        JWSVerifier verifier = createMacVerifier(client);
+        verifiers.put(client.getClientId(), new CachedVerifier(version, verifier));
+        return verifier;
+    }
+
+    private JWSVerifier createMacVerifier(OAuthClient client) {
+        try {
+            return new MACVerifier(client.getClientSecret().getBytes(StandardCharsets.UTF_8));
+        } catch (JOSEException e) {
+            throw new OAuth2AuthenticationException(
+                "invalid_client",
+                "Client secret is not usable for client_secret_jwt: " + e.getMessage()
+            );
+        }
+    }
+
+    private record CachedVerifier(LocalDateTime version, JWSVerifier verifier) {
+    }
+}
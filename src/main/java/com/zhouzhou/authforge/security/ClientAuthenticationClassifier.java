@@ -0,0 +1,59 @@
+package com.zhouzhou.authforge.security;
+
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 客户端认证方式分类器
+ *
+ * 根据已解析的请求上下文确定客户端使用的认证方式：
+ * 1. Authorization 请求头为 Basic 方案：client_secret_basic
+ * 2. 存在 client_assertion 参数：JWT 断言（private_key_jwt / client_secret_jwt）
+ * 3. 存在 client_secret 参数：client_secret_post
+ * 4. 仅存在 client_id 参数：公共客户端（none）
+ *
+ * 参考 RFC 6749 2.3 节，客户端在同一请求中不得使用多种认证方式。
+ */
+@Component
+public class ClientAuthenticationClassifier {
+
+    /**
+     * 判断请求使用的认证方式
+     *
+     * @param context 令牌请求上下文
+     * @return 认证方式，JWT 断言统一返回 {@link ClientAuthenticationMethod#PRIVATE_KEY_JWT}
+     * @throws OAuth2AuthenticationException 请求未携带客户端凭证，或同时使用了多种认证方式
+     */
+    public ClientAuthenticationMethod classify(TokenRequestContext context) {
+        boolean basic = context.isBasicAuthorization();
+        boolean assertion = StringUtils.hasText(context.getClientAssertion());
+        boolean secret = StringUtils.hasText(context.getClientSecret());
+
+        if ((basic ? 1 : 0) + (assertion ? 1 : 0) + (secret ? 1 : 0) > 1) {
+            throw new OAuth2AuthenticationException(
+                "invalid_request",
+                "Multiple client authentication methods are not allowed"
+            );
+        }
+
+        if (basic) {
+            return ClientAuthenticationMethod.CLIENT_SECRET_BASIC;
+        }
+        if (assertion) {
+            return ClientAuthenticationMethod.PRIVATE_KEY_JWT;
+        }
+        if (secret) {
+            return ClientAuthenticationMethod.CLIENT_SECRET_POST;
+        }
+        if (StringUtils.hasText(context.getClientId())) {
+            return ClientAuthenticationMethod.NONE;
+        }
+
+        throw new OAuth2AuthenticationException(
+            "invalid_client",
+            "Client authentication failed"
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package com.zhouzhou.authforge.security;
 
+import com.nimbusds.jwt.SignedJWT;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -31,6 +32,11 @@ public class ClientAuthenticationToken {
      */
     private final String clientAssertionType;
 
+    /**
+     * 已解析的JWT断言，提取凭证时解析一次，校验时直接使用
+     */
+    private final SignedJWT parsedAssertion;
+
     /**
      * 授权码（用于PKCE）
      */
@@ -1,8 +1,11 @@
 package com.zhouzhou.authforge.security;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthClient;
-import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * 客户端认证器接口
@@ -17,19 +20,19 @@ public interface ClientAuthenticator {
     /**
      * 执行客户端认证
      * 
-     * @param request HTTP请求
+     * @param context 令牌请求上下文
      * @return 认证成功的客户端信息，如果认证失败则返回null
      * @throws OAuth2AuthenticationException 如果认证过程中发生错误
      */
-    OAuthClient doAuthenticate(HttpServletRequest request) throws OAuth2AuthenticationException;
+    OAuthClient doAuthenticate(TokenRequestContext context) throws OAuth2AuthenticationException;
 
     /**
      * 尝试从请求中提取客户端认证信息
      * 
-     * @param request HTTP请求
+     * @param context 令牌请求上下文
      * @return 认证信息令牌，如果无法提取则返回null
      */
-    ClientAuthenticationToken tryExtractCredentials(HttpServletRequest request);
+    ClientAuthenticationToken tryExtractCredentials(TokenRequestContext context);
 
     /**
      * 验证客户端认证信息
@@ -46,4 +49,13 @@ public interface ClientAuthenticator {
      * @return 认证方法
      */
     ClientAuthenticationMethod getAuthenticationMethod();
-} 
\ No newline at end of file
+
+    /**
+     * 获取此认证器可处理的全部认证方法，用于构建分派表
+     *
+     * @return 认证方法集合，默认仅包含 {@link #getAuthenticationMethod()}
+     */
+    default Set<ClientAuthenticationMethod> getSupportedMethods() {
+        return EnumSet.of(getAuthenticationMethod());
+    }
+}
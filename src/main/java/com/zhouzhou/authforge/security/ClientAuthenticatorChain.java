@@ -1,23 +1,57 @@
 package com.zhouzhou.authforge.security;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 客户端认证器链
  * 
- * 负责协调多个认证器，按顺序尝试认证，直到成功或全部失败
+ * 先由 {@link ClientAuthenticationClassifier} 判断请求使用的认证方式，
+ * 再通过预先构建的认证方式到认证器的映射表直接分派给唯一的认证器，
+ * 不再依次尝试每个认证器。每次认证按认证方式和结果记录耗时指标。
  */
 @Component
-@RequiredArgsConstructor
 public class ClientAuthenticatorChain {
 
-    private final List<ClientAuthenticator> authenticators;
+    private static final String METRIC_NAME = "authforge.client.authentication";
+
+    private final ClientAuthenticationClassifier classifier;
+    private final Map<ClientAuthenticationMethod, ClientAuthenticator> authenticators;
+    private final Map<ClientAuthenticationMethod, Timer> successTimers;
+    private final Map<ClientAuthenticationMethod, Timer> failureTimers;
+
+    public ClientAuthenticatorChain(
+            List<ClientAuthenticator> authenticators,
+            ClientAuthenticationClassifier classifier,
+            MeterRegistry meterRegistry) {
+        this.classifier = classifier;
+        this.authenticators = new EnumMap<>(ClientAuthenticationMethod.class);
+        this.successTimers = new EnumMap<>(ClientAuthenticationMethod.class);
+        this.failureTimers = new EnumMap<>(ClientAuthenticationMethod.class);
+
+        for (ClientAuthenticator authenticator : authenticators) {
+            for (ClientAuthenticationMethod method : authenticator.getSupportedMethods()) {
+                ClientAuthenticator existing = this.authenticators.putIfAbsent(method, authenticator);
+                if (existing != null) {
+                    throw new IllegalStateException("Duplicate client authenticator for " + method
+                            + ": " + existing.getClass().getSimpleName()
+                            + " and " + authenticator.getClass().getSimpleName());
+                }
+                successTimers.put(method, timer(meterRegistry, method, "success"));
+                failureTimers.put(method, timer(meterRegistry, method, "failure"));
+            }
+        }
+    }
 
     /**
      * 执行客户端认证
@@ -27,18 +61,46 @@ public class ClientAuthenticatorChain {
      * @throws OAuth2AuthenticationException 如果认证失败
      */
     public OAuthClient authenticate(HttpServletRequest request) throws OAuth2AuthenticationException {
-        // 遍历所有认证器
-        for (ClientAuthenticator authenticator : authenticators) {
-            OAuthClient client = authenticator.doAuthenticate(request);
-            if (client != null) {
-                return client;
+        return authenticate(TokenRequestContext.from(request));
+    }
+
+    /**
+     * 使用已解析的请求上下文执行客户端认证
+     *
+     * @param context 令牌请求上下文
+     * @return 认证成功的客户端信息
+     * @throws OAuth2AuthenticationException 如果认证失败
+     */
+    public OAuthClient authenticate(TokenRequestContext context) throws OAuth2AuthenticationException {
+        ClientAuthenticationMethod method = classifier.classify(context);
+        ClientAuthenticator authenticator = authenticators.get(method);
+        if (authenticator == null) {
+            throw new OAuth2AuthenticationException(
+                "invalid_client",
+                "Unsupported client authentication method: " + method.getValue()
+            );
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            OAuthClient client = authenticator.doAuthenticate(context);
+            if (client == null) {
+                throw OAuth2AuthenticationException.AUTHENTICATION_FAILED;
             }
+            success = true;
+            return client;
+        } finally {
+            Timer timer = success ? successTimers.get(method) : failureTimers.get(method);
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+    }
 
-        // 所有认证器都无法认证
-        throw new OAuth2AuthenticationException(
-            "invalid_client",
-            "Client authentication failed"
-        );
+    private static Timer timer(MeterRegistry meterRegistry, ClientAuthenticationMethod method, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Client authentication latency by method and outcome")
+                .tag("method", method.getValue())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.zhouzhou.authforge.security;
+
+import com.zhouzhou.authforge.config.ClientSecretCacheConfig;
+import com.zhouzhou.authforge.model.OAuthClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端密钥校验器
+ *
+ * 1. 带 {id} 前缀的密钥（如 {bcrypt}）交给 PasswordEncoder 校验
+ * 2. 无前缀的历史明文密钥使用常量时间比较
+ * 3. 校验成功的结果按 HMAC(clientId, 提交的密钥, 存储的密钥) 缓存一段时间。
+ *    HMAC 密钥在进程启动时随机生成，缓存中不保存任何可还原密钥的信息；
+ *    存储的密钥参与计算，密钥轮换后旧缓存自然失效。
+ */
+@Component
+public class ClientSecretVerifier {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ClientSecretCacheConfig cacheConfig;
+    private final SecretKeySpec cacheKey;
+
+    /**
+     * 缓存键 -> 过期时间（System.nanoTime）
+     */
+    private final ConcurrentHashMap<String, Long> verified = new ConcurrentHashMap<>();
+
+    public ClientSecretVerifier(PasswordEncoder passwordEncoder, ClientSecretCacheConfig cacheConfig, RandomSource randomSource) {
+        this.passwordEncoder = passwordEncoder;
+        this.cacheConfig = cacheConfig;
+        byte[] key = new byte[32];
+        randomSource.nextBytes(key);
+        this.cacheKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    /**
+     * 校验客户端提交的密钥
+     *
+     * @param client 客户端
+     * @param presentedSecret 提交的密钥
+     * @return 密钥匹配时返回 true
+     */
+    public boolean matches(OAuthClient client, String presentedSecret) {
+        String storedSecret = client.getClientSecret();
+        if (presentedSecret == null || storedSecret == null) {
+            return false;
+        }
+        if (!cacheConfig.isEnabled()) {
+            return verify(presentedSecret, storedSecret);
+        }
+
+        String key = cacheKey(client.getClientId(), presentedSecret, storedSecret);
+        long now = System.nanoTime();
+        Long expiresAt = verified.get(key);
+        if (expiresAt != null && now - expiresAt < 0) {
+            return true;
+        }
+
+        if (!verify(presentedSecret, storedSecret)) {
+            return false;
+        }
+        remember(key, now + cacheConfig.getTtl().toNanos(), now);
+        return true;
+    }
+
+    private boolean verify(String presentedSecret, String storedSecret) {
+        if (storedSecret.startsWith("{")) {
+            return passwordEncoder.matches(presentedSecret, storedSecret);
+        }
+        return MessageDigest.isEqual(
+                presentedSecret.getBytes(StandardCharsets.UTF_8),
+                storedSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void remember(String key, long expiresAt, long now) {
+        if (verified.size() >= cacheConfig.getMaxSize()) {
+            verified.values().removeIf(expiry -> now - expiry >= 0);
+        }
+        if (verified.size() < cacheConfig.getMaxSize()) {
+            verified.put(key, expiresAt);
+        }
+    }
+
+    private String cacheKey(String clientId, String presentedSecret, String storedSecret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(cacheKey);
+            update(mac, clientId);
+            update(mac, presentedSecret);
+            update(mac, storedSecret);
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * 写入长度前缀，避免不同字段拼接产生相同输入
+     */
+    private static void update(Mac mac, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        mac.update((byte) (bytes.length >>> 24));
+        mac.update((byte) (bytes.length >>> 16));
+        mac.update((byte) (bytes.length >>> 8));
+        mac.update((byte) bytes.length);
+        mac.update(bytes);
+    }
+}
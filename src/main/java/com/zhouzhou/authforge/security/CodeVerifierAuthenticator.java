@@ -7,10 +7,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.time.LocalDateTime;
 
 /**
  * PKCE 验证器
@@ -27,6 +24,7 @@ public class CodeVerifierAuthenticator {
     private static final String CODE_PARAM = "code";
 
     private final OAuthAuthorizationRepository authorizationRepository;
+    private final PkceVerifier pkceVerifier;
 
     /**
      * 验证code_verifier（必需）
@@ -48,7 +46,7 @@ public class CodeVerifierAuthenticator {
         }
 
         // 2. 查找授权记录
-        OAuthAuthorization authorization = authorizationRepository.findByAuthorizationCode(code)
+        OAuthAuthorization authorization = authorizationRepository.findLiveByAuthorizationCode(code, LocalDateTime.now())
             .orElseThrow(() -> new OAuth2AuthenticationException(
                 "invalid_grant",
                 "Invalid authorization code"
@@ -73,20 +71,14 @@ public class CodeVerifierAuthenticator {
 
         // 5. 验证code_verifier
         String codeChallengeMethod = authorization.getCodeChallengeMethod();
-        String computedCodeChallenge;
-
-        if ("S256".equals(codeChallengeMethod)) {
-            computedCodeChallenge = generateS256CodeChallenge(codeVerifier);
-        } else if ("plain".equals(codeChallengeMethod)) {
-            computedCodeChallenge = codeVerifier;
-        } else {
+        if (!pkceVerifier.isSupportedMethod(codeChallengeMethod)) {
             throw new OAuth2AuthenticationException(
                 "invalid_grant",
                 "Unsupported code challenge method: " + codeChallengeMethod
             );
         }
 
-        if (!codeChallenge.equals(computedCodeChallenge)) {
+        if (!pkceVerifier.matches(codeVerifier, codeChallenge, codeChallengeMethod)) {
             throw new OAuth2AuthenticationException(
                 "invalid_grant",
                 "Invalid code verifier"
@@ -106,14 +98,4 @@ public class CodeVerifierAuthenticator {
         // 如果有code_verifier，执行验证
         authenticateRequired(clientId, code, codeVerifier);
     }
-
-    private String generateS256CodeChallenge(String codeVerifier) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(codeVerifier.getBytes(StandardCharsets.US_ASCII));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 algorithm not available", e);
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.zhouzhou.authforge.security;
+
+import com.zhouzhou.authforge.config.ClientAssertionConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JWT 断言 jti 重放缓存
+ *
+ * RFC 7523 要求断言只能使用一次。缓存记录已使用的（客户端, jti）直到断言过期，
+ * 按过期时间排序，每次写入前先清理已过期条目；条目数达到上限时拒绝新的断言，
+ * 而不是提前淘汰未过期的条目，避免被淘汰的断言可以重放。
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class JtiReplayCache {
+
+    private final ClientAssertionConfig assertionConfig;
+
+    private final Map<String, Instant> used = new HashMap<>();
+    private final PriorityQueue<Entry> byExpiry = new PriorityQueue<>();
+
+    /**
+     * 使用 ReentrantLock 而不是 synchronized，虚拟线程争用时不会固定载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 记录断言已使用
+     *
+     * @param clientId 客户端ID
+     * @param jti 断言ID
+     * @param expiresAt 断言过期时间
+     * @return 首次使用返回 true；已使用过或缓存已满返回 false
+     */
+    public boolean markUsed(String clientId, String jti, Instant expiresAt) {
+        String key = clientId + '\u0000' + jti;
+        lock.lock();
+        try {
+            purgeExpired(Instant.now());
+
+            if (used.containsKey(key)) {
+                return false;
+            }
+            if (used.size() >= assertionConfig.getReplayCacheMaxSize()) {
+                log.warn("JWT assertion replay cache is full ({} entries), rejecting assertion", used.size());
+                return false;
+            }
+
+            used.put(key, expiresAt);
+            byExpiry.add(new Entry(expiresAt, key));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void purgeExpired(Instant now) {
+        Entry head;
+        while ((head = byExpiry.peek()) != null && !head.expiresAt().isAfter(now)) {
+            byExpiry.poll();
+            used.remove(head.key(), head.expiresAt());
+        }
+    }
+
+    private record Entry(Instant expiresAt, String key) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            return expiresAt.compareTo(other.expiresAt);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.zhouzhou.authforge.security;
+
+import org.springframework.stereotype.Component;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * PKCE code_verifier 校验器（RFC 7636）
+ *
+ * 授权端点、令牌端点和公共客户端认证共用的校验逻辑：
+ * 1. 字符集通过查表校验，不使用正则
+ * 2. SHA-256 摘要使用线程本地的 MessageDigest 和缓冲区计算
+ * 3. S256 方式将 code_challenge 解码为原始摘要字节后与计算结果做常量时间比较，
+ *    校验过程不产生临时对象
+ */
+@Component
+public class PkceVerifier {
+
+    public static final String METHOD_S256 = "S256";
+    public static final String METHOD_PLAIN = "plain";
+
+    private static final int MIN_LENGTH = 43;
+    private static final int MAX_LENGTH = 128;
+    private static final int SHA256_LENGTH = 32;
+
+    /**
+     * S256 code_challenge 为 32 字节摘要的无填充 Base64URL 编码，固定 43 个字符
+     */
+    private static final int S256_CHALLENGE_LENGTH = 43;
+
+    /**
+     * unreserved 字符表：[A-Z] / [a-z] / [0-9] / "-" / "." / "_" / "~"
+     */
+    private static final boolean[] UNRESERVED = new boolean[128];
+
+    /**
+     * Base64URL 字符到 6 位数值的映射，非法字符为 -1
+     */
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['~'] = true;
+
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * 是否为支持的 code_challenge_method
+     */
+    public boolean isSupportedMethod(String method) {
+        return METHOD_S256.equals(method) || METHOD_PLAIN.equals(method);
+    }
+
+    /**
+     * 校验 code_verifier 格式：长度 43-128，仅包含 unreserved 字符
+     */
+    public boolean isValidVerifier(String codeVerifier) {
+        return isUnreservedString(codeVerifier);
+    }
+
+    /**
+     * 校验 code_challenge 格式：长度 43-128，仅包含 unreserved 字符
+     */
+    public boolean isValidChallenge(String codeChallenge) {
+        return isUnreservedString(codeChallenge);
+    }
+
+    /**
+     * 校验 code_verifier 是否与 code_challenge 匹配
+     *
+     * @param codeVerifier 令牌请求中的 code_verifier
+     * @param codeChallenge 授权请求中的 code_challenge
+     * @param method code_challenge_method，不支持的方式返回 false
+     * @return 匹配时返回 true
+     */
+    public boolean matches(String codeVerifier, String codeChallenge, String method) {
+        if (codeChallenge == null || !isValidVerifier(codeVerifier)) {
+            return false;
+        }
+        if (METHOD_S256.equals(method)) {
+            return matchesS256(codeVerifier, codeChallenge);
+        }
+        if (METHOD_PLAIN.equals(method)) {
+            return constantTimeEquals(codeVerifier, codeChallenge);
+        }
+        return false;
+    }
+
+    private boolean matchesS256(String codeVerifier, String codeChallenge) {
+        if (codeChallenge.length() != S256_CHALLENGE_LENGTH) {
+            return false;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        if (!decodeBase64Url(codeChallenge, buffers.expected)) {
+            return false;
+        }
+
+        // code_verifier 已校验为 ASCII，逐字符写入缓冲区即为 US-ASCII 编码
+        int length = codeVerifier.length();
+        for (int i = 0; i < length; i++) {
+            buffers.input[i] = (byte) codeVerifier.charAt(i);
+        }
+        MessageDigest digest = buffers.digest;
+        digest.update(buffers.input, 0, length);
+        try {
+            digest.digest(buffers.actual, 0, SHA256_LENGTH);
+        } catch (DigestException e) {
+            digest.reset();
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        }
+
+        int diff = 0;
+        for (int i = 0; i < SHA256_LENGTH; i++) {
+            diff |= buffers.actual[i] ^ buffers.expected[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * 将 43 字符的无填充 Base64URL 字符串解码为 32 字节
+     */
+    private static boolean decodeBase64Url(String encoded, byte[] out) {
+        int bits = 0;
+        int bitCount = 0;
+        int position = 0;
+        for (int i = 0; i < S256_CHALLENGE_LENGTH; i++) {
+            char c = encoded.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[position++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        // 末尾多余的位必须为 0，保证编码唯一
+        return bits == 0;
+    }
+
+    private static boolean isUnreservedString(String value) {
+        if (value == null || value.length() < MIN_LENGTH || value.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !UNRESERVED[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean constantTimeEquals(String a, String b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < a.length(); i++) {
+            diff |= a.charAt(i) ^ b.charAt(i);
+        }
+        return diff == 0;
+    }
+
+    /**
+     * 线程本地的摘要实例和缓冲区
+     */
+    private static final class Buffers {
+
+        private final MessageDigest digest;
+        private final byte[] input = new byte[MAX_LENGTH];
+        private final byte[] actual = new byte[SHA256_LENGTH];
+        private final byte[] expected = new byte[SHA256_LENGTH];
+
+        private Buffers() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 algorithm not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.zhouzhou.authforge.security;
+
+import com.zhouzhou.authforge.config.RandomSourceConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 安全随机数源
+ *
+ * UUID.randomUUID() 和各处自建的 SecureRandom 在高并发签发时会争用同一把锁。
+ * 这里把每次调用随机分散到多个独立的 DRBG 实例（分段数为 2 的幂）：
+ * 1. 每个分段预取一块随机字节，小请求直接从缓冲区复制，已取出的字节立即清零
+ * 2. 分段生成的字节数或距离上次播种的时间超过阈值时重新播种
+ * 3. 不同分段之间没有共享状态，只在同一分段内串行；分段使用 ReentrantLock 而不是 synchronized，
+ *    重新播种可能读取熵源而阻塞，虚拟线程在等待时不会固定载体线程
+ */
+@Slf4j
+@Component
+public class RandomSource {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Stripe[] stripes;
+    private final long reseedBytes;
+    private final long reseedIntervalNanos;
+
+    public RandomSource(RandomSourceConfig config) {
+        int count = config.getStripes() > 0 ? config.getStripes() : Runtime.getRuntime().availableProcessors() * 2;
+        int size = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(newDrbg(i), config.getBufferSize());
+        }
+        this.reseedBytes = config.getReseedBytes();
+        this.reseedIntervalNanos = config.getReseedInterval().toNanos();
+    }
+
+    /**
+     * 填充随机字节
+     */
+    public void nextBytes(byte[] bytes) {
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            stripe.nextBytes(bytes, reseedBytes, reseedIntervalNanos);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * 生成 [0, bound) 范围内均匀分布的随机整数
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        byte[] bytes = new byte[4];
+        int limit = Integer.MAX_VALUE - (Integer.MAX_VALUE % bound);
+        while (true) {
+            nextBytes(bytes);
+            int value = ((bytes[0] & 0x7f) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+            // 拒绝采样，避免取模偏差
+            if (value < limit) {
+                return value % bound;
+            }
+        }
+    }
+
+    /**
+     * 从字符表中随机取字符组成字符串
+     */
+    public String nextString(char[] alphabet, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet[nextInt(alphabet.length)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 生成第 4 版（随机）UUID 字符串，格式与 UUID.randomUUID().toString() 相同
+     */
+    public String nextUuid() {
+        byte[] bytes = new byte[16];
+        nextBytes(bytes);
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x40);
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80);
+
+        byte[] out = new byte[36];
+        int position = 0;
+        for (int i = 0; i < 16; i++) {
+            if (i == 4 || i == 6 || i == 8 || i == 10) {
+                out[position++] = '-';
+            }
+            out[position++] = (byte) HEX[(bytes[i] >> 4) & 0x0f];
+            out[position++] = (byte) HEX[bytes[i] & 0x0f];
+        }
+        return new String(out, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 生成指定字节数的随机值并进行 Base64 编码，格式与 Base64StringKeyGenerator 相同
+     */
+    public String nextBase64(int byteLength) {
+        byte[] bytes = new byte[byteLength];
+        nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private Stripe stripe() {
+        // ThreadLocalRandom 没有竞争，足以把调用均匀分散到各分段
+        return stripes[ThreadLocalRandom.current().nextInt(stripes.length)];
+    }
+
+    private static SecureRandom newDrbg(int index) {
+        byte[] personalization = ("authforge-random-" + index + "-" + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+        try {
+            return SecureRandom.getInstance("DRBG",
+                DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, personalization));
+        } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+            log.warn("DRBG is not available, falling back to default SecureRandom: {}", e.getMessage());
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * 单个分段：独立的 DRBG 和预取缓冲区，由调用方加锁
+     */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final SecureRandom random;
+        private final byte[] buffer;
+        private int position;
+        private long generated;
+        private long seededAt;
+
+        private Stripe(SecureRandom random, int bufferSize) {
+            this.random = random;
+            this.buffer = new byte[Math.max(64, bufferSize)];
+            this.position = buffer.length;
+            this.seededAt = System.nanoTime();
+        }
+
+        private void nextBytes(byte[] bytes, long reseedBytes, long reseedIntervalNanos) {
+            if (bytes.length > buffer.length) {
+                maybeReseed(reseedBytes, reseedIntervalNanos);
+                random.nextBytes(bytes);
+                generated += bytes.length;
+                return;
+            }
+            if (buffer.length - position < bytes.length) {
+                maybeReseed(reseedBytes, reseedIntervalNanos);
+                random.nextBytes(buffer);
+                generated += buffer.length;
+                position = 0;
+            }
+            System.arraycopy(buffer, position, bytes, 0, bytes.length);
+            Arrays.fill(buffer, position, position + bytes.length, (byte) 0);
+            position += bytes.length;
+        }
+
+        private void maybeReseed(long reseedBytes, long reseedIntervalNanos) {
+            long now = System.nanoTime();
+            if (generated < reseedBytes && now - seededAt < reseedIntervalNanos) {
+                return;
+            }
+            try {
+                random.reseed();
+            } catch (UnsupportedOperationException e) {
+                random.setSeed(random.generateSeed(32));
+            }
+            generated = 0;
+            seededAt = now;
+        }
+    }
+}
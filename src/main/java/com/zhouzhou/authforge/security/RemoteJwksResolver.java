@@ -0,0 +1,377 @@
+package com.zhouzhou.authforge.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.ClientAssertionConfig;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * private_key_jwt 客户端远程公钥集（JWKS）解析器
+ *
+ * 1. 每个客户端首次使用时拉取并解析 jwks_uri，按 kid 缓存验签器
+ * 2. 缓存临近过期时在后台提前刷新，稳定状态下验签不会等待远程请求
+ * 3. 出现未知 kid 时同步重新拉取一次，同一客户端的并发拉取合并为一次
+ * 4. 未知 kid 和拉取失败按最小间隔做负缓存，拉取失败时继续使用上一次成功的密钥集
+ * 5. jwks_uri 由客户端提供，拉取前要求 https 并拒绝解析到非公网地址的主机，且不跟随重定向，防止 SSRF
+ */
+@Slf4j
+@Component
+public class RemoteJwksResolver implements DisposableBean {
+
+    private final ClientAssertionConfig assertionConfig;
+    private final ExecutorService refreshExecutor;
+
+    private final ConcurrentHashMap<String, KeySet> keySets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<KeySet>> inFlight = new ConcurrentHashMap<>();
+
+    public RemoteJwksResolver(ClientAssertionConfig assertionConfig, BackgroundExecutorFactory executorFactory) {
+        this.assertionConfig = assertionConfig;
+        this.refreshExecutor = executorFactory.newExecutor("jwks-refresh-", 2);
+    }
+
+    /**
+     * 获取与断言头匹配的验签器
+     *
+     * @param clientId 客户端ID
+     * @param jwksUri 客户端公钥集地址
+     * @param header 断言的 JWS 头
+     * @return 验签器
+     * @throws OAuth2AuthenticationException 公钥集不可用或没有匹配的密钥
+     */
+    public JWSVerifier getVerifier(String clientId, String jwksUri, JWSHeader header) {
+        ClientAssertionConfig.Jwks config = assertionConfig.getJwks();
+        Instant now = Instant.now();
+
+        KeySet keySet = keySets.get(clientId);
+        if (keySet == null || !keySet.uri().equals(jwksUri)) {
+            keySet = refreshAndWait(clientId, jwksUri, keySet);
+        } else if (keySet.isExpired(now) && keySet.canRefetch(now, config.getMinRefetchInterval())) {
+            keySet = refreshAndWait(clientId, jwksUri, keySet);
+        } else if (keySet.needsRefresh(now, config.getRefreshAhead())
+                && keySet.canRefetch(now, config.getMinRefetchInterval())) {
+            refresh(clientId, jwksUri, keySet, refreshExecutor);
+        }
+
+        JWSVerifier verifier = keySet.find(header);
+        if (verifier == null && keySet.canRefetch(Instant.now(), config.getMinRefetchInterval())) {
+            // 客户端可能已轮换密钥，重新拉取一次
+            keySet = refreshAndWait(clientId, jwksUri, keySet);
+            verifier = keySet.find(header);
+        }
+
+        if (verifier == null) {
+            throw new OAuth2AuthenticationException(
+                "invalid_client",
+                keySet.keys().isEmpty() ? "Client JWKS is unavailable" : "No matching key found in client JWKS"
+            );
+        }
+        return verifier;
+    }
+
+    /**
+     * 清除客户端的缓存
+     */
+    public void evict(String clientId) {
+        keySets.remove(clientId);
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 同步刷新；等待其他线程的拉取超时时返回当前缓存
+     */
+    private KeySet refreshAndWait(String clientId, String jwksUri, KeySet current) {
+        ClientAssertionConfig.Jwks config = assertionConfig.getJwks();
+        long waitMillis = config.getConnectTimeout().plus(config.getReadTimeout()).toMillis();
+        try {
+            return refresh(clientId, jwksUri, current, Runnable::run).get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Waiting for JWKS refresh of client {} failed: {}", clientId, e.toString());
+        }
+        return current != null && current.uri().equals(jwksUri) ? current : KeySet.failed(jwksUri, Instant.now());
+    }
+
+    /**
+     * 发起一次拉取；同一客户端已有拉取在进行时复用其结果
+     */
+    private CompletableFuture<KeySet> refresh(String clientId, String jwksUri, KeySet seen, Executor executor) {
+        CompletableFuture<KeySet> future = new CompletableFuture<>();
+        CompletableFuture<KeySet> existing = inFlight.putIfAbsent(clientId, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(load(clientId, jwksUri, seen));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(clientId, future);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(clientId, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 拉取并解析公钥集，失败时保留上一次成功的密钥集
+     *
+     * @param seen 调用方看到的缓存，缓存已被其他线程更新时不再重复拉取
+     */
+    private KeySet load(String clientId, String jwksUri, KeySet seen) {
+        ClientAssertionConfig.Jwks config = assertionConfig.getJwks();
+        KeySet previous = keySets.get(clientId);
+        Instant now = Instant.now();
+        if (previous != null && previous != seen && previous.uri().equals(jwksUri)
+                && !previous.canRefetch(now, config.getMinRefetchInterval())) {
+            // 其他线程刚完成拉取
+            return previous;
+        }
+
+        KeySet next;
+        try {
+            URL url = checkTarget(jwksUri, config);
+            NoRedirectResourceRetriever retriever = new NoRedirectResourceRetriever(
+                (int) config.getConnectTimeout().toMillis(),
+                (int) config.getReadTimeout().toMillis(),
+                config.getSizeLimit()
+            );
+            JWKSet jwkSet = JWKSet.parse(retriever.retrieveResource(url).getContent());
+            Instant fetchedAt = Instant.now();
+            next = KeySet.of(jwksUri, jwkSet, fetchedAt, fetchedAt.plus(config.getTtl()));
+            log.debug("Loaded {} signing keys for client {} from {}", next.keys().size(), clientId, jwksUri);
+        } catch (IOException | ParseException e) {
+            log.warn("Failed to load JWKS for client {} from {}: {}", clientId, jwksUri, e.getMessage());
+            next = previous != null && previous.uri().equals(jwksUri)
+                ? previous.withFetchAttempt(Instant.now())
+                : KeySet.failed(jwksUri, Instant.now());
+        }
+
+        keySets.put(clientId, next);
+        return next;
+    }
+
+    /**
+     * 校验拉取目标：协议必须为 https，主机解析出的所有地址都必须是公网地址
+     *
+     * @throws IOException 地址不合法或不允许访问
+     */
+    static URL checkTarget(String jwksUri, ClientAssertionConfig.Jwks config) throws IOException {
+        URI uri;
+        try {
+            uri = new URI(jwksUri);
+        } catch (URISyntaxException e) {
+            throw new IOException("Malformed jwks_uri", e);
+        }
+        String scheme = uri.getScheme();
+        if (!"https".equalsIgnoreCase(scheme) && !(config.isAllowHttp() && "http".equalsIgnoreCase(scheme))) {
+            throw new IOException("jwks_uri must use https");
+        }
+        if (uri.getHost() == null) {
+            throw new IOException("jwks_uri has no host");
+        }
+        if (!config.isAllowPrivateAddresses()) {
+            // 连接时会再次解析，JVM 的 DNS 正向缓存使两次解析通常得到同一结果
+            for (InetAddress address : InetAddress.getAllByName(uri.getHost())) {
+                if (!isPublicAddress(address)) {
+                    throw new IOException("jwks_uri resolves to non-public address " + address.getHostAddress());
+                }
+            }
+        }
+        return uri.toURL();
+    }
+
+    /**
+     * 排除任意地址、回环、链路本地（含 169.254.169.254 等云元数据地址）、私有网段、组播，
+     * 以及 JDK 未覆盖的 0.0.0.0/8、100.64.0.0/10（运营商 NAT，部分云厂商元数据服务）和 IPv6 唯一本地地址 fc00::/7
+     */
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            return first != 0 && !(first == 100 && (second & 0xc0) == 64);
+        }
+        if (address instanceof Inet6Address) {
+            return (bytes[0] & 0xfe) != 0xfc;
+        }
+        return true;
+    }
+
+    /**
+     * 不跟随重定向的拉取器，3xx 响应按拉取失败处理
+     */
+    private static class NoRedirectResourceRetriever extends DefaultResourceRetriever {
+
+        NoRedirectResourceRetriever(int connectTimeout, int readTimeout, int sizeLimit) {
+            super(connectTimeout, readTimeout, sizeLimit);
+        }
+
+        @Override
+        protected HttpURLConnection openConnection(URL url) throws IOException {
+            HttpURLConnection connection = super.openConnection(url);
+            connection.setInstanceFollowRedirects(false);
+            return connection;
+        }
+    }
+
+    /**
+     * 单个验签密钥
+     */
+    private record VerificationKey(String kid, KeyType keyType, JWSAlgorithm algorithm, JWSVerifier verifier) {
+
+        boolean matches(JWSHeader header, KeyType expectedType) {
+            if (!keyType.equals(expectedType)) {
+                return false;
+            }
+            if (algorithm != null && !algorithm.equals(header.getAlgorithm())) {
+                return false;
+            }
+            return header.getKeyID() == null || header.getKeyID().equals(kid);
+        }
+    }
+
+    /**
+     * 客户端的密钥集快照
+     *
+     * @param uri 公钥集地址
+     * @param keys 可用的验签密钥
+     * @param expiresAt 缓存过期时间
+     * @param lastFetchAt 最近一次拉取时间（无论成功与否）
+     */
+    private record KeySet(String uri, List<VerificationKey> keys, Instant expiresAt, Instant lastFetchAt) {
+
+        static KeySet of(String uri, JWKSet jwkSet, Instant now, Instant expiresAt) {
+            List<VerificationKey> keys = new ArrayList<>();
+            for (JWK jwk : jwkSet.getKeys()) {
+                if (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse())) {
+                    continue;
+                }
+                JWSVerifier verifier = toVerifier(jwk);
+                if (verifier != null) {
+                    JWSAlgorithm algorithm = jwk.getAlgorithm() != null ? JWSAlgorithm.parse(jwk.getAlgorithm().getName()) : null;
+                    keys.add(new VerificationKey(jwk.getKeyID(), jwk.getKeyType(), algorithm, verifier));
+                }
+            }
+            return new KeySet(uri, List.copyOf(keys), expiresAt, now);
+        }
+
+        static KeySet failed(String uri, Instant now) {
+            return new KeySet(uri, List.of(), now, now);
+        }
+
+        KeySet withFetchAttempt(Instant now) {
+            return new KeySet(uri, keys, expiresAt, now);
+        }
+
+        boolean isExpired(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+
+        boolean needsRefresh(Instant now, Duration refreshAhead) {
+            return !now.isBefore(expiresAt.minus(refreshAhead));
+        }
+
+        boolean canRefetch(Instant now, Duration minInterval) {
+            return !now.isBefore(lastFetchAt.plus(minInterval));
+        }
+
+        /**
+         * 按 kid 和算法查找验签器；断言未携带 kid 时仅在唯一匹配时返回
+         */
+        JWSVerifier find(JWSHeader header) {
+            KeyType expectedType = expectedKeyType(header.getAlgorithm());
+            if (expectedType == null) {
+                return null;
+            }
+            VerificationKey match = null;
+            for (VerificationKey key : keys) {
+                if (!key.matches(header, expectedType)) {
+                    continue;
+                }
+                if (header.getKeyID() != null) {
+                    return key.verifier();
+                }
+                if (match != null) {
+                    return null;
+                }
+                match = key;
+            }
+            return match != null ? match.verifier() : null;
+        }
+
+        private static KeyType expectedKeyType(JWSAlgorithm algorithm) {
+            if (JWSAlgorithm.Family.RSA.contains(algorithm)) {
+                return KeyType.RSA;
+            }
+            if (JWSAlgorithm.Family.EC.contains(algorithm)) {
+                return KeyType.EC;
+            }
+            return null;
+        }
+
+        private static JWSVerifier toVerifier(JWK jwk) {
+            try {
+                if (jwk instanceof RSAKey rsaKey) {
+                    return new RSASSAVerifier(rsaKey.toPublicJWK());
+                }
+                if (jwk instanceof ECKey ecKey) {
+                    return new ECDSAVerifier(ecKey.toPublicJWK());
+                }
+            } catch (JOSEException e) {
+                log.warn("Ignoring unusable JWK {}: {}", jwk.getKeyID(), e.getMessage());
+            }
+            return null;
+        }
+    }
+}
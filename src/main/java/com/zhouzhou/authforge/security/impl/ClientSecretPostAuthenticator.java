@@ -1,12 +1,13 @@
 package com.zhouzhou.authforge.security.impl;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
 import com.zhouzhou.authforge.security.AbstractClientAuthenticator;
 import com.zhouzhou.authforge.security.ClientAuthenticationMethod;
 import com.zhouzhou.authforge.security.ClientAuthenticationToken;
-import jakarta.servlet.http.HttpServletRequest;
+import com.zhouzhou.authforge.security.ClientSecretVerifier;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -17,11 +18,8 @@ import org.springframework.util.StringUtils;
 @Component
 public class ClientSecretPostAuthenticator extends AbstractClientAuthenticator {
 
-    private static final String CLIENT_ID_PARAM = "client_id";
-    private static final String CLIENT_SECRET_PARAM = "client_secret";
-
-    public ClientSecretPostAuthenticator(OAuthClientRepository clientRepository) {
-        super(clientRepository);
+    public ClientSecretPostAuthenticator(OAuthClientRepository clientRepository, ClientSecretVerifier clientSecretVerifier) {
+        super(clientRepository, clientSecretVerifier);
     }
 
     @Override
@@ -30,9 +28,9 @@ public class ClientSecretPostAuthenticator extends AbstractClientAuthenticator {
     }
 
     @Override
-    public ClientAuthenticationToken tryExtractCredentials(HttpServletRequest request) {
-        String clientId = request.getParameter(CLIENT_ID_PARAM);
-        String clientSecret = request.getParameter(CLIENT_SECRET_PARAM);
+    public ClientAuthenticationToken tryExtractCredentials(TokenRequestContext context) {
+        String clientId = context.getClientId();
+        String clientSecret = context.getClientSecret();
 
         if (!StringUtils.hasText(clientId) || !StringUtils.hasText(clientSecret)) {
             return null;
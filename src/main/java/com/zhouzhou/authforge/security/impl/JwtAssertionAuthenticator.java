@@ -1,20 +1,30 @@
 package com.zhouzhou.authforge.security.impl;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.zhouzhou.authforge.config.ClientAssertionConfig;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
 import com.zhouzhou.authforge.security.AbstractClientAuthenticator;
+import com.zhouzhou.authforge.security.ClientAssertionKeyCache;
 import com.zhouzhou.authforge.security.ClientAuthenticationMethod;
 import com.zhouzhou.authforge.security.ClientAuthenticationToken;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import jakarta.servlet.http.HttpServletRequest;
+import com.zhouzhou.authforge.security.JtiReplayCache;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.text.ParseException;
+import java.time.Instant;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * JWT断言认证器实现
@@ -22,17 +32,37 @@ import java.util.Date;
  * 使用JWT断言进行客户端认证
  * 参考OAuth 2.0规范：
  * https://datatracker.ietf.org/doc/html/rfc7523
+ *
+ * 断言在提取凭证时只解析一次，校验时复用解析结果；
+ * 验签器按客户端版本缓存，jti 通过重放缓存保证单次使用。
+ * 受众（aud）必须标识本授权服务器（RFC 7523 第 3 节），即签发者标识或令牌端点 URL，
+ * 发给其他授权服务器的断言即使 client_id 相同也会被拒绝。
+ * 重放缓存只在本节点内存中：多节点部署时同一断言在断言有效期内仍可能在其他节点各使用一次，
+ * 断言最长有效期（auth.client-assertion.max-lifetime）同时限制了这一窗口。
  */
 @Slf4j
 @Component
 public class JwtAssertionAuthenticator extends AbstractClientAuthenticator {
 
-    private static final String CLIENT_ASSERTION_TYPE_PARAM = "client_assertion_type";
-    private static final String CLIENT_ASSERTION_PARAM = "client_assertion";
     private static final String EXPECTED_ASSERTION_TYPE = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
 
-    public JwtAssertionAuthenticator(OAuthClientRepository clientRepository) {
+    private final ClientAssertionKeyCache keyCache;
+    private final JtiReplayCache replayCache;
+    private final ClientAssertionConfig assertionConfig;
+    // 可接受的受众：授权服务器签发者标识和令牌端点 URL
+    private final Set<String> acceptedAudiences;
+
+    public JwtAssertionAuthenticator(OAuthClientRepository clientRepository,
+                                     ClientAssertionKeyCache keyCache,
+                                     JtiReplayCache replayCache,
+                                     ClientAssertionConfig assertionConfig,
+                                     @Value("${auth.server.issuer}") String issuer,
+                                     @Value("${auth.server.token-endpoint}") String tokenEndpoint) {
         super(clientRepository);
+        this.keyCache = keyCache;
+        this.replayCache = replayCache;
+        this.assertionConfig = assertionConfig;
+        this.acceptedAudiences = Set.copyOf(List.of(issuer, tokenEndpoint));
     }
 
     @Override
@@ -40,11 +70,19 @@ public class JwtAssertionAuthenticator extends AbstractClientAuthenticator {
         return ClientAuthenticationMethod.PRIVATE_KEY_JWT;
     }
 
+    /**
+     * 同时处理 private_key_jwt 和 client_secret_jwt，两者仅签名算法不同
+     */
     @Override
-    public ClientAuthenticationToken tryExtractCredentials(HttpServletRequest request) {
+    public Set<ClientAuthenticationMethod> getSupportedMethods() {
+        return EnumSet.of(ClientAuthenticationMethod.PRIVATE_KEY_JWT, ClientAuthenticationMethod.CLIENT_SECRET_JWT);
+    }
+
+    @Override
+    public ClientAuthenticationToken tryExtractCredentials(TokenRequestContext context) {
         // 1. 获取断言类型和JWT
-        String assertionType = request.getParameter(CLIENT_ASSERTION_TYPE_PARAM);
-        String assertion = request.getParameter(CLIENT_ASSERTION_PARAM);
+        String assertionType = context.getClientAssertionType();
+        String assertion = context.getClientAssertion();
 
         if (!StringUtils.hasText(assertionType) || !StringUtils.hasText(assertion)) {
             return null;
@@ -54,15 +92,13 @@ public class JwtAssertionAuthenticator extends AbstractClientAuthenticator {
             return null;
         }
 
-        // 2. 从JWT中提取客户端ID（不验证签名）
+        // 2. 解析JWT（仅解析一次，签名在校验阶段验证），从签发者中提取客户端ID
+        SignedJWT signedJwt;
         String clientId;
         try {
-            Claims claims = Jwts.parserBuilder()
-                .build()
-                .parseClaimsJws(assertion)
-                .getBody();
-            clientId = claims.getIssuer();
-        } catch (Exception e) {
+            signedJwt = SignedJWT.parse(assertion);
+            clientId = signedJwt.getJWTClaimsSet().getIssuer();
+        } catch (ParseException e) {
             return null;
         }
 
@@ -74,53 +110,86 @@ public class JwtAssertionAuthenticator extends AbstractClientAuthenticator {
             .clientId(clientId)
             .clientAssertion(assertion)
             .clientAssertionType(assertionType)
+            .parsedAssertion(signedJwt)
             .build();
     }
 
     @Override
     public void validateCredentials(ClientAuthenticationToken token, OAuthClient client) throws OAuth2AuthenticationException {
-        String assertion = token.getClientAssertion();
-        if (assertion == null) {
+        SignedJWT signedJwt = token.getParsedAssertion();
+        if (signedJwt == null) {
             throw new OAuth2AuthenticationException("invalid_client", "Missing client_assertion");
         }
 
-        try {
-            // 验证JWT签名和声明
-            Claims claims = Jwts.parserBuilder()
-                .setSigningKey(client.getClientSecret().getBytes())
-                .build()
-                .parseClaimsJws(assertion)
-                .getBody();
-
-            // 验证声明
-            validateClaims(claims, client);
+        // 验证客户端是否支持对应的JWT断言认证方式：HMAC 为 client_secret_jwt，其余为 private_key_jwt
+        ClientAuthenticationMethod method = JWSAlgorithm.Family.HMAC_SHA.contains(signedJwt.getHeader().getAlgorithm())
+            ? ClientAuthenticationMethod.CLIENT_SECRET_JWT
+            : ClientAuthenticationMethod.PRIVATE_KEY_JWT;
+        if (!client.getClientAuthenticationMethodSet().contains(method)) {
+            throw new OAuth2AuthenticationException(
+                "invalid_client",
+                "Client does not support " + method.getValue() + " authentication"
+            );
+        }
 
-        } catch (JwtException e) {
+        // 验证签名
+        try {
+            if (!signedJwt.verify(keyCache.getVerifier(client, signedJwt.getHeader()))) {
+                throw new OAuth2AuthenticationException("invalid_client", "Invalid JWT signature");
+            }
+        } catch (JOSEException e) {
             log.warn("JWT validation failed: {}", e.getMessage());
             throw new OAuth2AuthenticationException("invalid_client", "Invalid JWT: " + e.getMessage());
         }
+
+        // 验证声明
+        JWTClaimsSet claims;
+        try {
+            claims = signedJwt.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new OAuth2AuthenticationException("invalid_client", "Invalid JWT claims");
+        }
+        validateClaims(claims, client);
+
+        // 断言只能使用一次
+        if (!replayCache.markUsed(client.getClientId(), claims.getJWTID(), claims.getExpirationTime().toInstant())) {
+            throw new OAuth2AuthenticationException("invalid_client", "JWT has already been used");
+        }
     }
 
-    private void validateClaims(Claims claims, OAuthClient client) {
+    private void validateClaims(JWTClaimsSet claims, OAuthClient client) {
+        Instant now = Instant.now();
+        long skew = assertionConfig.getClockSkew().toMillis();
+
         // 验证过期时间
-        if (claims.getExpiration() == null) {
+        Date expiration = claims.getExpirationTime();
+        if (expiration == null) {
             throw new OAuth2AuthenticationException("invalid_client", "JWT must have an expiration time");
         }
-        if (claims.getExpiration().before(new Date())) {
+        if (expiration.toInstant().plusMillis(skew).isBefore(now)) {
             throw new OAuth2AuthenticationException("invalid_client", "JWT has expired");
         }
+        if (expiration.toInstant().isAfter(now.plus(assertionConfig.getMaxLifetime()).plusMillis(skew))) {
+            throw new OAuth2AuthenticationException("invalid_client", "JWT expiration time is too far in the future");
+        }
 
         // 验证签发时间
-        if (claims.getIssuedAt() == null) {
+        Date issuedAt = claims.getIssueTime();
+        if (issuedAt == null) {
             throw new OAuth2AuthenticationException("invalid_client", "JWT must have an issued at time");
         }
-        if (claims.getIssuedAt().after(new Date())) {
+        if (issuedAt.toInstant().minusMillis(skew).isAfter(now)) {
             throw new OAuth2AuthenticationException("invalid_client", "JWT issued at future time");
         }
 
-        // 验证受众
-        String audience = claims.getAudience();
-        if (audience == null || !audience.equals(client.getClientId())) {
+        // 验证JWT ID，用于防重放
+        if (!StringUtils.hasText(claims.getJWTID())) {
+            throw new OAuth2AuthenticationException("invalid_client", "JWT must have a jti");
+        }
+
+        // 验证受众：必须包含本授权服务器的签发者标识或令牌端点 URL
+        List<String> audience = claims.getAudience();
+        if (audience == null || audience.stream().noneMatch(acceptedAudiences::contains)) {
             throw new OAuth2AuthenticationException("invalid_client", "Invalid audience");
         }
 
@@ -130,4 +199,4 @@ public class JwtAssertionAuthenticator extends AbstractClientAuthenticator {
             throw new OAuth2AuthenticationException("invalid_client", "Invalid issuer");
         }
     }
-} 
\ No newline at end of file
+}
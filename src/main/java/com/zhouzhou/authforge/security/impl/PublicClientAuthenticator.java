@@ -1,5 +1,6 @@
 package com.zhouzhou.authforge.security.impl;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
@@ -7,7 +8,6 @@ import com.zhouzhou.authforge.security.AbstractClientAuthenticator;
 import com.zhouzhou.authforge.security.ClientAuthenticationMethod;
 import com.zhouzhou.authforge.security.ClientAuthenticationToken;
 import com.zhouzhou.authforge.security.CodeVerifierAuthenticator;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -22,10 +22,6 @@ import org.springframework.util.StringUtils;
 @Component
 public class PublicClientAuthenticator extends AbstractClientAuthenticator {
 
-    private static final String CLIENT_ID_PARAM = "client_id";
-    private static final String CODE_PARAM = "code";
-    private static final String CODE_VERIFIER_PARAM = "code_verifier";
-
     private final CodeVerifierAuthenticator codeVerifierAuthenticator;
 
     public PublicClientAuthenticator(OAuthClientRepository clientRepository, CodeVerifierAuthenticator codeVerifierAuthenticator) {
@@ -39,9 +35,9 @@ public class PublicClientAuthenticator extends AbstractClientAuthenticator {
     }
 
     @Override
-    public ClientAuthenticationToken tryExtractCredentials(HttpServletRequest request) {
+    public ClientAuthenticationToken tryExtractCredentials(TokenRequestContext context) {
         // 1. 获取client_id
-        String clientId = request.getParameter(CLIENT_ID_PARAM);
+        String clientId = context.getClientId();
         if (!StringUtils.hasText(clientId)) {
             return null;
         }
@@ -52,8 +48,8 @@ public class PublicClientAuthenticator extends AbstractClientAuthenticator {
         }
 
         // 3. 获取code和code_verifier（如果存在）
-        String code = request.getParameter(CODE_PARAM);
-        String codeVerifier = request.getParameter(CODE_VERIFIER_PARAM);
+        String code = context.getCode();
+        String codeVerifier = context.getCodeVerifier();
 
         return ClientAuthenticationToken.builder()
             .clientId(clientId)
@@ -0,0 +1,25 @@
+package com.zhouzhou.authforge.service;
+
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+
+import java.util.function.Supplier;
+
+/**
+ * 客户端凭证令牌缓存接口
+ *
+ * 对启用令牌复用的客户端，按（客户端, 作用域）返回剩余有效期足够的已有令牌；
+ * 相同（客户端, 作用域）的并发请求合并为一次签发。调用方不应处于事务中。
+ */
+public interface ClientCredentialsTokenCache {
+
+    /**
+     * 获取可复用的令牌，没有时调用 issuer 签发新令牌
+     *
+     * @param client 已认证的客户端
+     * @param scope 规范化（排序后）的作用域字符串
+     * @param issuer 签发并保存新令牌
+     * @return 访问令牌
+     */
+    OAuthAccessToken getOrIssue(OAuthClient client, String scope, Supplier<OAuthAccessToken> issuer);
+}
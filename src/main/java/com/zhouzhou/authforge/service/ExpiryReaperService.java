@@ -0,0 +1,16 @@
+package com.zhouzhou.authforge.service;
+
+/**
+ * 过期数据清理服务接口
+ *
+ * 定期删除已过期的令牌、授权记录、设备授权记录及其状态变化记录，防止相关表无限增长
+ */
+public interface ExpiryReaperService {
+
+    /**
+     * 执行一轮过期数据清理
+     *
+     * @return 本轮删除的总行数，未获取到租约时返回 0
+     */
+    long reapExpired();
+}
@@ -7,6 +7,7 @@ import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.model.OAuthConsent;
 import com.zhouzhou.authforge.repository.OAuthAuthorizationRepository;
 import com.zhouzhou.authforge.repository.OAuthConsentRepository;
+import com.zhouzhou.authforge.security.RandomSource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -18,7 +19,6 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -27,6 +27,7 @@ public class OAuth2ConsentService {
     private final OAuthConsentRepository consentRepository;
     private final OAuth2ClientService clientService;
     private final OAuthAuthorizationRepository authorizationRepository;
+    private final RandomSource randomSource;
 
     /**
      * 检查是否需要用户同意
@@ -226,7 +227,7 @@ public class OAuth2ConsentService {
             saveConsent(client, authentication, String.join(" ", authorizedScopes));
 
             // 8. 生成授权码
-            String code = UUID.randomUUID().toString();
+            String code = randomSource.nextUuid();
             OAuthAuthorization authorization = new OAuthAuthorization();
             authorization.setClientId(clientId);
             authorization.setUserId(authentication.getName());
@@ -7,6 +7,9 @@ import com.zhouzhou.authforge.model.OAuthClient;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * OAuth 2.0 设备授权服务接口，遵循
  * <a href="https://tools.ietf.org/html/rfc8628" target="_blank">RFC 8628</a> 规范。
@@ -42,16 +45,27 @@ public interface OAuth2DeviceAuthorizationService {
      */
     ResponseEntity<DeviceAuthorizationResponse> authorizeDevice(DeviceAuthorizationRequest request);
 
+    /**
+     * 批量签发设备验证码和用户验证码。
+     *
+     * 调用方已完成客户端认证。验证码按批生成、去重并插入，每批提交后立即交给 sink，
+     * 中途失败时已交出的验证码仍然有效。
+     *
+     * @param request 设备授权请求（包含已认证的客户端）
+     * @param count 签发数量
+     * @param sink 接收每批已提交的设备授权响应
+     */
+    void authorizeDevices(DeviceAuthorizationRequest request, int count, Consumer<List<DeviceAuthorizationResponse>> sink);
+
     /**
      * 验证用户提供的验证码并更新设备授权状态。
      *
      * @param userCode 用户验证码
      * @param approve 是否批准授权
-     * @param interval 轮询间隔（秒）
      * @return 更新后的授权状态
      * @throws com.zhouzhou.authforge.exception.OAuth2DeviceAuthorizationException 当验证码无效、已过期或已被使用时
      */
-    DeviceAuthorizationStatus verifyUserCode(String userCode, boolean approve, int interval);
+    DeviceAuthorizationStatus verifyUserCode(String userCode, boolean approve);
 
     /**
      * 检查验证码状态。
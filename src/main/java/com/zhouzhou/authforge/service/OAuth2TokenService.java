@@ -1,8 +1,8 @@
 package com.zhouzhou.authforge.service;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.dto.TokenResponse;
 import com.zhouzhou.authforge.model.OAuthClient;
-import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * OAuth 2.0 令牌服务接口
@@ -18,21 +18,10 @@ public interface OAuth2TokenService {
     /**
      * 处理令牌请求
      *
-     * @param request HTTP请求
-     * @param grantType 授权类型
-     * @param code 授权码
-     * @param redirectUri 重定向URI
-     * @param codeVerifier PKCE验证码
-     * @param refreshToken 刷新令牌
+     * @param context 令牌请求上下文
      * @return 令牌响应
      */
-    TokenResponse handleTokenRequest(
-            HttpServletRequest request,
-            String grantType,
-            String code,
-            String redirectUri,
-            String codeVerifier,
-            String refreshToken);
+    TokenResponse handleTokenRequest(TokenRequestContext context);
 
     /**
      * 处理刷新令牌请求
@@ -0,0 +1,22 @@
+package com.zhouzhou.authforge.service;
+
+/**
+ * 分区维护服务接口
+ *
+ * 为按天分区的表提前创建未来分区，并删除已整体过期的分区
+ */
+public interface PartitionMaintenanceService {
+
+    /**
+     * 执行一轮分区维护
+     */
+    void maintainPartitions();
+
+    /**
+     * 判断表是否由分区维护负责清理
+     *
+     * @param table 表名
+     * @return 分区维护已启用且该表已分区时返回 true
+     */
+    boolean isPartitioned(String table);
+}
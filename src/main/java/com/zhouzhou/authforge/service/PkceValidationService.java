@@ -3,15 +3,12 @@ package com.zhouzhou.authforge.service;
 import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.model.OAuthAuthorization;
 import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.security.PkceVerifier;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-
 /**
  * PKCE 验证服务
  * 
@@ -24,8 +21,11 @@ import java.util.Base64;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class PkceValidationService {
 
+    private final PkceVerifier pkceVerifier;
+
     /**
      * 验证 code_verifier
      * 
@@ -96,48 +96,14 @@ public class PkceValidationService {
      * 验证 code_verifier 是否有效
      */
     private boolean isValidCodeVerifier(String codeVerifier, String codeChallenge, String codeChallengeMethod) {
-        // 验证 code_verifier 格式（[A-Z] / [a-z] / [0-9] / "-" / "." / "_" / "~"，长度43-128字符）
-        if (!isValidCodeVerifierFormat(codeVerifier)) {
-            return false;
-        }
-
-        // 根据 code_challenge_method 计算 code_challenge
-        String computedCodeChallenge;
-        if ("S256".equals(codeChallengeMethod)) {
-            computedCodeChallenge = generateS256CodeChallenge(codeVerifier);
-        } else if ("plain".equals(codeChallengeMethod)) {
-            computedCodeChallenge = codeVerifier;
-        } else {
+        if (!pkceVerifier.isSupportedMethod(codeChallengeMethod)) {
             throw new OAuth2AuthenticationException(
                 "invalid_grant",
                 "Unsupported code challenge method: " + codeChallengeMethod
             );
         }
 
-        return codeChallenge.equals(computedCodeChallenge);
-    }
-
-    /**
-     * 验证 code_verifier 格式
-     */
-    private boolean isValidCodeVerifierFormat(String codeVerifier) {
-        if (codeVerifier.length() < 43 || codeVerifier.length() > 128) {
-            return false;
-        }
-
-        return codeVerifier.matches("^[A-Za-z0-9\\-\\._~]+$");
-    }
-
-    /**
-     * 生成 S256 方式的 code_challenge
-     */
-    private String generateS256CodeChallenge(String codeVerifier) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(codeVerifier.getBytes(StandardCharsets.US_ASCII));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 algorithm not available", e);
-        }
+        // 格式校验（[A-Z] / [a-z] / [0-9] / "-" / "." / "_" / "~"，长度43-128字符）包含在 matches 中
+        return pkceVerifier.matches(codeVerifier, codeChallenge, codeChallengeMethod);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.zhouzhou.authforge.service;
+
+import java.time.Duration;
+
+/**
+ * 定时任务租约服务接口
+ *
+ * 基于数据库行实现的分布式租约，保证多节点部署时同一任务只在一个节点上执行
+ */
+public interface SchedulerLeaseService {
+
+    /**
+     * 尝试获取或续期租约
+     *
+     * @param name 租约名称
+     * @param duration 租约时长
+     * @return 获取成功返回 true
+     */
+    boolean tryAcquire(String name, Duration duration);
+
+    /**
+     * 释放当前节点持有的租约
+     *
+     * @param name 租约名称
+     */
+    void release(String name);
+
+    /**
+     * 获取当前节点的租约持有者标识
+     */
+    String getOwnerId();
+}
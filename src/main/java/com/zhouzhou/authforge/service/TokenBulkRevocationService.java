@@ -0,0 +1,24 @@
+package com.zhouzhou.authforge.service;
+
+import com.zhouzhou.authforge.dto.BulkRevocationResponse;
+
+/**
+ * 令牌批量撤销服务接口
+ *
+ * 用于账号泄露或客户端停用等场景，一次性撤销某个用户和/或客户端的全部令牌：
+ * 1. 分批使访问令牌和刷新令牌失效
+ * 2. 删除对应的授权同意记录
+ * 3. 通知内存缓存清除已撤销的令牌
+ */
+public interface TokenBulkRevocationService {
+
+    /**
+     * 撤销指定用户和/或客户端的全部令牌
+     *
+     * @param userId 用户ID（可选）
+     * @param clientId 客户端ID（可选）
+     * @return 撤销结果
+     * @throws IllegalArgumentException 如果用户ID和客户端ID均为空
+     */
+    BulkRevocationResponse revokeAll(String userId, String clientId);
+}
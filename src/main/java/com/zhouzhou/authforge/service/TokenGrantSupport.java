@@ -0,0 +1,211 @@
+package com.zhouzhou.authforge.service;
+
+import com.zhouzhou.authforge.dto.TokenIntrospectionResponse;
+import com.zhouzhou.authforge.dto.TokenResponse;
+import com.zhouzhou.authforge.exception.OAuth2TokenException;
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 令牌授权和内省的业务规则
+ *
+ * 只包含校验和构造逻辑，不访问数据库。阻塞实现（OAuth2TokenServiceImpl、
+ * OAuth2TokenIntrospectionServiceImpl）和响应式实现共用这些规则，只是各自负责读写存储。
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenGrantSupport {
+
+    /**
+     * 刷新令牌相关的预期错误，异常不带堆栈，可以复用
+     */
+    public static final OAuth2TokenException INVALID_REFRESH_TOKEN =
+            new OAuth2TokenException("invalid_grant", "Invalid refresh token");
+    private static final OAuth2TokenException REFRESH_TOKEN_CLIENT_MISMATCH =
+            new OAuth2TokenException("invalid_grant", "Refresh token was not issued to this client");
+    private static final OAuth2TokenException REFRESH_TOKEN_INVALIDATED =
+            new OAuth2TokenException("invalid_grant", "Refresh token has been invalidated");
+    private static final OAuth2TokenException REFRESH_TOKEN_EXPIRED =
+            new OAuth2TokenException("invalid_grant", "Refresh token has expired");
+
+    private final TokenGenerator tokenGenerator;
+
+    /**
+     * 校验客户端凭证模式请求的作用域，返回排序后以空格分隔的作用域
+     *
+     * 未请求作用域时使用客户端的全部作用域；排序后的结果同时作为复用令牌的缓存键。
+     */
+    public String resolveClientCredentialsScope(OAuthClient client, String requestedScope) {
+        Set<String> clientScopes = client.getScopeSet();
+        if (!StringUtils.hasText(requestedScope)) {
+            return String.join(" ", new TreeSet<>(clientScopes));
+        }
+
+        Set<String> requestedScopes = new TreeSet<>();
+        for (String scope : requestedScope.split(" ")) {
+            if (!clientScopes.contains(scope)) {
+                throw new OAuth2TokenException(
+                        "invalid_scope",
+                        "Requested scope is not allowed: " + scope
+                );
+            }
+            requestedScopes.add(scope);
+        }
+        return String.join(" ", requestedScopes);
+    }
+
+    /**
+     * 构造客户端凭证令牌（不包含refresh_token），尚未保存
+     */
+    public OAuthAccessToken newClientCredentialsToken(OAuthClient client, String scope) {
+        return OAuthAccessToken.builder()
+                .clientId(client.getClientId())
+                .accessToken(tokenGenerator.generateAccessToken(
+                        "service_account",  // 使用service_account作为subject，符合OAuth 2.1规范
+                        scope,
+                        client.getAccessTokenValiditySeconds()
+                ))
+                .scopes(scope)
+                .accessTokenExpiresAt(LocalDateTime.now().plusSeconds(client.getAccessTokenValiditySeconds()))
+                .status(OAuthAccessToken.TokenStatus.ACTIVE)
+                .build();
+    }
+
+    /**
+     * 可复用的客户端凭证令牌的最早过期时间：剩余有效期不低于客户端配置的百分比
+     */
+    public LocalDateTime minReuseExpiresAt(OAuthClient client) {
+        long minRemainingSeconds = (long) client.getAccessTokenValiditySeconds()
+                * client.getTokenReuseMinRemainingPercent() / 100;
+        return LocalDateTime.now().plusSeconds(minRemainingSeconds);
+    }
+
+    /**
+     * 客户端凭证模式的响应，expires_in 为剩余有效期（复用的令牌可能已使用一段时间）
+     */
+    public TokenResponse clientCredentialsResponse(OAuthAccessToken accessToken) {
+        long expiresIn = Math.max(0L, Duration.between(LocalDateTime.now(), accessToken.getAccessTokenExpiresAt()).getSeconds());
+        return TokenResponse.builder()
+                .accessToken(accessToken.getAccessToken())
+                .tokenType("Bearer")
+                .expiresIn(expiresIn)
+                .scope(accessToken.getScopes())
+                .build();
+    }
+
+    /**
+     * 校验刷新令牌并构造新的访问令牌
+     *
+     * 客户端不允许重用刷新令牌时会生成新的刷新令牌，并把旧令牌标记为失效，
+     * 调用方需要同时保存旧令牌和新令牌。
+     *
+     * @param existingToken 刷新令牌所在的令牌记录
+     * @param client 已认证的客户端
+     * @return 新令牌，尚未保存
+     */
+    public RefreshedToken refresh(OAuthAccessToken existingToken, OAuthClient client) {
+        if (!existingToken.getClientId().equals(client.getClientId())) {
+            throw REFRESH_TOKEN_CLIENT_MISMATCH;
+        }
+        if (existingToken.isInvalidated()) {
+            throw REFRESH_TOKEN_INVALIDATED;
+        }
+        if (existingToken.isRefreshTokenExpired()) {
+            throw REFRESH_TOKEN_EXPIRED;
+        }
+
+        String newAccessToken = tokenGenerator.generateAccessToken(
+                existingToken.getUserId(),  // 保持原有的subject
+                existingToken.getScopes(),   // 保持原有的scope
+                client.getAccessTokenValiditySeconds()
+        );
+
+        String newRefreshToken = null;
+        if (!client.isReuseRefreshTokens()) {
+            newRefreshToken = tokenGenerator.generateRefreshToken();
+            existingToken.markAsInvalidated();
+        }
+
+        OAuthAccessToken newToken = OAuthAccessToken.builder()
+                .accessToken(newAccessToken)
+                .refreshToken(newRefreshToken != null ? newRefreshToken : existingToken.getRefreshToken())
+                .clientId(client.getClientId())
+                .userId(existingToken.getUserId())
+                .scopes(existingToken.getScopes())
+                .accessTokenExpiresAt(LocalDateTime.now().plusSeconds(client.getAccessTokenValiditySeconds()))
+                .refreshTokenExpiresAt(newRefreshToken != null ?
+                        LocalDateTime.now().plusSeconds(client.getRefreshTokenValiditySeconds()) :
+                        existingToken.getRefreshTokenExpiresAt())
+                .status(OAuthAccessToken.TokenStatus.ACTIVE)
+                .build();
+
+        TokenResponse response = TokenResponse.builder()
+                .accessToken(newAccessToken)
+                .tokenType("Bearer")
+                .expiresIn(client.getAccessTokenValiditySeconds().longValue())
+                .refreshToken(newToken.getRefreshToken())
+                .scope(newToken.getScopes())
+                .build();
+        return new RefreshedToken(newToken, newRefreshToken != null, response);
+    }
+
+    /**
+     * token_type_hint 是否有效，无效的提示按未提供处理
+     */
+    public boolean isValidTokenTypeHint(String tokenTypeHint) {
+        return "access_token".equals(tokenTypeHint) || "refresh_token".equals(tokenTypeHint);
+    }
+
+    /**
+     * 构建内省响应，令牌不存在或不可用时返回 active=false
+     */
+    public TokenIntrospectionResponse introspectionResponse(OAuthAccessToken token) {
+        if (token == null || !token.isActive()) {
+            return TokenIntrospectionResponse.builder()
+                    .active(false)
+                    .build();
+        }
+
+        TokenIntrospectionResponse.TokenIntrospectionResponseBuilder builder = TokenIntrospectionResponse.builder()
+                .active(true)
+                .client_id(token.getClientId())
+                .token_type("Bearer") // OAuth 2.0 Bearer Token
+                .exp(token.getAccessTokenExpiresAt() != null ? token.getAccessTokenExpiresAt().toEpochSecond(ZoneOffset.UTC) : null)
+                .iat(token.getCreatedAt() != null ? token.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : null);
+
+        // 设置可选字段
+        if (token.getScopes() != null) {
+            builder.scope(token.getScopes());
+        }
+        if (token.getUserId() != null) {
+            builder.username(token.getUserId());
+            builder.sub(token.getUserId());
+        }
+
+        // 设置JWT相关字段
+        builder.jti(token.getAccessToken()) // 使用access_token作为jti
+               .iss("https://server.example.com/") // 从配置中获取
+               .aud("https://protected.example.net/resource"); // 从配置中获取
+
+        return builder.build();
+    }
+
+    /**
+     * 刷新结果
+     *
+     * @param token 新令牌
+     * @param rotated 是否轮换了刷新令牌（旧令牌已标记为失效，需要保存）
+     * @param response 令牌响应
+     */
+    public record RefreshedToken(OAuthAccessToken token, boolean rotated, TokenResponse response) {
+    }
+}
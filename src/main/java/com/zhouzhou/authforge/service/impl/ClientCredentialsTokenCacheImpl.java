@@ -0,0 +1,163 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.TokenProperties;
+import com.zhouzhou.authforge.event.TokenRevokedEvent;
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
+import com.zhouzhou.authforge.service.ClientCredentialsTokenCache;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 客户端凭证令牌缓存实现类
+ *
+ * 1. 本地缓存每个（客户端, 作用域）最近签发的令牌，剩余有效期不低于阈值时直接返回，不访问数据库
+ * 2. 本地未命中时先查询数据库中可复用的令牌，多节点部署时也能复用
+ * 3. 并发请求通过 in-flight 表合并：首个请求负责签发，其余请求等待其事务提交后的结果；
+ *    等待方不应处于事务中，否则等待期间会一直占用数据库连接
+ * 4. 撤销令牌时根据 {@link TokenRevokedEvent} 清除缓存，缓存命中不再逐次确认令牌状态
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ClientCredentialsTokenCacheImpl implements ClientCredentialsTokenCache {
+
+    private final OAuthAccessTokenRepository accessTokenRepository;
+    private final TokenProperties tokenProperties;
+    private final TokenGrantSupport grantSupport;
+
+    private final ConcurrentHashMap<CacheKey, OAuthAccessToken> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<OAuthAccessToken>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public OAuthAccessToken getOrIssue(OAuthClient client, String scope, Supplier<OAuthAccessToken> issuer) {
+        CacheKey key = new CacheKey(client.getClientId(), scope);
+
+        OAuthAccessToken cached = tokens.get(key);
+        if (cached != null) {
+            if (isReusable(cached, client)) {
+                return cached;
+            }
+            tokens.remove(key, cached);
+        }
+
+        CompletableFuture<OAuthAccessToken> future = new CompletableFuture<>();
+        CompletableFuture<OAuthAccessToken> leader = inFlight.putIfAbsent(key, future);
+        if (leader != null) {
+            return awaitLeader(leader, client, issuer);
+        }
+
+        try {
+            OAuthAccessToken token = accessTokenRepository.findReusableClientCredentialsTokens(
+                            client.getClientId(),
+                            scope,
+                            OAuthAccessToken.TokenStatus.ACTIVE,
+                            grantSupport.minReuseExpiresAt(client),
+                            PageRequest.ofSize(1))
+                    .stream()
+                    .findFirst()
+                    .orElseGet(issuer);
+            publishAfterCommit(key, future, token);
+            return token;
+        } catch (RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 令牌撤销后清除对应缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        if (event.isEmpty() || tokens.isEmpty()) {
+            return;
+        }
+        Set<String> revoked = new HashSet<>(event.getAccessTokens());
+        tokens.values().removeIf(token -> revoked.contains(token.getAccessToken()));
+    }
+
+    /**
+     * 等待首个请求的签发结果；失败、超时或结果不可复用时自行签发
+     */
+    private OAuthAccessToken awaitLeader(
+            CompletableFuture<OAuthAccessToken> leader,
+            OAuthClient client,
+            Supplier<OAuthAccessToken> issuer) {
+        try {
+            OAuthAccessToken token = leader.get(
+                    tokenProperties.getClientCredentialsCache().getFollowerWait().toMillis(), TimeUnit.MILLISECONDS);
+            if (isReusable(token, client)) {
+                return token;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("Coalesced client credentials issuance failed for {}, issuing directly", client.getClientId());
+        }
+        return issuer.get();
+    }
+
+    /**
+     * 签发事务提交后再放入缓存并通知等待方，避免其他请求拿到未提交的令牌
+     */
+    private void publishAfterCommit(CacheKey key, CompletableFuture<OAuthAccessToken> future, OAuthAccessToken token) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(key, future, token);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    complete(key, future, token);
+                } else {
+                    inFlight.remove(key, future);
+                    future.completeExceptionally(new IllegalStateException("Token issuance was rolled back"));
+                }
+            }
+        });
+    }
+
+    private void complete(CacheKey key, CompletableFuture<OAuthAccessToken> future, OAuthAccessToken token) {
+        int maxEntries = tokenProperties.getClientCredentialsCache().getMaxEntries();
+        if (tokens.size() >= maxEntries) {
+            LocalDateTime now = LocalDateTime.now();
+            tokens.values().removeIf(cached -> cached.getAccessTokenExpiresAt().isBefore(now));
+        }
+        if (tokens.size() < maxEntries) {
+            tokens.put(key, token);
+        }
+        inFlight.remove(key, future);
+        future.complete(token);
+    }
+
+    /**
+     * 令牌有效且剩余有效期不低于客户端配置的百分比时可复用
+     */
+    private boolean isReusable(OAuthAccessToken token, OAuthClient client) {
+        return token.getStatus() == OAuthAccessToken.TokenStatus.ACTIVE
+                && token.getAccessTokenExpiresAt().isAfter(grantSupport.minReuseExpiresAt(client));
+    }
+
+    private record CacheKey(String clientId, String scope) {
+    }
+}
@@ -4,11 +4,12 @@ import com.zhouzhou.authforge.dto.ClientRegistrationRequest;
 import com.zhouzhou.authforge.dto.ClientRegistrationResponse;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
+import com.zhouzhou.authforge.security.ClientAuthenticationMethod;
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.ClientRegistrationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.keygen.Base64StringKeyGenerator;
-import org.springframework.security.crypto.keygen.StringKeyGenerator;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -16,7 +17,6 @@ import org.springframework.util.StringUtils;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Instant;
-import java.util.UUID;
 
 /**
  * OAuth 2.0 客户端注册服务实现类
@@ -25,9 +25,9 @@ import java.util.UUID;
 @Slf4j
 public class ClientRegistrationServiceImpl implements ClientRegistrationService {
 
-    private final StringKeyGenerator clientSecretGenerator = new Base64StringKeyGenerator(48);
-    private final StringKeyGenerator registrationTokenGenerator = new Base64StringKeyGenerator(32);
     private final OAuthClientRepository clientRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final RandomSource randomSource;
 
     @Value("${auth.server.issuer}")
     private String issuer;
@@ -41,8 +41,12 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
     @Value("${auth.server.client-secret.never-expires:false}")
     private boolean clientSecretNeverExpires;  // 是否永不过期
 
-    public ClientRegistrationServiceImpl(OAuthClientRepository clientRepository) {
+    public ClientRegistrationServiceImpl(OAuthClientRepository clientRepository,
+                                         PasswordEncoder passwordEncoder,
+                                         RandomSource randomSource) {
         this.clientRepository = clientRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.randomSource = randomSource;
     }
 
     @Override
@@ -50,6 +54,7 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
     public ClientRegistrationResponse registerClient(ClientRegistrationRequest request, String initialAccessToken) {
         // 验证初始访问令牌
         validateInitialAccessToken(initialAccessToken);
+        validateJwksUri(request.getJwksUri());
 
         // 生成客户端标识符和密钥
         String clientId = generateClientId();
@@ -68,7 +73,6 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
         // 创建并保存客户端
         OAuthClient client = new OAuthClient();
         client.setClientId(clientId);
-        client.setClientSecret(clientSecret);
         client.setClientName(request.getClientName());
         client.setRedirectUris(String.join(" ", request.getRedirectUris()));
         client.setClientType(request.getApplicationType() != null && 
@@ -78,6 +82,12 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
                                            request.getTokenEndpointAuthMethod() :
                                            "client_secret_basic");
         client.setInitialAccessToken(initialAccessToken);
+        client.setJwksUri(request.getJwksUri());
+
+        // client_secret_jwt 需要用原始密钥校验 HMAC 签名，其余认证方式只保存哈希
+        boolean secretJwt = client.getClientAuthenticationMethods()
+                .contains(ClientAuthenticationMethod.CLIENT_SECRET_JWT.getValue());
+        client.setClientSecret(secretJwt ? clientSecret : passwordEncoder.encode(clientSecret));
         
         // 设置默认值
         client.setEnabled(true);
@@ -133,17 +143,17 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
 
     @Override
     public String generateClientId() {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 
     @Override
     public String generateClientSecret() {
-        return clientSecretGenerator.generateKey();
+        return randomSource.nextBase64(48);
     }
 
     @Override
     public String generateRegistrationAccessToken(String clientId) {
-        return registrationTokenGenerator.generateKey();
+        return randomSource.nextBase64(32);
     }
 
     private boolean isValidRedirectUri(String uri) {
@@ -161,6 +171,23 @@ public class ClientRegistrationServiceImpl implements ClientRegistrationService
         }
     }
 
+    /**
+     * jwks_uri 由授权服务器主动拉取，只接受 https 绝对地址
+     */
+    private void validateJwksUri(String uri) {
+        if (uri == null) {
+            return;
+        }
+        try {
+            URI jwksUri = new URI(uri);
+            if (!"https".equalsIgnoreCase(jwksUri.getScheme()) || !StringUtils.hasText(jwksUri.getHost())) {
+                throw new IllegalArgumentException("jwks_uri must be an absolute https URL");
+            }
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("jwks_uri is not a valid URI");
+        }
+    }
+
     private void validateInitialAccessToken(String token) {
         if (requireInitialAccessToken) {
             if (token == null) {
@@ -1,5 +1,6 @@
 package com.zhouzhou.authforge.service.impl;
 
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.TokenGenerator;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -11,7 +12,6 @@ import javax.crypto.SecretKey;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
-import java.util.UUID;
 
 /**
  * 默认令牌生成器实现
@@ -22,8 +22,10 @@ import java.util.UUID;
 public class DefaultTokenGenerator implements TokenGenerator {
 
     private final SecretKey secretKey;
+    private final RandomSource randomSource;
 
-    public DefaultTokenGenerator(@Value("${auth.jwt.secret-key:}") String configuredSecretKey) {
+    public DefaultTokenGenerator(@Value("${auth.jwt.secret-key:}") String configuredSecretKey, RandomSource randomSource) {
+        this.randomSource = randomSource;
         // 如果没有配置密钥，则生成一个随机密钥
         this.secretKey = configuredSecretKey.isEmpty() ? 
             Keys.secretKeyFor(SignatureAlgorithm.HS256) :
@@ -46,12 +48,12 @@ public class DefaultTokenGenerator implements TokenGenerator {
 
     @Override
     public String generateRefreshToken() {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 
     @Override
     public String generateAuthorizationCode() {
         // 生成一个随机的授权码
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 } 
\ No newline at end of file
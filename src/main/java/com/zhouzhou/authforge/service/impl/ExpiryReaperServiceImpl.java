@@ -0,0 +1,244 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.ExpiryReaperConfig;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationEventRepository;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationRepository;
+import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
+import com.zhouzhou.authforge.repository.OAuthAuthorizationRepository;
+import com.zhouzhou.authforge.service.ExpiryReaperService;
+import com.zhouzhou.authforge.service.PartitionMaintenanceService;
+import com.zhouzhou.authforge.service.SchedulerLeaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * 过期数据清理服务实现类
+ *
+ * 按主键游标分批清理过期数据：每批先通过过期时间查询一批主键，
+ * 再在独立的短事务中按主键删除，避免长事务和大范围锁。
+ * 批次之间按 maxRowsPerSecond 限速，多节点部署时通过数据库租约保证只有一个节点执行清理。
+ * 已启用分区维护的表跳过逐行清理。
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(prefix = "auth.reaper", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiryReaperServiceImpl implements ExpiryReaperService {
+
+    private static final String LEASE_NAME = "expiry-reaper";
+
+    private final OAuthAccessTokenRepository accessTokenRepository;
+    private final OAuthAuthorizationRepository authorizationRepository;
+    private final DeviceAuthorizationRepository deviceAuthorizationRepository;
+    private final DeviceAuthorizationEventRepository deviceAuthorizationEventRepository;
+    private final SchedulerLeaseService leaseService;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final ExpiryReaperConfig reaperConfig;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final TableMetrics tokenMetrics;
+    private final TableMetrics authorizationMetrics;
+    private final TableMetrics deviceAuthorizationMetrics;
+    private final TableMetrics deviceAuthorizationEventMetrics;
+
+    public ExpiryReaperServiceImpl(
+            OAuthAccessTokenRepository accessTokenRepository,
+            OAuthAuthorizationRepository authorizationRepository,
+            DeviceAuthorizationRepository deviceAuthorizationRepository,
+            DeviceAuthorizationEventRepository deviceAuthorizationEventRepository,
+            SchedulerLeaseService leaseService,
+            PartitionMaintenanceService partitionMaintenanceService,
+            ExpiryReaperConfig reaperConfig,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager) {
+        this.accessTokenRepository = accessTokenRepository;
+        this.authorizationRepository = authorizationRepository;
+        this.deviceAuthorizationRepository = deviceAuthorizationRepository;
+        this.deviceAuthorizationEventRepository = deviceAuthorizationEventRepository;
+        this.leaseService = leaseService;
+        this.partitionMaintenanceService = partitionMaintenanceService;
+        this.reaperConfig = reaperConfig;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tokenMetrics = registerMetrics("oauth_tokens");
+        this.authorizationMetrics = registerMetrics("oauth_authorizations");
+        this.deviceAuthorizationMetrics = registerMetrics("device_authorizations");
+        this.deviceAuthorizationEventMetrics = registerMetrics("device_authorization_events");
+    }
+
+    /**
+     * 定时触发清理
+     */
+    @Scheduled(fixedDelayString = "${auth.reaper.interval:PT5M}",
+               initialDelayString = "${auth.reaper.initial-delay:PT1M}")
+    public void scheduledReap() {
+        try {
+            reapExpired();
+        } catch (DataAccessException e) {
+            log.warn("Expiry reaper run failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long reapExpired() {
+        if (!leaseService.tryAcquire(LEASE_NAME, reaperConfig.getLeaseDuration())) {
+            log.debug("Expiry reaper lease held by another node, skipping");
+            return 0L;
+        }
+
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(reaperConfig.getRetention());
+            Instant deviceCutoff = Instant.now().minus(reaperConfig.getRetention());
+
+            long total = 0L;
+            total += reapTable(tokenMetrics,
+                    afterId -> accessTokenRepository.findExpiredIds(cutoff, afterId, chunk()),
+                    accessTokenRepository::deleteByIdIn);
+            total += reapTable(authorizationMetrics,
+                    afterId -> authorizationRepository.findExpiredIds(cutoff, afterId, chunk()),
+                    authorizationRepository::deleteByIdIn);
+            total += reapTable(deviceAuthorizationMetrics,
+                    afterId -> deviceAuthorizationRepository.findExpiredIds(deviceCutoff, afterId, chunk()),
+                    deviceAuthorizationRepository::deleteByIdIn);
+            total += reapTable(deviceAuthorizationEventMetrics,
+                    afterId -> deviceAuthorizationEventRepository.findExpiredIds(deviceCutoff, afterId, chunk()),
+                    deviceAuthorizationEventRepository::deleteByIdIn);
+            return total;
+        } finally {
+            // 本轮结束后立即释放租约，其他节点不必等到租约过期
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    /**
+     * 分批清理单张表
+     *
+     * @param metrics 该表的清理指标
+     * @param finder 按游标查询一批过期主键
+     * @param deleter 按主键删除
+     * @return 删除的行数
+     */
+    private long reapTable(TableMetrics metrics, LongFunction<List<Long>> finder, Function<List<Long>, Integer> deleter) {
+        String table = metrics.table();
+        // 分区表由分区维护整体删除过期分区
+        if (partitionMaintenanceService.isPartitioned(table) || Thread.currentThread().isInterrupted()) {
+            return 0L;
+        }
+        long started = System.nanoTime();
+        long deleted = 0L;
+        long afterId = 0L;
+        int chunkSize = reaperConfig.getChunkSize();
+
+        for (int i = 0; i < reaperConfig.getMaxChunksPerRun(); i++) {
+            // 每批开始前续期租约，租约被其他节点接管时立即停止
+            if (i > 0 && !leaseService.tryAcquire(LEASE_NAME, reaperConfig.getLeaseDuration())) {
+                log.info("Expiry reaper lost lease while reaping {}", table);
+                break;
+            }
+
+            long chunkStarted = System.nanoTime();
+            long cursor = afterId;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> expired = finder.apply(cursor);
+                if (!expired.isEmpty()) {
+                    deleter.apply(expired);
+                }
+                return expired;
+            });
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+
+            deleted += ids.size();
+            metrics.deleted().increment(ids.size());
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+            if (!throttle(ids.size(), System.nanoTime() - chunkStarted)) {
+                log.info("Expiry reaper interrupted while reaping {}, aborting run", table);
+                break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - started;
+        metrics.runTimer().record(elapsed, TimeUnit.NANOSECONDS);
+        metrics.rowsPerSecond().set(elapsed > 0 ? deleted * TimeUnit.SECONDS.toNanos(1) / elapsed : 0L);
+        if (deleted > 0) {
+            log.info("Expiry reaper deleted {} rows from {} in {} ms",
+                    deleted, table, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        return deleted;
+    }
+
+    /**
+     * 按 maxRowsPerSecond 限速：本批耗时不足配额时休眠补足
+     *
+     * @return 线程被中断时返回 false，调用方应结束本轮清理
+     */
+    private boolean throttle(int rows, long elapsedNanos) {
+        int maxRowsPerSecond = reaperConfig.getMaxRowsPerSecond();
+        if (maxRowsPerSecond <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        long budgetNanos = rows * TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond;
+        long sleepMillis = TimeUnit.NANOSECONDS.toMillis(budgetNanos - elapsedNanos);
+        if (sleepMillis <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(sleepMillis);
+            return true;
+        } catch (InterruptedException e) {
+            // 保留中断标记，之后的 sleep 会立即返回，继续循环等于不再限速
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private PageRequest chunk() {
+        return PageRequest.ofSize(reaperConfig.getChunkSize());
+    }
+
+    private TableMetrics registerMetrics(String table) {
+        AtomicLong rowsPerSecond = new AtomicLong();
+        Gauge.builder("authforge.reaper.rows.per.second", rowsPerSecond, AtomicLong::get)
+                .description("Rows deleted per second during the last reaper run")
+                .tag("table", table)
+                .register(meterRegistry);
+        return new TableMetrics(
+                table,
+                Counter.builder("authforge.reaper.deleted")
+                        .description("Expired rows deleted by the reaper")
+                        .tag("table", table)
+                        .register(meterRegistry),
+                Timer.builder("authforge.reaper.run")
+                        .description("Time spent reaping a table")
+                        .tag("table", table)
+                        .register(meterRegistry),
+                rowsPerSecond);
+    }
+
+    /**
+     * 单张表的清理指标
+     */
+    private record TableMetrics(String table, Counter deleted, Timer runTimer, AtomicLong rowsPerSecond) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.zhouzhou.authforge.service.impl;
 
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.TokenGenerator;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -12,7 +13,6 @@ import java.time.ZoneId;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * JWT 令牌生成器实现
@@ -22,8 +22,10 @@ import java.util.UUID;
 public class JwtTokenGenerator implements TokenGenerator {
 
     private final SecretKey secretKey;
+    private final RandomSource randomSource;
 
-    public JwtTokenGenerator(String configuredSecretKey) {
+    public JwtTokenGenerator(String configuredSecretKey, RandomSource randomSource) {
+        this.randomSource = randomSource;
         // 如果没有配置密钥，则生成一个随机密钥
         this.secretKey = !StringUtils.hasText(configuredSecretKey) ? 
             Keys.secretKeyFor(SignatureAlgorithm.HS256) :
@@ -44,7 +46,7 @@ public class JwtTokenGenerator implements TokenGenerator {
                 .setHeader(header)  // 设置header
                 .setSubject(subject)
                 .claim("scope", scope)
-                .setId(UUID.randomUUID().toString())  // JWT ID
+                .setId(randomSource.nextUuid())  // JWT ID
                 .setIssuedAt(new Date())
                 .setExpiration(expirationDate)
                 .signWith(secretKey, SignatureAlgorithm.HS256)  // 显式指定算法
@@ -53,11 +55,11 @@ public class JwtTokenGenerator implements TokenGenerator {
 
     @Override
     public String generateRefreshToken() {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 
     @Override
     public String generateAuthorizationCode() {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 } 
\ No newline at end of file
@@ -5,11 +5,10 @@ import com.zhouzhou.authforge.exception.OAuth2AuthorizationException;
 import com.zhouzhou.authforge.model.OAuthAuthorization;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthAuthorizationRepository;
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.OAuth2AuthorizationCodeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.keygen.Base64StringKeyGenerator;
-import org.springframework.security.crypto.keygen.StringKeyGenerator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,7 +26,7 @@ import java.util.Map;
 public class OAuth2AuthorizationCodeServiceImpl implements OAuth2AuthorizationCodeService {
 
     private final OAuthAuthorizationRepository authorizationRepository;
-    private final StringKeyGenerator codeGenerator = new Base64StringKeyGenerator(32);
+    private final RandomSource randomSource;
 
     @Override
     @Transactional
@@ -40,7 +39,7 @@ public class OAuth2AuthorizationCodeServiceImpl implements OAuth2AuthorizationCo
             Map<String, Object> additionalParameters) {
 
         // 1. 生成授权码
-        String code = codeGenerator.generateKey();
+        String code = randomSource.nextBase64(32);
 
         // 2. 创建授权记录
         OAuthAuthorization authorization = new OAuthAuthorization();
@@ -69,7 +68,7 @@ public class OAuth2AuthorizationCodeServiceImpl implements OAuth2AuthorizationCo
             String codeVerifier) {
 
         // 1. 查找授权记录
-        OAuthAuthorization authorization = authorizationRepository.findByAuthorizationCode(code)
+        OAuthAuthorization authorization = authorizationRepository.findLiveByAuthorizationCode(code, LocalDateTime.now())
             .orElseThrow(() -> new OAuth2AuthorizationException(
                 OAuth2Constants.ERROR_INVALID_REQUEST,
                 "Invalid authorization code",
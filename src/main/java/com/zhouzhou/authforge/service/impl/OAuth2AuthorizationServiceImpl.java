@@ -6,6 +6,8 @@ import com.zhouzhou.authforge.exception.OAuth2TokenException;
 import com.zhouzhou.authforge.model.OAuthAuthorization;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthAuthorizationRepository;
+import com.zhouzhou.authforge.security.PkceVerifier;
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.OAuth2AuthorizationCodeService;
 import com.zhouzhou.authforge.service.OAuth2AuthorizationService;
 import com.zhouzhou.authforge.service.OAuth2ClientService;
@@ -17,19 +19,14 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 
 /**
  * OAuth 2.0 授权服务实现类
@@ -44,6 +41,8 @@ public class OAuth2AuthorizationServiceImpl implements OAuth2AuthorizationServic
     private final OAuth2AuthorizationRequestValidator requestValidator;
     private final OAuth2AuthorizationCodeService authorizationCodeService;
     private final OAuth2ConsentService consentService;
+    private final PkceVerifier pkceVerifier;
+    private final RandomSource randomSource;
 
     @Override
     @Transactional
@@ -85,7 +84,7 @@ public class OAuth2AuthorizationServiceImpl implements OAuth2AuthorizationServic
                 pendingAuthorization.setState(state);
                 pendingAuthorization.setRedirectUri(redirectUri);
                 pendingAuthorization.setResponseType(responseType);  // 保存授权类型
-                pendingAuthorization.setTraceId(UUID.randomUUID().toString());
+                pendingAuthorization.setTraceId(randomSource.nextUuid());
                 authorizationRepository.save(pendingAuthorization);
 
                 return AuthorizationResult.builder()
@@ -129,7 +128,7 @@ public class OAuth2AuthorizationServiceImpl implements OAuth2AuthorizationServic
 
     @Override
     public Optional<OAuthAuthorization> findByCode(String code) {
-        return authorizationRepository.findByAuthorizationCode(code);
+        return authorizationRepository.findLiveByAuthorizationCode(code, LocalDateTime.now());
     }
 
     @Override
@@ -222,14 +221,11 @@ public class OAuth2AuthorizationServiceImpl implements OAuth2AuthorizationServic
 
         // 如果存在code_verifier，验证PKCE
         if (codeVerifier != null && authorization.getCodeChallenge() != null) {
-            String computedCodeChallenge;
-            if ("S256".equals(authorization.getCodeChallengeMethod())) {
-                computedCodeChallenge = generateS256CodeChallenge(codeVerifier);
-            } else {
-                computedCodeChallenge = codeVerifier;
-            }
+            String method = PkceVerifier.METHOD_S256.equals(authorization.getCodeChallengeMethod())
+                    ? PkceVerifier.METHOD_S256
+                    : PkceVerifier.METHOD_PLAIN;
 
-            if (!computedCodeChallenge.equals(authorization.getCodeChallenge())) {
+            if (!pkceVerifier.matches(codeVerifier, authorization.getCodeChallenge(), method)) {
                 throw new OAuth2AuthorizationException(
                         "invalid_grant",
                         "Invalid code verifier",
@@ -239,20 +235,10 @@ public class OAuth2AuthorizationServiceImpl implements OAuth2AuthorizationServic
         }
     }
 
-    private String generateS256CodeChallenge(String codeVerifier) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(codeVerifier.getBytes(StandardCharsets.US_ASCII));
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 algorithm not available", e);
-        }
-    }
-
     @Override
     public OAuthAuthorization validateAuthorizationCode(String code, String clientId, String redirectUri) {
         // 1. 查找授权记录
-        OAuthAuthorization authorization = authorizationRepository.findByAuthorizationCode(code)
+        OAuthAuthorization authorization = authorizationRepository.findLiveByAuthorizationCode(code, LocalDateTime.now())
             .orElseThrow(() -> new OAuth2TokenException(
                 "invalid_grant",
                 "Invalid authorization code"
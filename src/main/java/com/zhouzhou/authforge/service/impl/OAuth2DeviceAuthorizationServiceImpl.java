@@ -1,23 +1,40 @@
 package com.zhouzhou.authforge.service.impl;
 
+import com.zhouzhou.authforge.config.DeviceBatchConfig;
+import com.zhouzhou.authforge.device.DeviceAuthorizationChangeFeed;
+import com.zhouzhou.authforge.device.DevicePollingTracker;
 import com.zhouzhou.authforge.dto.DeviceAuthorizationRequest;
 import com.zhouzhou.authforge.dto.DeviceAuthorizationResponse;
+import com.zhouzhou.authforge.event.DeviceAuthorizationDecidedEvent;
 import com.zhouzhou.authforge.exception.OAuth2DeviceAuthorizationException;
 import com.zhouzhou.authforge.model.DeviceAuthorizationEntity;
 import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.DeviceAuthorizationRepository;
 import com.zhouzhou.authforge.security.ClientAuthenticatorChain;
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.OAuth2DeviceAuthorizationService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.SecureRandom;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * OAuth 2.0 设备授权服务实现类，遵循
@@ -32,12 +49,26 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
 
     private final ClientAuthenticatorChain clientAuthenticatorChain;
     private final DeviceAuthorizationRepository deviceAuthorizationRepository;
-    private final SecureRandom secureRandom;
+    private final RandomSource randomSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DevicePollingTracker pollingTracker;
+    private final DeviceAuthorizationChangeFeed changeFeed;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DeviceBatchConfig batchConfig;
 
     // 设备验证码字符集：去除了容易混淆的字符
     private static final char[] DEVICE_CODE_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789".toCharArray();
     // 用户验证码字符集：仅使用大写字母，避免混淆
     private static final char[] USER_CODE_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ".toCharArray();
+    // 验证页面查询间隔的跟踪键前缀，与设备码区分
+    private static final String USER_CODE_KEY_PREFIX = "user:";
+    // 批量签发的插入语句，created_at 和 updated_at 使用列默认值
+    private static final String BATCH_INSERT_SQL =
+        "INSERT INTO device_authorizations (device_code, user_code, client_id, scope, verification_uri, status, expires_at, `interval`) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // 一批验证码内重新生成撞码的最大轮数
+    private static final int MAX_REGENERATE_ROUNDS = 10;
 
     @Value("${auth.device.verification-uri}")
     private String verificationUri;
@@ -50,13 +81,23 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
 
     public OAuth2DeviceAuthorizationServiceImpl(
             ClientAuthenticatorChain clientAuthenticatorChain,
-            DeviceAuthorizationRepository deviceAuthorizationRepository) {
+            DeviceAuthorizationRepository deviceAuthorizationRepository,
+            RandomSource randomSource,
+            ApplicationEventPublisher eventPublisher,
+            DevicePollingTracker pollingTracker,
+            DeviceAuthorizationChangeFeed changeFeed,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            DeviceBatchConfig batchConfig) {
         this.clientAuthenticatorChain = clientAuthenticatorChain;
         this.deviceAuthorizationRepository = deviceAuthorizationRepository;
-        // 使用强随机数生成器初始化
-        this.secureRandom = new SecureRandom();
-        // 预热 SecureRandom
-        this.secureRandom.nextBytes(new byte[64]);
+        this.randomSource = randomSource;
+        this.eventPublisher = eventPublisher;
+        this.pollingTracker = pollingTracker;
+        this.changeFeed = changeFeed;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchConfig = batchConfig;
     }
 
     @Override
@@ -91,6 +132,7 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
             entity.setScope(request.getScope());
             entity.setVerificationUri(verificationUri);
             entity.setStatus(DeviceAuthorizationStatus.PENDING);
+            entity.setInterval(defaultInterval);
             entity.setExpiresAt(Instant.now().plusSeconds(expiresIn));
             
             deviceAuthorizationRepository.save(entity);
@@ -115,9 +157,98 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
         }
     }
 
+    /**
+     * 按 chunkSize 分批：每批生成不重复的验证码，用 IN 查询批量检查撞码，
+     * 再在独立的短事务中用 JDBC 批量插入。检查和插入之间被并发请求占用时整批重新生成。
+     */
+    @Override
+    public void authorizeDevices(DeviceAuthorizationRequest request, int count,
+                                 Consumer<List<DeviceAuthorizationResponse>> sink) {
+        OAuthClient client = request.getAuthenticatedClient();
+        int chunkSize = Math.max(1, batchConfig.getChunkSize());
+        for (int issued = 0; issued < count; ) {
+            int size = Math.min(chunkSize, count - issued);
+            List<IssuedCode> codes = insertChunk(client.getClientId(), request.getScope(), size);
+            sink.accept(codes.stream().map(this::toResponse).toList());
+            issued += size;
+        }
+    }
+
+    private List<IssuedCode> insertChunk(String clientId, String scope, int size) {
+        for (int attempt = 1; ; attempt++) {
+            Instant expiresAt = Instant.now().plusSeconds(expiresIn);
+            List<IssuedCode> codes = generateUniqueCodes(size);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    BATCH_INSERT_SQL, codes, codes.size(), (ps, code) -> {
+                        ps.setString(1, code.deviceCode());
+                        ps.setString(2, code.userCode());
+                        ps.setString(3, clientId);
+                        ps.setString(4, scope);
+                        ps.setString(5, verificationUri);
+                        ps.setString(6, DeviceAuthorizationStatus.PENDING.name());
+                        ps.setTimestamp(7, Timestamp.from(expiresAt));
+                        ps.setInt(8, defaultInterval);
+                    }));
+                return codes;
+            } catch (DuplicateKeyException e) {
+                if (attempt >= batchConfig.getMaxAttempts()) {
+                    throw e;
+                }
+                log.debug("Device code collision during batch insert, regenerating chunk (attempt {})", attempt);
+            }
+        }
+    }
+
+    /**
+     * 生成一批设备码和用户码：批内去重，再按批检查数据库中已存在的验证码并只重新生成撞码的部分
+     */
+    private List<IssuedCode> generateUniqueCodes(int size) {
+        Set<String> deviceCodes = fill(new LinkedHashSet<>(), size, this::generateDeviceCode);
+        Set<String> userCodes = fill(new LinkedHashSet<>(), size, this::generateUserCode);
+        for (int round = 0; ; round++) {
+            List<String> existingDeviceCodes = deviceAuthorizationRepository.findExistingDeviceCodes(deviceCodes);
+            List<String> existingUserCodes = deviceAuthorizationRepository.findExistingUserCodes(userCodes);
+            if (existingDeviceCodes.isEmpty() && existingUserCodes.isEmpty()) {
+                break;
+            }
+            if (round >= MAX_REGENERATE_ROUNDS) {
+                throw new OAuth2DeviceAuthorizationException("server_error", "Unable to generate unique device codes");
+            }
+            existingDeviceCodes.forEach(deviceCodes::remove);
+            existingUserCodes.forEach(userCodes::remove);
+            fill(deviceCodes, size, this::generateDeviceCode);
+            fill(userCodes, size, this::generateUserCode);
+        }
+
+        List<IssuedCode> codes = new ArrayList<>(size);
+        Iterator<String> userCodeIterator = userCodes.iterator();
+        for (String deviceCode : deviceCodes) {
+            codes.add(new IssuedCode(deviceCode, userCodeIterator.next()));
+        }
+        return codes;
+    }
+
+    private static Set<String> fill(Set<String> codes, int size, Supplier<String> generator) {
+        while (codes.size() < size) {
+            codes.add(generator.get());
+        }
+        return codes;
+    }
+
+    private DeviceAuthorizationResponse toResponse(IssuedCode code) {
+        return DeviceAuthorizationResponse.builder()
+            .deviceCode(code.deviceCode())
+            .userCode(code.userCode())
+            .verificationUri(verificationUri)
+            .expiresIn(expiresIn)
+            .interval(defaultInterval)
+            .build();
+    }
+
     @Override
     @Transactional
-    public DeviceAuthorizationStatus verifyUserCode(String userCode, boolean approve, int interval) {
+    public DeviceAuthorizationStatus verifyUserCode(String userCode, boolean approve) {
         // 查找设备授权记录
         DeviceAuthorizationEntity deviceAuth = deviceAuthorizationRepository.findByUserCode(userCode)
             .orElseThrow(() -> new OAuth2DeviceAuthorizationException("invalid_request", "无效的验证码"));
@@ -134,31 +265,34 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
             throw new OAuth2DeviceAuthorizationException("invalid_request", "该验证码已被使用");
         }
 
-        // 检查轮询间隔
-        if (!deviceAuth.canPoll(interval)) {
-            throw new OAuth2DeviceAuthorizationException("slow_down", "请稍后再试");
-        }
-
-        // 更新设备授权状态
+        // 更新设备授权状态（状态只能从 PENDING 变化一次，重复提交会在上面被拒绝）
         DeviceAuthorizationStatus newStatus = approve ? 
             DeviceAuthorizationStatus.APPROVED : 
             DeviceAuthorizationStatus.DENIED;
         
         deviceAuth.setStatus(newStatus);
-        deviceAuth.updateLastPolledAt();
         deviceAuthorizationRepository.save(deviceAuth);
+        pollingTracker.remove(USER_CODE_KEY_PREFIX + userCode);
+        // 同一事务写入状态变化流，挂在其他节点上的等待者由变化流唤醒
+        changeFeed.append(deviceAuth.getDeviceCode(), newStatus);
+
+        // 事务提交后唤醒本节点挂起的令牌轮询
+        eventPublisher.publishEvent(new DeviceAuthorizationDecidedEvent(deviceAuth.getDeviceCode(), newStatus));
 
         log.debug("Device authorization status updated: userCode={}, status={}", userCode, newStatus);
         return newStatus;
     }
 
+    /**
+     * 查询间隔只记录在内存中（按用户码，与设备轮询互不影响），只有过期这一状态变化才写数据库
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public DeviceAuthorizationStatus checkUserCodeStatus(String userCode, int interval) {
         return deviceAuthorizationRepository.findByUserCode(userCode)
             .map(deviceAuth -> {
-                // 检查轮询间隔
-                if (!deviceAuth.canPoll(interval)) {
+                // 检查查询间隔
+                if (!pollingTracker.tryPoll(USER_CODE_KEY_PREFIX + userCode, interval, deviceAuth.getExpiresAt())) {
                     throw new OAuth2DeviceAuthorizationException("slow_down", "请稍后再试");
                 }
 
@@ -169,10 +303,6 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
                     return DeviceAuthorizationStatus.EXPIRED;
                 }
 
-                // 更新最后轮询时间
-                deviceAuth.updateLastPolledAt();
-                deviceAuthorizationRepository.save(deviceAuth);
-
                 return deviceAuth.getStatus();
             })
             .orElseThrow(() -> new OAuth2DeviceAuthorizationException("invalid_request", "无效的验证码"));
@@ -180,7 +310,7 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
 
     /**
      * 生成设备验证码。
-     * 使用 SecureRandom 生成 40 位字符的设备验证码。
+     * 使用 RandomSource 生成 40 位字符的设备验证码。
      * 字符集包含大写字母和数字，去除了容易混淆的字符（0,1,I,O）。
      *
      * @return 设备验证码
@@ -189,7 +319,7 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
         // 生成 40 位字符的设备验证码
         StringBuilder code = new StringBuilder(40);
         for (int i = 0; i < 40; i++) {
-            code.append(DEVICE_CODE_CHARS[secureRandom.nextInt(DEVICE_CODE_CHARS.length)]);
+            code.append(DEVICE_CODE_CHARS[randomSource.nextInt(DEVICE_CODE_CHARS.length)]);
             // 每 8 位添加一个分隔符，提高可读性
             if (i < 39 && (i + 1) % 8 == 0) {
                 code.append('-');
@@ -200,7 +330,7 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
 
     /**
      * 生成用户验证码。
-     * 使用 SecureRandom 生成 8 位字符的用户验证码，格式为：XXXX-XXXX。
+     * 使用 RandomSource 生成 8 位字符的用户验证码，格式为：XXXX-XXXX。
      * 字符集仅包含大写字母，去除了容易混淆的字符（I,O）。
      *
      * @return 用户验证码
@@ -209,7 +339,7 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
         // 生成 8 位字符的用户验证码
         StringBuilder code = new StringBuilder(8);
         for (int i = 0; i < 8; i++) {
-            code.append(USER_CODE_CHARS[secureRandom.nextInt(USER_CODE_CHARS.length)]);
+            code.append(USER_CODE_CHARS[randomSource.nextInt(USER_CODE_CHARS.length)]);
             // 4 位后添加分隔符
             if (i == 3) {
                 code.append('-');
@@ -217,4 +347,10 @@ public class OAuth2DeviceAuthorizationServiceImpl implements OAuth2DeviceAuthori
         }
         return code.toString();
     }
+
+    /**
+     * 批量签发中的一对验证码
+     */
+    private record IssuedCode(String deviceCode, String userCode) {
+    }
 } 
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.zhouzhou.authforge.service.impl;
 
+import com.zhouzhou.authforge.device.DevicePollingTracker;
 import com.zhouzhou.authforge.dto.DeviceTokenRequest;
 import com.zhouzhou.authforge.dto.DeviceTokenResponse;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.exception.OAuth2DeviceAuthorizationException;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
 import com.zhouzhou.authforge.model.DeviceAuthorizationEntity;
 import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
 import com.zhouzhou.authforge.model.OAuthAccessToken;
@@ -15,11 +18,13 @@ import com.zhouzhou.authforge.service.TokenGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Arrays;
@@ -42,6 +47,8 @@ public class OAuth2DeviceTokenServiceImpl implements OAuth2DeviceTokenService {
     private final ClientAuthenticatorChain clientAuthenticatorChain;
     private final OAuthAccessTokenRepository accessTokenRepository;
     private final TokenGenerator tokenGenerator;
+    private final OAuth2ErrorLogger errorLogger;
+    private final DevicePollingTracker pollingTracker;
 
     @Value("${auth.token.access-token.expires-in:3600}")
     private Integer accessTokenExpiresIn;
@@ -51,7 +58,7 @@ public class OAuth2DeviceTokenServiceImpl implements OAuth2DeviceTokenService {
     public ResponseEntity<DeviceTokenResponse> getDeviceToken(DeviceTokenRequest request) {
         try {
             // 1. 验证客户端凭据
-            OAuthClient client = clientAuthenticatorChain.authenticate(request.getRequest());
+            OAuthClient client = clientAuthenticatorChain.authenticate(request.getContext());
 
             // 2. 查找设备授权记录
             DeviceAuthorizationEntity deviceAuth = deviceAuthorizationRepository.findByDeviceCode(request.getDeviceCode())
@@ -62,15 +69,13 @@ public class OAuth2DeviceTokenServiceImpl implements OAuth2DeviceTokenService {
 
             // 3. 验证客户端ID
             if (!deviceAuth.getClientId().equals(request.getClientId())) {
-                log.warn("Client ID mismatch: requested={}, stored={}", 
-                    request.getClientId(), deviceAuth.getClientId());
                 return ResponseEntity.badRequest()
                     .body(createErrorResponse("invalid_client", "Client ID mismatch"));
             }
 
             // 4. 检查是否已使用
             if (deviceAuth.isUsed()) {
-                log.warn("Device code already used: {}", request.getDeviceCode());
+                pollingTracker.remove(deviceAuth.getDeviceCode());
                 return ResponseEntity.badRequest()
                     .body(createErrorResponse("invalid_grant", "Device code already used"));
             }
@@ -79,23 +84,20 @@ public class OAuth2DeviceTokenServiceImpl implements OAuth2DeviceTokenService {
             if (deviceAuth.isExpired()) {
                 deviceAuth.setStatus(DeviceAuthorizationStatus.EXPIRED);
                 deviceAuthorizationRepository.save(deviceAuth);
+                pollingTracker.remove(deviceAuth.getDeviceCode());
                 return ResponseEntity.badRequest()
                     .body(createErrorResponse("expired_token", "The device code has expired"));
             }
 
-            // 6. 检查轮询间隔
-            if (!deviceAuth.canPoll(deviceAuth.getInterval())) {
-                log.warn("Polling too frequently for device code: {}", request.getDeviceCode());
-                deviceAuth.increasePollingInterval();
-                deviceAuthorizationRepository.save(deviceAuth);
+            // 6. 检查轮询间隔，只记录在内存中（长轮询被唤醒后的重新兑换不算一次新的轮询）
+            if (!request.isResumed() && !pollingTracker.tryPoll(
+                    deviceAuth.getDeviceCode(), deviceAuth.getInterval(), deviceAuth.getExpiresAt())) {
                 return ResponseEntity.badRequest()
                     .body(createErrorResponse("slow_down", "Polling too frequently"));
             }
 
             // 7. 检查授权状态
             if (deviceAuth.isPending()) {
-                deviceAuth.updateLastPolledAt();
-                deviceAuthorizationRepository.save(deviceAuth);
                 return ResponseEntity.badRequest()
                     .body(createErrorResponse("authorization_pending", "User has not approved the request yet"));
             }
@@ -125,15 +127,21 @@ public class OAuth2DeviceTokenServiceImpl implements OAuth2DeviceTokenService {
                 .status(OAuthAccessToken.TokenStatus.ACTIVE)
                 .build();
 
-            // 10. 保存访问令牌
-            accessTokenRepository.save(accessToken);
+            // 10. 以条件更新兑换设备码，并发请求（含长轮询唤醒）中只有一个能把 APPROVED 改为 COMPLETED
+            int claimed = deviceAuthorizationRepository.markCompletedIfApproved(
+                deviceAuth.getId(),
+                accessToken.getAccessToken(),
+                accessTokenExpiresAt.toInstant(ZoneOffset.UTC),
+                Instant.now()
+            );
+            pollingTracker.remove(deviceAuth.getDeviceCode());
+            if (claimed != 1) {
+                return ResponseEntity.badRequest()
+                    .body(createErrorResponse("invalid_grant", "Device code already used"));
+            }
 
-            // 11. 更新设备授权状态
-            deviceAuth.setStatus(DeviceAuthorizationStatus.COMPLETED);
-            deviceAuth.setAccessToken(accessToken.getAccessToken());
-            deviceAuth.setAccessTokenExpiresAt(accessTokenExpiresAt.toInstant(ZoneOffset.UTC));
-            deviceAuth.updateLastPolledAt();
-            deviceAuthorizationRepository.save(deviceAuth);
+            // 11. 保存访问令牌，与兑换在同一事务中提交
+            accessTokenRepository.save(accessToken);
 
             // 12. 返回访问令牌
             return ResponseEntity.ok(DeviceTokenResponse.builder()
@@ -142,17 +150,24 @@ public class OAuth2DeviceTokenServiceImpl implements OAuth2DeviceTokenService {
                 .expiresIn(client.getAccessTokenValiditySeconds())
                 .build());
 
+        } catch (OAuth2AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(createErrorResponse(e.getError(), e.getErrorDescription()));
         } catch (OAuth2DeviceAuthorizationException e) {
-            log.warn("Device token request failed: {}", e.getMessage());
             return ResponseEntity.badRequest()
                 .body(createErrorResponse(e.getError(), e.getErrorDescription()));
         }
     }
 
     /**
-     * 创建错误响应
+     * 创建错误响应；authorization_pending 是轮询的正常结果，只计数不记录日志
      */
     private DeviceTokenResponse createErrorResponse(String error, String description) {
+        if ("authorization_pending".equals(error)) {
+            errorLogger.count("device_token", error);
+        } else {
+            errorLogger.logFailure("device_token", error, description);
+        }
         return DeviceTokenResponse.builder()
             .error(error)
             .errorDescription(description)
@@ -1,12 +1,13 @@
 package com.zhouzhou.authforge.service.impl;
 
-import com.zhouzhou.authforge.dto.TokenIntrospectionResponse;
-import com.zhouzhou.authforge.exception.OAuth2TokenException;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
 import com.zhouzhou.authforge.model.OAuthAccessToken;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
 import com.zhouzhou.authforge.security.ClientAuthenticatorChain;
 import com.zhouzhou.authforge.service.OAuth2TokenIntrospectionService;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,8 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
-import java.util.HashMap;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,6 +27,8 @@ public class OAuth2TokenIntrospectionServiceImpl implements OAuth2TokenIntrospec
 
     private final ClientAuthenticatorChain clientAuthenticatorChain;
     private final OAuthAccessTokenRepository accessTokenRepository;
+    private final OAuth2ErrorLogger errorLogger;
+    private final TokenGrantSupport grantSupport;
 
     @Override
     @Transactional(readOnly = true)
@@ -36,8 +38,8 @@ public class OAuth2TokenIntrospectionServiceImpl implements OAuth2TokenIntrospec
             OAuthClient client;
             try {
                 client = clientAuthenticatorChain.authenticate(request);
-            } catch (OAuth2TokenException e) {
-                log.warn("Client authentication failed: {}", e.getMessage());
+            } catch (OAuth2AuthenticationException e) {
+                errorLogger.logFailure("introspect", e.getError(), e.getErrorDescription());
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of(
                                 "error", "invalid_client",
@@ -46,7 +48,7 @@ public class OAuth2TokenIntrospectionServiceImpl implements OAuth2TokenIntrospec
             }
             
             // 2. 验证token_type_hint的有效性
-            if (tokenTypeHint != null && !isValidTokenTypeHint(tokenTypeHint)) {
+            if (tokenTypeHint != null && !grantSupport.isValidTokenTypeHint(tokenTypeHint)) {
                 log.trace("Invalid token_type_hint: {}, ignoring it", tokenTypeHint);
                 tokenTypeHint = null;
             }
@@ -54,16 +56,8 @@ public class OAuth2TokenIntrospectionServiceImpl implements OAuth2TokenIntrospec
             // 3. 根据token_type_hint查找令牌，同时验证client_id
             Optional<OAuthAccessToken> tokenEntity = findTokenByHint(token, tokenTypeHint, client.getClientId());
 
-            // 4. 如果令牌不存在或已失效，返回active=false
-            if (tokenEntity.isEmpty() || !isTokenActive(tokenEntity.get())) {
-                return ResponseEntity.ok(TokenIntrospectionResponse.builder()
-                        .active(false)
-                        .build());
-            }
-
-            // 5. 构建令牌信息响应
-            OAuthAccessToken accessToken = tokenEntity.get();
-            return ResponseEntity.ok(buildTokenResponse(accessToken));
+            // 4. 构建令牌信息响应，令牌不存在或已失效时返回active=false
+            return ResponseEntity.ok(grantSupport.introspectionResponse(tokenEntity.orElse(null)));
 
         } catch (Exception e) {
             log.error("Unexpected error during token introspection", e);
@@ -75,75 +69,34 @@ public class OAuth2TokenIntrospectionServiceImpl implements OAuth2TokenIntrospec
         }
     }
 
-    /**
-     * 验证token_type_hint是否有效
-     */
-    private boolean isValidTokenTypeHint(String tokenTypeHint) {
-        return "access_token".equals(tokenTypeHint) || "refresh_token".equals(tokenTypeHint);
-    }
-
     /**
      * 根据token_type_hint查找令牌，同时验证client_id
      * 防止令牌扫描攻击，确保token只能被合法的受保护资源检查
      */
     private Optional<OAuthAccessToken> findTokenByHint(String token, String tokenTypeHint, String clientId) {
+        LocalDateTime now = LocalDateTime.now();
         if ("refresh_token".equals(tokenTypeHint)) {
             // 先按refresh_token查找，同时验证client_id
             Optional<OAuthAccessToken> tokenEntity = accessTokenRepository
-                    .findByRefreshTokenAndClientId(token, clientId);
+                    .findLiveByRefreshTokenAndClientId(token, clientId, now);
             if (tokenEntity.isPresent()) {
                 return tokenEntity;
             }
             // 如果未找到，扩展搜索范围到access_token，同时验证client_id
-            return accessTokenRepository.findByAccessTokenAndClientId(token, clientId);
+            return accessTokenRepository.findLiveByAccessTokenAndClientId(token, clientId, now);
         } else if ("access_token".equals(tokenTypeHint)) {
             // 先按access_token查找，同时验证client_id
             Optional<OAuthAccessToken> tokenEntity = accessTokenRepository
-                    .findByAccessTokenAndClientId(token, clientId);
+                    .findLiveByAccessTokenAndClientId(token, clientId, now);
             if (tokenEntity.isPresent()) {
                 return tokenEntity;
             }
             // 如果未找到，扩展搜索范围到refresh_token，同时验证client_id
-            return accessTokenRepository.findByRefreshTokenAndClientId(token, clientId);
+            return accessTokenRepository.findLiveByRefreshTokenAndClientId(token, clientId, now);
         } else {
             // token_type_hint为null或无效时，同时搜索两种类型，同时验证client_id
-            return accessTokenRepository.findByAccessTokenAndClientId(token, clientId)
-                    .or(() -> accessTokenRepository.findByRefreshTokenAndClientId(token, clientId));
+            return accessTokenRepository.findLiveByAccessTokenAndClientId(token, clientId, now)
+                    .or(() -> accessTokenRepository.findLiveByRefreshTokenAndClientId(token, clientId, now));
         }
     }
-
-    /**
-     * 检查令牌是否处于活动状态
-     */
-    private boolean isTokenActive(OAuthAccessToken token) {
-        return token.isActive();
-    }
-
-    /**
-     * 构建令牌信息响应
-     */
-    private TokenIntrospectionResponse buildTokenResponse(OAuthAccessToken token) {
-        TokenIntrospectionResponse.TokenIntrospectionResponseBuilder builder = TokenIntrospectionResponse.builder()
-                .active(true)
-                .client_id(token.getClientId())
-                .token_type("Bearer") // OAuth 2.0 Bearer Token
-                .exp(token.getAccessTokenExpiresAt() != null ? token.getAccessTokenExpiresAt().toEpochSecond(java.time.ZoneOffset.UTC) : null)
-                .iat(token.getCreatedAt() != null ? token.getCreatedAt().toEpochSecond(java.time.ZoneOffset.UTC) : null);
-
-        // 设置可选字段
-        if (token.getScopes() != null) {
-            builder.scope(token.getScopes());
-        }
-        if (token.getUserId() != null) {
-            builder.username(token.getUserId());
-            builder.sub(token.getUserId());
-        }
-
-        // 设置JWT相关字段
-        builder.jti(token.getAccessToken()) // 使用access_token作为jti
-               .iss("https://server.example.com/") // 从配置中获取
-               .aud("https://protected.example.net/resource"); // 从配置中获取
-
-        return builder.build();
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
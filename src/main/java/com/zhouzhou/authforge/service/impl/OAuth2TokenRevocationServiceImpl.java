@@ -2,6 +2,9 @@ package com.zhouzhou.authforge.service.impl;
 
 import com.zhouzhou.authforge.config.TokenRevocationConfig;
 import com.zhouzhou.authforge.dto.TokenRevocationResponse;
+import com.zhouzhou.authforge.event.TokenRevokedEvent;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
 import com.zhouzhou.authforge.exception.OAuth2TokenException;
 import com.zhouzhou.authforge.exception.TemporaryServerErrorException;
 import com.zhouzhou.authforge.model.OAuthAccessToken;
@@ -12,12 +15,15 @@ import com.zhouzhou.authforge.service.OAuth2TokenRevocationService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +35,8 @@ public class OAuth2TokenRevocationServiceImpl implements OAuth2TokenRevocationSe
     private final ClientAuthenticatorChain clientAuthenticatorChain;
     private final OAuthAccessTokenRepository accessTokenRepository;
     private final TokenRevocationConfig revocationConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OAuth2ErrorLogger errorLogger;
 
     @Override
     @Transactional
@@ -48,7 +56,7 @@ public class OAuth2TokenRevocationServiceImpl implements OAuth2TokenRevocationSe
 
             // 4. 如果令牌存在，执行撤销操作
             if (tokenEntity.isPresent()) {
-                revokeTokenAndRelated(tokenEntity.get());
+                revokeTokenAndRelated(tokenEntity.get(), token);
             }
             // 如果令牌不存在，按照RFC 7009规范，仍然返回200 OK
             return ResponseEntity.ok().build();
@@ -62,8 +70,15 @@ public class OAuth2TokenRevocationServiceImpl implements OAuth2TokenRevocationSe
                             .error(e.getError())
                             .error_description(e.getErrorDescription())
                             .build());
+        } catch (OAuth2AuthenticationException e) {
+            errorLogger.logFailure("revoke", e.getError(), e.getErrorDescription());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(TokenRevocationResponse.builder()
+                            .error(e.getError())
+                            .error_description(e.getErrorDescription())
+                            .build());
         } catch (OAuth2TokenException e) {
-            log.warn("Token revocation failed: {}", e.getMessage());
+            errorLogger.logFailure("revoke", e.getError(), e.getErrorDescription());
             return ResponseEntity.badRequest()
                     .body(TokenRevocationResponse.builder()
                             .error(e.getError())
@@ -89,29 +104,30 @@ public class OAuth2TokenRevocationServiceImpl implements OAuth2TokenRevocationSe
      * 根据token_type_hint查找令牌
      */
     private Optional<OAuthAccessToken> findTokenByHint(String token, String tokenTypeHint, String clientId) {
+        LocalDateTime now = LocalDateTime.now();
         try {
             if ("refresh_token".equals(tokenTypeHint)) {
                 // 先按refresh_token查找
                 Optional<OAuthAccessToken> tokenEntity = accessTokenRepository
-                        .findByRefreshTokenAndClientId(token, clientId);
+                        .findLiveByRefreshTokenAndClientId(token, clientId, now);
                 if (tokenEntity.isPresent()) {
                     return tokenEntity;
                 }
                 // 如果未找到，扩展搜索范围到access_token
-                return accessTokenRepository.findByAccessTokenAndClientId(token, clientId);
+                return accessTokenRepository.findLiveByAccessTokenAndClientId(token, clientId, now);
             } else if ("access_token".equals(tokenTypeHint)) {
                 // 先按access_token查找
                 Optional<OAuthAccessToken> tokenEntity = accessTokenRepository
-                        .findByAccessTokenAndClientId(token, clientId);
+                        .findLiveByAccessTokenAndClientId(token, clientId, now);
                 if (tokenEntity.isPresent()) {
                     return tokenEntity;
                 }
                 // 如果未找到，扩展搜索范围到refresh_token
-                return accessTokenRepository.findByRefreshTokenAndClientId(token, clientId);
+                return accessTokenRepository.findLiveByRefreshTokenAndClientId(token, clientId, now);
             } else {
                 // token_type_hint为null或无效时，同时搜索两种类型
-                return accessTokenRepository.findByAccessTokenAndClientId(token, clientId)
-                        .or(() -> accessTokenRepository.findByRefreshTokenAndClientId(token, clientId));
+                return accessTokenRepository.findLiveByAccessTokenAndClientId(token, clientId, now)
+                        .or(() -> accessTokenRepository.findLiveByRefreshTokenAndClientId(token, clientId, now));
             }
         } catch (DataAccessException e) {
             log.error("Database error during token lookup", e);
@@ -121,37 +137,59 @@ public class OAuth2TokenRevocationServiceImpl implements OAuth2TokenRevocationSe
 
     /**
      * 撤销令牌及相关联的令牌
+     *
+     * 使用集合式 UPDATE 语句完成级联撤销，无论同一刷新令牌下派生了多少访问令牌，
+     * 数据库往返次数都是固定的。撤销完成后发布 {@link TokenRevokedEvent}，
+     * 通知内存缓存清除对应令牌。
+     *
+     * @param token 待撤销的令牌记录
+     * @param presentedToken 客户端提交的令牌值
      */
-    private void revokeTokenAndRelated(OAuthAccessToken token) {
+    private void revokeTokenAndRelated(OAuthAccessToken token, String presentedToken) {
         try {
-            // 如果是刷新令牌，撤销所有相关的访问令牌
-            if (token.getRefreshToken() != null) {
-                List<OAuthAccessToken> relatedTokens = accessTokenRepository
-                        .findAllByRefreshToken(token.getRefreshToken());
-                for (OAuthAccessToken relatedToken : relatedTokens) {
-                    relatedToken.markAsInvalidated();
-                    accessTokenRepository.save(relatedToken);
+            LocalDateTime now = LocalDateTime.now();
+            String refreshToken = token.getRefreshToken();
+
+            // 撤销刷新令牌，或撤销访问令牌且配置要求同时撤销刷新令牌时，级联撤销整个令牌族
+            boolean cascade = refreshToken != null &&
+                    (refreshToken.equals(presentedToken) ||
+                     revocationConfig.isRevokeRefreshTokenOnAccessTokenRevocation());
+
+            List<Long> revokedIds = new ArrayList<>();
+            List<String> revokedAccessTokens = new ArrayList<>();
+
+            if (cascade) {
+                // 1次查询获取受影响的令牌标识，1次 UPDATE 完成撤销
+                List<OAuthAccessTokenRepository.TokenIdentity> related = accessTokenRepository
+                        .findIdentitiesByRefreshTokenAndStatus(refreshToken, OAuthAccessToken.TokenStatus.ACTIVE);
+                for (OAuthAccessTokenRepository.TokenIdentity identity : related) {
+                    revokedIds.add(identity.getId());
+                    revokedAccessTokens.add(identity.getAccessToken());
+                }
+                accessTokenRepository.updateStatusByRefreshToken(
+                        refreshToken,
+                        OAuthAccessToken.TokenStatus.ACTIVE,
+                        OAuthAccessToken.TokenStatus.INVALIDATED,
+                        now);
+            } else if (!token.isInvalidated()) {
+                int updated = accessTokenRepository.updateStatusById(
+                        token.getId(),
+                        OAuthAccessToken.TokenStatus.ACTIVE,
+                        OAuthAccessToken.TokenStatus.INVALIDATED,
+                        now);
+                if (updated > 0) {
+                    revokedIds.add(token.getId());
+                    revokedAccessTokens.add(token.getAccessToken());
                 }
             }
 
-            // 如果是访问令牌且配置允许，同时撤销刷新令牌
-            if (token.getAccessToken() != null && 
-                token.getRefreshToken() != null && 
-                revocationConfig.isRevokeRefreshTokenOnAccessTokenRevocation()) {
-                Optional<OAuthAccessToken> refreshTokenEntity = accessTokenRepository
-                        .findByRefreshToken(token.getRefreshToken());
-                refreshTokenEntity.ifPresent(refreshToken -> {
-                    refreshToken.markAsInvalidated();
-                    accessTokenRepository.save(refreshToken);
-                });
+            if (!revokedIds.isEmpty()) {
+                log.debug("Revoked {} token(s) for client {}", revokedIds.size(), token.getClientId());
+                eventPublisher.publishEvent(new TokenRevokedEvent(revokedIds, revokedAccessTokens));
             }
-
-            // 撤销当前令牌
-            token.markAsInvalidated();
-            accessTokenRepository.save(token);
         } catch (DataAccessException e) {
             log.error("Database error during token revocation", e);
             throw new TemporaryServerErrorException("Server temporarily unavailable, please retry later.");
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
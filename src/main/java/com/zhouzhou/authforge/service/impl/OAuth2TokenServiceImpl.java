@@ -1,6 +1,8 @@
 package com.zhouzhou.authforge.service.impl;
 
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.dto.TokenResponse;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
 import com.zhouzhou.authforge.exception.OAuth2TokenException;
 import com.zhouzhou.authforge.model.OAuthAccessToken;
 import com.zhouzhou.authforge.model.OAuthAuthorization;
@@ -8,27 +10,27 @@ import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
 import com.zhouzhou.authforge.security.ClientAuthenticatorChain;
+import com.zhouzhou.authforge.service.ClientCredentialsTokenCache;
 import com.zhouzhou.authforge.service.OAuth2AuthorizationService;
 import com.zhouzhou.authforge.service.OAuth2TokenService;
 import com.zhouzhou.authforge.service.PkceValidationService;
 import com.zhouzhou.authforge.service.TokenGenerator;
-import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * OAuth 2.0 令牌服务实现类
+ *
+ * 授权码和刷新令牌授权在同一个事务中完成客户端认证和令牌签发；
+ * 客户端凭证授权不开启外层事务，合并签发时等待方不会占用数据库连接。
  */
 @Service
-@Transactional
-@RequiredArgsConstructor
 @Slf4j
 public class OAuth2TokenServiceImpl implements OAuth2TokenService {
 
@@ -38,46 +40,73 @@ public class OAuth2TokenServiceImpl implements OAuth2TokenService {
     private final TokenGenerator tokenGenerator;
     private final PkceValidationService pkceValidationService;
     private final OAuthClientRepository clientRepository;
+    private final ClientCredentialsTokenCache clientCredentialsTokenCache;
+    private final TokenGrantSupport grantSupport;
+    private final TransactionTemplate transactionTemplate;
+
+    public OAuth2TokenServiceImpl(
+            ClientAuthenticatorChain clientAuthenticatorChain,
+            OAuth2AuthorizationService authorizationService,
+            OAuthAccessTokenRepository accessTokenRepository,
+            TokenGenerator tokenGenerator,
+            PkceValidationService pkceValidationService,
+            OAuthClientRepository clientRepository,
+            ClientCredentialsTokenCache clientCredentialsTokenCache,
+            TokenGrantSupport grantSupport,
+            PlatformTransactionManager transactionManager) {
+        this.clientAuthenticatorChain = clientAuthenticatorChain;
+        this.authorizationService = authorizationService;
+        this.accessTokenRepository = accessTokenRepository;
+        this.tokenGenerator = tokenGenerator;
+        this.pkceValidationService = pkceValidationService;
+        this.clientRepository = clientRepository;
+        this.clientCredentialsTokenCache = clientCredentialsTokenCache;
+        this.grantSupport = grantSupport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
-    public TokenResponse handleTokenRequest(
-            HttpServletRequest request,
-            String grantType,
-            String code,
-            String redirectUri,
-            String codeVerifier,
-            String refreshToken) {
-
+    public TokenResponse handleTokenRequest(TokenRequestContext context) {
+        String grantType = context.getGrantType();
         try {
-            // 1. 认证客户端
-            OAuthClient client = clientAuthenticatorChain.authenticate(request);
-            log.debug("Client authenticated: {}", client.getClientId());
-
-            // 2. 根据授权类型处理请求
-            return switch (grantType) {
-                case "authorization_code" -> handleAuthorizationCodeGrant(
-                        client, code, redirectUri, codeVerifier
-                );
-                case "refresh_token" -> handleRefreshTokenGrant(
-                        refreshToken, client
-                );
-                case "client_credentials" -> handleClientCredentialsGrant(
-                        client, request.getParameter("scope")
-                );
-                default -> throw new OAuth2TokenException(
-                        "unsupported_grant_type",
-                        "Unsupported grant type: " + grantType
-                );
-            };
-        } catch (Exception e) {
+            // 客户端凭证授权不开启外层事务：缓存命中时不访问数据库，合并签发的等待方也不持有连接
+            if ("client_credentials".equals(grantType)) {
+                OAuthClient client = authenticate(context);
+                return handleClientCredentialsGrant(client, context.getScope());
+            }
+            return transactionTemplate.execute(status -> {
+                // 1. 认证客户端
+                OAuthClient client = authenticate(context);
+
+                // 2. 根据授权类型处理请求
+                return switch (grantType) {
+                    case "authorization_code" -> handleAuthorizationCodeGrant(
+                            client, context.getCode(), context.getRedirectUri(), context.getCodeVerifier()
+                    );
+                    case "refresh_token" -> handleRefreshTokenGrant(
+                            context.getRefreshToken(), client
+                    );
+                    default -> throw new OAuth2TokenException(
+                            "unsupported_grant_type",
+                            "Unsupported grant type: " + grantType
+                    );
+                };
+            });
+        } catch (OAuth2TokenException | OAuth2AuthenticationException e) {
+            // 协议错误直接交给调用方转换为错误响应
+            throw e;
+        } catch (RuntimeException e) {
             log.error("Failed to process token request", e);
-            throw new OAuth2TokenException(
-                    "server_error",
-                    "Failed to process token request"
-            );
+            throw OAuth2TokenException.SERVER_ERROR;
         }
     }
 
+    private OAuthClient authenticate(TokenRequestContext context) {
+        OAuthClient client = clientAuthenticatorChain.authenticate(context);
+        log.debug("Client authenticated: {}", client.getClientId());
+        return client;
+    }
+
     private TokenResponse handleAuthorizationCodeGrant(
             OAuthClient client,
             String code,
@@ -118,136 +147,35 @@ public class OAuth2TokenServiceImpl implements OAuth2TokenService {
     }
 
     private TokenResponse handleClientCredentialsGrant(OAuthClient client, String requestedScope) {
-        // 1. 验证和处理作用域
-        Set<String> validScopes = validateAndFilterScopes(client, requestedScope);
-        String scopeString = String.join(" ", validScopes);
-
-        // 2. 生成访问令牌（不包含refresh_token）
-        LocalDateTime accessTokenExpiresAt = LocalDateTime.now()
-                .plusSeconds(client.getAccessTokenValiditySeconds());
-
-        OAuthAccessToken accessToken = OAuthAccessToken.builder()
-                .clientId(client.getClientId())
-                .accessToken(tokenGenerator.generateAccessToken(
-                        "service_account",  // 使用service_account作为subject，符合OAuth 2.1规范
-                        scopeString,
-                        client.getAccessTokenValiditySeconds()
-                ))
-                .scopes(scopeString)
-                .accessTokenExpiresAt(accessTokenExpiresAt)
-                .status(OAuthAccessToken.TokenStatus.ACTIVE)
-                .build();
-
-        // 3. 保存访问令牌
-        accessTokenRepository.save(accessToken);
-
-        // 4. 构建响应（不包含refresh_token）
-        return TokenResponse.builder()
-                .accessToken(accessToken.getAccessToken())
-                .tokenType("Bearer")
-                .expiresIn(client.getAccessTokenValiditySeconds().longValue())
-                .scope(accessToken.getScopes())
-                .build();
-    }
-
-    private Set<String> validateAndFilterScopes(OAuthClient client, String requestedScope) {
-        Set<String> clientScopes = client.getScopeSet();
+        // 1. 验证和处理作用域（排序后作为复用令牌的缓存键）
+        String scopeString = grantSupport.resolveClientCredentialsScope(client, requestedScope);
 
-        // 如果没有请求特定的作用域，使用客户端的所有允许作用域
-        if (!StringUtils.hasText(requestedScope)) {
-            return new HashSet<>(clientScopes);
-        }
-
-        // 验证请求的作用域是否在客户端允许的作用域内
-        Set<String> requestedScopes = new HashSet<>();
-        for (String scope : requestedScope.split(" ")) {
-            if (!clientScopes.contains(scope)) {
-                throw new OAuth2TokenException(
-                        "invalid_scope",
-                        "Requested scope is not allowed: " + scope
-                );
-            }
-            requestedScopes.add(scope);
-        }
+        // 2. 获取访问令牌：启用复用的客户端优先返回剩余有效期足够的已有令牌
+        OAuthAccessToken accessToken = client.isReuseClientCredentialsTokens()
+                ? clientCredentialsTokenCache.getOrIssue(client, scopeString,
+                        () -> accessTokenRepository.save(grantSupport.newClientCredentialsToken(client, scopeString)))
+                : accessTokenRepository.save(grantSupport.newClientCredentialsToken(client, scopeString));
 
-        return requestedScopes;
+        // 3. 构建响应（不包含refresh_token），expires_in 为剩余有效期
+        return grantSupport.clientCredentialsResponse(accessToken);
     }
 
     @Override
     @Transactional
     public TokenResponse handleRefreshTokenGrant(String refreshToken, OAuthClient client) {
-        // 1. 验证刷新令牌
-        OAuthAccessToken existingToken = accessTokenRepository.findByRefreshToken(refreshToken)
-                .orElseThrow(() -> new OAuth2TokenException(
-                        "invalid_grant",
-                        "Invalid refresh token"
-                ));
-
-        // 2. 验证刷新令牌是否属于当前客户端
-        if (!existingToken.getClientId().equals(client.getClientId())) {
-            throw new OAuth2TokenException(
-                    "invalid_grant",
-                    "Refresh token was not issued to this client"
-            );
-        }
-
-        // 3. 验证刷新令牌是否已失效
-        if (existingToken.isInvalidated()) {
-            throw new OAuth2TokenException(
-                    "invalid_grant",
-                    "Refresh token has been invalidated"
-            );
-        }
+        // 1. 查找刷新令牌
+        OAuthAccessToken existingToken = accessTokenRepository.findLiveByRefreshToken(refreshToken, LocalDateTime.now())
+                .orElseThrow(() -> TokenGrantSupport.INVALID_REFRESH_TOKEN);
 
-        // 4. 验证刷新令牌是否已过期
-        if (existingToken.isRefreshTokenExpired()) {
-            throw new OAuth2TokenException(
-                    "invalid_grant",
-                    "Refresh token has expired"
-            );
-        }
-
-        // 5. 生成新的访问令牌
-        String newAccessToken = tokenGenerator.generateAccessToken(
-                existingToken.getUserId(),  // 保持原有的subject
-                existingToken.getScopes(),   // 保持原有的scope
-                client.getAccessTokenValiditySeconds()
-        );
-        String newRefreshToken = null;
+        // 2. 校验归属、状态和有效期，生成新令牌
+        TokenGrantSupport.RefreshedToken refreshed = grantSupport.refresh(existingToken, client);
 
-        // 6. 如果客户端配置不允许重用刷新令牌，生成新的刷新令牌
-        if (!client.isReuseRefreshTokens()) {
-            newRefreshToken = tokenGenerator.generateRefreshToken();
-            // 使旧令牌失效
-            existingToken.markAsInvalidated();
+        // 3. 轮换刷新令牌时保存已失效的旧令牌
+        if (refreshed.rotated()) {
             accessTokenRepository.save(existingToken);
         }
+        accessTokenRepository.save(refreshed.token());
 
-        // 7. 创建新的访问令牌
-        OAuthAccessToken newToken = OAuthAccessToken.builder()
-                .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken != null ? newRefreshToken : existingToken.getRefreshToken())
-                .clientId(client.getClientId())
-                .userId(existingToken.getUserId())
-                .scopes(existingToken.getScopes())
-                .accessTokenExpiresAt(LocalDateTime.now().plusSeconds(client.getAccessTokenValiditySeconds()))
-                .refreshTokenExpiresAt(newRefreshToken != null ?
-                        LocalDateTime.now().plusSeconds(client.getRefreshTokenValiditySeconds()) :
-                        existingToken.getRefreshTokenExpiresAt())
-                .status(OAuthAccessToken.TokenStatus.ACTIVE)
-                .build();
-
-        accessTokenRepository.save(newToken);
-
-        // 8. 构建响应
-        return TokenResponse.builder()
-                .accessToken(newAccessToken)
-                .tokenType("Bearer")
-                .expiresIn(client.getAccessTokenValiditySeconds().longValue())
-                .refreshToken(newToken.getRefreshToken())
-                .scope(newToken.getScopes())
-                .build();
+        return refreshed.response();
     }
-
-
-}
\ No newline at end of file
+}
@@ -5,11 +5,10 @@ import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.model.OAuthConsent;
 import com.zhouzhou.authforge.repository.OAuthAuthorizationRepository;
 import com.zhouzhou.authforge.repository.OAuthConsentRepository;
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.OAuthAuthorizationService;
 import com.zhouzhou.authforge.util.OAuth2Utils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.keygen.Base64StringKeyGenerator;
-import org.springframework.security.crypto.keygen.StringKeyGenerator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,7 +23,7 @@ public class OAuthAuthorizationServiceImpl implements OAuthAuthorizationService
 
     private final OAuthAuthorizationRepository authorizationRepository;
     private final OAuthConsentRepository consentRepository;
-    private final StringKeyGenerator codeGenerator = new Base64StringKeyGenerator(32);
+    private final RandomSource randomSource;
 
     @Override
     public boolean isAuthorizationConsentRequired(OAuthClient client, String userId, Set<String> scopes) {
@@ -47,7 +46,7 @@ public class OAuthAuthorizationServiceImpl implements OAuthAuthorizationService
 
     @Override
     public String generateAuthorizationCode(OAuthClient client, String userId, Set<String> scopes) {
-        String code = codeGenerator.generateKey();
+        String code = randomSource.nextBase64(32);
         
         OAuthAuthorization authorization = new OAuthAuthorization();
         authorization.setClientId(client.getClientId());
@@ -75,7 +74,7 @@ public class OAuthAuthorizationServiceImpl implements OAuthAuthorizationService
 
     @Override
     public OAuthAuthorization validateAuthorizationCode(String code, String clientId) {
-        OAuthAuthorization authorization = authorizationRepository.findByAuthorizationCode(code)
+        OAuthAuthorization authorization = authorizationRepository.findLiveByAuthorizationCode(code, LocalDateTime.now())
             .orElseThrow(() -> new IllegalArgumentException("Invalid authorization code"));
 
         if (!authorization.getClientId().equals(clientId)) {
@@ -0,0 +1,180 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.PartitioningConfig;
+import com.zhouzhou.authforge.service.PartitionMaintenanceService;
+import com.zhouzhou.authforge.service.SchedulerLeaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 分区维护服务实现类
+ *
+ * 分区按 purge_after 列按天划分，命名为 pYYYYMMDD，分区 pYYYYMMDD 存放当天可清理的数据，
+ * 上界为次日零点；最后一个分区 pmax 兜底。新分区通过拆分空的 pmax 创建，
+ * 过期数据通过 DROP PARTITION 删除，代价与分区内行数无关。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionMaintenanceServiceImpl implements PartitionMaintenanceService {
+
+    private static final String LEASE_NAME = "partition-maintenance";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final Pattern PARTITION_NAME = Pattern.compile("p\\d{8}");
+    private static final Pattern TABLE_NAME = Pattern.compile("[a-z_]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitioningConfig partitioningConfig;
+    private final SchedulerLeaseService leaseService;
+
+    /**
+     * 已确认的表分区状态，首次查询成功后缓存，之后只由维护任务更新
+     */
+    private final Map<String, Boolean> partitionedTables = new ConcurrentHashMap<>();
+
+    /**
+     * 定时触发分区维护
+     */
+    @Scheduled(fixedDelayString = "${auth.partitioning.interval:PT1H}",
+               initialDelayString = "${auth.partitioning.initial-delay:PT30S}")
+    public void scheduledMaintenance() {
+        if (!partitioningConfig.isEnabled()) {
+            return;
+        }
+        maintainPartitions();
+    }
+
+    @Override
+    public void maintainPartitions() {
+        if (!leaseService.tryAcquire(LEASE_NAME, partitioningConfig.getLeaseDuration())) {
+            log.debug("Partition maintenance lease held by another node, skipping");
+            return;
+        }
+        try {
+            for (String table : partitioningConfig.getTables()) {
+                try {
+                    maintainTable(table);
+                } catch (DataAccessException e) {
+                    log.warn("Partition maintenance failed for {}: {}", table, e.getMessage());
+                }
+            }
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    @Override
+    public boolean isPartitioned(String table) {
+        if (!partitioningConfig.isEnabled() || !partitioningConfig.getTables().contains(table)) {
+            return false;
+        }
+        Boolean partitioned = partitionedTables.get(table);
+        if (partitioned != null) {
+            return partitioned;
+        }
+        try {
+            partitioned = !loadPartitions(table).isEmpty();
+        } catch (DataAccessException e) {
+            // 查询失败时不缓存，下次调用重新检查
+            log.warn("Failed to load partitions for {}: {}", table, e.getMessage());
+            return false;
+        }
+        partitionedTables.putIfAbsent(table, partitioned);
+        return partitioned;
+    }
+
+    /**
+     * 维护单张表：创建未来分区，删除过期分区
+     */
+    private void maintainTable(String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            log.warn("Skipping partition maintenance for invalid table name: {}", table);
+            return;
+        }
+
+        List<String> partitions = loadPartitions(table);
+        if (partitions.isEmpty()) {
+            log.warn("Table {} is not partitioned, run the db/partitioning script first", table);
+            partitionedTables.put(table, false);
+            return;
+        }
+        partitionedTables.put(table, true);
+
+        LocalDate today = LocalDate.now();
+        createFuturePartitions(table, partitions, today);
+        dropExpiredPartitions(table, partitions, today);
+    }
+
+    /**
+     * 拆分 pmax，创建从最后一个日分区之后到 today + daysAhead 的分区
+     */
+    private void createFuturePartitions(String table, List<String> partitions, LocalDate today) {
+        if (!partitions.contains(MAX_PARTITION)) {
+            log.warn("Table {} has no {} partition, cannot add new partitions", table, MAX_PARTITION);
+            return;
+        }
+
+        LocalDate lastDay = partitions.stream()
+                .filter(name -> PARTITION_NAME.matcher(name).matches())
+                .map(name -> LocalDate.parse(name, PARTITION_FORMAT))
+                .max(LocalDate::compareTo)
+                .orElse(today.minusDays(1));
+
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = lastDay.plusDays(1);
+             !day.isAfter(today.plusDays(partitioningConfig.getDaysAhead()));
+             day = day.plusDays(1)) {
+            definitions.add(String.format("PARTITION %s VALUES LESS THAN ('%s')",
+                    day.format(PARTITION_FORMAT), day.plusDays(1)));
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + MAX_PARTITION
+                + " INTO (" + String.join(", ", definitions) + ")");
+        log.info("Created {} partitions for {}", definitions.size() - 1, table);
+    }
+
+    /**
+     * 删除上界早于 today - retention 的日分区
+     */
+    private void dropExpiredPartitions(String table, List<String> partitions, LocalDate today) {
+        LocalDate cutoff = today.minusDays(partitioningConfig.getRetention().toDays());
+        List<String> expired = partitions.stream()
+                .filter(name -> PARTITION_NAME.matcher(name).matches())
+                .filter(name -> LocalDate.parse(name, PARTITION_FORMAT).plusDays(1).isBefore(cutoff))
+                .toList();
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped expired partitions {} from {}", expired, table);
+    }
+
+    /**
+     * 查询表的分区名称，表未分区时返回空列表
+     */
+    private List<String> loadPartitions(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, table);
+    }
+}
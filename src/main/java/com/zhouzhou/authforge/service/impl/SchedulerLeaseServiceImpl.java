@@ -0,0 +1,62 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.repository.SchedulerLeaseRepository;
+import com.zhouzhou.authforge.security.RandomSource;
+import com.zhouzhou.authforge.service.SchedulerLeaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 定时任务租约服务实现类
+ */
+@Service
+@Slf4j
+public class SchedulerLeaseServiceImpl implements SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final String ownerId;
+
+    public SchedulerLeaseServiceImpl(SchedulerLeaseRepository leaseRepository, RandomSource randomSource) {
+        this.leaseRepository = leaseRepository;
+        // 进程名（pid@host）加随机后缀，同一主机上的多个实例也能区分
+        this.ownerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + randomSource.nextUuid();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(duration);
+        try {
+            if (leaseRepository.insertIfAbsent(name, ownerId, expiresAt) > 0) {
+                return true;
+            }
+            return leaseRepository.tryAcquire(name, ownerId, expiresAt, now) > 0;
+        } catch (DataAccessException e) {
+            log.warn("Failed to acquire lease {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void release(String name) {
+        try {
+            leaseRepository.release(name, ownerId, LocalDateTime.now());
+        } catch (DataAccessException e) {
+            log.warn("Failed to release lease {}: {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public String getOwnerId() {
+        return ownerId;
+    }
+}
@@ -0,0 +1,148 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.TokenRevocationConfig;
+import com.zhouzhou.authforge.dto.BulkRevocationResponse;
+import com.zhouzhou.authforge.event.TokenRevokedEvent;
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
+import com.zhouzhou.authforge.repository.OAuthConsentRepository;
+import com.zhouzhou.authforge.service.TokenBulkRevocationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌批量撤销服务实现类
+ *
+ * 按主键游标分批查询待撤销的令牌，每批使用一条 UPDATE 语句完成撤销，
+ * 每批在独立的短事务中执行，避免长时间持有行锁。
+ */
+@Service
+@Slf4j
+public class TokenBulkRevocationServiceImpl implements TokenBulkRevocationService {
+
+    private final OAuthAccessTokenRepository accessTokenRepository;
+    private final OAuthConsentRepository consentRepository;
+    private final TokenRevocationConfig revocationConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public TokenBulkRevocationServiceImpl(
+            OAuthAccessTokenRepository accessTokenRepository,
+            OAuthConsentRepository consentRepository,
+            TokenRevocationConfig revocationConfig,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.accessTokenRepository = accessTokenRepository;
+        this.consentRepository = consentRepository;
+        this.revocationConfig = revocationConfig;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public BulkRevocationResponse revokeAll(String userId, String clientId) {
+        String subject = StringUtils.hasText(userId) ? userId : null;
+        String client = StringUtils.hasText(clientId) ? clientId : null;
+        if (subject == null && client == null) {
+            throw new IllegalArgumentException("user_id or client_id is required");
+        }
+
+        // 1. 分批撤销令牌
+        int revokedTokens = 0;
+        long afterId = 0L;
+        while (true) {
+            long cursor = afterId;
+            ChunkResult chunk = transactionTemplate.execute(status -> revokeChunk(subject, client, cursor));
+            if (chunk == null || chunk.size() == 0) {
+                break;
+            }
+            revokedTokens += chunk.revoked();
+            afterId = chunk.lastId();
+            if (chunk.size() < revocationConfig.getBulkChunkSize()) {
+                break;
+            }
+        }
+
+        // 2. 删除授权同意记录
+        Integer revokedConsents = transactionTemplate.execute(status -> deleteConsents(subject, client));
+
+        log.info("Bulk revocation finished: userId={}, clientId={}, tokens={}, consents={}",
+                subject, client, revokedTokens, revokedConsents);
+
+        return BulkRevocationResponse.builder()
+                .revokedTokens(revokedTokens)
+                .revokedConsents(revokedConsents)
+                .build();
+    }
+
+    /**
+     * 撤销一批令牌：1次查询获取令牌标识，1次 UPDATE 使其失效
+     */
+    private ChunkResult revokeChunk(String userId, String clientId, long afterId) {
+        Pageable chunk = PageRequest.ofSize(revocationConfig.getBulkChunkSize());
+        OAuthAccessToken.TokenStatus active = OAuthAccessToken.TokenStatus.ACTIVE;
+
+        List<OAuthAccessTokenRepository.TokenIdentity> identities;
+        if (userId != null && clientId != null) {
+            identities = accessTokenRepository.findIdentitiesByClientIdAndUserId(clientId, userId, active, afterId, chunk);
+        } else if (userId != null) {
+            identities = accessTokenRepository.findIdentitiesByUserId(userId, active, afterId, chunk);
+        } else {
+            identities = accessTokenRepository.findIdentitiesByClientId(clientId, active, afterId, chunk);
+        }
+        if (identities.isEmpty()) {
+            return new ChunkResult(0, 0, afterId);
+        }
+
+        List<Long> ids = new ArrayList<>(identities.size());
+        List<String> accessTokens = new ArrayList<>(identities.size());
+        for (OAuthAccessTokenRepository.TokenIdentity identity : identities) {
+            ids.add(identity.getId());
+            accessTokens.add(identity.getAccessToken());
+        }
+
+        int revoked = accessTokenRepository.updateStatusByIdIn(
+                ids,
+                active,
+                OAuthAccessToken.TokenStatus.INVALIDATED,
+                LocalDateTime.now());
+
+        // 事务提交后由监听方清除缓存
+        eventPublisher.publishEvent(new TokenRevokedEvent(ids, accessTokens));
+
+        return new ChunkResult(identities.size(), revoked, ids.get(ids.size() - 1));
+    }
+
+    /**
+     * 删除授权同意记录
+     */
+    private int deleteConsents(String userId, String clientId) {
+        if (userId != null && clientId != null) {
+            return consentRepository.deleteAllByClientIdAndUserId(clientId, userId);
+        }
+        if (userId != null) {
+            return consentRepository.deleteAllByUserId(userId);
+        }
+        return consentRepository.deleteAllByClientId(clientId);
+    }
+
+    /**
+     * 单批撤销结果
+     *
+     * @param size 本批查询到的令牌数量
+     * @param revoked 本批实际撤销的令牌数量
+     * @param lastId 本批最后一个令牌的主键，作为下一批的游标
+     */
+    private record ChunkResult(int size, int revoked, long lastId) {
+    }
+}
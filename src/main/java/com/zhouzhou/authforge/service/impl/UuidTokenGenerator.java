@@ -1,7 +1,7 @@
 package com.zhouzhou.authforge.service.impl;
 
+import com.zhouzhou.authforge.security.RandomSource;
 import com.zhouzhou.authforge.service.TokenGenerator;
-import java.util.UUID;
 
 /**
  * UUID 令牌生成器实现
@@ -10,18 +10,24 @@ import java.util.UUID;
  */
 public class UuidTokenGenerator implements TokenGenerator {
 
+    private final RandomSource randomSource;
+
+    public UuidTokenGenerator(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+
     @Override
     public String generateAccessToken(String subject, String scope, Integer validitySeconds) {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 
     @Override
     public String generateRefreshToken() {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 
     @Override
     public String generateAuthorizationCode() {
-        return UUID.randomUUID().toString();
+        return randomSource.nextUuid();
     }
 } 
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.zhouzhou.authforge.specification;
 
 /**
  * 令牌请求规范接口
+ *
+ * 实现类必须是无状态的：同一实例会被并发请求共享，错误代码和错误描述应为常量。
  * 
  * @param <T> 被验证的对象类型
  */
@@ -24,11 +26,4 @@ public interface TokenRequestSpecification<T> {
      * 获取不满足规范时的错误描述
      */
     String getErrorDescription();
-
-    /**
-     * 与其他规范组合（AND）
-     */
-    default TokenRequestSpecification<T> and(TokenRequestSpecification<T> other) {
-        return new AndSpecification<>(this, other);
-    }
-}
\ No newline at end of file
+}
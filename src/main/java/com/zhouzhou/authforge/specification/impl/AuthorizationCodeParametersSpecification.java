@@ -1,16 +1,16 @@
 package com.zhouzhou.authforge.specification.impl;
 
-import com.zhouzhou.authforge.dto.TokenRequest;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.specification.TokenRequestSpecification;
 import org.springframework.util.StringUtils;
 
 /**
  * 授权码参数规范
  */
-public class AuthorizationCodeParametersSpecification implements TokenRequestSpecification<TokenRequest> {
+public class AuthorizationCodeParametersSpecification implements TokenRequestSpecification<TokenRequestContext> {
 
     @Override
-    public boolean isSatisfiedBy(TokenRequest request) {
+    public boolean isSatisfiedBy(TokenRequestContext request) {
         if (!request.isAuthorizationCodeGrant()) {
             return true; // 不是授权码模式，不需要验证这些参数
         }
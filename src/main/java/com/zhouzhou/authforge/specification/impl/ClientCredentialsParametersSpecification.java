@@ -1,15 +1,15 @@
 package com.zhouzhou.authforge.specification.impl;
 
-import com.zhouzhou.authforge.dto.TokenRequest;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.specification.TokenRequestSpecification;
 
 /**
  * 客户端凭证模式参数规范
  */
-public class ClientCredentialsParametersSpecification implements TokenRequestSpecification<TokenRequest> {
+public class ClientCredentialsParametersSpecification implements TokenRequestSpecification<TokenRequestContext> {
 
     @Override
-    public boolean isSatisfiedBy(TokenRequest request) {
+    public boolean isSatisfiedBy(TokenRequestContext request) {
         if (!request.isClientCredentialsGrant()) {
             return true; // 不是客户端凭证模式，不需要验证
         }
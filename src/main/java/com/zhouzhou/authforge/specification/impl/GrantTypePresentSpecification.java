@@ -0,0 +1,29 @@
+package com.zhouzhou.authforge.specification.impl;
+
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import com.zhouzhou.authforge.specification.TokenRequestSpecification;
+import org.springframework.util.StringUtils;
+
+/**
+ * 授权类型必填规范
+ *
+ * 缺少 grant_type 属于缺少必需参数（RFC 6749 第 5.2 节 invalid_request），
+ * 与取值不受支持（unsupported_grant_type）区分。
+ */
+public class GrantTypePresentSpecification implements TokenRequestSpecification<TokenRequestContext> {
+
+    @Override
+    public boolean isSatisfiedBy(TokenRequestContext request) {
+        return StringUtils.hasText(request.getGrantType());
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "invalid_request";
+    }
+
+    @Override
+    public String getErrorDescription() {
+        return "grant_type is required";
+    }
+}
@@ -1,16 +1,16 @@
 package com.zhouzhou.authforge.specification.impl;
 
-import com.zhouzhou.authforge.dto.TokenRequest;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.specification.TokenRequestSpecification;
 import org.springframework.util.StringUtils;
 
 /**
  * 授权类型规范
  */
-public class GrantTypeSpecification implements TokenRequestSpecification<TokenRequest> {
+public class GrantTypeSpecification implements TokenRequestSpecification<TokenRequestContext> {
 
     @Override
-    public boolean isSatisfiedBy(TokenRequest request) {
+    public boolean isSatisfiedBy(TokenRequestContext request) {
         if (!StringUtils.hasText(request.getGrantType())) {
             return false;
         }
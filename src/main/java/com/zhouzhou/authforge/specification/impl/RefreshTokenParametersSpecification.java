@@ -1,16 +1,16 @@
 package com.zhouzhou.authforge.specification.impl;
 
-import com.zhouzhou.authforge.dto.TokenRequest;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
 import com.zhouzhou.authforge.specification.TokenRequestSpecification;
 import org.springframework.util.StringUtils;
 
 /**
  * 刷新令牌参数规范
  */
-public class RefreshTokenParametersSpecification implements TokenRequestSpecification<TokenRequest> {
+public class RefreshTokenParametersSpecification implements TokenRequestSpecification<TokenRequestContext> {
 
     @Override
-    public boolean isSatisfiedBy(TokenRequest request) {
+    public boolean isSatisfiedBy(TokenRequestContext request) {
         if (!request.isRefreshTokenGrant()) {
             return true; // 不是刷新令牌模式，不需要验证这些参数
         }
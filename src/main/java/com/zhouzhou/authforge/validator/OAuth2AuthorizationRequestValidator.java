@@ -4,6 +4,7 @@ import com.zhouzhou.authforge.constant.OAuth2Constants;
 import com.zhouzhou.authforge.exception.OAuth2AuthorizationException;
 import com.zhouzhou.authforge.model.OAuthClient;
 import com.zhouzhou.authforge.repository.OAuthClientRepository;
+import com.zhouzhou.authforge.security.PkceVerifier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -34,6 +35,7 @@ import java.util.Set;
 public class OAuth2AuthorizationRequestValidator {
 
     private final OAuthClientRepository clientRepository;
+    private final PkceVerifier pkceVerifier;
 
     /**
      * 验证授权请求参数
@@ -174,7 +176,7 @@ public class OAuth2AuthorizationRequestValidator {
             }
 
             // 验证code_challenge字符集(Base64URL-encoded)
-            if (!codeChallenge.matches("^[A-Za-z0-9\\-._~]+$")) {
+            if (!pkceVerifier.isValidChallenge(codeChallenge)) {
                 throw new OAuth2AuthorizationException(
                     OAuth2Constants.ERROR_INVALID_REQUEST,
                     "Invalid code_challenge format",
@@ -0,0 +1,66 @@
+package com.zhouzhou.authforge.validator;
+
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import com.zhouzhou.authforge.specification.TokenRequestSpecification;
+import com.zhouzhou.authforge.specification.impl.AuthorizationCodeParametersSpecification;
+import com.zhouzhou.authforge.specification.impl.ClientCredentialsParametersSpecification;
+import com.zhouzhou.authforge.specification.impl.GrantTypePresentSpecification;
+import com.zhouzhou.authforge.specification.impl.GrantTypeSpecification;
+import com.zhouzhou.authforge.specification.impl.RefreshTokenParametersSpecification;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 令牌请求校验引擎
+ *
+ * 启动时按授权类型预先编排好规则数组，校验时先检查 grant_type 是否存在，再确定授权类型，
+ * 再顺序执行该授权类型对应的规则，不运行无关规则。
+ * 引擎和所有规则都是无状态的，校验结果通过不可变的 {@link ValidationResult} 返回，可安全并发使用。
+ */
+@Component
+public class TokenRequestValidationEngine {
+
+    private final TokenRequestSpecification<TokenRequestContext> grantTypePresentRule = new GrantTypePresentSpecification();
+
+    private final TokenRequestSpecification<TokenRequestContext> grantTypeRule = new GrantTypeSpecification();
+
+    private final Map<String, TokenRequestSpecification<TokenRequestContext>[]> rulesByGrantType = Map.of(
+            "authorization_code", rules(new AuthorizationCodeParametersSpecification()),
+            "refresh_token", rules(new RefreshTokenParametersSpecification()),
+            "client_credentials", rules(new ClientCredentialsParametersSpecification())
+    );
+
+    /**
+     * 校验令牌请求
+     *
+     * @param context 令牌请求上下文
+     * @return 校验结果，返回第一个不满足的规则对应的错误
+     */
+    public ValidationResult validate(TokenRequestContext context) {
+        if (!grantTypePresentRule.isSatisfiedBy(context)) {
+            return failure(grantTypePresentRule);
+        }
+        TokenRequestSpecification<TokenRequestContext>[] rules = rulesByGrantType.get(context.getGrantType());
+        if (rules == null) {
+            return failure(grantTypeRule);
+        }
+
+        for (TokenRequestSpecification<TokenRequestContext> rule : rules) {
+            if (!rule.isSatisfiedBy(context)) {
+                return failure(rule);
+            }
+        }
+        return ValidationResult.VALID;
+    }
+
+    private static ValidationResult failure(TokenRequestSpecification<TokenRequestContext> rule) {
+        return ValidationResult.invalid(rule.getErrorCode(), rule.getErrorDescription());
+    }
+
+    @SafeVarargs
+    private static TokenRequestSpecification<TokenRequestContext>[] rules(
+            TokenRequestSpecification<TokenRequestContext>... rules) {
+        return rules;
+    }
+}
@@ -0,0 +1,43 @@
+package com.zhouzhou.authforge.validator;
+
+import lombok.Getter;
+
+/**
+ * 令牌请求校验结果
+ *
+ * 不可变对象，校验通过时使用共享的 {@link #VALID} 实例。
+ */
+@Getter
+public final class ValidationResult {
+
+    /**
+     * 校验通过
+     */
+    public static final ValidationResult VALID = new ValidationResult(null, null);
+
+    /**
+     * 错误代码，校验通过时为 null
+     */
+    private final String errorCode;
+
+    /**
+     * 错误描述，校验通过时为 null
+     */
+    private final String errorDescription;
+
+    private ValidationResult(String errorCode, String errorDescription) {
+        this.errorCode = errorCode;
+        this.errorDescription = errorDescription;
+    }
+
+    /**
+     * 创建校验失败结果
+     */
+    public static ValidationResult invalid(String errorCode, String errorDescription) {
+        return new ValidationResult(errorCode, errorDescription);
+    }
+
+    public boolean isValid() {
+        return errorCode == null;
+    }
+}
@@ -0,0 +1,3 @@
+-- 支持按用户批量撤销令牌
+ALTER TABLE oauth_tokens
+    ADD INDEX idx_user_token (user_id);
@@ -0,0 +1,34 @@
+-- 支持按过期时间分批清理令牌和授权记录
+ALTER TABLE oauth_tokens
+    ADD INDEX idx_token_expiry (access_token_expires_at, refresh_token_expires_at);
+
+ALTER TABLE oauth_authorizations
+    ADD INDEX idx_auth_code_expiry (authorization_code_expires_at, created_at);
+
+-- 设备授权表
+CREATE TABLE IF NOT EXISTS device_authorizations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    device_code VARCHAR(256) NOT NULL,
+    user_code VARCHAR(32) NOT NULL,
+    client_id VARCHAR(100) NOT NULL,
+    scope TEXT,
+    verification_uri VARCHAR(1024) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    last_polled_at TIMESTAMP NULL,
+    `interval` INT NOT NULL,
+    access_token VARCHAR(256),
+    access_token_expires_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_device_code (device_code),
+    UNIQUE KEY uk_user_code (user_code),
+    INDEX idx_device_expires_at (expires_at)
+);
+
+-- 定时任务租约表，保证多节点部署时只有一个节点执行清理
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
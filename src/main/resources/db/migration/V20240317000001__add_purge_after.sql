@@ -0,0 +1,18 @@
+-- 可清理时间，分区模式下作为按天分区的分区键
+ALTER TABLE oauth_tokens
+    ADD COLUMN purge_after DATETIME NULL AFTER status;
+
+UPDATE oauth_tokens
+SET purge_after = GREATEST(access_token_expires_at, COALESCE(refresh_token_expires_at, access_token_expires_at));
+
+ALTER TABLE oauth_tokens
+    MODIFY COLUMN purge_after DATETIME NOT NULL;
+
+ALTER TABLE oauth_authorizations
+    ADD COLUMN purge_after DATETIME NULL AFTER status;
+
+UPDATE oauth_authorizations
+SET purge_after = DATE_ADD(created_at, INTERVAL 1 DAY);
+
+ALTER TABLE oauth_authorizations
+    MODIFY COLUMN purge_after DATETIME NOT NULL;
@@ -0,0 +1,4 @@
+-- 客户端凭证模式令牌复用策略
+ALTER TABLE oauth_clients
+    ADD COLUMN reuse_client_credentials_tokens BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN token_reuse_min_remaining_percent INT NOT NULL DEFAULT 50;
@@ -0,0 +1,3 @@
+-- private_key_jwt 客户端公钥集地址
+ALTER TABLE oauth_clients
+    ADD COLUMN jwks_uri VARCHAR(500) AFTER client_authentication_methods;
@@ -0,0 +1,4 @@
+-- 客户端级别的令牌端点限额，为空时使用全局默认值
+ALTER TABLE oauth_clients
+    ADD COLUMN rate_limit_per_second INT AFTER jwks_uri,
+    ADD COLUMN rate_limit_burst INT AFTER rate_limit_per_second;
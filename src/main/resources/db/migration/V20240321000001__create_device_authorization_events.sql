@@ -0,0 +1,8 @@
+-- 设备授权状态变化流：与状态变化在同一事务中写入，各节点按主键游标读取并唤醒本节点的等待者
+CREATE TABLE IF NOT EXISTS device_authorization_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    device_code VARCHAR(256) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_device_event_created_at (created_at)
+);
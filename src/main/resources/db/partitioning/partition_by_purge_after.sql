@@ -0,0 +1,41 @@
+-- 将 oauth_tokens 和 oauth_authorizations 转换为按 purge_after 按天分区的表（可选）
+--
+-- 执行前提：已执行 V20240317000001__add_purge_after.sql。
+-- 执行后设置 auth.partitioning.enabled=true，由分区维护任务创建未来分区并删除过期分区，
+-- 过期数据清理任务会自动跳过已分区的表。
+--
+-- MySQL 分区表的限制：
+-- 1. 不支持外键，需要先删除指向 oauth_clients 的外键（外键名以 SHOW CREATE TABLE 为准）
+-- 2. 主键和所有唯一索引都必须包含分区列，因此主键改为 (id, purge_after)，
+--    令牌唯一索引改为 (token, purge_after)；令牌值本身随机生成，不影响唯一性
+--
+-- 大表转换时所有数据先进入 pmax，维护任务首次拆分 pmax 时会复制这些数据。
+-- 数据量较大时，建议在下面的 PARTITION BY 中按现有 purge_after 范围直接列出日分区（pYYYYMMDD）。
+
+-- oauth_tokens
+ALTER TABLE oauth_tokens DROP FOREIGN KEY oauth_tokens_ibfk_1;
+
+ALTER TABLE oauth_tokens
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, purge_after),
+    DROP INDEX uk_access_token,
+    ADD UNIQUE KEY uk_access_token (access_token, purge_after),
+    DROP INDEX uk_refresh_token,
+    ADD UNIQUE KEY uk_refresh_token (refresh_token, purge_after);
+
+ALTER TABLE oauth_tokens
+    PARTITION BY RANGE COLUMNS (purge_after) (
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- oauth_authorizations
+ALTER TABLE oauth_authorizations DROP FOREIGN KEY oauth_authorizations_ibfk_1;
+
+ALTER TABLE oauth_authorizations
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, purge_after);
+
+ALTER TABLE oauth_authorizations
+    PARTITION BY RANGE COLUMNS (purge_after) (
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
@@ -1,3 +1,12 @@
+-- 删除设备授权状态变化表
+DROP TABLE IF EXISTS device_authorization_events;
+
+-- 删除设备授权表
+DROP TABLE IF EXISTS device_authorizations;
+
+-- 删除定时任务租约表
+DROP TABLE IF EXISTS scheduler_leases;
+
 -- 删除授权表
 DROP TABLE IF EXISTS oauth_authorizations;
 
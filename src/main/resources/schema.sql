@@ -13,12 +13,17 @@ CREATE TABLE oauth_clients (
     description TEXT,
     client_type VARCHAR(20) NOT NULL DEFAULT 'CONFIDENTIAL',
     client_authentication_methods VARCHAR(200) NOT NULL DEFAULT 'client_secret_basic',
+    jwks_uri VARCHAR(500),
+    rate_limit_per_second INT,
+    rate_limit_burst INT,
     redirect_uris TEXT NOT NULL,
     scopes TEXT NOT NULL,
     authorized_grant_types VARCHAR(200) NOT NULL,
     require_proof_key BOOLEAN NOT NULL DEFAULT FALSE,
     require_auth_consent BOOLEAN NOT NULL DEFAULT TRUE,
     reuse_refresh_tokens BOOLEAN NOT NULL DEFAULT TRUE,
+    reuse_client_credentials_tokens BOOLEAN NOT NULL DEFAULT FALSE,
+    token_reuse_min_remaining_percent INT NOT NULL DEFAULT 50,
     access_token_validity_seconds INT NOT NULL DEFAULT 3600,  -- 默认1小时
     refresh_token_validity_seconds INT NOT NULL DEFAULT 86400, -- 默认24小时
     auto_approve BOOLEAN NOT NULL DEFAULT FALSE,
@@ -43,13 +48,15 @@ CREATE TABLE IF NOT EXISTS oauth_authorizations (
     trace_id VARCHAR(256),
     response_type VARCHAR(32),
     status VARCHAR(32),
+    purge_after DATETIME NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (client_id) REFERENCES oauth_clients(client_id),
     INDEX idx_auth_code (authorization_code),
     INDEX idx_client_user (client_id, user_id),
     INDEX idx_state (state),
-    INDEX idx_trace_id (trace_id)
+    INDEX idx_trace_id (trace_id),
+    INDEX idx_auth_code_expiry (authorization_code_expires_at, created_at)
 );
 
 -- OAuth Tokens table
@@ -64,12 +71,15 @@ CREATE TABLE IF NOT EXISTS oauth_tokens (
     access_token_expires_at TIMESTAMP NOT NULL,
     refresh_token_expires_at TIMESTAMP,
     status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    purge_after DATETIME NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (client_id) REFERENCES oauth_clients(client_id),
     UNIQUE KEY uk_access_token (access_token),
     UNIQUE KEY uk_refresh_token (refresh_token),
-    INDEX idx_client_user_token (client_id, user_id)
+    INDEX idx_client_user_token (client_id, user_id),
+    INDEX idx_user_token (user_id),
+    INDEX idx_token_expiry (access_token_expires_at, refresh_token_expires_at)
 );
 
 -- OAuth Consents table
@@ -84,6 +94,43 @@ CREATE TABLE IF NOT EXISTS oauth_consents (
     UNIQUE KEY uk_client_user (client_id, user_id)
 );
 
+-- Device Authorizations table
+CREATE TABLE IF NOT EXISTS device_authorizations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    device_code VARCHAR(256) NOT NULL,
+    user_code VARCHAR(32) NOT NULL,
+    client_id VARCHAR(100) NOT NULL,
+    scope TEXT,
+    verification_uri VARCHAR(1024) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    last_polled_at TIMESTAMP NULL,
+    `interval` INT NOT NULL,
+    access_token VARCHAR(256),
+    access_token_expires_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_device_code (device_code),
+    UNIQUE KEY uk_user_code (user_code),
+    INDEX idx_device_expires_at (expires_at)
+);
+
+-- Device Authorization Events table（设备授权状态变化流，各节点按主键游标读取）
+CREATE TABLE IF NOT EXISTS device_authorization_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    device_code VARCHAR(256) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_device_event_created_at (created_at)
+);
+
+-- Scheduler Leases table
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
 -- Users table
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -0,0 +1,124 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class R2dbcTokenStoreTest {
+
+	private DatabaseClient databaseClient;
+	private R2dbcTokenStore store;
+
+	@BeforeEach
+	void setUp() {
+		ConnectionFactory connectionFactory = ConnectionFactories.get(
+				"r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1");
+		databaseClient = DatabaseClient.create(connectionFactory);
+		databaseClient.sql("CREATE TABLE oauth_tokens (" +
+						"id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+						"access_token VARCHAR(256) NOT NULL UNIQUE, " +
+						"refresh_token VARCHAR(256), " +
+						"client_id VARCHAR(100) NOT NULL, " +
+						"user_id VARCHAR(255), " +
+						"scopes VARCHAR(1000), " +
+						"access_token_expires_at TIMESTAMP NOT NULL, " +
+						"refresh_token_expires_at TIMESTAMP, " +
+						"status VARCHAR(20) NOT NULL, " +
+						"purge_after TIMESTAMP NOT NULL, " +
+						"created_at TIMESTAMP, " +
+						"updated_at TIMESTAMP)")
+				.then()
+				.block();
+		store = new R2dbcTokenStore(databaseClient,
+				TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+	}
+
+	@Test
+	void rotatesActiveToken() {
+		OAuthAccessToken existing = store.insert(token("access-1", "refresh-1")).block();
+
+		OAuthAccessToken rotated = store.rotate(existing, token("access-2", "refresh-2")).block();
+
+		assertThat(rotated).isNotNull();
+		assertThat(rotated.getId()).isNotNull();
+		assertThat(status("access-1")).isEqualTo("INVALIDATED");
+		assertThat(status("access-2")).isEqualTo("ACTIVE");
+	}
+
+	@Test
+	void secondRotationOfSameTokenWritesNothing() {
+		OAuthAccessToken existing = store.insert(token("access-1", "refresh-1")).block();
+		store.rotate(existing, token("access-2", "refresh-2")).block();
+
+		OAuthAccessToken rotated = store.rotate(existing, token("access-3", "refresh-3")).block();
+
+		assertThat(rotated).isNull();
+		assertThat(count("access-3")).isZero();
+	}
+
+	@Test
+	void failedInsertRollsBackInvalidation() {
+		OAuthAccessToken existing = store.insert(token("access-1", "refresh-1")).block();
+
+		// 新令牌与已有令牌冲突，插入失败
+		assertThatThrownBy(() -> store.rotate(existing, token("access-1", "refresh-2")).block())
+				.isInstanceOf(RuntimeException.class);
+
+		assertThat(status("access-1")).isEqualTo("ACTIVE");
+	}
+
+	@Test
+	void findsReusableClientCredentialsToken() {
+		OAuthAccessToken serviceToken = token("access-1", null);
+		serviceToken.setUserId(null);
+		store.insert(serviceToken).block();
+
+		assertThat(store.findReusableClientCredentialsToken("client", "read",
+				LocalDateTime.now().plusMinutes(30)).block())
+				.extracting(OAuthAccessToken::getAccessToken)
+				.isEqualTo("access-1");
+		assertThat(store.findReusableClientCredentialsToken("client", "read",
+				LocalDateTime.now().plusHours(2)).block())
+				.isNull();
+	}
+
+	private String status(String accessToken) {
+		return databaseClient.sql("SELECT status FROM oauth_tokens WHERE access_token = :accessToken")
+				.bind("accessToken", accessToken)
+				.map(row -> row.get("status", String.class))
+				.one()
+				.block();
+	}
+
+	private long count(String accessToken) {
+		return databaseClient.sql("SELECT COUNT(*) AS c FROM oauth_tokens WHERE access_token = :accessToken")
+				.bind("accessToken", accessToken)
+				.map(row -> row.get("c", Long.class))
+				.one()
+				.block();
+	}
+
+	private static OAuthAccessToken token(String accessToken, String refreshToken) {
+		return OAuthAccessToken.builder()
+				.clientId("client")
+				.userId("user")
+				.accessToken(accessToken)
+				.refreshToken(refreshToken)
+				.scopes("read")
+				.accessTokenExpiresAt(LocalDateTime.now().plusHours(1))
+				.refreshTokenExpiresAt(refreshToken != null ? LocalDateTime.now().plusDays(1) : null)
+				.status(OAuthAccessToken.TokenStatus.ACTIVE)
+				.build();
+	}
+}
@@ -0,0 +1,161 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.security.ClientSecretVerifier;
+import com.zhouzhou.authforge.service.TokenGenerator;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveTokenHandlerTest {
+
+	private static final String CLIENT_ID = "edge-client";
+
+	private final AtomicInteger sequence = new AtomicInteger();
+	private final OAuthClient client = new OAuthClient();
+
+	private TokenGrantSupport grantSupport;
+
+	@BeforeEach
+	void setUp() {
+		client.setClientId(CLIENT_ID);
+		client.setClientSecret("secret");
+		client.setScopes("read write");
+		client.setAuthorizedGrantTypes("client_credentials,refresh_token");
+		client.setClientAuthenticationMethods("client_secret_post");
+		client.setAccessTokenValiditySeconds(3600);
+		client.setRefreshTokenValiditySeconds(86400);
+		client.setReuseRefreshTokens(false);
+		client.setEnabled(true);
+
+		TokenGenerator tokenGenerator = mock(TokenGenerator.class);
+		when(tokenGenerator.generateAccessToken(any(), any(), any()))
+				.thenAnswer(invocation -> "access-" + sequence.incrementAndGet());
+		when(tokenGenerator.generateRefreshToken())
+				.thenAnswer(invocation -> "refresh-" + sequence.incrementAndGet());
+		grantSupport = new TokenGrantSupport(tokenGenerator);
+	}
+
+	@Test
+	void clientCredentialsReusesActiveToken() {
+		client.setReuseClientCredentialsTokens(true);
+		WebTestClient webClient = webClient(new InMemoryTokenStore(List.of(client)));
+
+		String first = clientCredentials(webClient);
+		String second = clientCredentials(webClient);
+
+		assertThat(second).isEqualTo(first);
+	}
+
+	@Test
+	void clientCredentialsIssuesNewTokenWhenReuseDisabled() {
+		client.setReuseClientCredentialsTokens(false);
+		WebTestClient webClient = webClient(new InMemoryTokenStore(List.of(client)));
+
+		String first = clientCredentials(webClient);
+		String second = clientCredentials(webClient);
+
+		assertThat(second).isNotEqualTo(first);
+	}
+
+	@Test
+	void refreshRotatesTokenAndRejectsReuse() {
+		InMemoryTokenStore store = new InMemoryTokenStore(List.of(client));
+		store.insert(userToken("refresh-old")).block();
+		WebTestClient webClient = webClient(store);
+
+		refresh(webClient, "refresh-old")
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.refresh_token").value(value -> assertThat(value).isNotEqualTo("refresh-old"));
+
+		refresh(webClient, "refresh-old")
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.error").isEqualTo("invalid_grant");
+	}
+
+	@Test
+	void lostRotationRaceIsInvalidGrant() {
+		ReactiveTokenStore store = mock(ReactiveTokenStore.class);
+		OAuthAccessToken existing = userToken("refresh-old");
+		when(store.findClient(CLIENT_ID)).thenReturn(Mono.just(client));
+		when(store.findLiveByRefreshToken(anyString(), any())).thenReturn(Mono.just(existing));
+		// 另一个请求已完成轮换，条件更新没有命中
+		when(store.rotate(any(), any())).thenReturn(Mono.empty());
+
+		refresh(webClient(store), "refresh-old")
+				.expectStatus().isBadRequest()
+				.expectBody()
+				.jsonPath("$.error").isEqualTo("invalid_grant");
+		verify(store, never()).insert(any());
+	}
+
+	private WebTestClient webClient(ReactiveTokenStore store) {
+		ClientSecretVerifier secretVerifier = mock(ClientSecretVerifier.class);
+		when(secretVerifier.matches(any(), anyString())).thenReturn(true);
+		ReactiveTokenHandler handler = new ReactiveTokenHandler(
+				new ReactiveClientAuthenticator(store, secretVerifier), store, grantSupport);
+		return WebTestClient.bindToRouterFunction(RouterFunctions.route()
+						.POST("/oauth2/token", handler::token)
+						.build())
+				.build();
+	}
+
+	private String clientCredentials(WebTestClient webClient) {
+		Map<?, ?> body = webClient.post().uri("/oauth2/token")
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED)
+				.body(BodyInserters.fromFormData("grant_type", "client_credentials")
+						.with("client_id", CLIENT_ID)
+						.with("client_secret", "secret"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(Map.class)
+				.returnResult()
+				.getResponseBody();
+		assertThat(body).isNotNull();
+		return (String) body.get("access_token");
+	}
+
+	private static WebTestClient.ResponseSpec refresh(WebTestClient webClient, String refreshToken) {
+		return webClient.post().uri("/oauth2/token")
+				.contentType(MediaType.APPLICATION_FORM_URLENCODED)
+				.body(BodyInserters.fromFormData("grant_type", "refresh_token")
+						.with("refresh_token", refreshToken)
+						.with("client_id", CLIENT_ID)
+						.with("client_secret", "secret"))
+				.exchange();
+	}
+
+	private static OAuthAccessToken userToken(String refreshToken) {
+		return OAuthAccessToken.builder()
+				.clientId(CLIENT_ID)
+				.userId("user")
+				.accessToken("access-" + refreshToken)
+				.refreshToken(refreshToken)
+				.scopes("read")
+				.accessTokenExpiresAt(LocalDateTime.now().plusHours(1))
+				.refreshTokenExpiresAt(LocalDateTime.now().plusDays(1))
+				.status(OAuthAccessToken.TokenStatus.ACTIVE)
+				.build();
+	}
+}
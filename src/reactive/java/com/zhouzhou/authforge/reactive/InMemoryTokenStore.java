@@ -0,0 +1,113 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 内存令牌存储
+ *
+ * 用于本地压测和无数据库的边缘节点，客户端来自 auth.reactive.clients 配置，
+ * 令牌不持久化，过了可清理时间的记录在查询时顺带移除。
+ */
+public class InMemoryTokenStore implements ReactiveTokenStore {
+
+    private final Map<String, OAuthClient> clients;
+    private final Map<String, OAuthAccessToken> byAccessToken = new ConcurrentHashMap<>();
+    private final Map<String, OAuthAccessToken> byRefreshToken = new ConcurrentHashMap<>();
+    private final Map<ScopeKey, OAuthAccessToken> latestClientCredentials = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public InMemoryTokenStore(List<OAuthClient> clients) {
+        this.clients = clients.stream()
+                .collect(Collectors.toUnmodifiableMap(OAuthClient::getClientId, Function.identity()));
+    }
+
+    @Override
+    public Mono<OAuthClient> findClient(String clientId) {
+        return Mono.justOrEmpty(clients.get(clientId));
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> insert(OAuthAccessToken token) {
+        token.initPurgeAfter();
+        LocalDateTime now = LocalDateTime.now();
+        token.setId(sequence.incrementAndGet());
+        token.setCreatedAt(now);
+        token.setUpdatedAt(now);
+        byAccessToken.put(token.getAccessToken(), token);
+        if (token.getRefreshToken() != null) {
+            byRefreshToken.put(token.getRefreshToken(), token);
+        }
+        if (token.getUserId() == null) {
+            latestClientCredentials.put(new ScopeKey(token.getClientId(), token.getScopes()), token);
+        }
+        return Mono.just(token);
+    }
+
+    /**
+     * 从刷新令牌索引中移除旧令牌作为认领，并发轮换同一刷新令牌时只有一个请求成功
+     */
+    @Override
+    public Mono<OAuthAccessToken> rotate(OAuthAccessToken existing, OAuthAccessToken replacement) {
+        if (!byRefreshToken.remove(existing.getRefreshToken(), existing)) {
+            return Mono.empty();
+        }
+        existing.markAsInvalidated();
+        existing.setUpdatedAt(LocalDateTime.now());
+        return insert(replacement);
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findReusableClientCredentialsToken(String clientId, String scope, LocalDateTime minExpiresAt) {
+        return Mono.justOrEmpty(latestClientCredentials.get(new ScopeKey(clientId, scope)))
+                .filter(token -> token.getStatus() == OAuthAccessToken.TokenStatus.ACTIVE
+                        && token.getAccessTokenExpiresAt().isAfter(minExpiresAt));
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findLiveByRefreshToken(String refreshToken, LocalDateTime now) {
+        return Mono.justOrEmpty(live(byRefreshToken, refreshToken, now));
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findLiveByAccessTokenAndClientId(String accessToken, String clientId, LocalDateTime now) {
+        return Mono.justOrEmpty(live(byAccessToken, accessToken, now))
+                .filter(token -> token.getClientId().equals(clientId));
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findLiveByRefreshTokenAndClientId(String refreshToken, String clientId, LocalDateTime now) {
+        return Mono.justOrEmpty(live(byRefreshToken, refreshToken, now))
+                .filter(token -> token.getClientId().equals(clientId));
+    }
+
+    private OAuthAccessToken live(Map<String, OAuthAccessToken> index, String key, LocalDateTime now) {
+        OAuthAccessToken token = index.get(key);
+        if (token != null && !token.getPurgeAfter().isAfter(now)) {
+            byAccessToken.remove(token.getAccessToken(), token);
+            if (token.getRefreshToken() != null) {
+                byRefreshToken.remove(token.getRefreshToken(), token);
+            }
+            if (token.getUserId() == null) {
+                latestClientCredentials.remove(new ScopeKey(token.getClientId(), token.getScopes()), token);
+            }
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * 客户端凭证令牌索引键，作用域可能为空
+     */
+    private record ScopeKey(String clientId, String scope) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * 基于 R2DBC 的令牌存储，与 Servlet 应用共用 oauth_clients 和 oauth_tokens 表
+ *
+ * 刷新令牌轮换在同一个事务中执行条件更新和插入，只有把旧令牌从 ACTIVE 改为 INVALIDATED 的请求才会写入新令牌。
+ */
+@RequiredArgsConstructor
+public class R2dbcTokenStore implements ReactiveTokenStore {
+
+    private static final String TOKEN_COLUMNS = "id, client_id, user_id, access_token, refresh_token, scopes, " +
+            "access_token_expires_at, refresh_token_expires_at, purge_after, status, created_at, updated_at";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<OAuthClient> findClient(String clientId) {
+        return databaseClient.sql("SELECT client_id, client_secret, client_name, scopes, authorized_grant_types, " +
+                        "access_token_validity_seconds, refresh_token_validity_seconds, enabled, " +
+                        "client_authentication_methods, reuse_refresh_tokens, reuse_client_credentials_tokens, " +
+                        "token_reuse_min_remaining_percent " +
+                        "FROM oauth_clients WHERE client_id = :clientId")
+                .bind("clientId", clientId)
+                .map(R2dbcTokenStore::mapClient)
+                .one();
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> insert(OAuthAccessToken token) {
+        token.initPurgeAfter();
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getCreatedAt() == null) {
+            token.setCreatedAt(now);
+        }
+        token.setUpdatedAt(now);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO oauth_tokens (client_id, user_id, " +
+                        "access_token, refresh_token, scopes, access_token_expires_at, refresh_token_expires_at, " +
+                        "purge_after, status, created_at, updated_at) VALUES (:clientId, :userId, :accessToken, " +
+                        ":refreshToken, :scopes, :accessTokenExpiresAt, :refreshTokenExpiresAt, :purgeAfter, " +
+                        ":status, :createdAt, :updatedAt)")
+                .bind("clientId", token.getClientId())
+                .bind("accessToken", token.getAccessToken())
+                .bind("accessTokenExpiresAt", token.getAccessTokenExpiresAt())
+                .bind("purgeAfter", token.getPurgeAfter())
+                .bind("status", token.getStatus().name())
+                .bind("createdAt", token.getCreatedAt())
+                .bind("updatedAt", token.getUpdatedAt());
+        spec = bindNullable(spec, "userId", token.getUserId(), String.class);
+        spec = bindNullable(spec, "refreshToken", token.getRefreshToken(), String.class);
+        spec = bindNullable(spec, "scopes", token.getScopes(), String.class);
+        spec = bindNullable(spec, "refreshTokenExpiresAt", token.getRefreshTokenExpiresAt(), LocalDateTime.class);
+
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    token.setId(id);
+                    return token;
+                });
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> rotate(OAuthAccessToken existing, OAuthAccessToken replacement) {
+        Mono<OAuthAccessToken> rotation = databaseClient.sql("UPDATE oauth_tokens SET status = :status, " +
+                        "updated_at = :now WHERE id = :id AND status = :activeStatus")
+                .bind("status", OAuthAccessToken.TokenStatus.INVALIDATED.name())
+                .bind("now", LocalDateTime.now())
+                .bind("id", existing.getId())
+                .bind("activeStatus", OAuthAccessToken.TokenStatus.ACTIVE.name())
+                .fetch()
+                .rowsUpdated()
+                .filter(rows -> rows == 1)
+                .flatMap(rows -> insert(replacement));
+        return transactionalOperator.transactional(rotation);
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findReusableClientCredentialsToken(String clientId, String scope, LocalDateTime minExpiresAt) {
+        return databaseClient.sql("SELECT " + TOKEN_COLUMNS + " FROM oauth_tokens " +
+                        "WHERE client_id = :clientId AND user_id IS NULL AND scopes = :scopes AND status = :status " +
+                        "AND access_token_expires_at > :minExpiresAt AND purge_after > :minExpiresAt " +
+                        "ORDER BY access_token_expires_at DESC LIMIT 1")
+                .bind("clientId", clientId)
+                .bind("scopes", scope)
+                .bind("status", OAuthAccessToken.TokenStatus.ACTIVE.name())
+                .bind("minExpiresAt", minExpiresAt)
+                .map(R2dbcTokenStore::mapToken)
+                .first();
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findLiveByRefreshToken(String refreshToken, LocalDateTime now) {
+        return databaseClient.sql("SELECT " + TOKEN_COLUMNS + " FROM oauth_tokens " +
+                        "WHERE refresh_token = :refreshToken AND purge_after > :now")
+                .bind("refreshToken", refreshToken)
+                .bind("now", now)
+                .map(R2dbcTokenStore::mapToken)
+                .first();
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findLiveByAccessTokenAndClientId(String accessToken, String clientId, LocalDateTime now) {
+        return databaseClient.sql("SELECT " + TOKEN_COLUMNS + " FROM oauth_tokens " +
+                        "WHERE access_token = :accessToken AND client_id = :clientId AND purge_after > :now")
+                .bind("accessToken", accessToken)
+                .bind("clientId", clientId)
+                .bind("now", now)
+                .map(R2dbcTokenStore::mapToken)
+                .first();
+    }
+
+    @Override
+    public Mono<OAuthAccessToken> findLiveByRefreshTokenAndClientId(String refreshToken, String clientId, LocalDateTime now) {
+        return databaseClient.sql("SELECT " + TOKEN_COLUMNS + " FROM oauth_tokens " +
+                        "WHERE refresh_token = :refreshToken AND client_id = :clientId AND purge_after > :now")
+                .bind("refreshToken", refreshToken)
+                .bind("clientId", clientId)
+                .bind("now", now)
+                .map(R2dbcTokenStore::mapToken)
+                .first();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bindNullable(
+            DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static OAuthClient mapClient(Readable row) {
+        OAuthClient client = new OAuthClient();
+        client.setClientId(row.get("client_id", String.class));
+        client.setClientSecret(row.get("client_secret", String.class));
+        client.setClientName(row.get("client_name", String.class));
+        client.setScopes(row.get("scopes", String.class));
+        client.setAuthorizedGrantTypes(row.get("authorized_grant_types", String.class));
+        client.setAccessTokenValiditySeconds(row.get("access_token_validity_seconds", Integer.class));
+        client.setRefreshTokenValiditySeconds(row.get("refresh_token_validity_seconds", Integer.class));
+        client.setEnabled(row.get("enabled", Boolean.class));
+        client.setClientAuthenticationMethods(row.get("client_authentication_methods", String.class));
+        client.setReuseRefreshTokens(row.get("reuse_refresh_tokens", Boolean.class));
+        client.setReuseClientCredentialsTokens(row.get("reuse_client_credentials_tokens", Boolean.class));
+        client.setTokenReuseMinRemainingPercent(row.get("token_reuse_min_remaining_percent", Integer.class));
+        return client;
+    }
+
+    private static OAuthAccessToken mapToken(Readable row) {
+        return OAuthAccessToken.builder()
+                .id(row.get("id", Long.class))
+                .clientId(row.get("client_id", String.class))
+                .userId(row.get("user_id", String.class))
+                .accessToken(row.get("access_token", String.class))
+                .refreshToken(row.get("refresh_token", String.class))
+                .scopes(row.get("scopes", String.class))
+                .accessTokenExpiresAt(row.get("access_token_expires_at", LocalDateTime.class))
+                .refreshTokenExpiresAt(row.get("refresh_token_expires_at", LocalDateTime.class))
+                .purgeAfter(row.get("purge_after", LocalDateTime.class))
+                .status(OAuthAccessToken.TokenStatus.valueOf(row.get("status", String.class)))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
+}
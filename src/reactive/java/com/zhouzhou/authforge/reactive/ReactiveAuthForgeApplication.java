@@ -0,0 +1,44 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.config.ClientSecretCacheConfig;
+import com.zhouzhou.authforge.config.PasswordEncoderConfig;
+import com.zhouzhou.authforge.config.RandomSourceConfig;
+import com.zhouzhou.authforge.config.TokenGeneratorConfig;
+import com.zhouzhou.authforge.security.ClientSecretVerifier;
+import com.zhouzhou.authforge.security.RandomSource;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 响应式边缘部署入口
+ *
+ * 只提供令牌端点（client_credentials、refresh_token）和内省端点，运行在 Netty 上，
+ * 少量事件循环线程即可承载大量并发连接。授权规则与阻塞实现共用 {@link TokenGrantSupport}，
+ * 令牌存储为 R2DBC MySQL 或内存。默认的 Servlet 应用不受影响：
+ * 本模块只在 -Preactive 构建中编译，且所有配置只在响应式 Web 应用中生效。
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, SqlInitializationAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import({
+        RandomSourceConfig.class,
+        RandomSource.class,
+        TokenGeneratorConfig.class,
+        TokenGrantSupport.class,
+        PasswordEncoderConfig.class,
+        ClientSecretCacheConfig.class,
+        ClientSecretVerifier.class
+})
+public class ReactiveAuthForgeApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveAuthForgeApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,97 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.security.ClientAuthenticationMethod;
+import com.zhouzhou.authforge.security.ClientSecretVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 响应式客户端认证
+ *
+ * 只支持 client_secret_basic 和 client_secret_post。密钥哈希校验是 CPU 密集操作，
+ * 切换到 parallel 调度器执行，不占用事件循环线程。
+ */
+@RequiredArgsConstructor
+public class ReactiveClientAuthenticator {
+
+    private static final String BASIC_SCHEME = "Basic ";
+
+    private final ReactiveTokenStore tokenStore;
+    private final ClientSecretVerifier clientSecretVerifier;
+
+    /**
+     * 认证客户端，失败时以 OAuth2AuthenticationException 结束
+     *
+     * @param headers 请求头
+     * @param form 表单参数
+     * @return 已认证的客户端
+     */
+    public Mono<OAuthClient> authenticate(HttpHeaders headers, MultiValueMap<String, String> form) {
+        String clientId;
+        String clientSecret;
+        ClientAuthenticationMethod method;
+
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BASIC_SCHEME, 0, BASIC_SCHEME.length())) {
+            String[] basic = decodeBasic(authorization.substring(BASIC_SCHEME.length()).trim());
+            if (basic == null) {
+                return Mono.error(OAuth2AuthenticationException.AUTHENTICATION_FAILED);
+            }
+            clientId = basic[0];
+            clientSecret = basic[1];
+            method = ClientAuthenticationMethod.CLIENT_SECRET_BASIC;
+        } else {
+            clientId = form.getFirst("client_id");
+            clientSecret = form.getFirst("client_secret");
+            method = ClientAuthenticationMethod.CLIENT_SECRET_POST;
+        }
+
+        if (clientId == null || clientId.isEmpty()) {
+            return Mono.error(OAuth2AuthenticationException.AUTHENTICATION_FAILED);
+        }
+        if (clientSecret == null) {
+            return Mono.error(OAuth2AuthenticationException.MISSING_CLIENT_SECRET);
+        }
+
+        return tokenStore.findClient(clientId)
+                .switchIfEmpty(Mono.error(OAuth2AuthenticationException.CLIENT_NOT_FOUND))
+                .flatMap(client -> {
+                    if (!client.getClientAuthenticationMethodSet().contains(method)) {
+                        return Mono.error(new OAuth2AuthenticationException(
+                                "invalid_client",
+                                "Client does not support " + method + " authentication method"
+                        ));
+                    }
+                    return Mono.fromCallable(() -> clientSecretVerifier.matches(client, clientSecret))
+                            .subscribeOn(Schedulers.parallel())
+                            .flatMap(matches -> matches
+                                    ? Mono.just(client)
+                                    : Mono.error(OAuth2AuthenticationException.INVALID_CLIENT_SECRET));
+                });
+    }
+
+    /**
+     * 解码 Basic 凭证，格式错误时返回 null
+     */
+    private static String[] decodeBasic(String encoded) {
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int separator = credentials.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        return new String[] {credentials.substring(0, separator), credentials.substring(separator + 1)};
+    }
+}
@@ -0,0 +1,99 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.security.ClientSecretVerifier;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * 响应式边缘部署的组件装配
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ReactiveEdgeProperties.class)
+public class ReactiveEdgeConfig {
+
+    /**
+     * Servlet 依赖同在类路径上，显式使用 Netty，避免自动选择 Tomcat
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public ReactiveTokenStore reactiveTokenStore(ReactiveEdgeProperties properties) {
+        if (properties.getStore() == ReactiveEdgeProperties.Store.MEMORY) {
+            return new InMemoryTokenStore(properties.getClients());
+        }
+
+        ReactiveEdgeProperties.R2dbc r2dbc = properties.getR2dbc();
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbc.getUrl()).mutate();
+        if (r2dbc.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbc.getUsername());
+        }
+        if (r2dbc.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbc.getPassword());
+        }
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("authforge-r2dbc")
+                .initialSize(r2dbc.getInitialSize())
+                .maxSize(r2dbc.getMaxSize())
+                .maxAcquireTime(r2dbc.getAcquireTimeout())
+                .build());
+        return new R2dbcTokenStore(DatabaseClient.create(pool),
+                TransactionalOperator.create(new R2dbcTransactionManager(pool)));
+    }
+
+    @Bean
+    public ReactiveClientAuthenticator reactiveClientAuthenticator(ReactiveTokenStore tokenStore,
+                                                                   ClientSecretVerifier clientSecretVerifier) {
+        return new ReactiveClientAuthenticator(tokenStore, clientSecretVerifier);
+    }
+
+    @Bean
+    public ReactiveTokenHandler reactiveTokenHandler(ReactiveClientAuthenticator clientAuthenticator,
+                                                     ReactiveTokenStore tokenStore,
+                                                     TokenGrantSupport grantSupport) {
+        return new ReactiveTokenHandler(clientAuthenticator, tokenStore, grantSupport);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveTokenRoutes(ReactiveTokenHandler handler) {
+        return RouterFunctions.route()
+                .POST("/oauth2/token", RequestPredicates.contentType(MediaType.APPLICATION_FORM_URLENCODED), handler::token)
+                .POST("/oauth2/introspect", RequestPredicates.contentType(MediaType.APPLICATION_FORM_URLENCODED), handler::introspect)
+                .build();
+    }
+
+    /**
+     * 客户端认证由端点自行完成，这里只关闭 CSRF 和默认登录
+     */
+    @Bean
+    public SecurityWebFilterChain reactiveSecurityFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .authorizeExchange(exchange -> exchange.anyExchange().permitAll())
+                .build();
+    }
+}
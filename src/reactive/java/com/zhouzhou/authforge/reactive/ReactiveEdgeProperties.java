@@ -0,0 +1,59 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.model.OAuthClient;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 响应式边缘部署配置
+ */
+@Data
+@ConfigurationProperties(prefix = "auth.reactive")
+public class ReactiveEdgeProperties {
+
+    /**
+     * 令牌存储类型
+     */
+    private Store store = Store.R2DBC;
+
+    private R2dbc r2dbc = new R2dbc();
+
+    /**
+     * 内存存储模式下的客户端列表
+     */
+    private List<OAuthClient> clients = new ArrayList<>();
+
+    public enum Store {
+        R2DBC,
+        MEMORY
+    }
+
+    @Data
+    public static class R2dbc {
+
+        /**
+         * 连接地址，如 r2dbc:mysql://localhost:3306/authforge
+         */
+        private String url = "r2dbc:mysql://localhost:3306/authforge";
+
+        private String username;
+
+        private String password;
+
+        /**
+         * 连接池初始和最大连接数
+         */
+        private int initialSize = 4;
+
+        private int maxSize = 20;
+
+        /**
+         * 获取连接的超时时间
+         */
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,153 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.exception.OAuth2TokenException;
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 响应式令牌端点和内省端点
+ *
+ * 支持 client_credentials 和 refresh_token 授权，规则与阻塞实现相同（TokenGrantSupport）；
+ * 授权码和设备码授权依赖会话与用户交互，仍由 Servlet 应用处理。
+ * 启用令牌复用的客户端先查询存储中剩余有效期足够的令牌；刷新令牌轮换由存储原子完成，
+ * 同一刷新令牌的并发请求只有一个成功，其余返回 invalid_grant。
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveTokenHandler {
+
+    private final ReactiveClientAuthenticator clientAuthenticator;
+    private final ReactiveTokenStore tokenStore;
+    private final TokenGrantSupport grantSupport;
+
+    /**
+     * POST /oauth2/token
+     */
+    public Mono<ServerResponse> token(ServerRequest request) {
+        return request.formData()
+                .flatMap(form -> {
+                    String grantType = form.getFirst("grant_type");
+                    if (!StringUtils.hasText(grantType)) {
+                        return error(HttpStatus.BAD_REQUEST, "invalid_request", "Missing grant_type parameter");
+                    }
+                    if (!"client_credentials".equals(grantType) && !"refresh_token".equals(grantType)) {
+                        return error(HttpStatus.BAD_REQUEST, "unsupported_grant_type", "Unsupported grant type: " + grantType);
+                    }
+                    return clientAuthenticator.authenticate(request.headers().asHttpHeaders(), form)
+                            .flatMap(client -> grant(grantType, client, form));
+                })
+                .onErrorResume(OAuth2AuthenticationException.class,
+                        e -> error(HttpStatus.UNAUTHORIZED, e.getError(), e.getErrorDescription()))
+                .onErrorResume(OAuth2TokenException.class,
+                        e -> error(HttpStatus.BAD_REQUEST, e.getError(), e.getErrorDescription()))
+                .onErrorResume(e -> {
+                    log.error("Unexpected error during token request", e);
+                    return error(HttpStatus.INTERNAL_SERVER_ERROR, "server_error", "Failed to process token request");
+                });
+    }
+
+    /**
+     * POST /oauth2/introspect
+     */
+    public Mono<ServerResponse> introspect(ServerRequest request) {
+        return request.formData()
+                .flatMap(form -> {
+                    String token = form.getFirst("token");
+                    if (!StringUtils.hasText(token)) {
+                        return error(HttpStatus.BAD_REQUEST, "invalid_request", "Missing token parameter");
+                    }
+                    String hint = form.getFirst("token_type_hint");
+                    String tokenTypeHint = grantSupport.isValidTokenTypeHint(hint) ? hint : null;
+                    return clientAuthenticator.authenticate(request.headers().asHttpHeaders(), form)
+                            .flatMap(client -> findTokenByHint(token, tokenTypeHint, client.getClientId())
+                                    .map(grantSupport::introspectionResponse)
+                                    .switchIfEmpty(Mono.fromSupplier(() -> grantSupport.introspectionResponse(null))))
+                            .flatMap(ReactiveTokenHandler::ok);
+                })
+                .onErrorResume(OAuth2AuthenticationException.class,
+                        e -> error(HttpStatus.UNAUTHORIZED, "invalid_client", "Invalid client authentication"))
+                .onErrorResume(e -> {
+                    log.error("Unexpected error during token introspection", e);
+                    return error(HttpStatus.INTERNAL_SERVER_ERROR, "server_error", "Failed to process token introspection request");
+                });
+    }
+
+    private Mono<ServerResponse> grant(String grantType, OAuthClient client, MultiValueMap<String, String> form) {
+        if (!client.isGrantTypeAllowed(grantType)) {
+            return error(HttpStatus.BAD_REQUEST, "unauthorized_client", "Client is not authorized to use this grant type");
+        }
+        if ("client_credentials".equals(grantType)) {
+            return Mono.fromCallable(() -> grantSupport.resolveClientCredentialsScope(client, form.getFirst("scope")))
+                    .flatMap(scope -> {
+                        Mono<OAuthAccessToken> issue = Mono.defer(
+                                () -> tokenStore.insert(grantSupport.newClientCredentialsToken(client, scope)));
+                        if (!client.isReuseClientCredentialsTokens()) {
+                            return issue;
+                        }
+                        return tokenStore.findReusableClientCredentialsToken(
+                                        client.getClientId(), scope, grantSupport.minReuseExpiresAt(client))
+                                .switchIfEmpty(issue);
+                    })
+                    .map(grantSupport::clientCredentialsResponse)
+                    .flatMap(ReactiveTokenHandler::ok);
+        }
+
+        String refreshToken = form.getFirst("refresh_token");
+        if (!StringUtils.hasText(refreshToken)) {
+            return error(HttpStatus.BAD_REQUEST, "invalid_request", "Missing refresh_token parameter");
+        }
+        return tokenStore.findLiveByRefreshToken(refreshToken, LocalDateTime.now())
+                .switchIfEmpty(Mono.error(TokenGrantSupport.INVALID_REFRESH_TOKEN))
+                .flatMap(existing -> {
+                    TokenGrantSupport.RefreshedToken refreshed = grantSupport.refresh(existing, client);
+                    Mono<OAuthAccessToken> saved = refreshed.rotated()
+                            ? tokenStore.rotate(existing, refreshed.token())
+                                    .switchIfEmpty(Mono.error(TokenGrantSupport.INVALID_REFRESH_TOKEN))
+                            : tokenStore.insert(refreshed.token());
+                    return saved.thenReturn(refreshed.response());
+                })
+                .flatMap(ReactiveTokenHandler::ok);
+    }
+
+    /**
+     * 根据 token_type_hint 决定查找顺序，同时验证 client_id
+     */
+    private Mono<OAuthAccessToken> findTokenByHint(String token, String tokenTypeHint, String clientId) {
+        LocalDateTime now = LocalDateTime.now();
+        Mono<OAuthAccessToken> byAccessToken = Mono.defer(() -> tokenStore.findLiveByAccessTokenAndClientId(token, clientId, now));
+        Mono<OAuthAccessToken> byRefreshToken = Mono.defer(() -> tokenStore.findLiveByRefreshTokenAndClientId(token, clientId, now));
+        if ("refresh_token".equals(tokenTypeHint)) {
+            return byRefreshToken.switchIfEmpty(byAccessToken);
+        }
+        return byAccessToken.switchIfEmpty(byRefreshToken);
+    }
+
+    private static Mono<ServerResponse> ok(Object body) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .bodyValue(body);
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String error, String description) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .bodyValue(Map.of("error", error, "error_description", description));
+    }
+}
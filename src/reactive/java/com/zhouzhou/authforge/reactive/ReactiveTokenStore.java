@@ -0,0 +1,54 @@
+package com.zhouzhou.authforge.reactive;
+
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * 响应式令牌存储
+ *
+ * 查询语义与 OAuthAccessTokenRepository 的 findLive* 方法一致，都带 purge_after 下界。
+ */
+public interface ReactiveTokenStore {
+
+    /**
+     * 根据客户端ID查找客户端
+     */
+    Mono<OAuthClient> findClient(String clientId);
+
+    /**
+     * 保存新令牌
+     */
+    Mono<OAuthAccessToken> insert(OAuthAccessToken token);
+
+    /**
+     * 刷新令牌轮换：旧令牌仍为 ACTIVE 时将其标记为失效并保存新令牌，两步原子完成
+     *
+     * @param existing 刷新令牌所在的令牌记录
+     * @param replacement 新令牌
+     * @return 保存后的新令牌；旧令牌已被其他请求轮换或撤销时为空，且不保存新令牌
+     */
+    Mono<OAuthAccessToken> rotate(OAuthAccessToken existing, OAuthAccessToken replacement);
+
+    /**
+     * 查找可复用的客户端凭证令牌：同一客户端、相同作用域、无用户、ACTIVE 且访问令牌在 minExpiresAt 之后过期
+     */
+    Mono<OAuthAccessToken> findReusableClientCredentialsToken(String clientId, String scope, LocalDateTime minExpiresAt);
+
+    /**
+     * 根据刷新令牌查找未到可清理时间的令牌
+     */
+    Mono<OAuthAccessToken> findLiveByRefreshToken(String refreshToken, LocalDateTime now);
+
+    /**
+     * 根据访问令牌和客户端ID查找未到可清理时间的令牌
+     */
+    Mono<OAuthAccessToken> findLiveByAccessTokenAndClientId(String accessToken, String clientId, LocalDateTime now);
+
+    /**
+     * 根据刷新令牌和客户端ID查找未到可清理时间的令牌
+     */
+    Mono<OAuthAccessToken> findLiveByRefreshTokenAndClientId(String refreshToken, String clientId, LocalDateTime now);
+}
@@ -0,0 +1,78 @@
+package com.zhouzhou.authforge.benchmark;
+
+import com.zhouzhou.authforge.security.PkceVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PKCE S256 校验基准测试
+ *
+ * legacy 为改造前三处调用方的实现：每次获取 MessageDigest、正则校验字符集、
+ * 编码为字符串后比较。运行方式（加 -prof gc 可查看每次调用的分配量）：
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.zhouzhou.authforge.benchmark.PkceVerifierBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PkceVerifierBenchmark {
+
+	private static final String CODE_VERIFIER = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+	private static final String CODE_CHALLENGE = "E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM";
+
+	private final PkceVerifier pkceVerifier = new PkceVerifier();
+
+	@Benchmark
+	public boolean legacy() {
+		return legacyMatches(CODE_VERIFIER, CODE_CHALLENGE);
+	}
+
+	@Benchmark
+	public boolean pkceVerifier() {
+		return pkceVerifier.matches(CODE_VERIFIER, CODE_CHALLENGE, PkceVerifier.METHOD_S256);
+	}
+
+	private static boolean legacyMatches(String codeVerifier, String codeChallenge) {
+		if (!codeVerifier.matches("^[A-Za-z0-9\\-\\._~]+$")) {
+			return false;
+		}
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] digest = md.digest(codeVerifier.getBytes(StandardCharsets.US_ASCII));
+			return codeChallenge.equals(Base64.getUrlEncoder().withoutPadding().encodeToString(digest));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(PkceVerifierBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,73 @@
+package com.zhouzhou.authforge.benchmark;
+
+import com.zhouzhou.authforge.config.RandomSourceConfig;
+import com.zhouzhou.authforge.security.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.keygen.Base64StringKeyGenerator;
+import org.springframework.security.crypto.keygen.StringKeyGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程签发吞吐量基准测试
+ *
+ * 对比改造前的 UUID.randomUUID() / Base64StringKeyGenerator 与 RandomSource。
+ * 运行方式：
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.zhouzhou.authforge.benchmark.RandomSourceBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class RandomSourceBenchmark {
+
+	private final RandomSource randomSource = new RandomSource(new RandomSourceConfig());
+	private final StringKeyGenerator keyGenerator = new Base64StringKeyGenerator(32);
+
+	@Benchmark
+	public String legacyUuid() {
+		return UUID.randomUUID().toString();
+	}
+
+	@Benchmark
+	public String randomSourceUuid() {
+		return randomSource.nextUuid();
+	}
+
+	@Benchmark
+	public String legacyAuthorizationCode() {
+		return keyGenerator.generateKey();
+	}
+
+	@Benchmark
+	public String randomSourceAuthorizationCode() {
+		return randomSource.nextBase64(32);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RandomSourceBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,64 @@
+package com.zhouzhou.authforge.bulkhead;
+
+import com.zhouzhou.authforge.config.BulkheadConfig;
+import com.zhouzhou.authforge.config.ErrorLoggingConfig;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadFilterTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void routesClassToConfiguredPoolAndClearsAfterwards() throws Exception {
+		BulkheadFilter filter = filter(1);
+		AtomicReference<String> pool = new AtomicReference<>();
+
+		filter.doFilter(new MockHttpServletRequest("POST", "/connect/register"), new MockHttpServletResponse(),
+				(request, response) -> pool.set(BulkheadContext.currentPool()));
+
+		assertThat(pool).hasValue(BulkheadContext.SECONDARY);
+		assertThat(BulkheadContext.currentPool()).isEqualTo(BulkheadContext.PRIMARY);
+	}
+
+	@Test
+	void rejectsWhenClassIsSaturatedWithoutAffectingOtherClasses() throws Exception {
+		BulkheadFilter filter = filter(1);
+		MockHttpServletResponse nested = new MockHttpServletResponse();
+		MockHttpServletResponse token = new MockHttpServletResponse();
+
+		FilterChain holdPermit = (request, response) -> {
+			filter.doFilter(new MockHttpServletRequest("GET", "/admin/tokens/revoke"), nested, (req, res) -> { });
+			filter.doFilter(new MockHttpServletRequest("POST", "/oauth2/token"), token, (req, res) -> { });
+		};
+		filter.doFilter(new MockHttpServletRequest("POST", "/connect/register"), new MockHttpServletResponse(), holdPermit);
+
+		assertThat(nested.getStatus()).isEqualTo(503);
+		assertThat(nested.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(token.getStatus()).isEqualTo(200);
+		assertThat(meterRegistry.get("authforge.bulkhead.rejected").tag("class", "background").counter().count())
+				.isEqualTo(1.0);
+	}
+
+	private BulkheadFilter filter(int backgroundPermits) {
+		BulkheadConfig config = new BulkheadConfig();
+		BulkheadConfig.EndpointClass token = new BulkheadConfig.EndpointClass();
+		token.setPaths(List.of("/oauth2/token"));
+		BulkheadConfig.EndpointClass background = new BulkheadConfig.EndpointClass();
+		background.setPaths(List.of("/connect/register", "/admin/**"));
+		background.setMaxConcurrent(backgroundPermits);
+		background.setPool(BulkheadContext.SECONDARY);
+		config.getClasses().put("token", token);
+		config.getClasses().put("background", background);
+		return new BulkheadFilter(config, new OAuth2ErrorLogger(meterRegistry, new ErrorLoggingConfig()), meterRegistry);
+	}
+}
@@ -0,0 +1,47 @@
+package com.zhouzhou.authforge.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GatedDataSourceTest {
+
+	@Test
+	void limitsOpenConnectionsAndReleasesOnClose() throws Exception {
+		DataSource target = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		when(target.getConnection()).thenReturn(connection);
+		GatedDataSource dataSource = new GatedDataSource(target, 1, TimeUnit.MILLISECONDS.toNanos(10));
+
+		Connection first = dataSource.getConnection();
+		assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+		first.close();
+		first.close();
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+		verify(connection, times(2)).close();
+
+		dataSource.getConnection().close();
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+	}
+
+	@Test
+	void releasesPermitWhenPoolFails() throws Exception {
+		DataSource target = mock(DataSource.class);
+		when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+		GatedDataSource dataSource = new GatedDataSource(target, 1, TimeUnit.MILLISECONDS.toNanos(10));
+
+		assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+		assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,129 @@
+package com.zhouzhou.authforge.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zhouzhou.authforge.config.DeviceBatchConfig;
+import com.zhouzhou.authforge.dto.DeviceAuthorizationResponse;
+import com.zhouzhou.authforge.exception.OAuth2DeviceAuthorizationException;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.service.OAuth2DeviceAuthorizationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OAuth2DeviceAuthorizationControllerTest {
+
+	private final OAuth2DeviceAuthorizationService service = mock(OAuth2DeviceAuthorizationService.class);
+	private final DeviceBatchConfig batchConfig = new DeviceBatchConfig();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	private OAuth2DeviceAuthorizationController controller;
+
+	@BeforeEach
+	void setUp() {
+		OAuthClient client = new OAuthClient();
+		client.setClientId("factory");
+		client.setScopes("device");
+		when(service.authenticateClient(any())).thenReturn(client);
+		controller = new OAuth2DeviceAuthorizationController(service, batchConfig, objectMapper);
+	}
+
+	@Test
+	void streamsAllChunksAsArray() throws Exception {
+		doAnswer(emit(2)).when(service).authorizeDevices(any(), anyInt(), any());
+
+		controller.authorizeDevices(request, response, "factory", null, 2);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(body().isArray()).isTrue();
+		assertThat(body()).hasSize(2);
+	}
+
+	@Test
+	void returnsNotFoundWhenDisabled() throws Exception {
+		batchConfig.setEnabled(false);
+
+		controller.authorizeDevices(request, response, "factory", null, 2);
+
+		assertThat(response.getStatus()).isEqualTo(404);
+		assertThat(response.getContentAsString()).isEmpty();
+	}
+
+	@Test
+	void rejectsCountOutOfRange() throws Exception {
+		controller.authorizeDevices(request, response, "factory", null, 0);
+
+		assertThat(response.getStatus()).isEqualTo(400);
+		assertThat(body().get("error").asText()).isEqualTo("invalid_request");
+	}
+
+	@Test
+	void serverErrorBeforeFirstChunkIsErrorResponse() throws Exception {
+		doThrow(new OAuth2DeviceAuthorizationException("server_error", "Unable to generate unique device codes"))
+				.when(service).authorizeDevices(any(), anyInt(), any());
+
+		controller.authorizeDevices(request, response, "factory", null, 2);
+
+		assertThat(response.getStatus()).isEqualTo(500);
+		assertThat(body().get("error").asText()).isEqualTo("server_error");
+	}
+
+	@Test
+	void duplicateKeyBeforeFirstChunkIsErrorResponse() throws Exception {
+		doThrow(new DuplicateKeyException("duplicate user code"))
+				.when(service).authorizeDevices(any(), anyInt(), any());
+
+		controller.authorizeDevices(request, response, "factory", null, 2);
+
+		assertThat(response.getStatus()).isEqualTo(500);
+		assertThat(body().get("error").asText()).isEqualTo("server_error");
+	}
+
+	@Test
+	void failureAfterFirstChunkLeavesArrayIncomplete() throws Exception {
+		doAnswer(invocation -> {
+			emit(1).answer(invocation);
+			throw new DuplicateKeyException("duplicate user code");
+		}).when(service).authorizeDevices(any(), anyInt(), any());
+
+		controller.authorizeDevices(request, response, "factory", null, 2);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		String content = response.getContentAsString();
+		assertThat(content).startsWith("[").doesNotEndWith("]").doesNotContain("server_error");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Answer<Void> emit(int size) {
+		return invocation -> {
+			Consumer<List<DeviceAuthorizationResponse>> sink = invocation.getArgument(2, Consumer.class);
+			for (int i = 0; i < size; i++) {
+				sink.accept(List.of(DeviceAuthorizationResponse.builder()
+						.deviceCode("device-" + i)
+						.userCode("USER-" + i)
+						.build()));
+			}
+			return null;
+		};
+	}
+
+	private JsonNode body() throws Exception {
+		return objectMapper.readTree(response.getContentAsString());
+	}
+}
@@ -0,0 +1,220 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.DeviceChangeFeedConfig;
+import com.zhouzhou.authforge.config.DeviceLongPollConfig;
+import com.zhouzhou.authforge.model.DeviceAuthorizationEventEntity;
+import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 两个节点共用同一张变化表（内存模拟），验证跨节点唤醒和主键空洞补读
+ */
+class DeviceAuthorizationChangeFeedTest {
+
+	private static final String DEVICE_CODE = "DEVICE-CODE";
+	private static final Instant EXPIRES_AT = Instant.parse("2030-01-01T00:00:00Z");
+
+	// 已提交（可见）的记录
+	private final Map<Long, DeviceAuthorizationEventEntity> table = new ConcurrentSkipListMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	private final DeviceChangeFeedConfig config = new DeviceChangeFeedConfig();
+	private Node nodeA;
+	private Node nodeB;
+
+	@BeforeEach
+	void setUp() {
+		DeviceAuthorizationEventRepository repository = repository();
+		nodeA = new Node(repository, config);
+		nodeB = new Node(repository, config);
+		nodeA.feed.poll(0L);
+		nodeB.feed.poll(0L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodeA.notifier.destroy();
+		nodeB.notifier.destroy();
+	}
+
+	@Test
+	void wakesWaitersOnOtherNode() {
+		AtomicInteger woken = new AtomicInteger();
+		nodeA.notifier.register(DEVICE_CODE, woken::incrementAndGet);
+		nodeA.tracker.tryPoll(DEVICE_CODE, 5, EXPIRES_AT);
+
+		// 用户在节点 B 上批准
+		nodeB.feed.append(DEVICE_CODE, DeviceAuthorizationStatus.APPROVED);
+
+		assertThat(nodeA.feed.poll(0L)).isEqualTo(1);
+		await().atMost(5, TimeUnit.SECONDS).until(() -> woken.get() == 1);
+		assertThat(nodeA.notifier.size()).isZero();
+		assertThat(nodeA.tracker.currentInterval(DEVICE_CODE)).isNull();
+
+		// 节点 B 上没有等待者，读到自己写入的记录不做任何事
+		assertThat(nodeB.feed.poll(0L)).isEqualTo(1);
+		assertThat(nodeA.feed.poll(0L)).isZero();
+	}
+
+	@Test
+	void pollsOnOwnSchedulerAfterStart() {
+		config.setPollInterval(Duration.ofMillis(50));
+		AtomicInteger woken = new AtomicInteger();
+		nodeA.notifier.register(DEVICE_CODE, woken::incrementAndGet);
+
+		nodeA.feed.start();
+		try {
+			assertThat(nodeA.feed.isRunning()).isTrue();
+			nodeB.feed.append(DEVICE_CODE, DeviceAuthorizationStatus.APPROVED);
+
+			await().atMost(5, TimeUnit.SECONDS).until(() -> woken.get() == 1);
+		} finally {
+			nodeA.feed.stop();
+		}
+		assertThat(nodeA.feed.isRunning()).isFalse();
+	}
+
+	@Test
+	void doesNotStartWhenDisabled() {
+		config.setEnabled(false);
+
+		nodeA.feed.start();
+
+		assertThat(nodeA.feed.isRunning()).isFalse();
+	}
+
+	@Test
+	void startsFromCurrentTailOnStartup() {
+		commit(nextId());
+		commit(nextId());
+
+		Node late = new Node(repository(), config);
+		try {
+			late.feed.poll(0L);
+
+			assertThat(late.feed.cursor()).isEqualTo(2L);
+			assertThat(late.feed.poll(0L)).isZero();
+		} finally {
+			late.notifier.destroy();
+		}
+	}
+
+	@Test
+	void rereadsIdsCommittedOutOfOrder() {
+		AtomicInteger woken = new AtomicInteger();
+		nodeA.notifier.register("SLOW", woken::incrementAndGet);
+
+		// 主键 1 的事务提交晚于主键 2
+		long slow = nextId();
+		commit(nextId());
+		assertThat(nodeA.feed.poll(0L)).isEqualTo(1);
+		assertThat(nodeA.feed.gaps()).isEqualTo(1);
+
+		commit(slow, "SLOW");
+		assertThat(nodeA.feed.poll(1L)).isEqualTo(1);
+		await().atMost(5, TimeUnit.SECONDS).until(() -> woken.get() == 1);
+		assertThat(nodeA.feed.gaps()).isZero();
+	}
+
+	@Test
+	void dropsGapsAfterTimeout() {
+		config.setGapTimeout(Duration.ofSeconds(1));
+		nextId();
+		commit(nextId());
+		nodeA.feed.poll(0L);
+		assertThat(nodeA.feed.gaps()).isEqualTo(1);
+
+		nodeA.feed.poll(TimeUnit.SECONDS.toNanos(2));
+
+		assertThat(nodeA.feed.gaps()).isZero();
+	}
+
+	private long nextId() {
+		return sequence.incrementAndGet();
+	}
+
+	private void commit(long id) {
+		commit(id, "OTHER-" + id);
+	}
+
+	private void commit(long id, String deviceCode) {
+		DeviceAuthorizationEventEntity event = new DeviceAuthorizationEventEntity(deviceCode, DeviceAuthorizationStatus.APPROVED);
+		event.setId(id);
+		table.put(id, event);
+	}
+
+	@SuppressWarnings("unchecked")
+	private DeviceAuthorizationEventRepository repository() {
+		DeviceAuthorizationEventRepository repository = mock(DeviceAuthorizationEventRepository.class);
+		when(repository.save(any(DeviceAuthorizationEventEntity.class))).thenAnswer(invocation -> {
+			DeviceAuthorizationEventEntity event = invocation.getArgument(0);
+			event.setId(nextId());
+			table.put(event.getId(), event);
+			return event;
+		});
+		when(repository.findMaxId()).thenAnswer(invocation ->
+				table.keySet().stream().mapToLong(Long::longValue).max().orElse(0L));
+		when(repository.findAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(0);
+			Pageable pageable = invocation.getArgument(1);
+			return table.values().stream()
+					.filter(event -> event.getId() > afterId)
+					.limit(pageable.getPageSize())
+					.toList();
+		});
+		when(repository.findAllById(any())).thenAnswer(invocation -> {
+			List<DeviceAuthorizationEventEntity> found = new ArrayList<>();
+			for (Long id : (Collection<Long>) invocation.getArgument(0)) {
+				if (table.containsKey(id)) {
+					found.add(table.get(id));
+				}
+			}
+			return found;
+		});
+		return repository;
+	}
+
+	/**
+	 * 单个节点：各自的等待者注册表、轮询间隔记录和游标
+	 */
+	private static final class Node {
+
+		private final DeviceAuthorizationNotifier notifier;
+		private final DevicePollingTracker tracker;
+		private final DeviceAuthorizationChangeFeed feed;
+
+		private Node(DeviceAuthorizationEventRepository repository, DeviceChangeFeedConfig config) {
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			BackgroundExecutorFactory executorFactory = new BackgroundExecutorFactory(new MockEnvironment());
+			this.notifier = new DeviceAuthorizationNotifier(new DeviceLongPollConfig(), executorFactory, meterRegistry);
+			this.tracker = new DevicePollingTracker(5, meterRegistry);
+			this.feed = new DeviceAuthorizationChangeFeed(repository, notifier, tracker, config, executorFactory,
+					meterRegistry);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.DeviceLongPollConfig;
+import com.zhouzhou.authforge.config.DeviceSseConfig;
+import com.zhouzhou.authforge.config.ErrorLoggingConfig;
+import com.zhouzhou.authforge.controller.OAuth2DeviceTokenController;
+import com.zhouzhou.authforge.dto.DeviceTokenResponse;
+import com.zhouzhou.authforge.event.DeviceAuthorizationDecidedEvent;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import com.zhouzhou.authforge.service.OAuth2DeviceTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DeviceAuthorizationStreamTest {
+
+	private static final String DEVICE_CODE = "DEVICE-CODE";
+
+	private final AtomicReference<String> outcome = new AtomicReference<>("authorization_pending");
+	private final AtomicReference<String> resumedOn = new AtomicReference<>();
+
+	private DeviceSseConfig sseConfig;
+	private DeviceAuthorizationNotifier notifier;
+	private DeviceAuthorizationStream stream;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		OAuth2DeviceTokenService tokenService = request -> {
+			if (request.isResumed()) {
+				resumedOn.set(Thread.currentThread().getName());
+			}
+			String error = outcome.get();
+			return error == null
+					? ResponseEntity.ok(DeviceTokenResponse.builder().accessToken("token").tokenType("Bearer").build())
+					: ResponseEntity.badRequest().body(DeviceTokenResponse.builder().error(error).build());
+		};
+		DeviceLongPollConfig longPollConfig = new DeviceLongPollConfig();
+		sseConfig = new DeviceSseConfig();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		notifier = new DeviceAuthorizationNotifier(longPollConfig,
+				new BackgroundExecutorFactory(new MockEnvironment()), meterRegistry);
+		stream = new DeviceAuthorizationStream(tokenService, notifier, sseConfig,
+				new OAuth2ErrorLogger(meterRegistry, new ErrorLoggingConfig()), meterRegistry);
+		OAuth2DeviceTokenController controller = new OAuth2DeviceTokenController(tokenService,
+				new DeviceTokenLongPoller(tokenService, notifier, longPollConfig), longPollConfig, stream, sseConfig);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		notifier.destroy();
+	}
+
+	@Test
+	void streamsApprovalAndToken() throws Exception {
+		MvcResult result = mockMvc.perform(streamRequest())
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		assertThat(stream.size()).isEqualTo(1);
+
+		outcome.set(null);
+		notifier.onDecided(new DeviceAuthorizationDecidedEvent(DEVICE_CODE, DeviceAuthorizationStatus.APPROVED));
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> stream.size() == 0);
+		String body = result.getResponse().getContentAsString();
+		assertThat(body)
+				.contains("event:status\ndata:{\"status\":\"pending\"}")
+				.contains("event:status\ndata:{\"status\":\"approved\"}")
+				.contains("event:token\ndata:{\"accessToken\":\"token\"");
+		assertThat(result.getResponse().getContentType()).startsWith("text/event-stream");
+	}
+
+	@Test
+	void streamsDenial() throws Exception {
+		MvcResult result = mockMvc.perform(streamRequest()).andReturn();
+
+		outcome.set("access_denied");
+		notifier.onDecided(new DeviceAuthorizationDecidedEvent(DEVICE_CODE, DeviceAuthorizationStatus.DENIED));
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> stream.size() == 0);
+		assertThat(result.getResponse().getContentAsString())
+				.contains("data:{\"status\":\"denied\"}")
+				.doesNotContain("event:token");
+	}
+
+	@Test
+	void returnsTokenResponseWhenAlreadyDecided() throws Exception {
+		outcome.set("expired_token");
+
+		mockMvc.perform(streamRequest())
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("expired_token"));
+		assertThat(notifier.size()).isZero();
+	}
+
+	@Test
+	void rejectsConnectionsOverClientCap() throws Exception {
+		sseConfig.setMaxConnectionsPerClient(1);
+		mockMvc.perform(streamRequest()).andExpect(request().asyncStarted());
+
+		mockMvc.perform(streamRequest())
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().exists("Retry-After"))
+				.andExpect(jsonPath("$.error").value("temporarily_unavailable"));
+		assertThat(stream.size()).isEqualTo(1);
+		assertThat(notifier.size()).isEqualTo(1);
+	}
+
+	@Test
+	void rechecksExpiredConnectionsOnWakeupThread() throws Exception {
+		sseConfig.setMaxDuration(Duration.ZERO);
+		MvcResult result = mockMvc.perform(streamRequest())
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		stream.heartbeat();
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> stream.size() == 0);
+		assertThat(resumedOn.get()).startsWith("device-wakeup-");
+		assertThat(notifier.size()).isZero();
+		assertThat(result.getResponse().getContentAsString())
+				.containsSubsequence("data:{\"status\":\"pending\"}", "data:{\"status\":\"pending\"}");
+	}
+
+	private static MockHttpServletRequestBuilder streamRequest() {
+		return post("/oauth2/deviceToken/stream")
+				.param("grant_type", "urn:ietf:params:oauth:grant-type:device_code")
+				.param("device_code", DEVICE_CODE)
+				.param("client_id", "tv");
+	}
+}
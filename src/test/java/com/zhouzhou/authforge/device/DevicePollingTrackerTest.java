@@ -0,0 +1,78 @@
+package com.zhouzhou.authforge.device;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DevicePollingTrackerTest {
+
+	private static final Instant START = Instant.parse("2024-03-21T00:00:00Z");
+	private static final Instant EXPIRES_AT = START.plusSeconds(1800);
+
+	private final DevicePollingTracker tracker = new DevicePollingTracker(5, new SimpleMeterRegistry());
+
+	@Test
+	void acceptsPollsSpacedByInterval() {
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START)).isTrue();
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START.plusSeconds(5))).isTrue();
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START.plusSeconds(10))).isTrue();
+		assertThat(tracker.currentInterval("device")).isEqualTo(5);
+	}
+
+	@Test
+	void slowDownIncreasesIntervalWithoutMovingLastPoll() {
+		tracker.tryPoll("device", 5, EXPIRES_AT, START);
+
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START.plusSeconds(2))).isFalse();
+		assertThat(tracker.currentInterval("device")).isEqualTo(10);
+
+		// 间隔已变为 10 秒，从上次被接受的轮询开始计算
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START.plusSeconds(7))).isFalse();
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START.plusSeconds(15))).isTrue();
+		assertThat(tracker.currentInterval("device")).isEqualTo(15);
+	}
+
+	@Test
+	void usesDefaultIntervalWhenMissing() {
+		tracker.tryPoll("device", null, EXPIRES_AT, START);
+
+		assertThat(tracker.currentInterval("device")).isEqualTo(5);
+	}
+
+	@Test
+	void keysAreIndependent() {
+		tracker.tryPoll("device", 5, EXPIRES_AT, START);
+
+		assertThat(tracker.tryPoll("user:ABCD-EFGH", 5, EXPIRES_AT, START.plusSeconds(1))).isTrue();
+	}
+
+	@Test
+	void evictsEntriesAfterAuthorizationExpires() {
+		tracker.tryPoll("short", 5, START.plusSeconds(60), START);
+		tracker.tryPoll("long", 5, EXPIRES_AT, START);
+
+		assertThat(tracker.evictExpired(START.plusSeconds(61))).isEqualTo(1);
+		assertThat(tracker.currentInterval("short")).isNull();
+		assertThat(tracker.size()).isEqualTo(1);
+	}
+
+	@Test
+	void expiredEntryIsReplacedOnNextPoll() {
+		tracker.tryPoll("device", 5, START.plusSeconds(60), START);
+		tracker.tryPoll("device", 5, START.plusSeconds(60), START.plusSeconds(1));
+
+		assertThat(tracker.tryPoll("device", 5, START.plusSeconds(600), START.plusSeconds(61))).isTrue();
+		assertThat(tracker.currentInterval("device")).isEqualTo(5);
+	}
+
+	@Test
+	void removeClearsState() {
+		tracker.tryPoll("device", 5, EXPIRES_AT, START);
+		tracker.remove("device");
+
+		assertThat(tracker.tryPoll("device", 5, EXPIRES_AT, START.plusSeconds(1))).isTrue();
+	}
+}
@@ -0,0 +1,220 @@
+package com.zhouzhou.authforge.device;
+
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.DeviceLongPollConfig;
+import com.zhouzhou.authforge.dto.DeviceTokenRequest;
+import com.zhouzhou.authforge.dto.DeviceTokenResponse;
+import com.zhouzhou.authforge.event.DeviceAuthorizationDecidedEvent;
+import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class DeviceTokenLongPollerTest {
+
+	private static final String DEVICE_CODE = "DEVICE-CODE";
+
+	private final AtomicReference<String> outcome = new AtomicReference<>("authorization_pending");
+	private final List<DeviceTokenRequest> calls = new CopyOnWriteArrayList<>();
+	private volatile Runnable duringFirstPoll = () -> {
+	};
+	private volatile Runnable duringResumedPoll = () -> {
+	};
+
+	private DeviceLongPollConfig config;
+	private DeviceAuthorizationNotifier notifier;
+	private DeviceTokenLongPoller poller;
+
+	@BeforeEach
+	void setUp() {
+		config = new DeviceLongPollConfig();
+		config.setEnabled(true);
+		config.setMaxWaiters(1);
+		notifier = new DeviceAuthorizationNotifier(config,
+				new BackgroundExecutorFactory(new MockEnvironment()), new SimpleMeterRegistry());
+		poller = new DeviceTokenLongPoller(request -> {
+			calls.add(request);
+			String error = outcome.get();
+			if (calls.size() == 1) {
+				duringFirstPoll.run();
+			}
+			if (request.isResumed()) {
+				duringResumedPoll.run();
+			}
+			return error == null
+					? ResponseEntity.ok(DeviceTokenResponse.builder().accessToken("token").build())
+					: ResponseEntity.badRequest().body(DeviceTokenResponse.builder().error(error).build());
+		}, notifier, config);
+	}
+
+	@AfterEach
+	void tearDown() {
+		notifier.destroy();
+	}
+
+	@Test
+	void returnsImmediatelyWhenNotPending() {
+		outcome.set(null);
+
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+
+		assertThat(result.hasResult()).isTrue();
+		assertThat(notifier.size()).isZero();
+	}
+
+	@Test
+	void parksPendingPollUntilDecision() {
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+		assertThat(result.hasResult()).isFalse();
+		assertThat(notifier.size()).isEqualTo(1);
+
+		outcome.set(null);
+		notifier.onDecided(new DeviceAuthorizationDecidedEvent(DEVICE_CODE, DeviceAuthorizationStatus.APPROVED));
+
+		await().atMost(5, TimeUnit.SECONDS).until(result::hasResult);
+		assertThat(result(result).getAccessToken()).isEqualTo("token");
+		assertThat(calls).hasSize(2);
+		assertThat(calls.get(0).isResumed()).isFalse();
+		assertThat(calls.get(1).isResumed()).isTrue();
+		assertThat(notifier.size()).isZero();
+	}
+
+	@Test
+	void fallsBackToPlainPollWhenRegistryIsFull() {
+		poller.poll(request());
+
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> second = poller.poll(request());
+
+		assertThat(second.hasResult()).isTrue();
+		assertThat(result(second).getError()).isEqualTo("authorization_pending");
+		assertThat(notifier.size()).isEqualTo(1);
+	}
+
+	@Test
+	void ignoresDecisionsForOtherDeviceCodes() {
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+
+		notifier.onDecided(new DeviceAuthorizationDecidedEvent("OTHER", DeviceAuthorizationStatus.DENIED));
+
+		assertThat(result.hasResult()).isFalse();
+		assertThat(notifier.size()).isEqualTo(1);
+	}
+
+	@Test
+	void wakeupDuringIssuingPollDoesNotRedeemAgain() {
+		outcome.set(null);
+		duringFirstPoll = this::decideAndLetWakeupRun;
+
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+
+		assertThat(result(result).getAccessToken()).isEqualTo("token");
+		assertThat(calls).hasSize(1);
+	}
+
+	@Test
+	void wakeupDuringPendingPollRedeemsOnceOnRequestThread() {
+		duringFirstPoll = () -> {
+			decideAndLetWakeupRun();
+			outcome.set(null);
+		};
+
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+
+		assertThat(result.hasResult()).isTrue();
+		assertThat(result(result).getAccessToken()).isEqualTo("token");
+		assertThat(calls).hasSize(2);
+		assertThat(calls.get(1).isResumed()).isTrue();
+		assertThat(notifier.size()).isZero();
+	}
+
+	@Test
+	void timeoutDuringRedemptionReturnsRedeemedToken() throws Exception {
+		CountDownLatch redeeming = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		duringResumedPoll = () -> {
+			redeeming.countDown();
+			awaitQuietly(release);
+		};
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+
+		outcome.set(null);
+		notifier.onDecided(new DeviceAuthorizationDecidedEvent(DEVICE_CODE, DeviceAuthorizationStatus.APPROVED));
+		assertThat(redeeming.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// 兑换进行中触发超时，超时回调必须等待兑换结果
+		CompletableFuture<Void> timeout = CompletableFuture.runAsync(timeoutCallback(result));
+		Thread.sleep(100);
+		assertThat(result.hasResult()).isFalse();
+		release.countDown();
+		timeout.get(5, TimeUnit.SECONDS);
+
+		assertThat(result(result).getAccessToken()).isEqualTo("token");
+		assertThat(calls).hasSize(2);
+	}
+
+	@Test
+	void timeoutBeforeWakeupSkipsRedemption() {
+		DeferredResult<ResponseEntity<DeviceTokenResponse>> result = poller.poll(request());
+
+		timeoutCallback(result).run();
+		outcome.set(null);
+		decideAndLetWakeupRun();
+
+		assertThat(result(result).getError()).isEqualTo("authorization_pending");
+		assertThat(calls).hasSize(1);
+		assertThat(notifier.size()).isZero();
+	}
+
+	private static Runnable timeoutCallback(DeferredResult<?> result) {
+		return (Runnable) ReflectionTestUtils.getField(result, "timeoutCallback");
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 在首次轮询执行期间触发唤醒，并给后台唤醒线程足够的时间执行
+	 */
+	private void decideAndLetWakeupRun() {
+		notifier.onDecided(new DeviceAuthorizationDecidedEvent(DEVICE_CODE, DeviceAuthorizationStatus.APPROVED));
+		try {
+			Thread.sleep(200);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static DeviceTokenRequest request() {
+		return DeviceTokenRequest.builder()
+				.request(new MockHttpServletRequest())
+				.deviceCode(DEVICE_CODE)
+				.clientId("tv")
+				.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static DeviceTokenResponse result(DeferredResult<ResponseEntity<DeviceTokenResponse>> result) {
+		return ((ResponseEntity<DeviceTokenResponse>) result.getResult()).getBody();
+	}
+}
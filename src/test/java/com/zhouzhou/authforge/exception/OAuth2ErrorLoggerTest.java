@@ -0,0 +1,133 @@
+package com.zhouzhou.authforge.exception;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.zhouzhou.authforge.config.ErrorLoggingConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OAuth2ErrorLoggerTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final AtomicLong now = new AtomicLong();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final Logger logger = (Logger) LoggerFactory.getLogger(OAuth2ErrorLogger.class);
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+	private final ErrorLoggingConfig config = new ErrorLoggingConfig();
+
+	private OAuth2ErrorLogger errorLogger;
+
+	@BeforeEach
+	void setUp() {
+		config.setMaxPerSecond(2);
+		errorLogger = new OAuth2ErrorLogger(meterRegistry, config, now::get);
+		appender.start();
+		logger.addAppender(appender);
+	}
+
+	@AfterEach
+	void tearDown() {
+		logger.detachAppender(appender);
+	}
+
+	@Test
+	void logsAtMostMaxPerSecondButCountsEveryFailure() {
+		for (int i = 0; i < 5; i++) {
+			errorLogger.logFailure("token", "invalid_client", "Client authentication failed");
+		}
+
+		assertThat(appender.list).hasSize(2);
+		assertThat(meterRegistry.get("authforge.oauth2.errors")
+				.tag("endpoint", "token").tag("error", "invalid_client").counter().count()).isEqualTo(5);
+	}
+
+	@Test
+	void capsEachEndpointSeparately() {
+		for (int i = 0; i < 3; i++) {
+			errorLogger.logFailure("token", "invalid_client", "token failure");
+			errorLogger.logFailure("revoke", "invalid_client", "revoke failure");
+		}
+
+		assertThat(messages()).filteredOn(message -> message.startsWith("token")).hasSize(2);
+		assertThat(messages()).filteredOn(message -> message.startsWith("revoke")).hasSize(2);
+	}
+
+	@Test
+	void reportsSuppressedCountInFirstLogOfNextWindow() {
+		for (int i = 0; i < 5; i++) {
+			errorLogger.logFailure("token", "invalid_client", "failure");
+		}
+
+		now.addAndGet(SECOND);
+		errorLogger.logFailure("token", "invalid_client", "failure");
+		errorLogger.logFailure("token", "invalid_client", "failure");
+
+		assertThat(messages()).hasSize(4);
+		assertThat(messages().get(2)).endsWith("3 similar failures suppressed in the last window");
+		assertThat(messages().get(3)).doesNotContain("suppressed");
+	}
+
+	@Test
+	void carriesSuppressedCountWhenNextWindowIsAlsoFull() {
+		config.setMaxPerSecond(0);
+		errorLogger.logFailure("token", "invalid_client", "failure");
+		errorLogger.logFailure("token", "invalid_client", "failure");
+
+		now.addAndGet(SECOND);
+		errorLogger.logFailure("token", "invalid_client", "failure");
+
+		now.addAndGet(SECOND);
+		config.setMaxPerSecond(1);
+		errorLogger.logFailure("token", "invalid_client", "failure");
+
+		assertThat(messages()).singleElement().asString()
+				.endsWith("3 similar failures suppressed in the last window");
+	}
+
+	@Test
+	void resetsWindowOnlyAfterOneSecond() {
+		errorLogger.logFailure("token", "invalid_client", "failure");
+		errorLogger.logFailure("token", "invalid_client", "failure");
+
+		now.addAndGet(SECOND - 1);
+		errorLogger.logFailure("token", "invalid_client", "failure");
+		assertThat(appender.list).hasSize(2);
+
+		now.addAndGet(1);
+		errorLogger.logFailure("token", "invalid_client", "failure");
+		assertThat(appender.list).hasSize(3);
+	}
+
+	@Test
+	void sanitizesLoggedValues() {
+		errorLogger.logFailure("token", "invalid_client", "Unknown client evil\r\nWARN forged line\t");
+
+		assertThat(messages()).singleElement().asString()
+				.contains("Unknown client evil__WARN forged line_")
+				.doesNotContain("\n", "\r", "\t");
+	}
+
+	@Test
+	void truncatesLongValues() {
+		String sanitized = OAuth2ErrorLogger.sanitize("x".repeat(1000));
+
+		assertThat(sanitized).hasSize(259).endsWith("...");
+		assertThat(OAuth2ErrorLogger.sanitize(null)).isNull();
+	}
+
+	private List<String> messages() {
+		return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+	}
+}
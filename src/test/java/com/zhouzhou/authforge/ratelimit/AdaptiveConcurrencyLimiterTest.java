@@ -0,0 +1,77 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+	@Test
+	void rejectsWhenLimitReachedAndQueueDisabled() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5, 0);
+
+		assertThat(limiter.tryAcquire(0)).isTrue();
+		assertThat(limiter.tryAcquire(0)).isTrue();
+		assertThat(limiter.tryAcquire(TimeUnit.MILLISECONDS.toNanos(10))).isFalse();
+		assertThat(limiter.getInFlight()).isEqualTo(2);
+		assertThat(limiter.getQueued()).isZero();
+	}
+
+	@Test
+	void slowResponsesShrinkLimitAndFastOnesGrowIt() throws InterruptedException {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 10, THRESHOLD, 0.5, 0);
+
+		limiter.tryAcquire(0);
+		limiter.onSuccess(THRESHOLD * 2);
+		assertThat(limiter.getLimit()).isEqualTo(4.0);
+
+		limiter.tryAcquire(0);
+		limiter.onDropped();
+		limiter.tryAcquire(0);
+		limiter.onDropped();
+		assertThat(limiter.getLimit()).isEqualTo(2.0);
+
+		for (int i = 0; i < 20; i++) {
+			limiter.tryAcquire(0);
+			limiter.tryAcquire(0);
+			limiter.onSuccess(1);
+			limiter.onSuccess(1);
+		}
+		assertThat(limiter.getLimit()).isGreaterThan(4.0).isLessThanOrEqualTo(10.0);
+	}
+
+	@Test
+	void queuedRequestProceedsWhenPermitReleased() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, THRESHOLD, 0.5, 1);
+		assertThat(limiter.tryAcquire(0)).isTrue();
+
+		CountDownLatch waiting = new CountDownLatch(1);
+		AtomicBoolean acquired = new AtomicBoolean();
+		Thread waiter = new Thread(() -> {
+			waiting.countDown();
+			try {
+				acquired.set(limiter.tryAcquire(TimeUnit.SECONDS.toNanos(5)));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waiter.start();
+		waiting.await();
+		while (limiter.getQueued() == 0 && waiter.isAlive()) {
+			Thread.onSpinWait();
+		}
+
+		assertThat(limiter.tryAcquire(TimeUnit.MILLISECONDS.toNanos(1))).isFalse();
+		limiter.onSuccess(1);
+		waiter.join(5_000);
+
+		assertThat(acquired).isTrue();
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+	}
+}
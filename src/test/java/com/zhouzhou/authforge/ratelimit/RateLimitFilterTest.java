@@ -0,0 +1,114 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import com.zhouzhou.authforge.config.RateLimitConfig;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+	private RateLimitConfig config;
+	private TokenEndpointRateLimiter rateLimiter;
+	private OAuth2ErrorLogger errorLogger;
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		config = new RateLimitConfig();
+		rateLimiter = mock(TokenEndpointRateLimiter.class);
+		errorLogger = mock(OAuth2ErrorLogger.class);
+		filter = new RateLimitFilter(config, rateLimiter, errorLogger);
+	}
+
+	@Test
+	void passesRequestWithinLimit() throws Exception {
+		MockHttpServletRequest request = tokenRequest();
+		request.addParameter("client_id", "client");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		when(rateLimiter.tryAcquire("client", "10.0.0.1")).thenReturn(0L);
+
+		filter.doFilter(request, response, chain);
+
+		assertThat(chain.getRequest()).isSameAs(request);
+		assertThat(response.getStatus()).isEqualTo(200);
+		verify(errorLogger, never()).logFailure(anyString(), anyString(), anyString());
+	}
+
+	@Test
+	void rejectsRequestOverLimitWithRetryAfter() throws Exception {
+		MockHttpServletRequest request = tokenRequest();
+		request.addParameter("client_id", "client");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		when(rateLimiter.tryAcquire("client", "10.0.0.1")).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+		filter.doFilter(request, response, chain);
+
+		assertThat(chain.getRequest()).isNull();
+		assertThat(response.getStatus()).isEqualTo(429);
+		assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store");
+		assertThat(response.getContentAsString()).contains("\"error\":\"temporarily_unavailable\"");
+		verify(errorLogger).logFailure(eq("token"), eq("rate_limited"), anyString());
+	}
+
+	@Test
+	void prefersClientIdFromBasicAuthorization() throws Exception {
+		MockHttpServletRequest request = tokenRequest();
+		request.addParameter("client_id", "claimed");
+		request.addHeader(HttpHeaders.AUTHORIZATION, "Basic "
+				+ Base64.getEncoder().encodeToString("basic-client:secret".getBytes(StandardCharsets.UTF_8)));
+
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		verify(rateLimiter).tryAcquire("basic-client", "10.0.0.1");
+	}
+
+	@Test
+	void skipsPathsThatAreNotLimited() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/oauth2/authorize");
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(chain.getRequest()).isSameAs(request);
+		verifyNoInteractions(rateLimiter);
+	}
+
+	@Test
+	void skipsAllPathsWhenDisabled() throws Exception {
+		config.setEnabled(false);
+		MockHttpServletRequest request = tokenRequest();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(chain.getRequest()).isSameAs(request);
+		verify(rateLimiter, never()).tryAcquire(any(), any());
+	}
+
+	private static MockHttpServletRequest tokenRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+		request.setRemoteAddr("10.0.0.1");
+		return request;
+	}
+}
@@ -0,0 +1,77 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class SlidingWindowRateLimiterTest {
+
+	private static final long WINDOW = 60_000;
+
+	@Test
+	void rejectsAfterLimitWithinWindow() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(WINDOW, 100);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("ip:1", 3, 1_000)).isZero();
+		}
+		long wait = limiter.tryAcquire("ip:1", 3, 1_000);
+
+		assertThat(wait).isPositive();
+		assertThat(limiter.tryAcquire("ip:2", 3, 1_000)).isZero();
+	}
+
+	@Test
+	void previousWindowDecaysOverTime() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(WINDOW, 100);
+		for (int i = 0; i < 4; i++) {
+			limiter.tryAcquire("key", 4, 0);
+		}
+
+		// 下一窗口开始时上一窗口的权重接近 1
+		assertThat(limiter.tryAcquire("key", 4, WINDOW + 1)).isPositive();
+		// 过半后估算值为 2
+		assertThat(limiter.tryAcquire("key", 4, WINDOW + WINDOW / 2)).isZero();
+	}
+
+	@Test
+	void retryAfterPointsToFirstAllowedInstant() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(WINDOW, 100);
+		for (int i = 0; i < 2; i++) {
+			limiter.tryAcquire("key", 2, 10_000);
+		}
+
+		long wait = limiter.tryAcquire("key", 2, 10_000);
+
+		assertThat(limiter.tryAcquire("key", 2, 10_000 + wait - 1)).isPositive();
+		assertThat(limiter.tryAcquire("key", 2, 10_000 + wait)).isZero();
+	}
+
+	@Test
+	void evictsKeysIdleForTwoWindows() {
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(WINDOW, 100);
+		limiter.tryAcquire("key", 1, 0);
+
+		assertThat(limiter.evictExpired(WINDOW)).isZero();
+		assertThat(limiter.evictExpired(2 * WINDOW)).isEqualTo(1);
+		assertThat(limiter.size()).isZero();
+	}
+
+	@Test
+	void rejectsWindowWhoseIndexWouldOverflow() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new SlidingWindowRateLimiter(SlidingWindowRateLimiter.MIN_WINDOW_MILLIS - 1, 100));
+	}
+
+	@Test
+	void minimumWindowKeepsCountsAtCurrentEpochTime() {
+		long window = SlidingWindowRateLimiter.MIN_WINDOW_MILLIS;
+		SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(window, 100);
+		long now = 4_000_000_000_000L;
+
+		assertThat(limiter.tryAcquire("key", 1, now)).isZero();
+		assertThat(limiter.tryAcquire("key", 1, now)).isPositive();
+		assertThat(limiter.tryAcquire("key", 1, now + 2 * window)).isZero();
+	}
+}
@@ -0,0 +1,67 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void allowsBurstThenRejectsWithWaitTime() {
+		TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(bucket.tryAcquire(0)).isZero();
+		}
+		long wait = bucket.tryAcquire(0);
+
+		assertThat(wait).isPositive().isLessThanOrEqualTo(SECOND / 10);
+		assertThat(bucket.tryAcquire(wait)).isZero();
+	}
+
+	@Test
+	void refillsAtConfiguredRate() {
+		TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+		assertThat(bucket.tryAcquire(0)).isZero();
+		assertThat(bucket.tryAcquire(SECOND / 20)).isPositive();
+		assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+	}
+
+	@Test
+	void becomesIdleOnceRefilled() {
+		TokenBucket bucket = new TokenBucket(1, 2, 0);
+		bucket.tryAcquire(0);
+		bucket.tryAcquire(0);
+
+		assertThat(bucket.isIdle(SECOND, SECOND)).isFalse();
+		assertThat(bucket.isIdle(4 * SECOND, SECOND)).isTrue();
+	}
+
+	@Test
+	void limiterRebuildsBucketWhenLimitChangesAndEvictsIdle() {
+		RateLimiter limiter = new RateLimiter(4, 10);
+
+		assertThat(limiter.tryAcquire("client", 1, 1, 0)).isZero();
+		assertThat(limiter.tryAcquire("client", 1, 1, 0)).isPositive();
+		assertThat(limiter.tryAcquire("client", 1, 2, 0)).isZero();
+		assertThat(limiter.size()).isEqualTo(1);
+
+		assertThat(limiter.evictIdle(10 * SECOND, SECOND)).isEqualTo(1);
+		assertThat(limiter.size()).isZero();
+	}
+
+	@Test
+	void limiterStopsCreatingBucketsAtCapacity() {
+		RateLimiter limiter = new RateLimiter(4, 1);
+		limiter.tryAcquire("a", 1, 1, 0);
+
+		assertThat(limiter.tryAcquire("b", 1, 1, 0)).isZero();
+		assertThat(limiter.tryAcquire("b", 1, 1, 0)).isZero();
+		assertThat(limiter.size()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,83 @@
+package com.zhouzhou.authforge.ratelimit;
+
+import com.zhouzhou.authforge.config.RateLimitConfig;
+import com.zhouzhou.authforge.repository.OAuthClientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenEndpointRateLimiterTest {
+
+	private RateLimitConfig config;
+	private OAuthClientRepository clientRepository;
+	private TokenEndpointRateLimiter rateLimiter;
+
+	@BeforeEach
+	void setUp() {
+		config = new RateLimitConfig();
+		config.setIp(new RateLimitConfig.Limit(1, 10));
+		config.setClient(new RateLimitConfig.Limit(1, 2));
+		clientRepository = mock(OAuthClientRepository.class);
+		rateLimiter = new TokenEndpointRateLimiter(config, clientRepository, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void rejectsClientOnceBurstIsSpent() {
+		assertThat(rateLimiter.tryAcquire("client", "10.0.0.1", 0)).isZero();
+		assertThat(rateLimiter.tryAcquire("client", "10.0.0.1", 0)).isZero();
+
+		assertThat(rateLimiter.tryAcquire("client", "10.0.0.1", 0)).isPositive();
+	}
+
+	@Test
+	void spoofedClientIdFromAnotherAddressDoesNotDrainClientBucket() {
+		for (int i = 0; i < 5; i++) {
+			rateLimiter.tryAcquire("client", "10.0.0.66", 0);
+		}
+		assertThat(rateLimiter.tryAcquire("client", "10.0.0.66", 0)).isPositive();
+
+		assertThat(rateLimiter.tryAcquire("client", "10.0.0.1", 0)).isZero();
+	}
+
+	@Test
+	void addressLimitAppliesAcrossClientIds() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(rateLimiter.tryAcquire("client-" + i, "10.0.0.1", 0)).isZero();
+		}
+
+		assertThat(rateLimiter.tryAcquire("client-10", "10.0.0.1", 0)).isPositive();
+		assertThat(rateLimiter.tryAcquire(null, "10.0.0.1", 0)).isPositive();
+		assertThat(rateLimiter.tryAcquire("client-10", "10.0.0.2", 0)).isZero();
+	}
+
+	@Test
+	void requestWithoutClientIdIsLimitedByAddressOnly() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(rateLimiter.tryAcquire(null, "10.0.0.1", 0)).isZero();
+		}
+
+		assertThat(rateLimiter.tryAcquire(null, "10.0.0.1", 0)).isPositive();
+	}
+
+	@Test
+	void usesClientLimitLoadedFromDatabase() {
+		OAuthClientRepository.ClientRateLimit row = mock(OAuthClientRepository.ClientRateLimit.class);
+		when(row.getClientId()).thenReturn("bulk-client");
+		when(row.getRateLimitPerSecond()).thenReturn(5);
+		when(row.getRateLimitBurst()).thenReturn(5);
+		when(clientRepository.findClientRateLimits()).thenReturn(List.of(row));
+
+		rateLimiter.refreshClientLimits();
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(rateLimiter.tryAcquire("bulk-client", "10.0.0.1", 0)).isZero();
+		}
+		assertThat(rateLimiter.tryAcquire("bulk-client", "10.0.0.1", 0)).isPositive();
+	}
+}
@@ -0,0 +1,50 @@
+package com.zhouzhou.authforge.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PkceVerifierTest {
+
+	// RFC 7636 附录 B
+	private static final String CODE_VERIFIER = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+	private static final String CODE_CHALLENGE = "E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM";
+
+	private final PkceVerifier verifier = new PkceVerifier();
+
+	@Test
+	void matchesRfcExample() {
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_CHALLENGE, PkceVerifier.METHOD_S256)).isTrue();
+	}
+
+	@Test
+	void rejectsWrongVerifier() {
+		String other = CODE_VERIFIER.substring(0, CODE_VERIFIER.length() - 1) + "Y";
+
+		assertThat(verifier.matches(other, CODE_CHALLENGE, PkceVerifier.METHOD_S256)).isFalse();
+	}
+
+	@Test
+	void rejectsMalformedChallenge() {
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_CHALLENGE + "A", PkceVerifier.METHOD_S256)).isFalse();
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_CHALLENGE.replace('-', '+'), PkceVerifier.METHOD_S256)).isFalse();
+		// 末尾非零填充位
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_CHALLENGE.substring(0, 42) + "N", PkceVerifier.METHOD_S256)).isFalse();
+	}
+
+	@Test
+	void rejectsInvalidVerifierFormat() {
+		assertThat(verifier.isValidVerifier("short")).isFalse();
+		assertThat(verifier.isValidVerifier(CODE_VERIFIER.replace('-', '+'))).isFalse();
+		assertThat(verifier.isValidVerifier(CODE_VERIFIER.replace('-', 'é'))).isFalse();
+		assertThat(verifier.isValidVerifier("a".repeat(129))).isFalse();
+		assertThat(verifier.isValidVerifier(CODE_VERIFIER)).isTrue();
+	}
+
+	@Test
+	void plainMethodComparesVerbatim() {
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_VERIFIER, PkceVerifier.METHOD_PLAIN)).isTrue();
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_CHALLENGE, PkceVerifier.METHOD_PLAIN)).isFalse();
+		assertThat(verifier.matches(CODE_VERIFIER, CODE_VERIFIER, "S512")).isFalse();
+	}
+}
@@ -0,0 +1,47 @@
+package com.zhouzhou.authforge.security;
+
+import com.zhouzhou.authforge.config.RandomSourceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RandomSourceTest {
+
+	private final RandomSource randomSource = new RandomSource(new RandomSourceConfig());
+
+	@Test
+	void uuidHasRandomVersionAndVariant() {
+		Set<String> seen = new HashSet<>();
+		for (int i = 0; i < 1_000; i++) {
+			String value = randomSource.nextUuid();
+			UUID uuid = UUID.fromString(value);
+
+			assertThat(uuid.toString()).isEqualTo(value);
+			assertThat(uuid.version()).isEqualTo(4);
+			assertThat(uuid.variant()).isEqualTo(2);
+			assertThat(seen.add(value)).isTrue();
+		}
+	}
+
+	@Test
+	void base64DecodesToRequestedLength() {
+		// 大于预取缓冲区的请求直接从 DRBG 读取
+		assertThat(Base64.getDecoder().decode(randomSource.nextBase64(32))).hasSize(32);
+		assertThat(Base64.getDecoder().decode(randomSource.nextBase64(4096))).hasSize(4096);
+	}
+
+	@Test
+	void nextIntStaysWithinBound() {
+		int[] counts = new int[24];
+		for (int i = 0; i < 24_000; i++) {
+			counts[randomSource.nextInt(24)]++;
+		}
+
+		assertThat(counts).doesNotContain(0);
+	}
+}
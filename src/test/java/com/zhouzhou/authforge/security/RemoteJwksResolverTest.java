@@ -0,0 +1,301 @@
+package com.zhouzhou.authforge.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.sun.net.httpserver.HttpServer;
+import com.zhouzhou.authforge.config.BackgroundExecutorFactory;
+import com.zhouzhou.authforge.config.ClientAssertionConfig;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RemoteJwksResolverTest {
+
+	private static final String CLIENT_ID = "client";
+
+	private HttpServer server;
+	private String jwksUri;
+	private final AtomicInteger fetches = new AtomicInteger();
+	private volatile String body;
+	private volatile int status = 200;
+	private volatile long delayMillis;
+
+	private final ClientAssertionConfig config = new ClientAssertionConfig();
+	private RemoteJwksResolver resolver;
+
+	private RSAKey key1;
+	private RSAKey key2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		key1 = new RSAKeyGenerator(2048).keyID("k1").generate();
+		key2 = new RSAKeyGenerator(2048).keyID("k2").generate();
+		body = jwks(key1);
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/jwks", exchange -> {
+			fetches.incrementAndGet();
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] response = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, response.length);
+			exchange.getResponseBody().write(response);
+			exchange.close();
+		});
+		server.createContext("/redirect", exchange -> {
+			exchange.getResponseHeaders().add("Location", jwksUri);
+			exchange.sendResponseHeaders(302, -1);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		jwksUri = "http://127.0.0.1:" + server.getAddress().getPort() + "/jwks";
+
+		// 测试服务器只监听本地回环地址
+		config.getJwks().setAllowHttp(true);
+		config.getJwks().setAllowPrivateAddresses(true);
+
+		resolver = new RemoteJwksResolver(config, new BackgroundExecutorFactory(new MockEnvironment()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		resolver.destroy();
+		server.stop(0);
+	}
+
+	@Test
+	void fetchesOnFirstUseAndServesFromCache() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			assertVerifies(resolver.getVerifier(CLIENT_ID, jwksUri, header("k1")), key1);
+		}
+
+		assertThat(fetches.get()).isEqualTo(1);
+	}
+
+	@Test
+	void unknownKidTriggersRefetch() throws Exception {
+		config.getJwks().setMinRefetchInterval(Duration.ZERO);
+		resolver.getVerifier(CLIENT_ID, jwksUri, header("k1"));
+
+		body = jwks(key1, key2);
+
+		assertVerifies(resolver.getVerifier(CLIENT_ID, jwksUri, header("k2")), key2);
+		assertThat(fetches.get()).isEqualTo(2);
+	}
+
+	@Test
+	void unknownKidIsNegativelyCached() {
+		config.getJwks().setMinRefetchInterval(Duration.ofHours(1));
+		resolver.getVerifier(CLIENT_ID, jwksUri, header("k1"));
+
+		for (int i = 0; i < 5; i++) {
+			assertThatThrownBy(() -> resolver.getVerifier(CLIENT_ID, jwksUri, header("unknown")))
+					.isInstanceOf(OAuth2AuthenticationException.class);
+		}
+
+		assertThat(fetches.get()).isEqualTo(1);
+	}
+
+	@Test
+	void fallsBackToLastGoodKeySetWhenRefetchFails() throws Exception {
+		config.getJwks().setTtl(Duration.ZERO);
+		config.getJwks().setMinRefetchInterval(Duration.ZERO);
+		resolver.getVerifier(CLIENT_ID, jwksUri, header("k1"));
+
+		status = 500;
+		body = "{}";
+
+		assertVerifies(resolver.getVerifier(CLIENT_ID, jwksUri, header("k1")), key1);
+		assertThat(fetches.get()).isEqualTo(2);
+	}
+
+	@Test
+	void refreshAheadDoesNotBlockVerification() throws Exception {
+		config.getJwks().setTtl(Duration.ofHours(1));
+		config.getJwks().setRefreshAhead(Duration.ofHours(2));
+		config.getJwks().setMinRefetchInterval(Duration.ZERO);
+		resolver.getVerifier(CLIENT_ID, jwksUri, header("k1"));
+
+		delayMillis = 1_000;
+		long start = System.nanoTime();
+		assertVerifies(resolver.getVerifier(CLIENT_ID, jwksUri, header("k1")), key1);
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertThat(elapsedMillis).isLessThan(500);
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (fetches.get() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(fetches.get()).isEqualTo(2);
+	}
+
+	@Test
+	void concurrentUnknownKidRefetchesAreCoalesced() throws Exception {
+		config.getJwks().setMinRefetchInterval(Duration.ofMillis(200));
+		resolver.getVerifier(CLIENT_ID, jwksUri, header("k1"));
+		Thread.sleep(300);
+
+		body = jwks(key1, key2);
+		delayMillis = 300;
+
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<JWSVerifier>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return resolver.getVerifier(CLIENT_ID, jwksUri, header("k2"));
+				}));
+			}
+			start.countDown();
+			for (Future<JWSVerifier> future : futures) {
+				assertVerifies(future.get(10, TimeUnit.SECONDS), key2);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(fetches.get()).isEqualTo(2);
+	}
+
+	@Test
+	void doesNotFollowRedirects() {
+		String redirectUri = jwksUri.replace("/jwks", "/redirect");
+
+		assertThatThrownBy(() -> resolver.getVerifier(CLIENT_ID, redirectUri, header("k1")))
+				.isInstanceOf(OAuth2AuthenticationException.class);
+		assertThat(fetches.get()).isZero();
+	}
+
+	@Test
+	void rejectsLoopbackTargetWithoutFetching() {
+		config.getJwks().setAllowPrivateAddresses(false);
+
+		assertThatThrownBy(() -> resolver.getVerifier(CLIENT_ID, jwksUri, header("k1")))
+				.isInstanceOf(OAuth2AuthenticationException.class);
+		assertThat(fetches.get()).isZero();
+	}
+
+	@Test
+	void rejectsHttpTargetWithoutFetching() {
+		config.getJwks().setAllowHttp(false);
+
+		assertThatThrownBy(() -> resolver.getVerifier(CLIENT_ID, jwksUri, header("k1")))
+				.isInstanceOf(OAuth2AuthenticationException.class);
+		assertThat(fetches.get()).isZero();
+	}
+
+	@Test
+	void checkTargetRejectsNonHttpsSchemes() {
+		ClientAssertionConfig.Jwks jwks = new ClientAssertionConfig().getJwks();
+
+		assertRejected("http://example.com/jwks", jwks, "https");
+		assertRejected("file:///etc/passwd", jwks, "https");
+		assertRejected("ftp://example.com/jwks", jwks, "https");
+	}
+
+	@Test
+	void checkTargetRejectsLoopbackAddresses() {
+		ClientAssertionConfig.Jwks jwks = new ClientAssertionConfig().getJwks();
+
+		assertRejected("https://127.0.0.1/jwks", jwks, "non-public");
+		assertRejected("https://127.1.2.3/jwks", jwks, "non-public");
+		assertRejected("https://[::1]/jwks", jwks, "non-public");
+		assertRejected("https://localhost/jwks", jwks, "non-public");
+	}
+
+	@Test
+	void checkTargetRejectsPrivateAddresses() {
+		ClientAssertionConfig.Jwks jwks = new ClientAssertionConfig().getJwks();
+
+		assertRejected("https://10.0.0.1/jwks", jwks, "non-public");
+		assertRejected("https://172.16.5.4/jwks", jwks, "non-public");
+		assertRejected("https://192.168.1.1/jwks", jwks, "non-public");
+		assertRejected("https://100.100.100.200/jwks", jwks, "non-public");
+		assertRejected("https://[fd00:ec2::254]/jwks", jwks, "non-public");
+	}
+
+	@Test
+	void checkTargetRejectsLinkLocalAndMetadataAddresses() {
+		ClientAssertionConfig.Jwks jwks = new ClientAssertionConfig().getJwks();
+
+		assertRejected("https://169.254.169.254/latest/meta-data/", jwks, "non-public");
+		assertRejected("https://[fe80::1]/jwks", jwks, "non-public");
+		assertRejected("https://[::ffff:169.254.169.254]/jwks", jwks, "non-public");
+	}
+
+	@Test
+	void checkTargetRejectsUnspecifiedAndMulticastAddresses() {
+		ClientAssertionConfig.Jwks jwks = new ClientAssertionConfig().getJwks();
+
+		assertRejected("https://0.0.0.0/jwks", jwks, "non-public");
+		assertRejected("https://[::]/jwks", jwks, "non-public");
+		assertRejected("https://224.0.0.1/jwks", jwks, "non-public");
+	}
+
+	@Test
+	void checkTargetAcceptsPublicHttpsAddress() throws Exception {
+		ClientAssertionConfig.Jwks jwks = new ClientAssertionConfig().getJwks();
+
+		assertThat(RemoteJwksResolver.checkTarget("https://93.184.216.34/jwks", jwks))
+				.hasToString("https://93.184.216.34/jwks");
+	}
+
+	private static void assertRejected(String uri, ClientAssertionConfig.Jwks jwks, String reason) {
+		assertThatThrownBy(() -> RemoteJwksResolver.checkTarget(uri, jwks))
+				.as(uri)
+				.isInstanceOf(IOException.class)
+				.hasMessageContaining(reason);
+	}
+
+	private static JWSHeader header(String kid) {
+		return new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(kid).build();
+	}
+
+	private static String jwks(RSAKey... keys) {
+		List<JWK> publicKeys = new ArrayList<>();
+		for (RSAKey key : keys) {
+			publicKeys.add(key.toPublicJWK());
+		}
+		return new JWKSet(publicKeys).toString();
+	}
+
+	private static void assertVerifies(JWSVerifier verifier, RSAKey key) throws Exception {
+		JWSObject jws = new JWSObject(header(key.getKeyID()), new Payload("payload"));
+		jws.sign(new RSASSASigner(key));
+		assertThat(jws.verify(verifier)).isTrue();
+	}
+}
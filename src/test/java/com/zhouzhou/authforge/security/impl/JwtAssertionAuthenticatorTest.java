@@ -0,0 +1,112 @@
+package com.zhouzhou.authforge.security.impl;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.zhouzhou.authforge.config.ClientAssertionConfig;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import com.zhouzhou.authforge.exception.OAuth2AuthenticationException;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.repository.OAuthClientRepository;
+import com.zhouzhou.authforge.security.ClientAssertionKeyCache;
+import com.zhouzhou.authforge.security.ClientAuthenticationToken;
+import com.zhouzhou.authforge.security.JtiReplayCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAssertionAuthenticatorTest {
+
+	private static final String ISSUER = "https://auth.example.com";
+	private static final String TOKEN_ENDPOINT = "https://auth.example.com/oauth2/token";
+	private static final String CLIENT_ID = "backend";
+	private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes();
+
+	private final OAuthClient client = new OAuthClient();
+	private JwtAssertionAuthenticator authenticator;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		client.setClientId(CLIENT_ID);
+		client.setClientAuthenticationMethods("client_secret_jwt");
+		ClientAssertionConfig config = new ClientAssertionConfig();
+		ClientAssertionKeyCache keyCache = mock(ClientAssertionKeyCache.class);
+		when(keyCache.getVerifier(any(), any())).thenReturn(new MACVerifier(SECRET));
+		authenticator = new JwtAssertionAuthenticator(mock(OAuthClientRepository.class), keyCache,
+				new JtiReplayCache(config), config, ISSUER, TOKEN_ENDPOINT);
+	}
+
+	@Test
+	void acceptsIssuerAsAudience() throws Exception {
+		assertThatCode(() -> validate(assertion(ISSUER))).doesNotThrowAnyException();
+	}
+
+	@Test
+	void acceptsTokenEndpointAsAudience() throws Exception {
+		assertThatCode(() -> validate(assertion("https://other.example.com", TOKEN_ENDPOINT))).doesNotThrowAnyException();
+	}
+
+	@Test
+	void rejectsClientIdAsAudience() throws Exception {
+		String assertion = assertion(CLIENT_ID);
+
+		assertThatThrownBy(() -> validate(assertion))
+				.isInstanceOf(OAuth2AuthenticationException.class)
+				.hasMessageContaining("Invalid audience");
+	}
+
+	@Test
+	void rejectsAssertionForAnotherServer() throws Exception {
+		String assertion = assertion("https://other.example.com/oauth2/token");
+
+		assertThatThrownBy(() -> validate(assertion))
+				.isInstanceOf(OAuth2AuthenticationException.class)
+				.hasMessageContaining("Invalid audience");
+	}
+
+	@Test
+	void rejectsReplayOnSameNode() throws Exception {
+		String assertion = assertion(ISSUER);
+		validate(assertion);
+
+		assertThatThrownBy(() -> validate(assertion))
+				.isInstanceOf(OAuth2AuthenticationException.class)
+				.hasMessageContaining("already been used");
+	}
+
+	private void validate(String assertion) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+		request.addParameter("client_assertion_type", "urn:ietf:params:oauth:client-assertion-type:jwt-bearer");
+		request.addParameter("client_assertion", assertion);
+		ClientAuthenticationToken token = authenticator.tryExtractCredentials(TokenRequestContext.from(request));
+		authenticator.validateCredentials(token, client);
+	}
+
+	private static String assertion(String... audience) throws Exception {
+		Instant now = Instant.now();
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), new JWTClaimsSet.Builder()
+				.issuer(CLIENT_ID)
+				.subject(CLIENT_ID)
+				.audience(List.of(audience))
+				.jwtID(UUID.randomUUID().toString())
+				.issueTime(Date.from(now))
+				.expirationTime(Date.from(now.plusSeconds(60)))
+				.build());
+		jwt.sign(new MACSigner(SECRET));
+		return jwt.serialize();
+	}
+}
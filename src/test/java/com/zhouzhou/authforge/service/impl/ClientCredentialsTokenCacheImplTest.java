@@ -0,0 +1,94 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.TokenProperties;
+import com.zhouzhou.authforge.event.TokenRevokedEvent;
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
+import com.zhouzhou.authforge.service.TokenGenerator;
+import com.zhouzhou.authforge.service.TokenGrantSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClientCredentialsTokenCacheImplTest {
+
+	private final OAuthAccessTokenRepository repository = mock(OAuthAccessTokenRepository.class);
+	private final AtomicLong ids = new AtomicLong();
+	private final OAuthClient client = new OAuthClient();
+
+	private ClientCredentialsTokenCacheImpl cache;
+
+	@BeforeEach
+	void setUp() {
+		client.setClientId("service");
+		client.setAccessTokenValiditySeconds(3600);
+		client.setTokenReuseMinRemainingPercent(50);
+		when(repository.findReusableClientCredentialsTokens(anyString(), anyString(), any(), any(), any()))
+				.thenReturn(List.of());
+		cache = new ClientCredentialsTokenCacheImpl(
+				repository, new TokenProperties(), new TokenGrantSupport(mock(TokenGenerator.class)));
+	}
+
+	@Test
+	void returnsCachedTokenWithoutQueryingDatabase() {
+		OAuthAccessToken first = cache.getOrIssue(client, "read", this::issue);
+		OAuthAccessToken second = cache.getOrIssue(client, "read", this::issue);
+
+		assertThat(second).isSameAs(first);
+		verify(repository, times(1)).findReusableClientCredentialsTokens(anyString(), anyString(), any(), any(), any());
+	}
+
+	@Test
+	void reissuesAfterCachedTokenIsRevoked() {
+		OAuthAccessToken first = cache.getOrIssue(client, "read", this::issue);
+
+		cache.onTokenRevoked(new TokenRevokedEvent(List.of(first.getId()), List.of(first.getAccessToken())));
+		OAuthAccessToken second = cache.getOrIssue(client, "read", this::issue);
+
+		assertThat(second.getId()).isNotEqualTo(first.getId());
+	}
+
+	@Test
+	void keepsCachedTokenWhenOtherTokensAreRevoked() {
+		OAuthAccessToken first = cache.getOrIssue(client, "read", this::issue);
+
+		cache.onTokenRevoked(new TokenRevokedEvent(List.of(-1L), List.of("other-token")));
+
+		assertThat(cache.getOrIssue(client, "read", this::issue)).isSameAs(first);
+	}
+
+	@Test
+	void usesConfiguredMaxEntries() {
+		TokenProperties properties = new TokenProperties();
+		properties.getClientCredentialsCache().setMaxEntries(0);
+		cache = new ClientCredentialsTokenCacheImpl(repository, properties, new TokenGrantSupport(mock(TokenGenerator.class)));
+
+		OAuthAccessToken first = cache.getOrIssue(client, "read", this::issue);
+		OAuthAccessToken second = cache.getOrIssue(client, "read", this::issue);
+
+		assertThat(second.getId()).isNotEqualTo(first.getId());
+	}
+
+	private OAuthAccessToken issue() {
+		return OAuthAccessToken.builder()
+				.id(ids.incrementAndGet())
+				.clientId("service")
+				.accessToken("token-" + ids.get())
+				.scopes("read")
+				.status(OAuthAccessToken.TokenStatus.ACTIVE)
+				.accessTokenExpiresAt(LocalDateTime.now().plusHours(1))
+				.build();
+	}
+}
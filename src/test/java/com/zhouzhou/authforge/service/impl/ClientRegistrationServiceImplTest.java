@@ -0,0 +1,76 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.dto.ClientRegistrationRequest;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.repository.OAuthClientRepository;
+import com.zhouzhou.authforge.security.RandomSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClientRegistrationServiceImplTest {
+
+	private final OAuthClientRepository clientRepository = mock(OAuthClientRepository.class);
+	private final RandomSource randomSource = mock(RandomSource.class);
+
+	private ClientRegistrationServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		when(randomSource.nextBase64(anyInt())).thenReturn("random");
+		service = new ClientRegistrationServiceImpl(clientRepository, mock(PasswordEncoder.class), randomSource);
+	}
+
+	@Test
+	void acceptsHttpsJwksUri() {
+		ClientRegistrationRequest request = request("https://client.example.com/jwks");
+
+		assertThat(service.registerClient(request, null).getJwksUri()).isEqualTo("https://client.example.com/jwks");
+		verify(clientRepository).save(any(OAuthClient.class));
+	}
+
+	@Test
+	void rejectsHttpJwksUri() {
+		assertRejected("http://client.example.com/jwks");
+	}
+
+	@Test
+	void rejectsNonHttpJwksUriSchemes() {
+		assertRejected("file:///etc/passwd");
+		assertRejected("gopher://client.example.com/jwks");
+	}
+
+	@Test
+	void rejectsRelativeOrMalformedJwksUri() {
+		assertRejected("/jwks");
+		assertRejected("https:///jwks");
+		assertRejected("https://client example.com/jwks");
+	}
+
+	private void assertRejected(String jwksUri) {
+		assertThatThrownBy(() -> service.registerClient(request(jwksUri), null))
+				.as(jwksUri)
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("jwks_uri");
+		verify(clientRepository, never()).save(any(OAuthClient.class));
+	}
+
+	private static ClientRegistrationRequest request(String jwksUri) {
+		ClientRegistrationRequest request = new ClientRegistrationRequest();
+		request.setRedirectUris(List.of("https://client.example.com/callback"));
+		request.setTokenEndpointAuthMethod("private_key_jwt");
+		request.setJwksUri(jwksUri);
+		return request;
+	}
+}
@@ -0,0 +1,94 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.ExpiryReaperConfig;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationEventRepository;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationRepository;
+import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
+import com.zhouzhou.authforge.repository.OAuthAuthorizationRepository;
+import com.zhouzhou.authforge.service.PartitionMaintenanceService;
+import com.zhouzhou.authforge.service.SchedulerLeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExpiryReaperServiceImplTest {
+
+	private final OAuthAccessTokenRepository accessTokenRepository = mock(OAuthAccessTokenRepository.class);
+	private final OAuthAuthorizationRepository authorizationRepository = mock(OAuthAuthorizationRepository.class);
+	private final DeviceAuthorizationRepository deviceAuthorizationRepository = mock(DeviceAuthorizationRepository.class);
+	private final DeviceAuthorizationEventRepository eventRepository = mock(DeviceAuthorizationEventRepository.class);
+	private final SchedulerLeaseService leaseService = mock(SchedulerLeaseService.class);
+	private final ExpiryReaperConfig config = new ExpiryReaperConfig();
+
+	private ExpiryReaperServiceImpl reaper;
+
+	@BeforeEach
+	void setUp() {
+		config.setChunkSize(10);
+		config.setMaxRowsPerSecond(1);
+		when(leaseService.tryAcquire(eq("expiry-reaper"), any())).thenReturn(true);
+		// 每批都返回满批，只有限速或租约能让循环结束
+		List<Long> fullChunk = LongStream.rangeClosed(1, 10).boxed().toList();
+		when(accessTokenRepository.findExpiredIds(any(LocalDateTime.class), anyLong(), any())).thenReturn(fullChunk);
+		when(accessTokenRepository.deleteByIdIn(any())).thenReturn(10);
+		reaper = new ExpiryReaperServiceImpl(accessTokenRepository, authorizationRepository,
+				deviceAuthorizationRepository, eventRepository, leaseService,
+				mock(PartitionMaintenanceService.class), config, new SimpleMeterRegistry(),
+				mock(PlatformTransactionManager.class));
+	}
+
+	@AfterEach
+	void tearDown() {
+		// 清除中断标记，避免影响同一线程上的其他测试
+		Thread.interrupted();
+	}
+
+	@Test
+	void abortsRunWhenInterrupted() {
+		// 第一批删除期间收到中断，随后的限速休眠立即抛出 InterruptedException
+		when(accessTokenRepository.deleteByIdIn(any())).thenAnswer(invocation -> {
+			Thread.currentThread().interrupt();
+			return 10;
+		});
+
+		long deleted = reaper.reapExpired();
+
+		assertThat(deleted).isEqualTo(10L);
+		verify(accessTokenRepository, times(1)).deleteByIdIn(any());
+		verify(authorizationRepository, never()).findExpiredIds(any(), anyLong(), any());
+		verify(leaseService).release("expiry-reaper");
+	}
+
+	@Test
+	void releasesLeaseAfterRun() {
+		config.setMaxChunksPerRun(2);
+		config.setMaxRowsPerSecond(0);
+
+		assertThat(reaper.reapExpired()).isEqualTo(20L);
+		verify(leaseService).release("expiry-reaper");
+	}
+
+	@Test
+	void keepsLeaseWhenNotAcquired() {
+		when(leaseService.tryAcquire(eq("expiry-reaper"), any())).thenReturn(false);
+
+		assertThat(reaper.reapExpired()).isZero();
+		verify(leaseService, never()).release(any());
+	}
+}
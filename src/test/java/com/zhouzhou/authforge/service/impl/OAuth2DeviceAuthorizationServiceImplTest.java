@@ -0,0 +1,118 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.DeviceBatchConfig;
+import com.zhouzhou.authforge.config.RandomSourceConfig;
+import com.zhouzhou.authforge.dto.DeviceAuthorizationRequest;
+import com.zhouzhou.authforge.dto.DeviceAuthorizationResponse;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationRepository;
+import com.zhouzhou.authforge.security.RandomSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OAuth2DeviceAuthorizationServiceImplTest {
+
+	private final DeviceAuthorizationRepository repository = mock(DeviceAuthorizationRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final DeviceBatchConfig batchConfig = new DeviceBatchConfig();
+	private final List<List<DeviceAuthorizationResponse>> chunks = new ArrayList<>();
+
+	private OAuth2DeviceAuthorizationServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		batchConfig.setChunkSize(500);
+		when(repository.findExistingDeviceCodes(anyCollection())).thenReturn(List.of());
+		when(repository.findExistingUserCodes(anyCollection())).thenReturn(List.of());
+		service = new OAuth2DeviceAuthorizationServiceImpl(null, repository,
+				new RandomSource(new RandomSourceConfig()), null, null, null,
+				jdbcTemplate, mock(PlatformTransactionManager.class), batchConfig);
+		ReflectionTestUtils.setField(service, "verificationUri", "https://example.com/device");
+		ReflectionTestUtils.setField(service, "expiresIn", 1800);
+		ReflectionTestUtils.setField(service, "defaultInterval", 5);
+	}
+
+	@Test
+	void issuesRequestedCountInChunks() {
+		service.authorizeDevices(request(), 1200, chunks::add);
+
+		assertThat(chunks).extracting(List::size).containsExactly(500, 500, 200);
+		List<DeviceAuthorizationResponse> issued = chunks.stream().flatMap(List::stream).toList();
+		assertThat(issued).extracting(DeviceAuthorizationResponse::getDeviceCode).doesNotHaveDuplicates();
+		assertThat(issued).extracting(DeviceAuthorizationResponse::getUserCode).doesNotHaveDuplicates();
+		assertThat(issued.get(0).getVerificationUri()).isEqualTo("https://example.com/device");
+		verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+	}
+
+	@Test
+	void regeneratesCodesThatAlreadyExist() {
+		AtomicReference<String> taken = new AtomicReference<>();
+		when(repository.findExistingUserCodes(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> userCodes = invocation.getArgument(0);
+			if (taken.get() == null) {
+				taken.set(userCodes.iterator().next());
+				return List.of(taken.get());
+			}
+			return List.of();
+		});
+
+		service.authorizeDevices(request(), 10, chunks::add);
+
+		assertThat(chunks).hasSize(1);
+		assertThat(chunks.get(0)).hasSize(10)
+				.extracting(DeviceAuthorizationResponse::getUserCode)
+				.doesNotContain(taken.get())
+				.doesNotHaveDuplicates();
+		verify(repository, times(2)).findExistingUserCodes(anyCollection());
+	}
+
+	@Test
+	void regeneratesChunkOnDuplicateKey() {
+		List<String> attempted = new ArrayList<>();
+		when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> {
+					attempted.add(String.valueOf(invocation.getArgument(1, Collection.class)));
+					if (attempted.size() == 1) {
+						throw new DuplicateKeyException("uk_user_code");
+					}
+					return new int[0][];
+				});
+
+		service.authorizeDevices(request(), 3, chunks::add);
+
+		assertThat(attempted).hasSize(2);
+		assertThat(new HashSet<>(attempted)).hasSize(2);
+		assertThat(chunks).hasSize(1);
+		assertThat(chunks.get(0)).hasSize(3);
+	}
+
+	private static DeviceAuthorizationRequest request() {
+		OAuthClient client = new OAuthClient();
+		client.setClientId("factory");
+		return DeviceAuthorizationRequest.builder()
+				.clientId("factory")
+				.authenticatedClient(client)
+				.build();
+	}
+}
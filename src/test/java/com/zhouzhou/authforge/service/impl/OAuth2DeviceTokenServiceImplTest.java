@@ -0,0 +1,101 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.device.DevicePollingTracker;
+import com.zhouzhou.authforge.dto.DeviceTokenRequest;
+import com.zhouzhou.authforge.dto.DeviceTokenResponse;
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import com.zhouzhou.authforge.exception.OAuth2ErrorLogger;
+import com.zhouzhou.authforge.model.DeviceAuthorizationEntity;
+import com.zhouzhou.authforge.model.DeviceAuthorizationStatus;
+import com.zhouzhou.authforge.model.OAuthAccessToken;
+import com.zhouzhou.authforge.model.OAuthClient;
+import com.zhouzhou.authforge.repository.DeviceAuthorizationRepository;
+import com.zhouzhou.authforge.repository.OAuthAccessTokenRepository;
+import com.zhouzhou.authforge.security.ClientAuthenticatorChain;
+import com.zhouzhou.authforge.service.TokenGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OAuth2DeviceTokenServiceImplTest {
+
+	private static final String DEVICE_CODE = "DEVICE-CODE";
+
+	private final DeviceAuthorizationRepository deviceRepository = mock(DeviceAuthorizationRepository.class);
+	private final ClientAuthenticatorChain authenticatorChain = mock(ClientAuthenticatorChain.class);
+	private final OAuthAccessTokenRepository accessTokenRepository = mock(OAuthAccessTokenRepository.class);
+	private final TokenGenerator tokenGenerator = mock(TokenGenerator.class);
+
+	private OAuth2DeviceTokenServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		OAuthClient client = new OAuthClient();
+		client.setClientId("tv");
+		client.setScopes("read");
+		client.setAccessTokenValiditySeconds(3600);
+		when(authenticatorChain.authenticate((TokenRequestContext) any()))
+				.thenReturn(client);
+
+		DeviceAuthorizationEntity deviceAuth = new DeviceAuthorizationEntity();
+		deviceAuth.setId(1L);
+		deviceAuth.setDeviceCode(DEVICE_CODE);
+		deviceAuth.setClientId("tv");
+		deviceAuth.setScope("read");
+		deviceAuth.setStatus(DeviceAuthorizationStatus.APPROVED);
+		deviceAuth.setInterval(5);
+		deviceAuth.setExpiresAt(Instant.now().plusSeconds(600));
+		when(deviceRepository.findByDeviceCode(DEVICE_CODE)).thenReturn(Optional.of(deviceAuth));
+		when(tokenGenerator.generateAccessToken(anyString(), anyString(), any())).thenReturn("token");
+
+		service = new OAuth2DeviceTokenServiceImpl(deviceRepository, authenticatorChain, accessTokenRepository,
+				tokenGenerator, mock(OAuth2ErrorLogger.class), new DevicePollingTracker(5, new SimpleMeterRegistry()));
+	}
+
+	@Test
+	void redeemsApprovedDeviceCode() {
+		when(deviceRepository.markCompletedIfApproved(eq(1L), eq("token"), any(), any())).thenReturn(1);
+
+		ResponseEntity<DeviceTokenResponse> response = service.getDeviceToken(request());
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().getAccessToken()).isEqualTo("token");
+		verify(accessTokenRepository).save(any(OAuthAccessToken.class));
+	}
+
+	@Test
+	void concurrentRedemptionIsRejectedWithoutIssuingToken() {
+		// 另一个请求已把记录改为 COMPLETED，条件更新没有命中
+		when(deviceRepository.markCompletedIfApproved(eq(1L), anyString(), any(), any())).thenReturn(0);
+
+		ResponseEntity<DeviceTokenResponse> response = service.getDeviceToken(request());
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		assertThat(response.getBody().getError()).isEqualTo("invalid_grant");
+		verify(accessTokenRepository, never()).save(any(OAuthAccessToken.class));
+	}
+
+	private static DeviceTokenRequest request() {
+		return DeviceTokenRequest.builder()
+				.request(new MockHttpServletRequest())
+				.deviceCode(DEVICE_CODE)
+				.clientId("tv")
+				.resumed(true)
+				.build();
+	}
+}
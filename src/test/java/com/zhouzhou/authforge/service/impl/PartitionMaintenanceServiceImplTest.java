@@ -0,0 +1,81 @@
+package com.zhouzhou.authforge.service.impl;
+
+import com.zhouzhou.authforge.config.PartitioningConfig;
+import com.zhouzhou.authforge.service.SchedulerLeaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionMaintenanceServiceImplTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final SchedulerLeaseService leaseService = mock(SchedulerLeaseService.class);
+	private final PartitioningConfig config = new PartitioningConfig();
+
+	private PartitionMaintenanceServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		config.setEnabled(true);
+		config.setTables(List.of("oauth_tokens"));
+		when(leaseService.tryAcquire(anyString(), any())).thenReturn(true);
+		service = new PartitionMaintenanceServiceImpl(jdbcTemplate, config, leaseService);
+	}
+
+	@Test
+	void cachesResultAfterFirstSuccessfulCheck() {
+		partitions();
+
+		assertThat(service.isPartitioned("oauth_tokens")).isFalse();
+		assertThat(service.isPartitioned("oauth_tokens")).isFalse();
+
+		verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(String.class), eq("oauth_tokens"));
+	}
+
+	@Test
+	void rechecksAfterFailedQuery() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("oauth_tokens")))
+				.thenThrow(new QueryTimeoutException("timeout"))
+				.thenReturn(List.of("pmax"));
+
+		assertThat(service.isPartitioned("oauth_tokens")).isFalse();
+		assertThat(service.isPartitioned("oauth_tokens")).isTrue();
+		assertThat(service.isPartitioned("oauth_tokens")).isTrue();
+
+		verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(String.class), eq("oauth_tokens"));
+	}
+
+	@Test
+	void maintenanceRefreshesCachedResult() {
+		partitions();
+		assertThat(service.isPartitioned("oauth_tokens")).isFalse();
+
+		partitions("pmax");
+		service.maintainPartitions();
+
+		assertThat(service.isPartitioned("oauth_tokens")).isTrue();
+	}
+
+	@Test
+	void ignoresTablesThatAreNotConfigured() {
+		assertThat(service.isPartitioned("users")).isFalse();
+
+		verify(jdbcTemplate, times(0)).queryForList(anyString(), eq(String.class), anyString());
+	}
+
+	private void partitions(String... names) {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("oauth_tokens"))).thenReturn(List.of(names));
+	}
+}
@@ -0,0 +1,124 @@
+package com.zhouzhou.authforge.validator;
+
+import com.zhouzhou.authforge.dto.TokenRequestContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRequestValidationEngineTest {
+
+	private final TokenRequestValidationEngine engine = new TokenRequestValidationEngine();
+
+	@Test
+	void validAuthorizationCodeRequest() {
+		ValidationResult result = engine.validate(context("authorization_code", "code", "abc", "redirect_uri", "https://app/cb"));
+
+		assertThat(result.isValid()).isTrue();
+		assertThat(result).isSameAs(ValidationResult.VALID);
+	}
+
+	@Test
+	void missingGrantTypeIsInvalidRequest() {
+		ValidationResult result = engine.validate(context(null));
+
+		assertThat(result.getErrorCode()).isEqualTo("invalid_request");
+		assertThat(result.getErrorDescription()).contains("grant_type");
+	}
+
+	@Test
+	void blankGrantTypeIsInvalidRequest() {
+		ValidationResult result = engine.validate(context(""));
+
+		assertThat(result.getErrorCode()).isEqualTo("invalid_request");
+	}
+
+	@Test
+	void unknownGrantTypeIsUnsupported() {
+		ValidationResult result = engine.validate(context("password"));
+
+		assertThat(result.getErrorCode()).isEqualTo("unsupported_grant_type");
+	}
+
+	@Test
+	void missingRefreshTokenIsInvalidRequest() {
+		ValidationResult result = engine.validate(context("refresh_token"));
+
+		assertThat(result.getErrorCode()).isEqualTo("invalid_request");
+		assertThat(result.getErrorDescription()).contains("refresh_token");
+	}
+
+	@Test
+	void errorsStayCorrectUnderConcurrency() throws Exception {
+		List<Case> cases = List.of(
+				new Case(context("authorization_code", "code", "abc", "redirect_uri", "https://app/cb"), null, null),
+				new Case(context("authorization_code", "code", "abc"), "invalid_request", "code and redirect_uri"),
+				new Case(context("refresh_token", "refresh_token", "rt"), null, null),
+				new Case(context("refresh_token"), "invalid_request", "refresh_token is required"),
+				new Case(context("client_credentials"), null, null),
+				new Case(context("password"), "unsupported_grant_type", "Grant type must be one of"),
+				new Case(context(null), "invalid_request", "grant_type is required"));
+
+		int threads = 32;
+		int iterations = 20_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger mismatches = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int offset = t;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < iterations; i++) {
+						Case c = cases.get((i + offset) % cases.size());
+						if (!c.matches(engine.validate(c.context()))) {
+							mismatches.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(mismatches.get()).isZero();
+	}
+
+	private static TokenRequestContext context(String grantType, String... parameters) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+		if (grantType != null) {
+			request.addParameter("grant_type", grantType);
+		}
+		for (int i = 0; i < parameters.length; i += 2) {
+			request.addParameter(parameters[i], parameters[i + 1]);
+		}
+		return TokenRequestContext.from(request);
+	}
+
+	private record Case(TokenRequestContext context, String errorCode, String descriptionPrefix) {
+
+		boolean matches(ValidationResult result) {
+			if (errorCode == null) {
+				return result.isValid();
+			}
+			return errorCode.equals(result.getErrorCode())
+					&& result.getErrorDescription() != null
+					&& result.getErrorDescription().startsWith(descriptionPrefix);
+		}
+	}
+}